@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2013 IBM Corporation and others.
+ * Copyright (c) 2000, 2018 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -15,6 +15,7 @@ import java.net.URLClassLoader;
 import java.util.Arrays;
 import java.util.List;
 
+import org.eclipse.ant.internal.core.AntBuildStatistics;
 import org.eclipse.ant.internal.core.AntClassLoader;
 import org.eclipse.ant.internal.core.AntCoreUtil;
 import org.eclipse.core.runtime.IConfigurationElement;
@@ -50,6 +51,11 @@ public class AntCorePlugin extends Plugin {
 	 */
 	private AntCorePreferences preferences;
 
+	/**
+	 * Whether the preferences are set for running headless.
+	 */
+	private boolean runningHeadless = false;
+
 	/**
 	 * Unique identifier constant (value <code>"org.eclipse.ant.core"</code>) for the Ant Core plug-in.
 	 */
@@ -180,6 +186,7 @@ public class AntCorePlugin extends Plugin {
 	public void stop(BundleContext context) throws Exception {
 		super.stop(context);
 		AntCoreUtil.setBundleContext(null);
+		AntBuildStatistics.shutdown();
 		if (preferences != null) {
 			savePluginPreferences();
 		}
@@ -234,9 +241,21 @@ public class AntCorePlugin extends Plugin {
 	 *            Whether or not to mark that the plug-in is running headless or not
 	 */
 	public void setRunningHeadless(boolean headless) {
+		runningHeadless = headless;
 		preferences = new AntCorePreferences(extractExtensions(PT_TASKS), extractExtensions(PT_EXTRA_CLASSPATH), extractExtensions(PT_TYPES), extractExtensions(PT_PROPERTIES), headless);
 	}
 
+	/**
+	 * Returns whether this plug-in's preferences are set for running headless. This method is public for testing purposes only. It should not be
+	 * called outside of the Ant integration framework.
+	 * 
+	 * @return whether the plug-in is marked as running headless
+	 * @since 3.5.200
+	 */
+	public boolean isRunningHeadless() {
+		return runningHeadless;
+	}
+
 	/**
 	 * Returns this plug-in instance.
 	 * 
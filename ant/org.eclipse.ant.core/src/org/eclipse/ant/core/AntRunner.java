@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2011 IBM Corporation and others.
+ * Copyright (c) 2000, 2018 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -24,6 +24,7 @@ import java.util.StringTokenizer;
 import org.eclipse.ant.internal.core.AntClassLoader;
 import org.eclipse.ant.internal.core.IAntCoreConstants;
 import org.eclipse.ant.internal.core.InternalCoreAntMessages;
+import org.eclipse.ant.internal.core.IsolatedBuildSupport;
 import org.eclipse.core.runtime.CoreException;
 import org.eclipse.core.runtime.IProgressMonitor;
 import org.eclipse.core.runtime.IStatus;
@@ -52,6 +53,7 @@ import org.eclipse.osgi.util.NLS;
 public class AntRunner implements IApplication {
 
 	private static boolean buildRunning = false;
+	private static int isolatedBuildsRunning = 0;
 	protected String buildFileLocation = IAntCoreConstants.DEFAULT_BUILD_FILENAME;
 	protected List<String> buildListeners;
 	protected String[] targets;
@@ -294,7 +296,9 @@ public class AntRunner implements IApplication {
 	 * <code>org.apache.tools.ant.Project.getReferences()</code>). A long- running task could, for example, get the monitor during its execution and
 	 * check for cancellation. The key value to retrieve the progress monitor instance is <code>AntCorePlugin.ECLIPSE_PROGRESS_MONITOR</code>.
 	 * 
-	 * Only one build can occur at any given time.
+	 * Only one build can occur at any given time unless builds are isolated from each other by setting the system property
+	 * <code>eclipse.ant.isolatedBuilds</code> to <code>true</code>. Isolated builds each receive the output written to <code>System.out</code> and
+	 * <code>System.err</code> by their own threads and do not read from <code>System.in</code>.
 	 * 
 	 * Sets the current threads context class loader to the AntClassLoader for the duration of the build.
 	 * 
@@ -304,11 +308,18 @@ public class AntRunner implements IApplication {
 	 *             Thrown if a build is already occurring or if an exception occurs during the build
 	 */
 	public void run(IProgressMonitor monitor) throws CoreException {
-		if (buildRunning) {
-			IStatus status = new Status(IStatus.ERROR, AntCorePlugin.PI_ANTCORE, AntCorePlugin.ERROR_RUNNING_BUILD, NLS.bind(InternalCoreAntMessages.AntRunner_Already_in_progess, new String[] { buildFileLocation }), null);
-			throw new CoreException(status);
+		boolean isolated = IsolatedBuildSupport.isEnabled();
+		synchronized (AntRunner.class) {
+			if (buildRunning || (!isolated && isolatedBuildsRunning > 0)) {
+				IStatus status = new Status(IStatus.ERROR, AntCorePlugin.PI_ANTCORE, AntCorePlugin.ERROR_RUNNING_BUILD, NLS.bind(InternalCoreAntMessages.AntRunner_Already_in_progess, new String[] { buildFileLocation }), null);
+				throw new CoreException(status);
+			}
+			if (isolated) {
+				isolatedBuildsRunning++;
+			} else {
+				buildRunning = true;
+			}
 		}
-		buildRunning = true;
 		Object runner = null;
 		Class<?> classInternalAntRunner = null;
 		ClassLoader originalClassLoader = Thread.currentThread().getContextClassLoader();
@@ -347,6 +358,11 @@ public class AntRunner implements IApplication {
 
 			basicConfigure(classInternalAntRunner, runner);
 
+			if (isolated) {
+				Method setIsolated = classInternalAntRunner.getMethod("setIsolated", new Class<?>[] { boolean.class }); //$NON-NLS-1$
+				setIsolated.invoke(runner, new Object[] { Boolean.TRUE });
+			}
+
 			// add progress monitor
 			if (monitor != null) {
 				progressMonitor = monitor;
@@ -385,7 +401,13 @@ public class AntRunner implements IApplication {
 			throw new CoreException(status);
 		}
 		finally {
-			buildRunning = false;
+			synchronized (AntRunner.class) {
+				if (isolated) {
+					isolatedBuildsRunning--;
+				} else {
+					buildRunning = false;
+				}
+			}
 			Thread.currentThread().setContextClassLoader(originalClassLoader);
 		}
 	}
@@ -577,15 +599,15 @@ public class AntRunner implements IApplication {
 	}
 
 	/**
-	 * Returns whether an Ant build is already in progress
+	 * Returns whether an Ant build is already in progress that prevents another build from being run
 	 * 
-	 * Only one Ant build can occur at any given time.
+	 * Only one Ant build can occur at any given time unless builds are isolated from each other, see {@link #run(IProgressMonitor)}.
 	 * 
 	 * @since 2.1
 	 * @return boolean
 	 */
-	public static boolean isBuildRunning() {
-		return buildRunning;
+	public static synchronized boolean isBuildRunning() {
+		return buildRunning || (isolatedBuildsRunning > 0 && !IsolatedBuildSupport.isEnabled());
 	}
 
 	/**
@@ -0,0 +1,363 @@
+/*******************************************************************************
+ * Copyright (c) 2018 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.ant.internal.core;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.eclipse.ant.core.AntCorePlugin;
+import org.eclipse.ant.core.AntRunner;
+import org.eclipse.core.runtime.CoreException;
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.NullProgressMonitor;
+import org.eclipse.core.runtime.OperationCanceledException;
+import org.eclipse.equinox.app.IApplication;
+import org.eclipse.equinox.app.IApplicationContext;
+import org.eclipse.osgi.util.NLS;
+
+/**
+ * Runs the builds listed in a manifest in a single instance of the platform. This class is run when running Eclipse headless and specifying
+ * <code>org.eclipse.ant.core.antBatchRunner</code> as the application.
+ * <p>
+ * The following arguments are accepted:
+ * <ul>
+ * <li><b>-manifest</b> <em>&lt;file&gt;</em> - the manifest of the builds to run</li>
+ * <li><b>-threads</b> <em>&lt;count&gt;</em> - the maximum number of builds run at the same time, by default the number of processors</li>
+ * <li><b>-logdir</b> <em>&lt;directory&gt;</em> - the directory for the build logs, by default a directory named after the manifest with the
+ * suffix <code>.logs</code></li>
+ * </ul>
+ * </p>
+ * <p>
+ * Each line of the manifest holds the command line arguments of one build as accepted by the <code>org.eclipse.ant.core.antRunner</code>
+ * application, for example <code>-buildfile core/build.xml -Dbuild.type=I clean dist</code>. Arguments containing spaces are enclosed in double
+ * quotes. Empty lines and lines starting with <code>#</code> are ignored. Relative build file and log file locations are resolved against the
+ * directory of the manifest.
+ * </p>
+ * <p>
+ * Every build runs with its own Ant class loader and writes its log to its own file. Builds running at the same time are isolated from each other
+ * as described for {@link AntRunner#run(IProgressMonitor)}: each build keeps its Ant home on its own project, and builds that need a different
+ * value of <code>eclipse.ant.noInput</code> wait for each other. System properties that tasks set themselves are still shared by the builds of a
+ * batch; use <code>-threads 1</code> for builds that depend on them. The application exits with <code>0</code> if all builds succeed and with
+ * <code>1</code> otherwise.
+ * </p>
+ */
+public class AntBatchRunner implements IApplication {
+
+	/**
+	 * The exit status of a batch in which at least one build failed
+	 */
+	public static final Integer EXIT_FAILED = Integer.valueOf(1);
+
+	private static final String DEFAULT_LOGGER = "org.apache.tools.ant.DefaultLogger"; //$NON-NLS-1$
+	private static final String LOG_DIRECTORY_SUFFIX = ".logs"; //$NON-NLS-1$
+
+	private final IProgressMonitor fMonitor = new NullProgressMonitor();
+
+	/**
+	 * A build listed in the manifest
+	 */
+	private static class BatchBuild implements Callable<String> {
+		final int fIndex;
+		final File fBuildFile;
+		final File fLogFile;
+		final List<String> fArguments;
+		private final IProgressMonitor fMonitor;
+		volatile long fDuration = 0;
+
+		BatchBuild(int index, File buildFile, File logFile, List<String> arguments, IProgressMonitor monitor) {
+			fIndex = index;
+			fBuildFile = buildFile;
+			fLogFile = logFile;
+			fArguments = arguments;
+			fMonitor = monitor;
+		}
+
+		/**
+		 * Runs the build and returns <code>null</code> if it succeeded or the message of its failure
+		 */
+		@Override
+		public String call() {
+			if (fMonitor.isCanceled()) {
+				return InternalCoreAntMessages.AntBatchRunner_Canceled;
+			}
+			List<String> arguments = new ArrayList<>(fArguments);
+			arguments.add("-logfile"); //$NON-NLS-1$
+			arguments.add(fLogFile.getAbsolutePath());
+			AntRunner runner = new AntRunner();
+			runner.setBuildFileLocation(fBuildFile.getAbsolutePath());
+			runner.setArguments(arguments.toArray(new String[arguments.size()]));
+			runner.addBuildLogger(DEFAULT_LOGGER);
+			long start = System.currentTimeMillis();
+			try {
+				runner.run(fMonitor);
+			}
+			catch (CoreException e) {
+				return e.getStatus().getMessage();
+			}
+			catch (OperationCanceledException e) {
+				return InternalCoreAntMessages.AntBatchRunner_Canceled;
+			}
+			finally {
+				fDuration = System.currentTimeMillis() - start;
+			}
+			return fMonitor.isCanceled() ? InternalCoreAntMessages.AntBatchRunner_Canceled : null;
+		}
+	}
+
+	/**
+	 * Runs the builds listed in the manifest specified by the given command line arguments.
+	 *
+	 * @param argArray
+	 *            the command line arguments
+	 * @return <code>EXIT_OK</code> if all builds succeeded, otherwise <code>EXIT_FAILED</code>
+	 * @exception Exception
+	 *                if a problem occurred running the builds
+	 */
+	public Object run(Object argArray) throws Exception {
+		List<String> args = AntCoreUtil.getArrayList((String[]) argArray);
+		PrintStream out = System.out;
+		String manifestLocation = AntCoreUtil.getArgument(args, "-manifest"); //$NON-NLS-1$
+		if (manifestLocation == null || manifestLocation.length() == 0) {
+			System.err.println(InternalCoreAntMessages.AntBatchRunner_No_manifest);
+			return EXIT_FAILED;
+		}
+		File manifest = new File(manifestLocation).getAbsoluteFile();
+		int threads = Runtime.getRuntime().availableProcessors();
+		String arg = AntCoreUtil.getArgument(args, "-threads"); //$NON-NLS-1$
+		if (arg != null) {
+			try {
+				threads = Integer.parseInt(arg);
+			}
+			catch (NumberFormatException e) {
+				threads = 0;
+			}
+			if (threads < 1) {
+				System.err.println(NLS.bind(InternalCoreAntMessages.AntBatchRunner_Invalid_thread_count, arg));
+				return EXIT_FAILED;
+			}
+		}
+		File logDirectory = new File(manifest.getPath() + LOG_DIRECTORY_SUFFIX);
+		arg = AntCoreUtil.getArgument(args, "-logdir"); //$NON-NLS-1$
+		if (arg != null && arg.length() > 0) {
+			logDirectory = new File(arg).getAbsoluteFile();
+		}
+
+		List<BatchBuild> builds;
+		try {
+			builds = readManifest(manifest, logDirectory);
+		}
+		catch (IOException e) {
+			System.err.println(NLS.bind(InternalCoreAntMessages.AntBatchRunner_Could_not_read_manifest, manifest, e.getMessage()));
+			return EXIT_FAILED;
+		}
+		if (builds.isEmpty()) {
+			return EXIT_OK;
+		}
+		if (!logDirectory.isDirectory() && !logDirectory.mkdirs()) {
+			System.err.println(NLS.bind(InternalCoreAntMessages.AntBatchRunner_Could_not_create_log_directory, logDirectory));
+			return EXIT_FAILED;
+		}
+		threads = Math.min(threads, builds.size());
+
+		boolean headless = AntCorePlugin.getPlugin().isRunningHeadless();
+		if (!headless) {
+			AntCorePlugin.getPlugin().setRunningHeadless(true);
+		}
+		String isolated = System.getProperty(IAntCoreConstants.ISOLATED_BUILDS_PROPERTY);
+		if (threads > 1) {
+			System.setProperty(IAntCoreConstants.ISOLATED_BUILDS_PROPERTY, Boolean.TRUE.toString());
+		}
+		ExecutorService executor = Executors.newFixedThreadPool(threads, new ThreadFactory() {
+			private final AtomicInteger fCount = new AtomicInteger();
+
+			@Override
+			public Thread newThread(Runnable r) {
+				return new Thread(r, "Ant Batch Runner " + fCount.incrementAndGet()); //$NON-NLS-1$
+			}
+		});
+		int failures = 0;
+		try {
+			List<Future<String>> results = new ArrayList<>(builds.size());
+			for (BatchBuild build : builds) {
+				results.add(executor.submit(build));
+			}
+			for (int i = 0; i < builds.size(); i++) {
+				BatchBuild build = builds.get(i);
+				String failure;
+				try {
+					failure = results.get(i).get();
+				}
+				catch (ExecutionException e) {
+					Throwable cause = e.getCause();
+					failure = cause.getMessage() == null ? cause.toString() : cause.getMessage();
+				}
+				Object[] bindings = new Object[] { Integer.toString(build.fIndex), build.fBuildFile, build.fLogFile, Long.toString(build.fDuration),
+						failure };
+				if (failure == null) {
+					out.println(NLS.bind(InternalCoreAntMessages.AntBatchRunner_Build_successful, bindings));
+				} else {
+					failures++;
+					out.println(NLS.bind(InternalCoreAntMessages.AntBatchRunner_Build_failed, bindings));
+				}
+			}
+		}
+		finally {
+			executor.shutdownNow();
+			if (!headless) {
+				AntCorePlugin.getPlugin().setRunningHeadless(false);
+			}
+			if (threads > 1) {
+				if (isolated == null) {
+					System.clearProperty(IAntCoreConstants.ISOLATED_BUILDS_PROPERTY);
+				} else {
+					System.setProperty(IAntCoreConstants.ISOLATED_BUILDS_PROPERTY, isolated);
+				}
+			}
+		}
+		out.println(NLS.bind(InternalCoreAntMessages.AntBatchRunner_Summary, Integer.toString(builds.size()), Integer.toString(failures)));
+		return failures == 0 ? EXIT_OK : EXIT_FAILED;
+	}
+
+	private List<BatchBuild> readManifest(File manifest, File logDirectory) throws IOException {
+		File base = manifest.getParentFile();
+		List<BatchBuild> builds = new ArrayList<>();
+		try (BufferedReader reader = new BufferedReader(new InputStreamReader(Files.newInputStream(manifest.toPath()), StandardCharsets.UTF_8))) {
+			String line;
+			while ((line = reader.readLine()) != null) {
+				line = line.trim();
+				if (line.length() == 0 || line.charAt(0) == '#') {
+					continue;
+				}
+				List<String> arguments = getArguments(line);
+				String location = AntCoreUtil.getArgument(arguments, "-buildfile"); //$NON-NLS-1$
+				if (location == null) {
+					location = AntCoreUtil.getArgument(arguments, "-file"); //$NON-NLS-1$
+					if (location == null) {
+						location = AntCoreUtil.getArgument(arguments, "-f"); //$NON-NLS-1$
+					}
+				}
+				if (location == null || location.length() == 0) {
+					location = IAntCoreConstants.DEFAULT_BUILD_FILENAME;
+				}
+				File buildFile = resolve(base, location);
+				int index = builds.size() + 1;
+				String logLocation = AntCoreUtil.getArgument(arguments, "-logfile"); //$NON-NLS-1$
+				if (logLocation == null) {
+					logLocation = AntCoreUtil.getArgument(arguments, "-l"); //$NON-NLS-1$
+				}
+				File logFile;
+				if (logLocation == null || logLocation.length() == 0) {
+					logFile = new File(logDirectory, getLogFileName(index, buildFile));
+				} else {
+					logFile = resolve(base, logLocation);
+				}
+				builds.add(new BatchBuild(index, buildFile, logFile, arguments, fMonitor));
+			}
+		}
+		return builds;
+	}
+
+	private File resolve(File base, String location) {
+		File file = new File(location);
+		if (!file.isAbsolute()) {
+			file = new File(base, location);
+		}
+		return file.getAbsoluteFile();
+	}
+
+	/*
+	 * Returns a log file name that tells the builds apart by their position in the manifest and by the folder and name of their build file
+	 */
+	private String getLogFileName(int index, File buildFile) {
+		StringBuffer name = new StringBuffer();
+		String number = Integer.toString(index);
+		for (int i = number.length(); i < 3; i++) {
+			name.append('0');
+		}
+		name.append(number);
+		File folder = buildFile.getParentFile();
+		if (folder != null && folder.getName().length() > 0) {
+			name.append('-').append(folder.getName());
+		}
+		String fileName = buildFile.getName();
+		int dot = fileName.lastIndexOf('.');
+		name.append('-').append(dot > 0 ? fileName.substring(0, dot) : fileName);
+		name.append(".log"); //$NON-NLS-1$
+		return name.toString();
+	}
+
+	/*
+	 * Splits a manifest line into arguments separated by white space, keeping text enclosed in double quotes together
+	 */
+	private List<String> getArguments(String line) {
+		List<String> arguments = new ArrayList<>();
+		StringBuffer argument = new StringBuffer();
+		boolean inQuotes = false;
+		boolean hasArgument = false;
+		for (int i = 0; i < line.length(); i++) {
+			char c = line.charAt(i);
+			if (c == '"') {
+				inQuotes = !inQuotes;
+				hasArgument = true;
+			} else if (!inQuotes && Character.isWhitespace(c)) {
+				if (hasArgument) {
+					arguments.add(argument.toString());
+					argument.setLength(0);
+					hasArgument = false;
+				}
+			} else {
+				argument.append(c);
+				hasArgument = true;
+			}
+		}
+		if (hasArgument) {
+			arguments.add(argument.toString());
+		}
+		return arguments;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see org.eclipse.equinox.app.IApplication#start(org.eclipse.equinox.app.IApplicationContext)
+	 */
+	@Override
+	public Object start(IApplicationContext context) throws Exception {
+		context.applicationRunning();
+		Map<?, ?> contextArguments = context.getArguments();
+		return run(contextArguments.get(IApplicationContext.APPLICATION_ARGS));
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see org.eclipse.equinox.app.IApplication#stop()
+	 */
+	@Override
+	public void stop() {
+		fMonitor.setCanceled(true);
+	}
+}
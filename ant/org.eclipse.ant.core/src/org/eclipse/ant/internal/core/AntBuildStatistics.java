@@ -0,0 +1,287 @@
+/*******************************************************************************
+ * Copyright (c) 2018 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.ant.internal.core;
+
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+import org.eclipse.ant.core.AntCorePlugin;
+
+/**
+ * Counts the builds, targets, tasks, class loaders, buildfile parses and property file loads of the Ant integration and exposes the counts as the
+ * <code>org.eclipse.ant.core:type=BuildStatistics</code> MBean of the platform MBean server.
+ * <p>
+ * This class is loaded by the plug-in class loader so that the counts of all builds are accumulated in one place. The corresponding
+ * {@link AntFlightRecorder} events are emitted by the callers.
+ * </p>
+ */
+public final class AntBuildStatistics implements AntBuildStatisticsMBean {
+
+	private static final String OBJECT_NAME = "org.eclipse.ant.core:type=BuildStatistics"; //$NON-NLS-1$
+
+	private static AntBuildStatistics fgDefault = null;
+
+	private final AtomicLong fBuilds = new AtomicLong();
+	private final AtomicLong fFailedBuilds = new AtomicLong();
+	private final AtomicLong fBuildDuration = new AtomicLong();
+	private final AtomicLong fTargets = new AtomicLong();
+	private final AtomicLong fTasks = new AtomicLong();
+	private final AtomicLong fClassLoaders = new AtomicLong();
+	private final AtomicLong fParses = new AtomicLong();
+	private final AtomicLong fParseCacheHits = new AtomicLong();
+	private final AtomicLong fPropertyFileLoads = new AtomicLong();
+	private final AtomicLong fPropertyFileCacheHits = new AtomicLong();
+
+	private ObjectName fObjectName = null;
+
+	private AntBuildStatistics() {
+		// use getDefault()
+	}
+
+	/**
+	 * Returns the shared statistics, registering them with the platform MBean server the first time.
+	 *
+	 * @return the shared statistics
+	 */
+	public static synchronized AntBuildStatistics getDefault() {
+		if (fgDefault == null) {
+			fgDefault = new AntBuildStatistics();
+			fgDefault.register();
+		}
+		return fgDefault;
+	}
+
+	/**
+	 * Unregisters the shared statistics from the platform MBean server, if they were registered.
+	 */
+	public static synchronized void shutdown() {
+		if (fgDefault != null) {
+			fgDefault.unregister();
+			fgDefault = null;
+		}
+	}
+
+	private void register() {
+		try {
+			MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+			ObjectName name = new ObjectName(OBJECT_NAME);
+			if (server.isRegistered(name)) {
+				// left behind by an earlier instance of the plug-in
+				server.unregisterMBean(name);
+			}
+			server.registerMBean(this, name);
+			fObjectName = name;
+		}
+		catch (JMException e) {
+			AntCorePlugin.log(e);
+		}
+		catch (SecurityException e) {
+			// the statistics are still counted
+		}
+	}
+
+	private void unregister() {
+		if (fObjectName == null) {
+			return;
+		}
+		try {
+			ManagementFactory.getPlatformMBeanServer().unregisterMBean(fObjectName);
+		}
+		catch (JMException e) {
+			// already unregistered
+		}
+		catch (SecurityException e) {
+			// not allowed
+		}
+		fObjectName = null;
+	}
+
+	/**
+	 * Records a finished build.
+	 *
+	 * @param duration
+	 *            the duration of the build in milliseconds
+	 * @param failed
+	 *            whether the build failed
+	 */
+	public void buildFinished(long duration, boolean failed) {
+		fBuildDuration.addAndGet(duration);
+		fBuilds.incrementAndGet();
+		if (failed) {
+			fFailedBuilds.incrementAndGet();
+		}
+	}
+
+	/**
+	 * Records an executed target.
+	 */
+	public void targetExecuted() {
+		fTargets.incrementAndGet();
+	}
+
+	/**
+	 * Records an executed task.
+	 */
+	public void taskExecuted() {
+		fTasks.incrementAndGet();
+	}
+
+	/**
+	 * Records the creation of an Ant class loader.
+	 */
+	public void classLoaderCreated() {
+		fClassLoaders.incrementAndGet();
+	}
+
+	/**
+	 * Records that the targets of a buildfile were needed.
+	 *
+	 * @param cached
+	 *            whether the targets were answered from the target cache rather than by parsing the buildfile
+	 */
+	public void buildfileParsed(boolean cached) {
+		(cached ? fParseCacheHits : fParses).incrementAndGet();
+	}
+
+	/**
+	 * Records that the contents of a property file were needed.
+	 *
+	 * @param cached
+	 *            whether the contents were answered from the property file cache rather than by reading the file
+	 */
+	public void propertyFileLoaded(boolean cached) {
+		(cached ? fPropertyFileCacheHits : fPropertyFileLoads).incrementAndGet();
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see org.eclipse.ant.internal.core.AntBuildStatisticsMBean#getBuilds()
+	 */
+	@Override
+	public long getBuilds() {
+		return fBuilds.get();
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see org.eclipse.ant.internal.core.AntBuildStatisticsMBean#getFailedBuilds()
+	 */
+	@Override
+	public long getFailedBuilds() {
+		return fFailedBuilds.get();
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see org.eclipse.ant.internal.core.AntBuildStatisticsMBean#getAverageBuildDuration()
+	 */
+	@Override
+	public long getAverageBuildDuration() {
+		long builds = fBuilds.get();
+		return builds == 0 ? 0 : fBuildDuration.get() / builds;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see org.eclipse.ant.internal.core.AntBuildStatisticsMBean#getTargets()
+	 */
+	@Override
+	public long getTargets() {
+		return fTargets.get();
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see org.eclipse.ant.internal.core.AntBuildStatisticsMBean#getTasks()
+	 */
+	@Override
+	public long getTasks() {
+		return fTasks.get();
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see org.eclipse.ant.internal.core.AntBuildStatisticsMBean#getClassLoaderCreations()
+	 */
+	@Override
+	public long getClassLoaderCreations() {
+		return fClassLoaders.get();
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see org.eclipse.ant.internal.core.AntBuildStatisticsMBean#getBuildfileParses()
+	 */
+	@Override
+	public long getBuildfileParses() {
+		return fParses.get();
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see org.eclipse.ant.internal.core.AntBuildStatisticsMBean#getParseCacheHits()
+	 */
+	@Override
+	public long getParseCacheHits() {
+		return fParseCacheHits.get();
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see org.eclipse.ant.internal.core.AntBuildStatisticsMBean#getPropertyFileLoads()
+	 */
+	@Override
+	public long getPropertyFileLoads() {
+		return fPropertyFileLoads.get();
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see org.eclipse.ant.internal.core.AntBuildStatisticsMBean#getPropertyFileCacheHits()
+	 */
+	@Override
+	public long getPropertyFileCacheHits() {
+		return fPropertyFileCacheHits.get();
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see org.eclipse.ant.internal.core.AntBuildStatisticsMBean#reset()
+	 */
+	@Override
+	public void reset() {
+		fBuilds.set(0);
+		fBuildDuration.set(0);
+		fFailedBuilds.set(0);
+		fTargets.set(0);
+		fTasks.set(0);
+		fClassLoaders.set(0);
+		fParses.set(0);
+		fParseCacheHits.set(0);
+		fPropertyFileLoads.set(0);
+		fPropertyFileCacheHits.set(0);
+	}
+}
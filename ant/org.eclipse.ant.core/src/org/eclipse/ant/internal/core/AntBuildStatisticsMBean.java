@@ -0,0 +1,73 @@
+/*******************************************************************************
+ * Copyright (c) 2018 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.ant.internal.core;
+
+/**
+ * The management interface of {@link AntBuildStatistics}. All counters are cumulative since the plug-in was started or the statistics were last
+ * reset.
+ */
+public interface AntBuildStatisticsMBean {
+
+	/**
+	 * @return the number of builds run in this VM
+	 */
+	long getBuilds();
+
+	/**
+	 * @return the number of builds that failed
+	 */
+	long getFailedBuilds();
+
+	/**
+	 * @return the average duration of a build in milliseconds
+	 */
+	long getAverageBuildDuration();
+
+	/**
+	 * @return the number of targets executed
+	 */
+	long getTargets();
+
+	/**
+	 * @return the number of tasks executed
+	 */
+	long getTasks();
+
+	/**
+	 * @return the number of Ant class loaders created
+	 */
+	long getClassLoaderCreations();
+
+	/**
+	 * @return the number of times a buildfile was parsed
+	 */
+	long getBuildfileParses();
+
+	/**
+	 * @return the number of times the targets of a buildfile were answered from the target cache instead of parsing the buildfile
+	 */
+	long getParseCacheHits();
+
+	/**
+	 * @return the number of property files read
+	 */
+	long getPropertyFileLoads();
+
+	/**
+	 * @return the number of times the contents of a property file were answered from the property file cache
+	 */
+	long getPropertyFileCacheHits();
+
+	/**
+	 * Sets all counters to zero
+	 */
+	void reset();
+}
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2013 IBM Corporation and others.
+ * Copyright (c) 2000, 2018 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -11,17 +11,25 @@
  *******************************************************************************/
 package org.eclipse.ant.internal.core;
 
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.net.JarURLConnection;
 import java.net.URL;
 import java.net.URLClassLoader;
+import java.net.URLConnection;
+import java.security.CodeSource;
+import java.security.cert.Certificate;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Enumeration;
+import java.util.jar.Manifest;
 
 public class AntClassLoader extends URLClassLoader {
 
 	private static final String ANT_PACKAGES_PREFIX = "org.apache.tools"; //$NON-NLS-1$
 	private static final String ANT_URL_PREFIX = "org/apache/tools"; //$NON-NLS-1$
+	private static final String ECLIPSE_ANT_PACKAGES_PREFIX = "org.eclipse.ant."; //$NON-NLS-1$
 
 	private boolean fAllowPluginLoading = false;
 
@@ -29,9 +37,14 @@ public class AntClassLoader extends URLClassLoader {
 
 	private ClassLoader fContextClassloader = null;
 
+	private final boolean fRewriteExitCalls;
+
 	public AntClassLoader(URL[] urls, ClassLoader[] pluginLoaders) {
 		super(urls, ClassLoader.getSystemClassLoader());
 		fPluginLoaders = pluginLoaders;
+		fRewriteExitCalls = AntExitInterceptor.isEnabled();
+		AntBuildStatistics.getDefault().classLoaderCreated();
+		AntFlightRecorder.emit(AntFlightRecorder.CLASS_LOADER, Integer.valueOf(urls.length));
 	}
 
 	/*
@@ -50,9 +63,81 @@ public class AntClassLoader extends URLClassLoader {
 			return result;
 		}
 
+		if (fRewriteExitCalls && !name.startsWith(ANT_PACKAGES_PREFIX) && !name.startsWith(ECLIPSE_ANT_PACKAGES_PREFIX)) {
+			result = findInterceptedClass(name);
+			if (result != null) {
+				return result;
+			}
+		}
+
 		return super.findClass(name);
 	}
 
+	/**
+	 * Defines the class of the given name from the Ant runtime classpath with its calls that exit the VM redirected to the
+	 * {@link AntExitInterceptor}. A class that has nothing to redirect is defined unchanged from the bytes that have been read. Returns
+	 * <code>null</code> if the class is not found or cannot be read, in which case it is left to the <code>URLClassLoader</code>.
+	 */
+	private Class<?> findInterceptedClass(String name) {
+		URL url = super.findResource(name.replace('.', '/').concat(".class")); //$NON-NLS-1$
+		if (url == null) {
+			return null;
+		}
+		byte[] classFile;
+		CodeSource source;
+		Manifest manifest = null;
+		URL packageURL = url;
+		try {
+			URLConnection connection = url.openConnection();
+			classFile = readClassFile(connection);
+			if (connection instanceof JarURLConnection) {
+				// the certificates are known once the entry has been read
+				JarURLConnection jarConnection = (JarURLConnection) connection;
+				packageURL = jarConnection.getJarFileURL();
+				source = new CodeSource(packageURL, jarConnection.getCertificates());
+				manifest = jarConnection.getManifest();
+			} else {
+				source = new CodeSource(url, (Certificate[]) null);
+			}
+		}
+		catch (IOException e) {
+			return null;
+		}
+		byte[] rewritten = AntExitInterceptor.rewrite(classFile);
+		if (rewritten != null) {
+			classFile = rewritten;
+		}
+		int index = name.lastIndexOf('.');
+		if (index != -1) {
+			String packageName = name.substring(0, index);
+			if (getPackage(packageName) == null) {
+				try {
+					if (manifest != null) {
+						definePackage(packageName, manifest, packageURL);
+					} else {
+						definePackage(packageName, null, null, null, null, null, null, null);
+					}
+				}
+				catch (IllegalArgumentException e) {
+					// defined concurrently
+				}
+			}
+		}
+		return defineClass(name, classFile, 0, classFile.length, source);
+	}
+
+	private byte[] readClassFile(URLConnection connection) throws IOException {
+		try (InputStream stream = connection.getInputStream()) {
+			ByteArrayOutputStream bytes = new ByteArrayOutputStream(Math.max(connection.getContentLength(), 1024));
+			byte[] buffer = new byte[8192];
+			int read;
+			while ((read = stream.read(buffer)) != -1) {
+				bytes.write(buffer, 0, read);
+			}
+			return bytes.toByteArray();
+		}
+	}
+
 	protected Class<?> loadClassPlugins(String name) {
 		// remove this class loader as the context class loader
 		// when loading classes from plug-ins...see bug 94471
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2004, 2015 IBM Corporation and others.
+ * Copyright (c) 2004, 2018 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -11,10 +11,10 @@
 package org.eclipse.ant.internal.core;
 
 import java.io.File;
-import java.io.FileInputStream;
 import java.io.IOException;
 import java.util.ArrayList;
-import java.util.Enumeration;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
@@ -139,22 +139,48 @@ public class AntCoreUtil {
 	 * @param buildFileLocation
 	 * @return a list of {@link Properties} objects for each filename
 	 * @throws IOException
+	 * @see #getPropertyFiles(List, String, String)
 	 */
 	public static List<Properties> loadPropertyFiles(List<String> fileNames, String base, String buildFileLocation) throws IOException {
-		ArrayList<Properties> allProperties = new ArrayList<>(fileNames.size());
+		List<Map<String, String>> allProperties = getPropertyFiles(fileNames, base, buildFileLocation);
+		ArrayList<Properties> result = new ArrayList<>(allProperties.size());
+		for (Map<String, String> properties : allProperties) {
+			Properties props = new Properties();
+			props.putAll(properties);
+			result.add(props);
+		}
+		return result;
+	}
+
+	/**
+	 * Returns the properties contained in each of the given files with variables substituted in their names and values. The contents of unchanged
+	 * files are shared between calls, so the returned maps cannot be modified.
+	 * 
+	 * @param fileNames
+	 *            the names of the properties files to load from
+	 * @param base
+	 *            the base directory name
+	 * @param buildFileLocation
+	 *            the location of the buildfile the names may be relative to
+	 * @return an unmodifiable map of the properties of each filename
+	 * @throws IOException
+	 */
+	public static List<Map<String, String>> getPropertyFiles(List<String> fileNames, String base, String buildFileLocation) throws IOException {
+		ArrayList<Map<String, String>> allProperties = new ArrayList<>(fileNames.size());
 		for (int i = 0; i < fileNames.size(); i++) {
 			String filename = fileNames.get(i);
 			File file = getFileRelativeToBaseDir(filename, base, buildFileLocation);
-			Properties props = new Properties();
-			try (FileInputStream fis = new FileInputStream(file)) {
-				props.load(fis);
+			PropertyFileCache.Entry entry = PropertyFileCache.getDefault().getEntry(file);
+			List<String> namesWithVariables = entry.getNamesWithVariables();
+			if (namesWithVariables.isEmpty()) {
+				allProperties.add(entry.getProperties());
+				continue;
 			}
-			Enumeration<?> propertyNames = props.propertyNames();
-			while (propertyNames.hasMoreElements()) {
-				String name = (String) propertyNames.nextElement();
-				String value = props.getProperty(name);
-				props.remove(name);
-				IStringVariableManager stringVariableManager = VariablesPlugin.getDefault().getStringVariableManager();
+			// variables may resolve differently on each call
+			Map<String, String> props = new HashMap<>(entry.getProperties());
+			IStringVariableManager stringVariableManager = VariablesPlugin.getDefault().getStringVariableManager();
+			for (String name : namesWithVariables) {
+				String value = props.remove(name);
 				try {
 					name = stringVariableManager.performStringSubstitution(name);
 					value = stringVariableManager.performStringSubstitution(value);
@@ -162,9 +188,9 @@ public class AntCoreUtil {
 				catch (CoreException e) {
 					AntCorePlugin.log(e);
 				}
-				props.setProperty(name, value);
+				props.put(name, value);
 			}
-			allProperties.add(props);
+			allProperties.add(Collections.unmodifiableMap(props));
 		}
 		return allProperties;
 	}
@@ -0,0 +1,525 @@
+/*******************************************************************************
+ * Copyright (c) 2018 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.ant.internal.core;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+import org.eclipse.ant.core.AntSecurityException;
+
+/**
+ * Intercepts attempts of Ant tasks to exit the Java Virtual Machine or to set system properties without installing a security manager.
+ * <p>
+ * Classes loaded from the Ant runtime classpath by an {@link AntClassLoader} are rewritten so that their calls to <code>System.exit(int)</code>,
+ * <code>System.setProperty(String, String)</code> and <code>System.clearProperty(String)</code> call the static methods of this class with the
+ * same signatures instead, and their calls to <code>Runtime.exit(int)</code> and <code>Runtime.halt(int)</code> call static methods of this class
+ * that take the runtime as their first argument. These throw an {@link AntSecurityException} when called from a restricted thread and otherwise
+ * perform the original call. The calls to <code>System</code> are redirected in the constant pool of a class only; a call to <code>Runtime</code>
+ * is redirected by turning its <code>invokevirtual</code> instruction into an <code>invokestatic</code> instruction of the same length, so the
+ * offsets in the code of the methods do not change.
+ * </p>
+ * <p>
+ * Calls made through reflection or from classes loaded by other class loaders are not intercepted.
+ * </p>
+ */
+public final class AntExitInterceptor {
+
+	private static final String INTERCEPTOR_CLASS = "org/eclipse/ant/internal/core/AntExitInterceptor"; //$NON-NLS-1$
+	private static final String SYSTEM_CLASS = "java/lang/System"; //$NON-NLS-1$
+	private static final String RUNTIME_CLASS = "java/lang/Runtime"; //$NON-NLS-1$
+	private static final String RUNTIME_EXIT_DESCRIPTOR = "(I)V"; //$NON-NLS-1$
+	private static final String INTERCEPTED_RUNTIME_DESCRIPTOR = "(Ljava/lang/Runtime;I)V"; //$NON-NLS-1$
+	private static final String CODE_ATTRIBUTE = "Code"; //$NON-NLS-1$
+
+	/**
+	 * The names and descriptors of the intercepted methods of <code>java.lang.System</code>
+	 */
+	private static final String[][] INTERCEPTED_METHODS = new String[][] { { "exit", "(I)V" }, //$NON-NLS-1$ //$NON-NLS-2$
+			{ "setProperty", "(Ljava/lang/String;Ljava/lang/String;)Ljava/lang/String;" }, //$NON-NLS-1$ //$NON-NLS-2$
+			{ "clearProperty", "(Ljava/lang/String;)Ljava/lang/String;" } }; //$NON-NLS-1$ //$NON-NLS-2$
+
+	private static final int CONSTANT_Utf8 = 1;
+	private static final int CONSTANT_Class = 7;
+	private static final int CONSTANT_Methodref = 10;
+	private static final int CONSTANT_NameAndType = 12;
+
+	/**
+	 * The greatest number of entries a constant pool can have
+	 */
+	private static final int MAX_CONSTANT_POOL_COUNT = 65535;
+
+	private static final int RUNTIME_EXIT = 1;
+	private static final int RUNTIME_HALT = 2;
+
+	private static final int INVOKEVIRTUAL = 0xB6;
+	private static final int INVOKESTATIC = 0xB8;
+	private static final int TABLESWITCH = 0xAA;
+	private static final int LOOKUPSWITCH = 0xAB;
+	private static final int WIDE = 0xC4;
+	private static final int IINC = 0x84;
+
+	/**
+	 * The lengths of the instructions of fixed length by opcode, <code>0</code> for the opcodes that are not defined or whose instructions have a
+	 * variable length
+	 */
+	private static final byte[] INSTRUCTION_LENGTHS = new byte[256];
+
+	static {
+		Arrays.fill(INSTRUCTION_LENGTHS, 0, 0xCA, (byte) 1);
+		setInstructionLength(2, 0x10, 0x12, 0x15, 0x16, 0x17, 0x18, 0x19, 0x36, 0x37, 0x38, 0x39, 0x3A, 0xA9, 0xBC);
+		setInstructionLength(3, 0x11, 0x13, 0x14, IINC, 0xB2, 0xB3, 0xB4, 0xB5, INVOKEVIRTUAL, 0xB7, INVOKESTATIC, 0xBB, 0xBD, 0xC0, 0xC1, 0xC6, 0xC7);
+		for (int opcode = 0x99; opcode <= 0xA8; opcode++) {
+			// conditional branches, goto and jsr
+			INSTRUCTION_LENGTHS[opcode] = 3;
+		}
+		setInstructionLength(4, 0xC5);
+		setInstructionLength(5, 0xB9, 0xBA, 0xC8, 0xC9);
+		setInstructionLength(0, TABLESWITCH, LOOKUPSWITCH, WIDE);
+	}
+
+	private static final int RESTRICT_EXIT = 1;
+	private static final int RESTRICT_PROPERTIES = 2;
+
+	private static final ThreadLocal<Integer> fgRestrictions = new ThreadLocal<>();
+
+	private AntExitInterceptor() {
+		// no instances
+	}
+
+	/**
+	 * Returns whether exits are to be intercepted by rewriting the classes of Ant tasks instead of by installing a security manager.
+	 *
+	 * @return whether the class rewriting is enabled
+	 * @see IAntCoreConstants#REWRITE_EXIT_CALLS_PROPERTY
+	 */
+	public static boolean isEnabled() {
+		return Boolean.getBoolean(IAntCoreConstants.REWRITE_EXIT_CALLS_PROPERTY);
+	}
+
+	/**
+	 * Restricts the current thread from exiting the VM and, if not allowed, from setting system properties until
+	 * {@link #releaseCurrentThread()} is called.
+	 *
+	 * @param allowSettingProperties
+	 *            whether the thread may still set system properties
+	 */
+	public static void restrictCurrentThread(boolean allowSettingProperties) {
+		fgRestrictions.set(Integer.valueOf(allowSettingProperties ? RESTRICT_EXIT : RESTRICT_EXIT | RESTRICT_PROPERTIES));
+	}
+
+	/**
+	 * Removes the restrictions of the current thread
+	 */
+	public static void releaseCurrentThread() {
+		fgRestrictions.remove();
+	}
+
+	private static boolean isRestricted(int restriction) {
+		Integer restrictions = fgRestrictions.get();
+		if (restrictions != null && (restrictions.intValue() & restriction) != 0) {
+			return true;
+		}
+		return restriction == RESTRICT_EXIT && IsolatedBuildSupport.isBuildThread();
+	}
+
+	/**
+	 * Replaces <code>System.exit(int)</code> in rewritten classes
+	 *
+	 * @param status
+	 *            the exit status
+	 */
+	public static void exit(int status) {
+		if (isRestricted(RESTRICT_EXIT)) {
+			throw new AntSecurityException();
+		}
+		System.exit(status);
+	}
+
+	/**
+	 * Replaces <code>Runtime.exit(int)</code> in rewritten classes
+	 *
+	 * @param runtime
+	 *            the runtime the method was called on
+	 * @param status
+	 *            the exit status
+	 */
+	public static void exit(Runtime runtime, int status) {
+		if (isRestricted(RESTRICT_EXIT)) {
+			throw new AntSecurityException();
+		}
+		runtime.exit(status);
+	}
+
+	/**
+	 * Replaces <code>Runtime.halt(int)</code> in rewritten classes
+	 *
+	 * @param runtime
+	 *            the runtime the method was called on
+	 * @param status
+	 *            the exit status
+	 */
+	public static void halt(Runtime runtime, int status) {
+		if (isRestricted(RESTRICT_EXIT)) {
+			throw new AntSecurityException();
+		}
+		runtime.halt(status);
+	}
+
+	/**
+	 * Replaces <code>System.setProperty(String, String)</code> in rewritten classes
+	 *
+	 * @param key
+	 *            the name of the property
+	 * @param value
+	 *            the value of the property
+	 * @return the previous value of the property
+	 */
+	public static String setProperty(String key, String value) {
+		if (isRestricted(RESTRICT_PROPERTIES)) {
+			throw new AntSecurityException();
+		}
+		return System.setProperty(key, value);
+	}
+
+	/**
+	 * Replaces <code>System.clearProperty(String)</code> in rewritten classes
+	 *
+	 * @param key
+	 *            the name of the property
+	 * @return the previous value of the property
+	 */
+	public static String clearProperty(String key) {
+		if (isRestricted(RESTRICT_PROPERTIES)) {
+			throw new AntSecurityException();
+		}
+		return System.clearProperty(key);
+	}
+
+	/**
+	 * Returns the given class file with its calls to the intercepted methods of <code>java.lang.System</code> and <code>java.lang.Runtime</code>
+	 * redirected to this class, or <code>null</code> if the class does not call any of them, cannot be read or has no room left in its constant
+	 * pool for the references to this class.
+	 *
+	 * @param classFile
+	 *            the bytes of a class file
+	 * @return the rewritten class file or <code>null</code>
+	 */
+	public static byte[] rewrite(byte[] classFile) {
+		if (classFile.length < 10 || readInt(classFile, 0) != 0xCAFEBABE) {
+			return null;
+		}
+		int count = readUnsignedShort(classFile, 8);
+		int[] offsets = new int[count];
+		String[] utf8 = new String[count];
+		int offset = 10;
+		for (int i = 1; i < count; i++) {
+			if (offset + 3 > classFile.length) {
+				return null;
+			}
+			offsets[i] = offset;
+			int tag = classFile[offset];
+			switch (tag) {
+				case CONSTANT_Utf8:
+					int length = readUnsignedShort(classFile, offset + 1);
+					if (offset + 3 + length > classFile.length) {
+						return null;
+					}
+					// only the names of interest are plain ASCII, so other entries need not decode exactly
+					utf8[i] = new String(classFile, offset + 3, length, StandardCharsets.ISO_8859_1);
+					offset += 3 + length;
+					break;
+				case 3: // Integer
+				case 4: // Float
+				case 9: // Fieldref
+				case CONSTANT_Methodref:
+				case 11: // InterfaceMethodref
+				case CONSTANT_NameAndType:
+				case 17: // Dynamic
+				case 18: // InvokeDynamic
+					offset += 5;
+					break;
+				case 5: // Long
+				case 6: // Double
+					offset += 9;
+					i++;
+					break;
+				case CONSTANT_Class:
+				case 8: // String
+				case 16: // MethodType
+				case 19: // Module
+				case 20: // Package
+					offset += 3;
+					break;
+				case 15: // MethodHandle
+					offset += 4;
+					break;
+				default:
+					return null;
+			}
+		}
+		int poolEnd = offset;
+		if (poolEnd > classFile.length) {
+			return null;
+		}
+
+		int[] patches = new int[count];
+		int patchCount = 0;
+		int[] runtimeCalls = new int[count];
+		boolean callsRuntime = false;
+		for (int i = 1; i < count; i++) {
+			if (offsets[i] == 0 || classFile[offsets[i]] != CONSTANT_Methodref) {
+				continue;
+			}
+			int classIndex = readUnsignedShort(classFile, offsets[i] + 1);
+			int natIndex = readUnsignedShort(classFile, offsets[i] + 3);
+			if (isClass(classFile, offsets, utf8, classIndex, SYSTEM_CLASS) && isInterceptedMethod(classFile, offsets, utf8, natIndex)) {
+				patches[patchCount++] = offsets[i] + 1;
+			} else if (isClass(classFile, offsets, utf8, classIndex, RUNTIME_CLASS)) {
+				runtimeCalls[i] = getRuntimeMethod(classFile, offsets, utf8, natIndex);
+				callsRuntime |= runtimeCalls[i] != 0;
+			}
+		}
+		if (patchCount == 0 && !callsRuntime) {
+			return null;
+		}
+		int nameIndex = count;
+		int classIndex = count + 1;
+		int newCount = callsRuntime ? count + 9 : count + 2;
+		if (newCount > MAX_CONSTANT_POOL_COUNT) {
+			return null;
+		}
+
+		byte[] patched = classFile.clone();
+		for (int i = 0; i < patchCount; i++) {
+			patched[patches[i]] = (byte) (classIndex >> 8);
+			patched[patches[i] + 1] = (byte) classIndex;
+		}
+		if (callsRuntime && !redirectRuntimeCalls(patched, poolEnd, utf8, runtimeCalls, count + 7, count + 8)) {
+			return null;
+		}
+		ByteArrayOutputStream result = new ByteArrayOutputStream(classFile.length + 128);
+		DataOutputStream data = new DataOutputStream(result);
+		try {
+			data.write(patched, 0, 8);
+			data.writeShort(newCount);
+			data.write(patched, 10, poolEnd - 10);
+			data.writeByte(CONSTANT_Utf8);
+			data.writeUTF(INTERCEPTOR_CLASS);
+			data.writeByte(CONSTANT_Class);
+			data.writeShort(nameIndex);
+			if (callsRuntime) {
+				// the names, descriptor, name and types and method references of the static replacements of exit and halt
+				data.writeByte(CONSTANT_Utf8);
+				data.writeUTF("exit"); //$NON-NLS-1$
+				data.writeByte(CONSTANT_Utf8);
+				data.writeUTF("halt"); //$NON-NLS-1$
+				data.writeByte(CONSTANT_Utf8);
+				data.writeUTF(INTERCEPTED_RUNTIME_DESCRIPTOR);
+				data.writeByte(CONSTANT_NameAndType);
+				data.writeShort(count + 2);
+				data.writeShort(count + 4);
+				data.writeByte(CONSTANT_NameAndType);
+				data.writeShort(count + 3);
+				data.writeShort(count + 4);
+				data.writeByte(CONSTANT_Methodref);
+				data.writeShort(classIndex);
+				data.writeShort(count + 5);
+				data.writeByte(CONSTANT_Methodref);
+				data.writeShort(classIndex);
+				data.writeShort(count + 6);
+			}
+			data.write(patched, poolEnd, patched.length - poolEnd);
+			data.flush();
+		}
+		catch (IOException e) {
+			// cannot happen writing to memory
+			return null;
+		}
+		return result.toByteArray();
+	}
+
+	/**
+	 * Turns the calls of the given class file to <code>Runtime.exit(int)</code> and <code>Runtime.halt(int)</code> into calls of the given method
+	 * references. Returns <code>false</code> if the fields and methods of the class cannot be read.
+	 */
+	private static boolean redirectRuntimeCalls(byte[] classFile, int poolEnd, String[] utf8, int[] runtimeCalls, int exitIndex, int haltIndex) {
+		// access flags, this class and super class
+		int offset = poolEnd + 6;
+		if (offset + 2 > classFile.length) {
+			return false;
+		}
+		offset += 2 + 2 * readUnsignedShort(classFile, offset);
+		// the fields, then the methods
+		for (int members = 0; members < 2; members++) {
+			if (offset + 2 > classFile.length) {
+				return false;
+			}
+			int memberCount = readUnsignedShort(classFile, offset);
+			offset += 2;
+			for (int i = 0; i < memberCount; i++) {
+				if (offset + 8 > classFile.length) {
+					return false;
+				}
+				int attributeCount = readUnsignedShort(classFile, offset + 6);
+				offset += 8;
+				for (int j = 0; j < attributeCount; j++) {
+					if (offset + 6 > classFile.length) {
+						return false;
+					}
+					int attributeName = readUnsignedShort(classFile, offset);
+					long length = readInt(classFile, offset + 2) & 0xFFFFFFFFL;
+					offset += 6;
+					if (offset + length > classFile.length) {
+						return false;
+					}
+					if (members == 1 && attributeName < utf8.length && CODE_ATTRIBUTE.equals(utf8[attributeName])) {
+						if (!redirectRuntimeCalls(classFile, offset, (int) length, runtimeCalls, exitIndex, haltIndex)) {
+							return false;
+						}
+					}
+					offset += (int) length;
+				}
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Turns the calls to <code>Runtime.exit(int)</code> and <code>Runtime.halt(int)</code> in the given <code>Code</code> attribute into calls of
+	 * the given method references. Returns <code>false</code> if the code cannot be read.
+	 */
+	private static boolean redirectRuntimeCalls(byte[] classFile, int attribute, int length, int[] runtimeCalls, int exitIndex, int haltIndex) {
+		if (length < 8) {
+			return false;
+		}
+		int codeLength = readInt(classFile, attribute + 4);
+		if (codeLength < 0 || codeLength > length - 8) {
+			return false;
+		}
+		int code = attribute + 8;
+		int pc = 0;
+		while (pc < codeLength) {
+			int opcode = classFile[code + pc] & 0xFF;
+			int size = getInstructionLength(classFile, code, pc, codeLength);
+			if (size <= 0 || size > codeLength - pc) {
+				return false;
+			}
+			if (opcode == INVOKEVIRTUAL) {
+				int index = readUnsignedShort(classFile, code + pc + 1);
+				if (index < runtimeCalls.length && runtimeCalls[index] != 0) {
+					int replacement = runtimeCalls[index] == RUNTIME_EXIT ? exitIndex : haltIndex;
+					classFile[code + pc] = (byte) INVOKESTATIC;
+					classFile[code + pc + 1] = (byte) (replacement >> 8);
+					classFile[code + pc + 2] = (byte) replacement;
+				}
+			}
+			pc += size;
+		}
+		return true;
+	}
+
+	/**
+	 * Returns the length of the instruction at the given offset of the given code, or <code>0</code> if it is not a valid instruction.
+	 */
+	private static int getInstructionLength(byte[] classFile, int code, int pc, int codeLength) {
+		int opcode = classFile[code + pc] & 0xFF;
+		// the operands of the switch instructions start at the next multiple of four
+		int operands = (pc + 4) & ~3;
+		long length;
+		switch (opcode) {
+			case TABLESWITCH:
+				if (operands + 12 > codeLength) {
+					return 0;
+				}
+				long entries = (long) readInt(classFile, code + operands + 8) - readInt(classFile, code + operands + 4) + 1;
+				length = operands + 12 + entries * 4 - pc;
+				break;
+			case LOOKUPSWITCH:
+				if (operands + 8 > codeLength) {
+					return 0;
+				}
+				length = operands + 8 + readInt(classFile, code + operands + 4) * 8L - pc;
+				break;
+			case WIDE:
+				if (pc + 1 >= codeLength) {
+					return 0;
+				}
+				return (classFile[code + pc + 1] & 0xFF) == IINC ? 6 : 4;
+			default:
+				return INSTRUCTION_LENGTHS[opcode];
+		}
+		return length <= 0 || length > codeLength - pc ? 0 : (int) length;
+	}
+
+	private static boolean isClass(byte[] classFile, int[] offsets, String[] utf8, int index, String name) {
+		if (!isEntry(classFile, offsets, index, CONSTANT_Class)) {
+			return false;
+		}
+		int nameIndex = readUnsignedShort(classFile, offsets[index] + 1);
+		return nameIndex < utf8.length && name.equals(utf8[nameIndex]);
+	}
+
+	private static boolean isInterceptedMethod(byte[] classFile, int[] offsets, String[] utf8, int index) {
+		if (!isEntry(classFile, offsets, index, CONSTANT_NameAndType)) {
+			return false;
+		}
+		int nameIndex = readUnsignedShort(classFile, offsets[index] + 1);
+		int descriptorIndex = readUnsignedShort(classFile, offsets[index] + 3);
+		if (nameIndex >= utf8.length || descriptorIndex >= utf8.length) {
+			return false;
+		}
+		for (String[] method : INTERCEPTED_METHODS) {
+			if (method[0].equals(utf8[nameIndex]) && method[1].equals(utf8[descriptorIndex])) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Returns which of the intercepted methods of <code>java.lang.Runtime</code> the given name and type entry describes, <code>0</code> if none
+	 */
+	private static int getRuntimeMethod(byte[] classFile, int[] offsets, String[] utf8, int index) {
+		if (!isEntry(classFile, offsets, index, CONSTANT_NameAndType)) {
+			return 0;
+		}
+		int nameIndex = readUnsignedShort(classFile, offsets[index] + 1);
+		int descriptorIndex = readUnsignedShort(classFile, offsets[index] + 3);
+		if (nameIndex >= utf8.length || descriptorIndex >= utf8.length || !RUNTIME_EXIT_DESCRIPTOR.equals(utf8[descriptorIndex])) {
+			return 0;
+		}
+		if ("exit".equals(utf8[nameIndex])) { //$NON-NLS-1$
+			return RUNTIME_EXIT;
+		}
+		return "halt".equals(utf8[nameIndex]) ? RUNTIME_HALT : 0; //$NON-NLS-1$
+	}
+
+	private static boolean isEntry(byte[] classFile, int[] offsets, int index, int tag) {
+		return index > 0 && index < offsets.length && offsets[index] != 0 && classFile[offsets[index]] == tag;
+	}
+
+	private static void setInstructionLength(int length, int... opcodes) {
+		for (int opcode : opcodes) {
+			INSTRUCTION_LENGTHS[opcode] = (byte) length;
+		}
+	}
+
+	private static int readUnsignedShort(byte[] bytes, int offset) {
+		return ((bytes[offset] & 0xFF) << 8) | (bytes[offset + 1] & 0xFF);
+	}
+
+	private static int readInt(byte[] bytes, int offset) {
+		return (readUnsignedShort(bytes, offset) << 16) | readUnsignedShort(bytes, offset + 2);
+	}
+}
@@ -0,0 +1,213 @@
+/*******************************************************************************
+ * Copyright (c) 2018 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.ant.internal.core;
+
+import java.lang.reflect.Array;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Emits Java Flight Recorder events for Ant builds when the running VM provides the Flight Recorder API (Java 9 and later).
+ * <p>
+ * The event types are created at runtime through <code>jdk.jfr.EventFactory</code> so that this plug-in does not require the API. Their names
+ * start with <code>org.eclipse.ant.</code>. When the API is not available or an event type is not enabled in any recording, {@link #begin(int)}
+ * answers <code>null</code> and nothing else is done for the event.
+ * </p>
+ * <p>
+ * This class is loaded by the plug-in class loader so that the event types are shared by all builds.
+ * </p>
+ */
+public final class AntFlightRecorder {
+
+	/**
+	 * An Ant build. Values: build file (String), failed (boolean)
+	 */
+	public static final int BUILD = 0;
+
+	/**
+	 * The execution of a target. Values: target (String), project (String)
+	 */
+	public static final int TARGET = 1;
+
+	/**
+	 * The execution of a task. Values: task (String), location (String)
+	 */
+	public static final int TASK = 2;
+
+	/**
+	 * The creation of an Ant class loader. Values: classpath entries (int)
+	 */
+	public static final int CLASS_LOADER = 3;
+
+	/**
+	 * The parse of a buildfile. Values: build file (String), cached (boolean)
+	 */
+	public static final int PARSE = 4;
+
+	/**
+	 * The load of a property file. Values: file (String), cached (boolean)
+	 */
+	public static final int PROPERTY_FILE = 5;
+
+	private static final String[] NAMES = new String[] { "Build", "Target", "Task", "ClassLoader", "Parse", "PropertyFile" }; //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$ //$NON-NLS-5$ //$NON-NLS-6$
+	private static final String[] LABELS = new String[] { "Ant Build", "Ant Target", "Ant Task", "Ant Class Loader Creation", //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$
+			"Ant Buildfile Parse", "Ant Property File Load" }; //$NON-NLS-1$ //$NON-NLS-2$
+	private static final String[][] FIELD_NAMES = new String[][] { { "buildFile", "failed" }, { "target", "project" }, { "task", "location" }, //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$ //$NON-NLS-5$ //$NON-NLS-6$
+			{ "entries" }, { "buildFile", "cached" }, { "file", "cached" } }; //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$ //$NON-NLS-5$
+	private static final Class<?>[][] FIELD_TYPES = new Class<?>[][] { { String.class, boolean.class }, { String.class, String.class },
+			{ String.class, String.class }, { int.class }, { String.class, boolean.class }, { String.class, boolean.class } };
+
+	private static Object[] fgFactories = null;
+	private static Object[] fgEventTypes = null;
+	private static Method fgNewEvent = null;
+	private static Method fgIsEnabled = null;
+	private static Method fgBegin = null;
+	private static Method fgEnd = null;
+	private static Method fgSet = null;
+	private static Method fgShouldCommit = null;
+	private static Method fgCommit = null;
+
+	static {
+		try {
+			createEventTypes();
+		}
+		catch (Exception e) {
+			// no Flight Recorder API
+			fgFactories = null;
+		}
+		catch (LinkageError e) {
+			fgFactories = null;
+		}
+	}
+
+	private AntFlightRecorder() {
+		// no instances
+	}
+
+	private static void createEventTypes() throws Exception {
+		Class<?> factoryClass = Class.forName("jdk.jfr.EventFactory"); //$NON-NLS-1$
+		Class<?> eventClass = Class.forName("jdk.jfr.Event"); //$NON-NLS-1$
+		Class<?> eventTypeClass = Class.forName("jdk.jfr.EventType"); //$NON-NLS-1$
+		Class<?> annotationElementClass = Class.forName("jdk.jfr.AnnotationElement"); //$NON-NLS-1$
+		Class<?> valueDescriptorClass = Class.forName("jdk.jfr.ValueDescriptor"); //$NON-NLS-1$
+		Class<?> nameClass = Class.forName("jdk.jfr.Name"); //$NON-NLS-1$
+		Class<?> labelClass = Class.forName("jdk.jfr.Label"); //$NON-NLS-1$
+		Class<?> categoryClass = Class.forName("jdk.jfr.Category"); //$NON-NLS-1$
+		Class<?> stackTraceClass = Class.forName("jdk.jfr.StackTrace"); //$NON-NLS-1$
+		Constructor<?> newAnnotation = annotationElementClass.getConstructor(Class.class, Object.class);
+		Constructor<?> newField = valueDescriptorClass.getConstructor(Class.class, String.class);
+		Method create = factoryClass.getMethod("create", List.class, List.class); //$NON-NLS-1$
+		Method getEventType = factoryClass.getMethod("getEventType"); //$NON-NLS-1$
+
+		Object[] factories = new Object[NAMES.length];
+		Object[] eventTypes = new Object[NAMES.length];
+		Object category = Array.newInstance(String.class, 2);
+		Array.set(category, 0, "Eclipse"); //$NON-NLS-1$
+		Array.set(category, 1, "Ant"); //$NON-NLS-1$
+		for (int i = 0; i < NAMES.length; i++) {
+			List<Object> annotations = new ArrayList<>(4);
+			annotations.add(newAnnotation.newInstance(nameClass, "org.eclipse.ant." + NAMES[i])); //$NON-NLS-1$
+			annotations.add(newAnnotation.newInstance(labelClass, LABELS[i]));
+			annotations.add(newAnnotation.newInstance(categoryClass, category));
+			// the stack traces would only show the reflective calls of this class
+			annotations.add(newAnnotation.newInstance(stackTraceClass, Boolean.FALSE));
+			List<Object> fields = new ArrayList<>(FIELD_NAMES[i].length);
+			for (int j = 0; j < FIELD_NAMES[i].length; j++) {
+				fields.add(newField.newInstance(FIELD_TYPES[i][j], FIELD_NAMES[i][j]));
+			}
+			factories[i] = create.invoke(null, annotations, fields);
+			eventTypes[i] = getEventType.invoke(factories[i]);
+		}
+		fgNewEvent = factoryClass.getMethod("newEvent"); //$NON-NLS-1$
+		fgIsEnabled = eventTypeClass.getMethod("isEnabled"); //$NON-NLS-1$
+		fgBegin = eventClass.getMethod("begin"); //$NON-NLS-1$
+		fgEnd = eventClass.getMethod("end"); //$NON-NLS-1$
+		fgSet = eventClass.getMethod("set", int.class, Object.class); //$NON-NLS-1$
+		fgShouldCommit = eventClass.getMethod("shouldCommit"); //$NON-NLS-1$
+		fgCommit = eventClass.getMethod("commit"); //$NON-NLS-1$
+		fgEventTypes = eventTypes;
+		fgFactories = factories;
+	}
+
+	/**
+	 * Returns whether the running VM provides the Flight Recorder API
+	 *
+	 * @return whether events can be emitted
+	 */
+	public static boolean isAvailable() {
+		return fgFactories != null;
+	}
+
+	/**
+	 * Starts an event of the given type.
+	 *
+	 * @param type
+	 *            one of the event type constants of this class
+	 * @return the started event, or <code>null</code> if the event type is not recorded
+	 */
+	public static Object begin(int type) {
+		if (fgFactories == null) {
+			return null;
+		}
+		try {
+			if (!((Boolean) fgIsEnabled.invoke(fgEventTypes[type])).booleanValue()) {
+				return null;
+			}
+			Object event = fgNewEvent.invoke(fgFactories[type]);
+			fgBegin.invoke(event);
+			return event;
+		}
+		catch (Exception e) {
+			return null;
+		}
+	}
+
+	/**
+	 * Ends the given event and commits it with the given values.
+	 *
+	 * @param event
+	 *            an event answered by {@link #begin(int)}, may be <code>null</code>
+	 * @param values
+	 *            the values of the fields of the event type, in the order documented for the type
+	 */
+	public static void commit(Object event, Object... values) {
+		if (event == null) {
+			return;
+		}
+		try {
+			fgEnd.invoke(event);
+			if (!((Boolean) fgShouldCommit.invoke(event)).booleanValue()) {
+				return;
+			}
+			for (int i = 0; i < values.length; i++) {
+				fgSet.invoke(event, Integer.valueOf(i), values[i]);
+			}
+			fgCommit.invoke(event);
+		}
+		catch (Exception e) {
+			// events are best effort
+		}
+	}
+
+	/**
+	 * Emits an event of the given type without a duration.
+	 *
+	 * @param type
+	 *            one of the event type constants of this class
+	 * @param values
+	 *            the values of the fields of the event type, in the order documented for the type
+	 */
+	public static void emit(int type, Object... values) {
+		commit(begin(type), values);
+	}
+}
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2013 IBM Corporation and others.
+ * Copyright (c) 2000, 2018 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -42,6 +42,17 @@ public class AntSecurityManager extends SecurityManager {
 		this(securityManager, restrictedThread, true);
 	}
 
+	/**
+	 * Returns whether the given thread is restricted from exiting the VM and, if not allowed, from setting system properties
+	 * 
+	 * @param thread
+	 *            the thread to check
+	 * @return whether the thread is restricted
+	 */
+	protected boolean isRestricted(Thread thread) {
+		return thread == fRestrictedThread;
+	}
+
 	/*
 	 * (non-Javadoc)
 	 * 
@@ -52,7 +63,7 @@ public class AntSecurityManager extends SecurityManager {
 		// no exit allowed from the restricted thread...System.exit is being called
 		// by some ant task...do not want Eclipse to exit if
 		// in the same VM.
-		if (Thread.currentThread() == fRestrictedThread) {
+		if (isRestricted(Thread.currentThread())) {
 			throw new AntSecurityException();
 		}
 		if (fSecurityManager != null) {
@@ -275,7 +286,7 @@ public class AntSecurityManager extends SecurityManager {
 	 */
 	@Override
 	public void checkPermission(Permission perm) {
-		if (!fAllowSettingSystemProperties && fgPropertyPermission.implies(perm) && fRestrictedThread == Thread.currentThread()) {
+		if (!fAllowSettingSystemProperties && fgPropertyPermission.implies(perm) && isRestricted(Thread.currentThread())) {
 			// attempting to write a system property
 			throw new AntSecurityException();
 		}
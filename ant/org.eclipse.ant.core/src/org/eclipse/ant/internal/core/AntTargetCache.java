@@ -0,0 +1,243 @@
+/*******************************************************************************
+ * Copyright (c) 2018 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.ant.internal.core;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.eclipse.ant.core.TargetInfo;
+
+/**
+ * Caches the target information computed for buildfiles so that asking for the targets of an unchanged buildfile does not parse the buildfile and
+ * all of its imports again.
+ * <p>
+ * Entries are keyed by the buildfile location and the properties that were in effect when the buildfile was parsed. An entry is only answered
+ * while the modification stamps of the buildfile, of every file it imported and of every property file that its top level tasks read are
+ * unchanged. A property file that did not exist when the buildfile was parsed invalidates the entry once it is created.
+ * </p>
+ */
+public class AntTargetCache {
+
+	/**
+	 * The maximum number of buildfile entries kept in the cache
+	 */
+	private static final int MAX_ENTRIES = 32;
+
+	/**
+	 * The coarsest granularity, in milliseconds, of the modification times kept by the file systems that buildfiles may be on. A file modified less
+	 * than this before the parse started may be modified again without changing its modification time.
+	 */
+	static final long MODIFICATION_GRANULARITY = 2000;
+
+	private static AntTargetCache fgDefault = null;
+
+	private final Map<Key, Entry> fEntries = new LinkedHashMap<Key, Entry>(MAX_ENTRIES, 0.75f, true) {
+		private static final long serialVersionUID = 1L;
+
+		@Override
+		protected boolean removeEldestEntry(Map.Entry<Key, AntTargetCache.Entry> eldest) {
+			return size() > MAX_ENTRIES;
+		}
+	};
+
+	/**
+	 * The target information computed from one parse of a buildfile
+	 */
+	public static class Entry {
+		private final List<TargetInfo> fTargets;
+		private final List<String> fTargetNames;
+		private final String fDefaultTarget;
+		private final boolean fDefaultFound;
+		private File[] fFiles = null;
+		private long[] fStamps = null;
+
+		/**
+		 * Constructor
+		 *
+		 * @param targets
+		 *            the target information in the order they were computed
+		 * @param targetNames
+		 *            the names of all of the targets
+		 * @param defaultTarget
+		 *            the name of the default target or <code>null</code>
+		 * @param defaultFound
+		 *            whether the default target exists in the buildfile
+		 */
+		public Entry(List<TargetInfo> targets, List<String> targetNames, String defaultTarget, boolean defaultFound) {
+			fTargets = Collections.unmodifiableList(new ArrayList<>(targets));
+			fTargetNames = Collections.unmodifiableList(new ArrayList<>(targetNames));
+			fDefaultTarget = defaultTarget;
+			fDefaultFound = defaultFound;
+		}
+
+		/**
+		 * @return the unmodifiable list of target information
+		 */
+		public List<TargetInfo> getTargets() {
+			return fTargets;
+		}
+
+		/**
+		 * @return the unmodifiable list of target names
+		 */
+		public List<String> getTargetNames() {
+			return fTargetNames;
+		}
+
+		/**
+		 * @return the name of the default target or <code>null</code>
+		 */
+		public String getDefaultTarget() {
+			return fDefaultTarget;
+		}
+
+		/**
+		 * @return whether the default target exists in the buildfile
+		 */
+		public boolean isDefaultFound() {
+			return fDefaultFound;
+		}
+
+		/**
+		 * Records the current stamps of the given files. Returns <code>false</code> if any file has been modified since, or within the modification
+		 * time granularity before, the given time, in which case the stamps cannot be trusted to describe what was parsed, or if a parsed file no
+		 * longer exists. Optional files are recorded as missing if they do not exist.
+		 */
+		boolean recordStamps(List<File> files, List<File> optionalFiles, long parseStart) {
+			File[] inputs = new File[files.size() + optionalFiles.size()];
+			files.toArray(inputs);
+			for (int i = 0; i < optionalFiles.size(); i++) {
+				inputs[files.size() + i] = optionalFiles.get(i);
+			}
+			long[] stamps = new long[inputs.length * 2];
+			for (int i = 0; i < inputs.length; i++) {
+				long modified = inputs[i].lastModified();
+				if ((modified == 0 && i < files.size()) || modified >= parseStart - MODIFICATION_GRANULARITY) {
+					return false;
+				}
+				stamps[i * 2] = modified;
+				stamps[i * 2 + 1] = inputs[i].length();
+			}
+			fFiles = inputs;
+			fStamps = stamps;
+			return true;
+		}
+
+		/**
+		 * Returns whether none of the files that were read to compute this entry have changed since.
+		 */
+		boolean isCurrent() {
+			if (fFiles == null) {
+				return false;
+			}
+			for (int i = 0; i < fFiles.length; i++) {
+				if (fFiles[i].lastModified() != fStamps[i * 2] || fFiles[i].length() != fStamps[i * 2 + 1]) {
+					return false;
+				}
+			}
+			return true;
+		}
+	}
+
+	private static class Key {
+		private final String fLocation;
+		private final Map<String, String> fProperties;
+
+		Key(String location, Map<String, String> properties) {
+			fLocation = location;
+			fProperties = properties == null ? Collections.<String, String> emptyMap() : new HashMap<>(properties);
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			if (!(obj instanceof Key)) {
+				return false;
+			}
+			Key other = (Key) obj;
+			return fLocation.equals(other.fLocation) && fProperties.equals(other.fProperties);
+		}
+
+		@Override
+		public int hashCode() {
+			return fLocation.hashCode() * 31 + fProperties.hashCode();
+		}
+	}
+
+	/**
+	 * Returns the shared target cache
+	 *
+	 * @return the shared target cache
+	 */
+	public static synchronized AntTargetCache getDefault() {
+		if (fgDefault == null) {
+			fgDefault = new AntTargetCache();
+		}
+		return fgDefault;
+	}
+
+	/**
+	 * Returns the cached target information for the given buildfile or <code>null</code> if there is none or the buildfile or any of its imports
+	 * has changed since the information was computed.
+	 *
+	 * @param buildFileLocation
+	 *            the absolute location of the buildfile
+	 * @param properties
+	 *            the properties the buildfile would be parsed with
+	 * @return the current cache entry or <code>null</code>
+	 */
+	public synchronized Entry get(String buildFileLocation, Map<String, String> properties) {
+		Key key = new Key(buildFileLocation, properties);
+		Entry entry = fEntries.get(key);
+		if (entry != null && !entry.isCurrent()) {
+			fEntries.remove(key);
+			return null;
+		}
+		return entry;
+	}
+
+	/**
+	 * Caches the given target information. The entry is not cached if the files that were read are unknown or were modified while parsing.
+	 *
+	 * @param buildFileLocation
+	 *            the absolute location of the buildfile
+	 * @param properties
+	 *            the properties the buildfile was parsed with
+	 * @param entry
+	 *            the computed target information
+	 * @param files
+	 *            the buildfile and all the files it imported or <code>null</code> if they could not all be determined
+	 * @param propertyFiles
+	 *            the property files that the top level tasks read, which need not exist, or <code>null</code> if properties were read from other
+	 *            sources
+	 * @param parseStart
+	 *            the time the parse started at
+	 */
+	public synchronized void put(String buildFileLocation, Map<String, String> properties, Entry entry, List<File> files, List<File> propertyFiles, long parseStart) {
+		Key key = new Key(buildFileLocation, properties);
+		if (files == null || files.isEmpty() || propertyFiles == null || !entry.recordStamps(files, propertyFiles, parseStart)) {
+			fEntries.remove(key);
+			return;
+		}
+		fEntries.put(key, entry);
+	}
+
+	/**
+	 * Removes all entries from the cache
+	 */
+	public synchronized void clear() {
+		fEntries.clear();
+	}
+}
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2013 IBM Corporation and others.
+ * Copyright (c) 2000, 2018 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -161,4 +161,92 @@ public interface IAntCoreConstants {
 	 * @since 3.3.0
 	 */
 	public static final String TARGET_VECTOR_NAME = "eclipse.ant.targetVector"; //$NON-NLS-1$
+
+	/**
+	 * The name of the build listener that records a time profile of a build <br>
+	 * <br>
+	 * Value is: <code>org.eclipse.ant.internal.core.ant.ProfilingBuildListener</code>
+	 * 
+	 * @since 3.5.200
+	 */
+	public static final String PROFILING_BUILD_LISTENER = "org.eclipse.ant.internal.core.ant.ProfilingBuildListener"; //$NON-NLS-1$
+
+	/**
+	 * The name of the property specifying the file the profiling build listener writes its measurements to <br>
+	 * <br>
+	 * Value is: <code>eclipse.ant.profile.file</code>
+	 * 
+	 * @since 3.5.200
+	 */
+	public static final String PROFILE_FILE_PROPERTY = "eclipse.ant.profile.file"; //$NON-NLS-1$
+
+	/**
+	 * The name of the system property that reports collected build progress a few times per second instead of reporting progress for every
+	 * target and task of a build. The work that tasks report to their own progress monitor is not forwarded when it is set. <br>
+	 * <br>
+	 * Value is: <code>eclipse.ant.timeSlicedProgress</code>
+	 * 
+	 * @since 3.5.200
+	 */
+	public static final String TIME_SLICED_PROGRESS_PROPERTY = "eclipse.ant.timeSlicedProgress"; //$NON-NLS-1$
+
+	/**
+	 * The name of the system property that isolates builds run in the same VM from each other so that several of them can run at the same time
+	 * <br>
+	 * <br>
+	 * Value is: <code>eclipse.ant.isolatedBuilds</code>
+	 * 
+	 * @since 3.5.200
+	 */
+	public static final String ISOLATED_BUILDS_PROPERTY = "eclipse.ant.isolatedBuilds"; //$NON-NLS-1$
+
+	/**
+	 * The name of the system property that intercepts attempts of Ant tasks to exit the VM by rewriting the classes loaded for a build instead of by
+	 * installing a security manager <br>
+	 * <br>
+	 * Value is: <code>eclipse.ant.rewriteExitCalls</code>
+	 * 
+	 * @since 3.5.200
+	 */
+	public static final String REWRITE_EXIT_CALLS_PROPERTY = "eclipse.ant.rewriteExitCalls"; //$NON-NLS-1$
+
+	/**
+	 * The name of the property specifying the directory of the store that the outputs of targets are cached in. Only targets that declare their
+	 * outputs are cached. <br>
+	 * <br>
+	 * Value is: <code>eclipse.ant.targetOutputCache</code>
+	 * 
+	 * @since 3.5.200
+	 */
+	public static final String TARGET_OUTPUT_CACHE_PROPERTY = "eclipse.ant.targetOutputCache"; //$NON-NLS-1$
+
+	/**
+	 * The prefix of the id of the file set declaring the outputs of a target whose outputs are to be cached. The id is completed by the name of the
+	 * target. <br>
+	 * <br>
+	 * Value is: <code>eclipse.cache.outputs.</code>
+	 * 
+	 * @since 3.5.200
+	 */
+	public static final String CACHE_OUTPUTS_REFERENCE_PREFIX = "eclipse.cache.outputs."; //$NON-NLS-1$
+
+	/**
+	 * The prefix of the id of the resource collection declaring the inputs of a target whose outputs are to be cached. The id is completed by the
+	 * name of the target. <br>
+	 * <br>
+	 * Value is: <code>eclipse.cache.inputs.</code>
+	 * 
+	 * @since 3.5.200
+	 */
+	public static final String CACHE_INPUTS_REFERENCE_PREFIX = "eclipse.cache.inputs."; //$NON-NLS-1$
+
+	/**
+	 * The prefix of the name of the property listing the names of the properties that affect a target whose outputs are to be cached. The name is
+	 * completed by the name of the target. <br>
+	 * <br>
+	 * Value is: <code>eclipse.cache.properties.</code>
+	 * 
+	 * @since 3.5.200
+	 */
+	public static final String CACHE_PROPERTIES_PROPERTY_PREFIX = "eclipse.cache.properties."; //$NON-NLS-1$
 }
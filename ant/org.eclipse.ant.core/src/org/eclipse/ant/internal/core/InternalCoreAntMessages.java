@@ -1,5 +1,5 @@
 /**********************************************************************
- * Copyright (c) 2000, 2005 IBM Corporation and others. All rights reserved. This
+ * Copyright (c) 2000, 2018 IBM Corporation and others. All rights reserved. This
  * program and the accompanying materials are made available under the terms of
  * the Eclipse Public License v1.0 which accompanies this distribution, and is
  * available at http://www.eclipse.org/legal/epl-v10.html
@@ -28,6 +28,15 @@ public class InternalCoreAntMessages extends NLS {
 	public static String AntRunner_Build_Failed__3;
 	public static String AntRunner_Already_in_progess;
 
+	public static String AntBatchRunner_No_manifest;
+	public static String AntBatchRunner_Invalid_thread_count;
+	public static String AntBatchRunner_Could_not_read_manifest;
+	public static String AntBatchRunner_Could_not_create_log_directory;
+	public static String AntBatchRunner_Canceled;
+	public static String AntBatchRunner_Build_successful;
+	public static String AntBatchRunner_Build_failed;
+	public static String AntBatchRunner_Summary;
+
 	static {
 		// load message values from bundle file
 		NLS.initializeMessages(BUNDLE_NAME, InternalCoreAntMessages.class);
@@ -0,0 +1,299 @@
+/*******************************************************************************
+ * Copyright (c) 2018 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.ant.internal.core;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Allows several Ant builds to run in the same VM at the same time.
+ * <p>
+ * While isolated builds are running, <code>System.out</code> and <code>System.err</code> are replaced by streams that hand the output of a thread to
+ * the streams of the build the thread belongs to. Unless the {@link AntExitInterceptor} is enabled, a single {@link AntSecurityManager} intercepts
+ * attempts to exit the VM from any thread that belongs to a build. A thread belongs to a build from {@link #beginBuild(PrintStream, PrintStream)}
+ * until {@link #endBuild()}; threads it creates in the meantime, for example for the <code>parallel</code> task, belong to the same build. Output
+ * of all other threads goes to the original streams, which are restored together with the original security manager when the last isolated build
+ * ends.
+ * </p>
+ * <p>
+ * System properties that a build must publish to the code it runs, such as <code>eclipse.ant.noInput</code>, are shared through
+ * {@link #shareSystemProperties(Map)}: builds that need the same values run at the same time, while a build that needs different values waits
+ * until the builds using the current values have released them.
+ * </p>
+ * <p>
+ * This class is loaded by the plug-in class loader so that it is shared by the builds, each of which has its own Ant class loader.
+ * </p>
+ */
+public final class IsolatedBuildSupport {
+
+	/**
+	 * The streams of the build a thread belongs to
+	 */
+	private static class BuildStreams {
+		final PrintStream fOut;
+		final PrintStream fErr;
+		volatile boolean fActive = true;
+
+		BuildStreams(PrintStream out, PrintStream err) {
+			fOut = out;
+			fErr = err;
+		}
+	}
+
+	/**
+	 * Writes to the build stream of the current thread or to the original stream if the thread does not belong to a running build
+	 */
+	private static class ThreadScopedOutputStream extends OutputStream {
+		final PrintStream fOriginal;
+		private final boolean fIsErr;
+
+		ThreadScopedOutputStream(PrintStream original, boolean isErr) {
+			fOriginal = original;
+			fIsErr = isErr;
+		}
+
+		private PrintStream getStream() {
+			BuildStreams streams = fgBuildStreams.get();
+			if (streams == null || !streams.fActive) {
+				return fOriginal;
+			}
+			return fIsErr ? streams.fErr : streams.fOut;
+		}
+
+		@Override
+		public void write(int b) throws IOException {
+			getStream().write(b);
+		}
+
+		@Override
+		public void write(byte[] b, int off, int len) throws IOException {
+			getStream().write(b, off, len);
+		}
+
+		@Override
+		public void flush() throws IOException {
+			getStream().flush();
+		}
+	}
+
+	/**
+	 * A print stream that remembers the original stream it replaced
+	 */
+	private static class ThreadScopedPrintStream extends PrintStream {
+		ThreadScopedPrintStream(PrintStream original, boolean isErr) {
+			super(new ThreadScopedOutputStream(original, isErr), true);
+		}
+
+		PrintStream getOriginal() {
+			return ((ThreadScopedOutputStream) out).fOriginal;
+		}
+
+		@Override
+		public void close() {
+			// the console streams are never closed by a build
+			flush();
+		}
+	}
+
+	private static final InheritableThreadLocal<BuildStreams> fgBuildStreams = new InheritableThreadLocal<>();
+
+	private static int fgRunningBuilds = 0;
+	private static ThreadScopedPrintStream fgOut = null;
+	private static ThreadScopedPrintStream fgErr = null;
+	private static SecurityManager fgOriginalSecurityManager = null;
+	private static AntSecurityManager fgSecurityManager = null;
+
+	/**
+	 * The values of the system properties shared by the running isolated builds, <code>null</code> for a property that is not set, the values they
+	 * replaced and the number of builds sharing them
+	 */
+	private static final Map<String, String> fgSharedProperties = new HashMap<>();
+	private static final Map<String, String> fgReplacedProperties = new HashMap<>();
+	private static int fgPropertyUsers = 0;
+
+	/**
+	 * The number of times the current thread shares the system properties
+	 */
+	private static final ThreadLocal<int[]> fgPropertyHolds = new ThreadLocal<int[]>() {
+		@Override
+		protected int[] initialValue() {
+			return new int[1];
+		}
+	};
+
+	private IsolatedBuildSupport() {
+		// no instances
+	}
+
+	/**
+	 * Returns whether builds run in the same VM are to be isolated from each other so that they can run at the same time.
+	 *
+	 * @return whether builds are to be isolated
+	 * @see IAntCoreConstants#ISOLATED_BUILDS_PROPERTY
+	 */
+	public static boolean isEnabled() {
+		return Boolean.getBoolean(IAntCoreConstants.ISOLATED_BUILDS_PROPERTY);
+	}
+
+	/**
+	 * Makes the current thread belong to a build writing to the given streams. Installs the thread scoped system streams and the exit intercepting
+	 * security manager if no other isolated build is running.
+	 *
+	 * @param out
+	 *            the stream for output written to <code>System.out</code> by the build
+	 * @param err
+	 *            the stream for output written to <code>System.err</code> by the build
+	 */
+	public static synchronized void beginBuild(PrintStream out, PrintStream err) {
+		if (fgRunningBuilds == 0) {
+			fgOut = new ThreadScopedPrintStream(System.out, false);
+			fgErr = new ThreadScopedPrintStream(System.err, true);
+			System.setOut(fgOut);
+			System.setErr(fgErr);
+			if (!AntExitInterceptor.isEnabled()) {
+				fgOriginalSecurityManager = System.getSecurityManager();
+				fgSecurityManager = new AntSecurityManager(fgOriginalSecurityManager, null) {
+					@Override
+					protected boolean isRestricted(Thread thread) {
+						return isBuildThread();
+					}
+				};
+				System.setSecurityManager(fgSecurityManager);
+			}
+		}
+		fgRunningBuilds++;
+		fgBuildStreams.set(new BuildStreams(out, err));
+	}
+
+	/**
+	 * Ends the build of the current thread. The threads of the build no longer write to its streams. Restores the original system streams and
+	 * security manager if no other isolated build is running.
+	 */
+	public static synchronized void endBuild() {
+		BuildStreams streams = fgBuildStreams.get();
+		if (streams == null) {
+			return;
+		}
+		streams.fActive = false;
+		fgBuildStreams.remove();
+		fgRunningBuilds--;
+		if (fgRunningBuilds == 0) {
+			if (System.out == fgOut) {
+				System.setOut(fgOut.getOriginal());
+			}
+			if (System.err == fgErr) {
+				System.setErr(fgErr.getOriginal());
+			}
+			if (fgSecurityManager != null && System.getSecurityManager() == fgSecurityManager) {
+				System.setSecurityManager(fgOriginalSecurityManager);
+			}
+			fgOut = null;
+			fgErr = null;
+			fgSecurityManager = null;
+			fgOriginalSecurityManager = null;
+		}
+	}
+
+	/**
+	 * Sets the given system properties for the build of the current thread. If other isolated builds are using different values, waits until they
+	 * have released them. A thread that already shares the system properties, for example because it runs a build from within a build, does not
+	 * wait and uses the values that are set. Every call must be followed by a call to {@link #releaseSystemProperties()}.
+	 *
+	 * @param properties
+	 *            the names and values of the system properties, <code>null</code> values for properties that must not be set
+	 */
+	public static synchronized void shareSystemProperties(Map<String, String> properties) {
+		int[] holds = fgPropertyHolds.get();
+		if (holds[0] == 0) {
+			boolean interrupted = false;
+			while (fgPropertyUsers > 0 && !fgSharedProperties.equals(properties)) {
+				try {
+					IsolatedBuildSupport.class.wait();
+				}
+				catch (InterruptedException e) {
+					interrupted = true;
+				}
+			}
+			if (interrupted) {
+				Thread.currentThread().interrupt();
+			}
+			if (fgPropertyUsers == 0) {
+				for (Map.Entry<String, String> entry : properties.entrySet()) {
+					String name = entry.getKey();
+					fgReplacedProperties.put(name, System.getProperty(name));
+					setSystemProperty(name, entry.getValue());
+				}
+				fgSharedProperties.putAll(properties);
+			}
+		}
+		holds[0]++;
+		fgPropertyUsers++;
+	}
+
+	/**
+	 * Releases the system properties shared by the build of the current thread. Restores the values the properties replaced once no build shares
+	 * them.
+	 */
+	public static synchronized void releaseSystemProperties() {
+		int[] holds = fgPropertyHolds.get();
+		if (holds[0] == 0) {
+			return;
+		}
+		holds[0]--;
+		if (holds[0] == 0) {
+			fgPropertyHolds.remove();
+		}
+		fgPropertyUsers--;
+		if (fgPropertyUsers == 0) {
+			for (Map.Entry<String, String> entry : fgReplacedProperties.entrySet()) {
+				setSystemProperty(entry.getKey(), entry.getValue());
+			}
+			fgReplacedProperties.clear();
+			fgSharedProperties.clear();
+			IsolatedBuildSupport.class.notifyAll();
+		}
+	}
+
+	private static void setSystemProperty(String name, String value) {
+		if (value == null) {
+			System.getProperties().remove(name);
+		} else {
+			System.setProperty(name, value);
+		}
+	}
+
+	/**
+	 * Returns whether the current thread belongs to a running isolated build.
+	 *
+	 * @return whether the current thread belongs to a running build
+	 */
+	public static boolean isBuildThread() {
+		BuildStreams streams = fgBuildStreams.get();
+		return streams != null && streams.fActive;
+	}
+
+	/**
+	 * Returns the stream the given stream writes to when it is a system stream installed for isolated builds, otherwise the given stream.
+	 *
+	 * @param stream
+	 *            a print stream
+	 * @return the console stream for the given stream
+	 */
+	public static PrintStream getConsoleStream(PrintStream stream) {
+		if (stream instanceof ThreadScopedPrintStream) {
+			return ((ThreadScopedPrintStream) stream).getOriginal();
+		}
+		return stream;
+	}
+}
@@ -0,0 +1,153 @@
+/*******************************************************************************
+ * Copyright (c) 2018 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.ant.internal.core;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+
+/**
+ * Caches the contents of property files so that builds using the same property files do not read and parse them again.
+ * <p>
+ * Entries are keyed by the canonical path of a file and are only answered while the modification time and the size of the file are unchanged.
+ * A file that was modified shortly before it was read is not cached, as it may be modified again without changing its modification time on file
+ * systems that keep these times in steps of a second or more. The cached contents are unmodifiable and shared by all callers.
+ * </p>
+ */
+public class PropertyFileCache {
+
+	/**
+	 * The maximum number of property files kept in the cache
+	 */
+	private static final int MAX_ENTRIES = 32;
+
+	private static PropertyFileCache fgDefault = null;
+
+	private final Map<String, Entry> fEntries = new LinkedHashMap<String, Entry>(MAX_ENTRIES, 0.75f, true) {
+		private static final long serialVersionUID = 1L;
+
+		@Override
+		protected boolean removeEldestEntry(Map.Entry<String, PropertyFileCache.Entry> eldest) {
+			return size() > MAX_ENTRIES;
+		}
+	};
+
+	/**
+	 * The contents of one property file
+	 */
+	public static class Entry {
+		private final long fModified;
+		private final long fLength;
+		private final Map<String, String> fProperties;
+		private final List<String> fNamesWithVariables;
+
+		Entry(long modified, long length, Map<String, String> properties, List<String> namesWithVariables) {
+			fModified = modified;
+			fLength = length;
+			fProperties = Collections.unmodifiableMap(properties);
+			fNamesWithVariables = Collections.unmodifiableList(namesWithVariables);
+		}
+
+		/**
+		 * @return the unmodifiable map of the properties in the file
+		 */
+		public Map<String, String> getProperties() {
+			return fProperties;
+		}
+
+		/**
+		 * @return the unmodifiable list of the names of the properties whose name or value may refer to variables
+		 */
+		public List<String> getNamesWithVariables() {
+			return fNamesWithVariables;
+		}
+
+		boolean isCurrent(File file) {
+			return file.lastModified() == fModified && file.length() == fLength;
+		}
+	}
+
+	/**
+	 * Returns the shared property file cache
+	 *
+	 * @return the shared property file cache
+	 */
+	public static synchronized PropertyFileCache getDefault() {
+		if (fgDefault == null) {
+			fgDefault = new PropertyFileCache();
+		}
+		return fgDefault;
+	}
+
+	/**
+	 * Returns the contents of the given property file, reading the file if it is not cached or has changed since it was cached.
+	 *
+	 * @param file
+	 *            the property file
+	 * @return the contents of the file
+	 * @throws IOException
+	 *             if the file cannot be read
+	 */
+	public Entry getEntry(File file) throws IOException {
+		String path = file.getCanonicalPath();
+		synchronized (this) {
+			Entry entry = fEntries.get(path);
+			if (entry != null && entry.isCurrent(file)) {
+				AntBuildStatistics.getDefault().propertyFileLoaded(true);
+				AntFlightRecorder.emit(AntFlightRecorder.PROPERTY_FILE, path, Boolean.TRUE);
+				return entry;
+			}
+		}
+		Object event = AntFlightRecorder.begin(AntFlightRecorder.PROPERTY_FILE);
+		long readStart = System.currentTimeMillis();
+		long modified = file.lastModified();
+		long length = file.length();
+		Properties props = new Properties();
+		try (FileInputStream fis = new FileInputStream(file)) {
+			props.load(fis);
+		}
+		Map<String, String> properties = new HashMap<>(props.size() * 4 / 3 + 1);
+		List<String> namesWithVariables = new ArrayList<>();
+		for (String name : props.stringPropertyNames()) {
+			String value = props.getProperty(name);
+			properties.put(name, value);
+			if (name.indexOf("${") != -1 || value.indexOf("${") != -1) { //$NON-NLS-1$ //$NON-NLS-2$
+				namesWithVariables.add(name);
+			}
+		}
+		Entry entry = new Entry(modified, length, properties, namesWithVariables);
+		synchronized (this) {
+			// a file modified while or just before being read may change again without changing its stamp
+			if (modified == 0 || modified >= readStart - AntTargetCache.MODIFICATION_GRANULARITY || !entry.isCurrent(file)) {
+				fEntries.remove(path);
+			} else {
+				fEntries.put(path, entry);
+			}
+		}
+		AntBuildStatistics.getDefault().propertyFileLoaded(false);
+		AntFlightRecorder.commit(event, path, Boolean.FALSE);
+		return entry;
+	}
+
+	/**
+	 * Removes all entries from the cache
+	 */
+	public synchronized void clear() {
+		fEntries.clear();
+	}
+}
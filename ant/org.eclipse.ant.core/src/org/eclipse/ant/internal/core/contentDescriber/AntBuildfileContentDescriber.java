@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2004, 2013 IBM Corporation and others.
+ * Copyright (c) 2004, 2018 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -14,6 +14,7 @@ package org.eclipse.ant.internal.core.contentDescriber;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.Reader;
+import java.util.Map;
 
 import javax.xml.parsers.ParserConfigurationException;
 
@@ -32,11 +33,22 @@ import org.xml.sax.SAXException;
  * likely Ant element is found (classpath, import, macrodef, path, property, taskdef, typedef) returns VALID else: returns INDETERMINATE else returns
  * INDETERMINATE
  * </p>
+ * <p>
+ * The start of the contents is scanned first so that most files are described without being parsed. The scan is turned off by the describer
+ * parameter <code>prefilter</code> with the value <code>false</code>.
+ * </p>
  * 
  * @since 3.1
  */
 public final class AntBuildfileContentDescriber extends XMLContentDescriber implements IExecutableExtension {
 
+	/**
+	 * The describer parameter that turns the scan of the start of the contents on or off
+	 */
+	public static final String PREFILTER_PARAMETER = "prefilter"; //$NON-NLS-1$
+
+	private boolean fPrefilter = true;
+
 	/*
 	 * (Intentionally not included in javadoc) Determines the validation status for the given contents.
 	 * 
@@ -89,6 +101,13 @@ public final class AntBuildfileContentDescriber extends XMLContentDescriber impl
 		}
 		// super.describe will have consumed some chars, need to rewind
 		contents.reset();
+		// settle the common cases without parsing
+		if (fPrefilter) {
+			int result = AntBuildfilePrefilter.describe(contents);
+			if (result != AntBuildfilePrefilter.UNDECIDED) {
+				return result;
+			}
+		}
 		// Check to see if we matched our criteria.
 		return checkCriteria(new InputSource(contents));
 	}
@@ -106,6 +125,13 @@ public final class AntBuildfileContentDescriber extends XMLContentDescriber impl
 		}
 		// super.describe will have consumed some chars, need to rewind
 		contents.reset();
+		// settle the common cases without parsing
+		if (fPrefilter) {
+			int result = AntBuildfilePrefilter.describe(contents);
+			if (result != AntBuildfilePrefilter.UNDECIDED) {
+				return result;
+			}
+		}
 		// Check to see if we matched our criteria.
 		return checkCriteria(new InputSource(contents));
 	}
@@ -118,6 +144,8 @@ public final class AntBuildfileContentDescriber extends XMLContentDescriber impl
 	 */
 	@Override
 	public void setInitializationData(IConfigurationElement config, String propertyName, Object data) throws CoreException {
-		// do nothing
+		if (data instanceof Map) {
+			fPrefilter = !Boolean.FALSE.toString().equals(((Map<?, ?>) data).get(PREFILTER_PARAMETER));
+		}
 	}
 }
\ No newline at end of file
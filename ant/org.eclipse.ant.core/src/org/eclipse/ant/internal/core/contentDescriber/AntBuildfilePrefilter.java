@@ -0,0 +1,313 @@
+/*******************************************************************************
+ * Copyright (c) 2018 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.ant.internal.core.contentDescriber;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+
+import org.eclipse.ant.internal.core.IAntCoreConstants;
+import org.eclipse.core.runtime.content.IContentDescriber;
+
+/**
+ * Decides the common cases of describing an Ant buildfile from the beginning of its contents without parsing it.
+ * <p>
+ * The prefilter reads the start of the contents and scans the prolog, the start tag of the top-level element and the start tags of its children
+ * the way {@link AntHandler} would receive them. It answers {@link #UNDECIDED} whenever the answer of the parser is not certain, for example for
+ * encodings that are not compatible with ASCII, internal DTD subsets, entity references, prefixed element names or contents that are longer than
+ * the part that is read.
+ * </p>
+ */
+public final class AntBuildfilePrefilter {
+
+	/**
+	 * The result of the prefilter when the contents have to be parsed
+	 */
+	public static final int UNDECIDED = -1;
+
+	/**
+	 * The number of bytes or characters read from the start of the contents
+	 */
+	private static final int PREFIX_LENGTH = 8192;
+
+	private final String fContents;
+	private int fPosition = 0;
+
+	private AntBuildfilePrefilter(String contents) {
+		fContents = contents;
+	}
+
+	/**
+	 * Scans the start of the given contents, which are reset afterwards.
+	 *
+	 * @return {@link IContentDescriber#VALID}, {@link IContentDescriber#INDETERMINATE} or {@link #UNDECIDED}
+	 */
+	public static int describe(InputStream contents) throws IOException {
+		byte[] bytes = new byte[PREFIX_LENGTH];
+		int length = 0;
+		int read;
+		while (length < bytes.length && (read = contents.read(bytes, length, bytes.length - length)) != -1) {
+			length += read;
+		}
+		contents.reset();
+		int start = 0;
+		if (length >= 3 && bytes[0] == (byte) 0xEF && bytes[1] == (byte) 0xBB && bytes[2] == (byte) 0xBF) {
+			// UTF-8 byte order mark
+			start = 3;
+		} else if (length >= 2 && (bytes[0] == 0 || bytes[1] == 0 || bytes[0] == (byte) 0xFE || bytes[0] == (byte) 0xFF)) {
+			// UTF-16 or UTF-32
+			return UNDECIDED;
+		}
+		if (length > start && bytes[start] == (byte) 0x4C) {
+			// EBCDIC
+			return UNDECIDED;
+		}
+		// every byte maps to one character so that the ASCII markup can be scanned whatever the actual encoding
+		return new AntBuildfilePrefilter(new String(bytes, start, length - start, StandardCharsets.ISO_8859_1)).scan(true);
+	}
+
+	/**
+	 * Scans the start of the given contents, which are reset afterwards.
+	 *
+	 * @return {@link IContentDescriber#VALID}, {@link IContentDescriber#INDETERMINATE} or {@link #UNDECIDED}
+	 */
+	public static int describe(Reader contents) throws IOException {
+		char[] chars = new char[PREFIX_LENGTH];
+		int length = 0;
+		int read;
+		while (length < chars.length && (read = contents.read(chars, length, chars.length - length)) != -1) {
+			length += read;
+		}
+		contents.reset();
+		int start = length > 0 && chars[0] == '\uFEFF' ? 1 : 0;
+		return new AntBuildfilePrefilter(new String(chars, start, length - start)).scan(false);
+	}
+
+	private int scan(boolean checkEncoding) {
+		boolean rootFound = false;
+		int depth = 0;
+		while (true) {
+			int start = fContents.indexOf('<', fPosition);
+			if (start == -1) {
+				// the interesting part may follow the part read
+				return UNDECIDED;
+			}
+			if (!checkText(fPosition, start, depth > 0)) {
+				return UNDECIDED;
+			}
+			if (fContents.startsWith("<?", start)) { //$NON-NLS-1$
+				if (start == 0 && fContents.startsWith("<?xml", start) && checkEncoding && !isAsciiCompatible(start)) { //$NON-NLS-1$
+					return UNDECIDED;
+				}
+				if (!skipPast(start + 2, "?>")) { //$NON-NLS-1$
+					return UNDECIDED;
+				}
+			} else if (fContents.startsWith("<!--", start)) { //$NON-NLS-1$
+				if (!skipPast(start + 4, "-->")) { //$NON-NLS-1$
+					return UNDECIDED;
+				}
+			} else if (fContents.startsWith("<![CDATA[", start)) { //$NON-NLS-1$
+				if (depth == 0 || !skipPast(start + 9, "]]>")) { //$NON-NLS-1$
+					return UNDECIDED;
+				}
+			} else if (fContents.startsWith("<!DOCTYPE", start)) { //$NON-NLS-1$
+				if (rootFound || !skipDoctype(start + 9)) {
+					return UNDECIDED;
+				}
+			} else if (fContents.startsWith("</", start)) { //$NON-NLS-1$
+				if (depth == 0 || !skipPast(start + 2, ">")) { //$NON-NLS-1$
+					return UNDECIDED;
+				}
+				depth--;
+				if (depth == 0) {
+					// the project element ended without any of the elements looked for
+					return IContentDescriber.INDETERMINATE;
+				}
+			} else {
+				fPosition = start + 1;
+				String name = scanName();
+				if (name == null || name.indexOf(':') != -1) {
+					return UNDECIDED;
+				}
+				boolean defaultFound = false;
+				while (true) {
+					boolean whitespace = skipWhitespace();
+					if (fPosition >= fContents.length()) {
+						return UNDECIDED;
+					}
+					char c = fContents.charAt(fPosition);
+					if (c == '>' || c == '/') {
+						break;
+					}
+					String attribute = whitespace ? scanName() : null;
+					if (attribute == null || !scanAttributeValue()) {
+						return UNDECIDED;
+					}
+					if (IAntCoreConstants.DEFAULT.equals(attribute)) {
+						defaultFound = true;
+					}
+				}
+				boolean empty = fContents.charAt(fPosition) == '/';
+				if (empty && !fContents.startsWith("/>", fPosition)) { //$NON-NLS-1$
+					return UNDECIDED;
+				}
+				fPosition += empty ? 2 : 1;
+				if (!rootFound) {
+					rootFound = true;
+					if (!AntHandler.PROJECT.equals(name)) {
+						return IContentDescriber.INDETERMINATE;
+					}
+					if (defaultFound) {
+						return IContentDescriber.VALID;
+					}
+					if (empty) {
+						return IContentDescriber.INDETERMINATE;
+					}
+				} else if (depth == 1 && (AntHandler.TARGET.equals(name) || AntHandler.isTopLevelAntElement(name))) {
+					return IContentDescriber.VALID;
+				}
+				if (!empty) {
+					depth++;
+				}
+			}
+		}
+	}
+
+	/**
+	 * Returns whether the text between the given positions is what the parser would accept without consulting a DTD
+	 */
+	private boolean checkText(int start, int end, boolean inElement) {
+		for (int i = start; i < end; i++) {
+			char c = fContents.charAt(i);
+			if (!inElement && !isWhitespace(c)) {
+				return false;
+			}
+			if (c == '&' && !(fContents.startsWith("&#", i) || fContents.startsWith("&amp;", i) || fContents.startsWith("&lt;", i) //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+					|| fContents.startsWith("&gt;", i) || fContents.startsWith("&quot;", i) || fContents.startsWith("&apos;", i))) { //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Returns whether the encoding declared by the XML declaration at the given position maps ASCII characters to single bytes of the same value
+	 */
+	private boolean isAsciiCompatible(int start) {
+		int end = fContents.indexOf("?>", start); //$NON-NLS-1$
+		if (end == -1) {
+			return false;
+		}
+		String declaration = fContents.substring(start, end);
+		int index = declaration.indexOf("encoding"); //$NON-NLS-1$
+		if (index == -1) {
+			return true;
+		}
+		int quote = index + 8;
+		while (quote < declaration.length() && declaration.charAt(quote) != '"' && declaration.charAt(quote) != '\'') {
+			quote++;
+		}
+		int close = quote < declaration.length() ? declaration.indexOf(declaration.charAt(quote), quote + 1) : -1;
+		if (close == -1) {
+			return false;
+		}
+		String encoding = declaration.substring(quote + 1, close).toUpperCase(Locale.ENGLISH);
+		return encoding.equals("UTF-8") || encoding.equals("UTF8") || encoding.equals("US-ASCII") || encoding.equals("ASCII") //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$
+				|| encoding.startsWith("ISO-8859-") || encoding.startsWith("ISO8859") || encoding.startsWith("WINDOWS-125") || encoding.startsWith("CP125"); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$
+	}
+
+	private boolean skipPast(int start, String terminator) {
+		int end = fContents.indexOf(terminator, start);
+		if (end == -1) {
+			return false;
+		}
+		fPosition = end + terminator.length();
+		return true;
+	}
+
+	/**
+	 * Skips a document type declaration that has no internal subset
+	 */
+	private boolean skipDoctype(int start) {
+		char quote = 0;
+		for (int i = start; i < fContents.length(); i++) {
+			char c = fContents.charAt(i);
+			if (quote != 0) {
+				if (c == quote) {
+					quote = 0;
+				}
+			} else if (c == '"' || c == '\'') {
+				quote = c;
+			} else if (c == '[') {
+				// the internal subset may declare entities or default attributes
+				return false;
+			} else if (c == '>') {
+				fPosition = i + 1;
+				return true;
+			}
+		}
+		return false;
+	}
+
+	private boolean skipWhitespace() {
+		int start = fPosition;
+		while (fPosition < fContents.length() && isWhitespace(fContents.charAt(fPosition))) {
+			fPosition++;
+		}
+		return fPosition > start;
+	}
+
+	private String scanName() {
+		int start = fPosition;
+		while (fPosition < fContents.length()) {
+			char c = fContents.charAt(fPosition);
+			if (isWhitespace(c) || c == '>' || c == '/' || c == '=' || c == '<' || c == '"' || c == '\'') {
+				break;
+			}
+			fPosition++;
+		}
+		return fPosition > start ? fContents.substring(start, fPosition) : null;
+	}
+
+	private boolean scanAttributeValue() {
+		skipWhitespace();
+		if (fPosition >= fContents.length() || fContents.charAt(fPosition) != '=') {
+			return false;
+		}
+		fPosition++;
+		skipWhitespace();
+		if (fPosition >= fContents.length()) {
+			return false;
+		}
+		char quote = fContents.charAt(fPosition);
+		if (quote != '"' && quote != '\'') {
+			return false;
+		}
+		int end = fContents.indexOf(quote, fPosition + 1);
+		if (end == -1) {
+			return false;
+		}
+		for (int i = fPosition + 1; i < end; i++) {
+			char c = fContents.charAt(i);
+			if (c == '<' || c == '&') {
+				return false;
+			}
+		}
+		fPosition = end + 1;
+		return true;
+	}
+
+	private static boolean isWhitespace(char c) {
+		return c == ' ' || c == '\t' || c == '\n' || c == '\r';
+	}
+}
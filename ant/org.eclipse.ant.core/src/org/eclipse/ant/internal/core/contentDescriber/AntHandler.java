@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2004, 2011 IBM Corporation and others.
+ * Copyright (c) 2004, 2018 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -53,8 +53,8 @@ public final class AntHandler extends DefaultHandler {
 		}
 	}
 
-	private static final String PROJECT = "project"; //$NON-NLS-1$
-	private static final String TARGET = "target"; //$NON-NLS-1$
+	static final String PROJECT = "project"; //$NON-NLS-1$
+	static final String TARGET = "target"; //$NON-NLS-1$
 	private static final String MACRODEF = "macrodef"; //$NON-NLS-1$
 	private static final String TASKDEF = "taskdef"; //$NON-NLS-1$
 	private static final String TYPEDEF = "typedef"; //$NON-NLS-1$
@@ -68,7 +68,13 @@ public final class AntHandler extends DefaultHandler {
 	 * successful to the point of finding the top-level element.
 	 */
 	private String fTopElementFound = null;
-	private SAXParserFactory fFactory;
+	private static SAXParserFactory fgFactory;
+
+	/**
+	 * The parser of each thread that is not currently parsing. Parsers are reset after use and reused to avoid creating one for every file
+	 * described.
+	 */
+	private static final ThreadLocal<SAXParser> fgParsers = new ThreadLocal<>();
 
 	private boolean fDefaultAttributeFound = false;
 	private boolean fTargetFound = false;
@@ -88,7 +94,14 @@ public final class AntHandler extends DefaultHandler {
 	private final SAXParser createParser(SAXParserFactory parserFactory) throws ParserConfigurationException, SAXException, SAXNotRecognizedException, SAXNotSupportedException {
 		// Initialize the parser.
 		final SAXParser parser = parserFactory.newSAXParser();
-		final XMLReader reader = parser.getXMLReader();
+		configureReader(parser.getXMLReader());
+		return parser;
+	}
+
+	/**
+	 * Configures the reader of a new parser or of a parser that has been reset
+	 */
+	private void configureReader(XMLReader reader) {
 		// disable DTD validation (bug 63625)
 		try {
 			// be sure validation is "off" or the feature to ignore DTD's will not apply
@@ -101,28 +114,32 @@ public final class AntHandler extends DefaultHandler {
 		catch (SAXNotSupportedException e) {
 			// not a big deal if the parser does not support the features
 		}
-		return parser;
 	}
 
-	private SAXParserFactory getFactory() {
-		synchronized (this) {
-			if (fFactory != null) {
-				return fFactory;
-			}
-			fFactory = SAXParserFactory.newInstance();
-			fFactory.setNamespaceAware(true);
+	private static synchronized SAXParserFactory getFactory() {
+		if (fgFactory == null) {
+			fgFactory = SAXParserFactory.newInstance();
+			fgFactory.setNamespaceAware(true);
 		}
-		return fFactory;
+		return fgFactory;
 	}
 
 	protected boolean parseContents(InputSource contents) throws IOException, ParserConfigurationException, SAXException {
 		// Parse the file into we have what we need (or an error occurs).
+		SAXParser parser = fgParsers.get();
+		// the parser is not available to a nested description on the same thread while in use
+		fgParsers.remove();
+		boolean reusable = true;
 		try {
-			fFactory = getFactory();
-			if (fFactory == null) {
-				return false;
+			if (parser == null) {
+				SAXParserFactory factory = getFactory();
+				if (factory == null) {
+					return false;
+				}
+				parser = createParser(factory);
+			} else {
+				configureReader(parser.getXMLReader());
 			}
-			final SAXParser parser = createParser(fFactory);
 			// to support external entities specified as relative URIs (see bug 63298)
 			contents.setSystemId("/"); //$NON-NLS-1$
 			parser.parse(contents, this);
@@ -130,6 +147,22 @@ public final class AntHandler extends DefaultHandler {
 		catch (StopParsingException e) {
 			// Abort the parsing normally. Fall through...
 		}
+		catch (IOException | SAXException | RuntimeException e) {
+			// the parser may be left in any state
+			reusable = false;
+			throw e;
+		}
+		finally {
+			if (parser != null && reusable) {
+				try {
+					parser.reset();
+					fgParsers.set(parser);
+				}
+				catch (UnsupportedOperationException e) {
+					// the parser cannot be reused
+				}
+			}
+		}
 		return true;
 	}
 
@@ -170,9 +203,7 @@ public final class AntHandler extends DefaultHandler {
 		}
 
 		// top level Ant elements
-		if (fLevel == 1
-				&& (MACRODEF.equals(elementName) || TASKDEF.equals(elementName) || TYPEDEF.equals(elementName) || PROPERTY.equals(elementName)
-						|| CLASSPATH.equals(elementName) || PATH.equals(elementName) || IMPORT.equals(elementName))) {
+		if (fLevel == 1 && isTopLevelAntElement(elementName)) {
 			fAntElementFound = true;
 			throw new StopParsingException();
 		}
@@ -189,6 +220,15 @@ public final class AntHandler extends DefaultHandler {
 		fLevel--;
 	}
 
+	/**
+	 * Returns whether the given name is the name of an element other than <code>target</code> that is typically found directly within the project
+	 * element of a buildfile (classpath, import, macrodef, path, property, taskdef, typedef)
+	 */
+	static boolean isTopLevelAntElement(String elementName) {
+		return MACRODEF.equals(elementName) || TASKDEF.equals(elementName) || TYPEDEF.equals(elementName) || PROPERTY.equals(elementName)
+				|| CLASSPATH.equals(elementName) || PATH.equals(elementName) || IMPORT.equals(elementName);
+	}
+
 	protected boolean hasProjectDefaultAttribute() {
 		return fDefaultAttributeFound;
 	}
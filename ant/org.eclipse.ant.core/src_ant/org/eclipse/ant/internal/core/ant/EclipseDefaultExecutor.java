@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2005, 2013 IBM Corporation and others.
+ * Copyright (c) 2005, 2018 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -23,6 +23,20 @@ public class EclipseDefaultExecutor extends DefaultExecutor {
 
 	private static final EclipseSingleCheckExecutor SUB_EXECUTOR = new EclipseSingleCheckExecutor();
 
+	private final boolean fCacheOutputs;
+
+	public EclipseDefaultExecutor() {
+		this(false);
+	}
+
+	/**
+	 * @param cacheOutputs
+	 *            whether the outputs of targets are cached if the {@link IAntCoreConstants#TARGET_OUTPUT_CACHE_PROPERTY} property is set
+	 */
+	public EclipseDefaultExecutor(boolean cacheOutputs) {
+		fCacheOutputs = cacheOutputs;
+	}
+
 	/*
 	 * (non-Javadoc)
 	 * 
@@ -33,6 +47,12 @@ public class EclipseDefaultExecutor extends DefaultExecutor {
 		Vector<String> v = new Vector<>();
 		v.addAll(Arrays.asList(targetNames));
 		project.addReference(IAntCoreConstants.TARGET_VECTOR_NAME, v);
+		if (fCacheOutputs) {
+			String store = project.getProperty(IAntCoreConstants.TARGET_OUTPUT_CACHE_PROPERTY);
+			if (store != null && store.length() > 0) {
+				TargetOutputCache.install(project, project.resolveFile(store));
+			}
+		}
 		super.executeTargets(project, targetNames);
 	}
 
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2005 IBM Corporation and others.
+ * Copyright (c) 2005, 2018 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -20,7 +20,19 @@ import org.apache.tools.ant.Project;
 public class ExecutorSetter {
 
 	protected void setExecutor(Project project) {
-		Executor executor = new EclipseDefaultExecutor();
+		setExecutor(project, false);
+	}
+
+	/**
+	 * Sets the Eclipse executor on the given project
+	 * 
+	 * @param project
+	 *            the project
+	 * @param cacheOutputs
+	 *            whether the executor may cache the outputs of targets, which requires Ant 1.8 or later
+	 */
+	protected void setExecutor(Project project, boolean cacheOutputs) {
+		Executor executor = new EclipseDefaultExecutor(cacheOutputs);
 		project.setExecutor(executor);
 	}
 }
@@ -0,0 +1,137 @@
+/*******************************************************************************
+ * Copyright (c) 2018 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.ant.internal.core.ant;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+
+import org.apache.tools.ant.BuildEvent;
+import org.apache.tools.ant.BuildListener;
+import org.apache.tools.ant.Location;
+import org.apache.tools.ant.Project;
+import org.apache.tools.ant.Target;
+import org.apache.tools.ant.Task;
+import org.eclipse.ant.internal.core.AntBuildStatistics;
+import org.eclipse.ant.internal.core.AntFlightRecorder;
+
+/**
+ * Counts the executed targets and tasks in the {@link AntBuildStatistics} and emits a Flight Recorder event for each of them when such events are
+ * recorded. The build itself is recorded by {@link InternalAntRunner}.
+ */
+public class FlightRecorderBuildListener implements BuildListener {
+
+	/**
+	 * Stands for a target or task whose event is not recorded
+	 */
+	private static final Object NOT_RECORDED = new Object();
+
+	private final AntBuildStatistics fStatistics = AntBuildStatistics.getDefault();
+
+	private final ThreadLocal<Deque<Object>> fEvents = new ThreadLocal<Deque<Object>>() {
+		@Override
+		protected Deque<Object> initialValue() {
+			return new ArrayDeque<>();
+		}
+	};
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see org.apache.tools.ant.BuildListener#buildStarted(org.apache.tools.ant.BuildEvent)
+	 */
+	@Override
+	public void buildStarted(BuildEvent event) {
+		// recorded by the runner
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see org.apache.tools.ant.BuildListener#buildFinished(org.apache.tools.ant.BuildEvent)
+	 */
+	@Override
+	public void buildFinished(BuildEvent event) {
+		// recorded by the runner
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see org.apache.tools.ant.BuildListener#targetStarted(org.apache.tools.ant.BuildEvent)
+	 */
+	@Override
+	public void targetStarted(BuildEvent event) {
+		push(AntFlightRecorder.begin(AntFlightRecorder.TARGET));
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see org.apache.tools.ant.BuildListener#targetFinished(org.apache.tools.ant.BuildEvent)
+	 */
+	@Override
+	public void targetFinished(BuildEvent event) {
+		fStatistics.targetExecuted();
+		Object recorded = pop();
+		if (recorded == null) {
+			return;
+		}
+		Target target = event.getTarget();
+		Project project = target == null ? null : target.getProject();
+		AntFlightRecorder.commit(recorded, target == null ? null : target.getName(), project == null ? null : project.getName());
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see org.apache.tools.ant.BuildListener#taskStarted(org.apache.tools.ant.BuildEvent)
+	 */
+	@Override
+	public void taskStarted(BuildEvent event) {
+		push(AntFlightRecorder.begin(AntFlightRecorder.TASK));
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see org.apache.tools.ant.BuildListener#taskFinished(org.apache.tools.ant.BuildEvent)
+	 */
+	@Override
+	public void taskFinished(BuildEvent event) {
+		fStatistics.taskExecuted();
+		Object recorded = pop();
+		if (recorded == null) {
+			return;
+		}
+		Task task = event.getTask();
+		Location location = task == null ? null : task.getLocation();
+		AntFlightRecorder.commit(recorded, task == null ? null : task.getTaskName(), location == null ? null : location.toString());
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see org.apache.tools.ant.BuildListener#messageLogged(org.apache.tools.ant.BuildEvent)
+	 */
+	@Override
+	public void messageLogged(BuildEvent event) {
+		// not recorded
+	}
+
+	private void push(Object recorded) {
+		fEvents.get().push(recorded == null ? NOT_RECORDED : recorded);
+	}
+
+	private Object pop() {
+		Object recorded = fEvents.get().poll();
+		return recorded == NOT_RECORDED ? null : recorded;
+	}
+}
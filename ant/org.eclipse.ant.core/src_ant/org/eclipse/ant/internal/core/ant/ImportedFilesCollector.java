@@ -0,0 +1,103 @@
+/*******************************************************************************
+ * Copyright (c) 2018 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.ant.internal.core.ant;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.tools.ant.Project;
+import org.apache.tools.ant.ProjectHelper;
+import org.apache.tools.ant.Target;
+import org.apache.tools.ant.Task;
+import org.apache.tools.ant.types.Resource;
+import org.apache.tools.ant.types.resources.FileProvider;
+
+/**
+ * This class exists so that the Ant integration has backwards compatibility with Ant releases previous to 1.8. Imported buildfiles are tracked as
+ * resources on the import stack since Ant 1.8. The files that a parse read are only collected on Ant 1.8 or later.
+ */
+class ImportedFilesCollector {
+
+	/**
+	 * Returns the buildfile and all of the files it imported while being parsed into the given project, or <code>null</code> if any of them is not
+	 * a local file.
+	 */
+	protected List<File> getParsedFiles(Project project) {
+		Object helper = project.getReference("ant.projectHelper"); //$NON-NLS-1$
+		if (!(helper instanceof ProjectHelper)) {
+			return null;
+		}
+		List<?> importStack = ((ProjectHelper) helper).getImportStack();
+		List<File> files = new ArrayList<>(importStack.size());
+		for (Object source : importStack) {
+			File file = null;
+			if (source instanceof File) {
+				file = (File) source;
+			} else if (source instanceof Resource) {
+				FileProvider provider = ((Resource) source).as(FileProvider.class);
+				if (provider != null) {
+					file = provider.getFile();
+				}
+			}
+			if (file == null) {
+				return null;
+			}
+			files.add(file);
+		}
+		return files;
+	}
+
+	/**
+	 * Returns the property files that the top level tasks of the buildfile and its imports read while being parsed into the given project, or
+	 * <code>null</code> if a top level task reads properties from something other than a local file. The properties of these files can change the
+	 * files that are imported.
+	 */
+	protected List<File> getPropertyFiles(Project project) {
+		List<File> files = new ArrayList<>();
+		Target implicitTarget = project.getTargets().get(""); //$NON-NLS-1$
+		if (implicitTarget == null) {
+			return files;
+		}
+		for (Task task : implicitTarget.getTasks()) {
+			String name = task.getTaskName();
+			if (name == null) {
+				continue;
+			}
+			name = name.substring(name.indexOf(':') + 1);
+			Map<String, Object> attributes = task.getRuntimeConfigurableWrapper().getAttributeMap();
+			if ("property".equals(name)) { //$NON-NLS-1$
+				if (attributes.containsKey("resource") || attributes.containsKey("url")) { //$NON-NLS-1$ //$NON-NLS-2$
+					return null;
+				}
+				addFile(project, attributes.get("file"), files); //$NON-NLS-1$
+			} else if ("loadproperties".equals(name)) { //$NON-NLS-1$
+				if (!attributes.containsKey("srcfile")) { //$NON-NLS-1$
+					return null;
+				}
+				addFile(project, attributes.get("srcfile"), files); //$NON-NLS-1$
+			} else if ("xmlproperty".equals(name)) { //$NON-NLS-1$
+				if (!attributes.containsKey("file")) { //$NON-NLS-1$
+					return null;
+				}
+				addFile(project, attributes.get("file"), files); //$NON-NLS-1$
+			}
+		}
+		return files;
+	}
+
+	private void addFile(Project project, Object value, List<File> files) {
+		if (value != null) {
+			files.add(project.resolveFile(project.replaceProperties(value.toString())));
+		}
+	}
+}
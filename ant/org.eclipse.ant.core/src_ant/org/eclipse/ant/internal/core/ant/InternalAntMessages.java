@@ -1,5 +1,5 @@
 /*******************************************************************************
- *  Copyright (c) 2000, 2011 IBM Corporation and others.
+ *  Copyright (c) 2000, 2018 IBM Corporation and others.
  *  All rights reserved. This program and the accompanying materials
  *  are made available under the terms of the Eclipse Public License v1.0
  *  which accompanies this distribution, and is available at
@@ -60,8 +60,24 @@ public class InternalAntMessages extends NLS {
 
 	public static String ProgressBuildListener_Build_cancelled;
 
+	public static String ProfilingBuildListener_Build_time;
+	public static String ProfilingBuildListener_Targets;
+	public static String ProfilingBuildListener_Task_types;
+	public static String ProfilingBuildListener_Task_locations;
+	public static String ProfilingBuildListener_Columns;
+	public static String ProfilingBuildListener_Profile_written;
+	public static String ProfilingBuildListener_Could_not_write_profile;
+
 	public static String InternalProject_could_not_create_type;
 
+	public static String TargetOutputCache_Not_a_file_set;
+	public static String TargetOutputCache_Not_a_resource_collection;
+	public static String TargetOutputCache_Could_not_compute_fingerprint;
+	public static String TargetOutputCache_Restored_outputs;
+	public static String TargetOutputCache_Could_not_restore_outputs;
+	public static String TargetOutputCache_Stored_outputs;
+	public static String TargetOutputCache_Could_not_store_outputs;
+
 	static {
 		// load message values from bundle file
 		NLS.initializeMessages(BUNDLE_NAME, InternalAntMessages.class);
@@ -1,5 +1,5 @@
 /*******************************************************************************
- *  Copyright (c) 2000, 2017 IBM Corporation and others.
+ *  Copyright (c) 2000, 2018 IBM Corporation and others.
  *  All rights reserved. This program and the accompanying materials
  *  are made available under the terms of the Eclipse Public License v1.0
  *  which accompanies this distribution, and is available at
@@ -23,6 +23,7 @@ import java.net.URL;
 import java.text.MessageFormat;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.Enumeration;
 import java.util.HashMap;
 import java.util.Hashtable;
@@ -58,9 +59,14 @@ import org.eclipse.ant.core.TargetInfo;
 import org.eclipse.ant.core.Task;
 import org.eclipse.ant.core.Type;
 import org.eclipse.ant.internal.core.AbstractEclipseBuildLogger;
+import org.eclipse.ant.internal.core.AntBuildStatistics;
 import org.eclipse.ant.internal.core.AntCoreUtil;
+import org.eclipse.ant.internal.core.AntExitInterceptor;
+import org.eclipse.ant.internal.core.AntFlightRecorder;
 import org.eclipse.ant.internal.core.AntSecurityManager;
+import org.eclipse.ant.internal.core.AntTargetCache;
 import org.eclipse.ant.internal.core.IAntCoreConstants;
+import org.eclipse.ant.internal.core.IsolatedBuildSupport;
 import org.eclipse.core.runtime.CoreException;
 import org.eclipse.core.runtime.FileLocator;
 import org.eclipse.core.runtime.IPath;
@@ -133,6 +139,11 @@ public class InternalAntRunner {
 
 	private URL[] customClasspath = null;
 
+	/**
+	 * Whether this build runs isolated from other builds in the same VM
+	 */
+	private boolean isolated = false;
+
 	/**
 	 * The Ant InputHandler class. There may be only one input handler.
 	 */
@@ -384,6 +395,7 @@ public class InternalAntRunner {
 					buildFile.getAbsolutePath() }));
 		}
 
+		Object event = AntFlightRecorder.begin(AntFlightRecorder.PARSE);
 		if (!isVersionCompatible("1.5")) { //$NON-NLS-1$
 			parseBuildFile(project, buildFile);
 		} else {
@@ -391,6 +403,8 @@ public class InternalAntRunner {
 			project.addReference("ant.projectHelper", helper); //$NON-NLS-1$
 			helper.parse(project, buildFile);
 		}
+		AntBuildStatistics.getDefault().buildfileParsed(false);
+		AntFlightRecorder.commit(event, buildFile.getAbsolutePath(), Boolean.FALSE);
 	}
 
 	/**
@@ -426,37 +440,14 @@ public class InternalAntRunner {
 			if (isVersionCompatible("1.5")) { //$NON-NLS-1$
 				new InputHandlerSetter().setInputHandler(antProject, "org.eclipse.ant.internal.core.ant.NullInputHandler"); //$NON-NLS-1$
 			}
-			parseBuildFile(antProject);
-			defaultTarget = antProject.getDefaultTarget();
-			Hashtable<String, Target> projectTargets = antProject.getTargets();
-			ArrayList<TargetInfo> infos = new ArrayList<>();
-			ProjectInfo pinfo = new ProjectInfo(antProject.getName(), antProject.getDescription());
-			boolean defaultFound = false;
-			for (Target target : projectTargets.values()) {
-				String name = target.getName();
-				if (name.length() == 0) {
-					// "no name" implicit target of Ant 1.6
-					continue;
-				}
-				if (target.getName().equals(defaultTarget)) {
-					defaultFound = true;
-				}
-				ArrayList<String> dependencies = new ArrayList<>();
-				Enumeration<String> enumeration = target.getDependencies();
-				while (enumeration.hasMoreElements()) {
-					dependencies.add(enumeration.nextElement());
-				}
-				String[] dependencyArray = new String[dependencies.size()];
-				dependencies.toArray(dependencyArray);
-				TargetInfo info = new TargetInfo(pinfo, name, target.getDescription(), dependencyArray, defaultFound);
-				infos.add(info);
-			}
-			if (!defaultFound) {
+			AntTargetCache.Entry entry = getTargetEntry(antProject);
+			defaultTarget = entry.getDefaultTarget();
+			if (!entry.isDefaultFound()) {
 				// default target must exist
 				throw new BuildException(MessageFormat.format(InternalAntMessages.InternalAntRunner_Default_target_does_not_exist, new Object[] { "'", //$NON-NLS-1$
 						defaultTarget, "'" })); //$NON-NLS-1$
 			}
-			return infos;
+			return new ArrayList<>(entry.getTargets());
 		}
 		finally {
 			processAntHome(true);
@@ -483,24 +474,79 @@ public class InternalAntRunner {
 			if (isVersionCompatible("1.5")) { //$NON-NLS-1$
 				new InputHandlerSetter().setInputHandler(antProject, "org.eclipse.ant.internal.core.ant.NullInputHandler"); //$NON-NLS-1$
 			}
-			parseBuildFile(antProject);
-			Hashtable<String, Target> projectTargets = antProject.getTargets();
-			ArrayList<String> names = new ArrayList<>();
-			for (Target target : projectTargets.values()) {
-				String name = target.getName();
-				if (name.length() == 0) {
-					// "no name" implicit target of Ant 1.6
-					continue;
-				}
-				names.add(name);
-			}
-			return names;
+			return new ArrayList<>(getTargetEntry(antProject).getTargetNames());
 		}
 		finally {
 			processAntHome(true);
 		}
 	}
 
+	/**
+	 * Returns the target information of the build script, parsing the build script into the given project only if the shared
+	 * {@link AntTargetCache} has no current entry for the build script and the properties set on the project.
+	 * 
+	 * @param antProject
+	 *            the configured project to parse the build script into
+	 * @return the target information of the build script
+	 */
+	private AntTargetCache.Entry getTargetEntry(Project antProject) {
+		String location = getBuildFileLocation();
+		Map<String, String> inputs = new HashMap<>();
+		for (Entry<String, Object> property : antProject.getUserProperties().entrySet()) {
+			inputs.put(property.getKey(), String.valueOf(property.getValue()));
+		}
+		// ant.home is a system property, but it can affect the files that are imported
+		String antHome = System.getProperty("ant.home"); //$NON-NLS-1$
+		if (antHome != null) {
+			inputs.put("eclipse.ant.home", antHome); //$NON-NLS-1$
+		}
+		AntTargetCache cache = AntTargetCache.getDefault();
+		AntTargetCache.Entry entry = cache.get(location, inputs);
+		if (entry != null) {
+			AntBuildStatistics.getDefault().buildfileParsed(true);
+			AntFlightRecorder.emit(AntFlightRecorder.PARSE, location, Boolean.TRUE);
+			return entry;
+		}
+		long parseStart = System.currentTimeMillis();
+		parseBuildFile(antProject);
+		String dtarget = antProject.getDefaultTarget();
+		Hashtable<String, Target> projectTargets = antProject.getTargets();
+		ArrayList<TargetInfo> infos = new ArrayList<>();
+		ArrayList<String> names = new ArrayList<>();
+		ProjectInfo pinfo = new ProjectInfo(antProject.getName(), antProject.getDescription());
+		boolean defaultFound = false;
+		for (Target target : projectTargets.values()) {
+			String name = target.getName();
+			if (name.length() == 0) {
+				// "no name" implicit target of Ant 1.6
+				continue;
+			}
+			names.add(name);
+			if (target.getName().equals(dtarget)) {
+				defaultFound = true;
+			}
+			ArrayList<String> dependencies = new ArrayList<>();
+			Enumeration<String> enumeration = target.getDependencies();
+			while (enumeration.hasMoreElements()) {
+				dependencies.add(enumeration.nextElement());
+			}
+			String[] dependencyArray = new String[dependencies.size()];
+			dependencies.toArray(dependencyArray);
+			TargetInfo info = new TargetInfo(pinfo, name, target.getDescription(), dependencyArray, defaultFound);
+			infos.add(info);
+		}
+		entry = new AntTargetCache.Entry(infos, names, dtarget, defaultFound);
+		List<File> files = null;
+		List<File> propertyFiles = null;
+		if (isVersionCompatible("1.8")) { //$NON-NLS-1$
+			ImportedFilesCollector collector = new ImportedFilesCollector();
+			files = collector.getParsedFiles(antProject);
+			propertyFiles = collector.getPropertyFiles(antProject);
+		}
+		cache.put(location, inputs, entry, files, propertyFiles, parseStart);
+		return entry;
+	}
+
 	private Project getProject() {
 		Project antProject;
 		if (isVersionCompatible("1.6")) { //$NON-NLS-1$
@@ -556,7 +602,11 @@ public class InternalAntRunner {
 				chosenTargets.add(defltTarget);
 			}
 		}
-		project.addBuildListener(new ProgressBuildListener(project, chosenTargets, monitor));
+		if (isVersionCompatible("1.6.3") && Boolean.getBoolean(IAntCoreConstants.TIME_SLICED_PROGRESS_PROPERTY)) { //$NON-NLS-1$
+			project.addBuildListener(new TimeSlicedProgressBuildListener(project, chosenTargets, monitor));
+		} else {
+			project.addBuildListener(new ProgressBuildListener(project, chosenTargets, monitor));
+		}
 	}
 
 	/**
@@ -588,22 +638,38 @@ public class InternalAntRunner {
 	private void run(List<String> argList) {
 		setCurrentProject(new Project());
 		if (isVersionCompatible("1.6.3")) { //$NON-NLS-1$
-			new ExecutorSetter().setExecutor(currentProject);
+			new ExecutorSetter().setExecutor(currentProject, isVersionCompatible("1.8")); //$NON-NLS-1$
 		}
 		Throwable error = null;
 		PrintStream originalErr = System.err;
 		PrintStream originalOut = System.out;
 		InputStream originalIn = System.in;
+		if (isolated) {
+			// other isolated builds may have replaced the system streams
+			originalErr = IsolatedBuildSupport.getConsoleStream(originalErr);
+			originalOut = IsolatedBuildSupport.getConsoleStream(originalOut);
+			err = IsolatedBuildSupport.getConsoleStream(err);
+			out = IsolatedBuildSupport.getConsoleStream(out);
+		}
+		boolean isolatedBuildStarted = false;
+		long buildStart = System.currentTimeMillis();
+		Object buildEvent = AntFlightRecorder.begin(AntFlightRecorder.BUILD);
 
 		SecurityManager originalSM = System.getSecurityManager();
 		setJavaClassPath();
 		executed = true;
-		processAntHome(false);
+		if (!isolated) {
+			processAntHome(false);
+		}
 		try {
 			if (argList != null && (argList.remove("-projecthelp") || argList.remove("-p"))) { //$NON-NLS-1$ //$NON-NLS-2$
 				projectHelp = true;
 			}
 			getCurrentProject().init();
+			if (isolated) {
+				// the Ant home of other isolated builds may differ
+				setAntHomeProperties(getCurrentProject());
+			}
 			if (argList != null) {
 				executed = preprocessCommandLine(argList);
 				if (!executed) {
@@ -614,12 +680,18 @@ public class InternalAntRunner {
 			boolean exceptionState = processProperties(argList);
 
 			addBuildListeners(getCurrentProject(), true);
+			getCurrentProject().addBuildListener(new FlightRecorderBuildListener());
 
 			addInputHandler(getCurrentProject());
 
-			remapSystemIn();
-			System.setOut(new PrintStream(new DemuxOutputStream(getCurrentProject(), false)));
-			System.setErr(new PrintStream(new DemuxOutputStream(getCurrentProject(), true)));
+			if (isolated) {
+				IsolatedBuildSupport.beginBuild(new PrintStream(new DemuxOutputStream(getCurrentProject(), false)), new PrintStream(new DemuxOutputStream(getCurrentProject(), true)));
+				isolatedBuildStarted = true;
+			} else {
+				remapSystemIn();
+				System.setOut(new PrintStream(new DemuxOutputStream(getCurrentProject(), false)));
+				System.setErr(new PrintStream(new DemuxOutputStream(getCurrentProject(), true)));
+			}
 
 			if (!projectHelp) {
 				fireBuildStarted(getCurrentProject());
@@ -653,7 +725,11 @@ public class InternalAntRunner {
 			}
 
 			// needs to occur after processCommandLine(List)
-			if (allowInput && (inputHandlerClassname != null && inputHandlerClassname.length() > 0)) {
+			boolean inputAllowed = allowInput && (inputHandlerClassname != null && inputHandlerClassname.length() > 0);
+			if (isolated) {
+				// other isolated builds may need a different value
+				IsolatedBuildSupport.shareSystemProperties(Collections.singletonMap("eclipse.ant.noInput", inputAllowed ? null : "true")); //$NON-NLS-1$ //$NON-NLS-2$
+			} else if (inputAllowed) {
 				if (isVersionCompatible("1.6")) { //$NON-NLS-1$
 					// https://bugs.eclipse.org/bugs/show_bug.cgi?id=182577
 					// getCurrentProject().setDefaultInputStream(originalIn);
@@ -663,10 +739,10 @@ public class InternalAntRunner {
 				// set the system property that any input handler
 				// can check to see if handling input is allowed
 				System.setProperty("eclipse.ant.noInput", "true"); //$NON-NLS-1$//$NON-NLS-2$
-				if (isVersionCompatible("1.5") && (inputHandlerClassname == null || inputHandlerClassname.length() == 0)) { //$NON-NLS-1$
-					InputHandlerSetter setter = new InputHandlerSetter();
-					setter.setInputHandler(getCurrentProject(), "org.eclipse.ant.internal.core.ant.FailInputHandler"); //$NON-NLS-1$
-				}
+			}
+			if (!inputAllowed && isVersionCompatible("1.5") && (inputHandlerClassname == null || inputHandlerClassname.length() == 0)) { //$NON-NLS-1$
+				InputHandlerSetter setter = new InputHandlerSetter();
+				setter.setInputHandler(getCurrentProject(), "org.eclipse.ant.internal.core.ant.FailInputHandler"); //$NON-NLS-1$
 			}
 
 			if (!projectHelp) {
@@ -697,7 +773,11 @@ public class InternalAntRunner {
 			if (extraArguments != null) {
 				printArguments(getCurrentProject());
 			}
-			System.setSecurityManager(new AntSecurityManager(originalSM, Thread.currentThread()));
+			if (AntExitInterceptor.isEnabled()) {
+				AntExitInterceptor.restrictCurrentThread(true);
+			} else if (!isolated) {
+				System.setSecurityManager(new AntSecurityManager(originalSM, Thread.currentThread()));
+			}
 
 			if (targets == null) {
 				targets = new Vector<>(1);
@@ -728,14 +808,24 @@ public class InternalAntRunner {
 			throw e;
 		}
 		finally {
-			System.setErr(originalErr);
-			System.setOut(originalOut);
-			System.setIn(originalIn);
-			if (System.getSecurityManager() instanceof AntSecurityManager) {
-				System.setSecurityManager(originalSM);
+			AntExitInterceptor.releaseCurrentThread();
+			if (isolated) {
+				IsolatedBuildSupport.releaseSystemProperties();
+				if (isolatedBuildStarted) {
+					IsolatedBuildSupport.endBuild();
+				}
+			} else {
+				System.setErr(originalErr);
+				System.setOut(originalOut);
+				System.setIn(originalIn);
+				if (System.getSecurityManager() instanceof AntSecurityManager) {
+					System.setSecurityManager(originalSM);
+				}
 			}
 
 			if (!projectHelp) {
+				AntBuildStatistics.getDefault().buildFinished(System.currentTimeMillis() - buildStart, error != null);
+				AntFlightRecorder.commit(buildEvent, getBuildFileLocation(), Boolean.valueOf(error != null));
 				if (AntCorePlugin.getPlugin().getBundle().getState() != Bundle.ACTIVE) {
 					return;
 				}
@@ -750,9 +840,11 @@ public class InternalAntRunner {
 				out.close();
 			}
 
-			processAntHome(true);
-			if (!allowInput) {
-				System.getProperties().remove("eclipse.ant.noInput"); //$NON-NLS-1$
+			if (!isolated) {
+				processAntHome(true);
+				if (!allowInput) {
+					System.getProperties().remove("eclipse.ant.noInput"); //$NON-NLS-1$
+				}
 			}
 		}
 	}
@@ -769,11 +861,7 @@ public class InternalAntRunner {
 	}
 
 	private void processAntHome(boolean finished) {
-		AntCorePreferences prefs = AntCorePlugin.getPlugin().getPreferences();
-		String antHome = prefs.getAntHome();
-		if (buildAntHome != null && !finished) {
-			antHome = buildAntHome;
-		}
+		String antHome = getAntHome(finished);
 		if (antHome == null || antHome.length() == 0) {
 			System.getProperties().remove("ant.home"); //$NON-NLS-1$
 			System.getProperties().remove("ant.library.dir"); //$NON-NLS-1$
@@ -784,6 +872,27 @@ public class InternalAntRunner {
 		}
 	}
 
+	private String getAntHome(boolean finished) {
+		AntCorePreferences prefs = AntCorePlugin.getPlugin().getPreferences();
+		String antHome = prefs.getAntHome();
+		if (buildAntHome != null && !finished) {
+			antHome = buildAntHome;
+		}
+		return antHome;
+	}
+
+	/*
+	 * Sets the Ant home of an isolated build on its project instead of in the system properties that are shared with other builds
+	 */
+	private void setAntHomeProperties(Project project) {
+		String antHome = getAntHome(false);
+		if (antHome == null || antHome.length() == 0) {
+			return;
+		}
+		project.setProperty("ant.home", antHome); //$NON-NLS-1$
+		project.setProperty("ant.library.dir", new File(antHome, "lib").getAbsolutePath()); //$NON-NLS-1$ //$NON-NLS-2$
+	}
+
 	public void setAntHome(String antHome) {
 		this.buildAntHome = antHome;
 	}
@@ -1031,6 +1140,8 @@ public class InternalAntRunner {
 	 * <li><b>-inputhandler</b> <em>&lt;class&gt;</em> - the class which will handle input requests</li>
 	 * <li><b>-logger</b> <em>&lt;classname&gt;</em> - the class which is to perform logging</li>
 	 * <li><b>-listener</b> <em>&lt;classname&gt;</em> - add an instance of class as a project listener</li>
+	 * <li><b>-profile</b> - report where the time of the build is spent. The measurements are also written to the file named by the
+	 * <code>eclipse.ant.profile.file</code> property, if set</li>
 	 * </ul>
 	 * 
 	 * @param commands
@@ -1050,6 +1161,12 @@ public class InternalAntRunner {
 			arg = AntCoreUtil.getArgument(commands, "-listener"); //$NON-NLS-1$
 		}
 
+		if (commands.remove("-profile")) { //$NON-NLS-1$
+			if (buildListeners == null || !buildListeners.contains(IAntCoreConstants.PROFILING_BUILD_LISTENER)) {
+				addBuildListener(IAntCoreConstants.PROFILING_BUILD_LISTENER);
+			}
+		}
+
 		arg = AntCoreUtil.getArgument(commands, "-logger"); //$NON-NLS-1$
 		if (arg != null) {
 			if (arg.length() == 0) {
@@ -1434,17 +1551,13 @@ public class InternalAntRunner {
 			userProperties = new HashMap<>();
 		}
 		try {
-			List<Properties> allProperties = AntCoreUtil.loadPropertyFiles(propertyFiles, currentProject.getUserProperty("basedir"), getBuildFileLocation()); //$NON-NLS-1$
-			Iterator<Properties> iter = allProperties.iterator();
-			while (iter.hasNext()) {
-				Properties props = iter.next();
-				Enumeration<?> propertyNames = props.propertyNames();
-				while (propertyNames.hasMoreElements()) {
-					String name = (String) propertyNames.nextElement();
+			List<Map<String, String>> allProperties = AntCoreUtil.getPropertyFiles(propertyFiles, currentProject.getUserProperty("basedir"), getBuildFileLocation()); //$NON-NLS-1$
+			for (Map<String, String> props : allProperties) {
+				for (Entry<String, String> entry : props.entrySet()) {
 					// most specific to global
 					// do not overwrite specific with a global property
-					if (userProperties.get(name) == null) {
-						userProperties.put(name, props.getProperty(name));
+					if (userProperties.get(entry.getKey()) == null) {
+						userProperties.put(entry.getKey(), entry.getValue());
 					}
 				}
 			}
@@ -1500,6 +1613,19 @@ public class InternalAntRunner {
 		org.apache.tools.ant.types.Path.systemClasspath = systemClasspath;
 	}
 
+	/**
+	 * Sets whether this build runs isolated from other builds in the same VM. An isolated build receives the output written to the system streams
+	 * by its own threads only, intercepts attempts to exit the VM from its own threads only and does not read from <code>System.in</code>. It
+	 * sets its Ant home as properties of its project instead of as system properties and waits for isolated builds that need a different value of
+	 * <code>eclipse.ant.noInput</code>. The Java class path of a build is kept by the Ant classes of its own class loader.
+	 * 
+	 * @param isolated
+	 *            whether this build is isolated
+	 */
+	public void setIsolated(boolean isolated) {
+		this.isolated = isolated;
+	}
+
 	/**
 	 * Sets the custom classpath to be included when setting the Java classpath for this build.
 	 * 
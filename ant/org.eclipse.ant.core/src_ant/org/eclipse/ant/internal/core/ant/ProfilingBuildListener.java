@@ -0,0 +1,384 @@
+/*******************************************************************************
+ * Copyright (c) 2018 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.ant.internal.core.ant;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.lang.reflect.Method;
+import java.text.MessageFormat; // can't use ICU in ant
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.tools.ant.BuildEvent;
+import org.apache.tools.ant.BuildListener;
+import org.apache.tools.ant.Location;
+import org.apache.tools.ant.Project;
+import org.apache.tools.ant.Target;
+import org.apache.tools.ant.Task;
+import org.eclipse.ant.internal.core.AntCoreUtil;
+import org.eclipse.ant.internal.core.IAntCoreConstants;
+
+/**
+ * Records where the time of a build is spent. For every target, task type and task location the listener accumulates the number of executions, the
+ * elapsed (wall clock) time, the time not spent in nested targets or tasks, the CPU time and the number of bytes allocated, where the running VM
+ * supports measuring them.
+ * <p>
+ * When the build finishes a report of the most expensive entries is logged and, if the {@link IAntCoreConstants#PROFILE_FILE_PROPERTY} property is
+ * set, all of the entries are written to that file as comma separated values.
+ * </p>
+ */
+public class ProfilingBuildListener implements BuildListener {
+
+	/**
+	 * The number of entries of each kind included in the logged report
+	 */
+	private static final int REPORT_SIZE = 15;
+
+	private static final String KIND_TARGET = "target"; //$NON-NLS-1$
+	private static final String KIND_TASK = "task"; //$NON-NLS-1$
+	private static final String KIND_LOCATION = "location"; //$NON-NLS-1$
+
+	/**
+	 * Accumulated measurements of one target, task type or task location
+	 */
+	static class Statistics {
+		final String kind;
+		final String name;
+		int count = 0;
+		long wall = 0;
+		long self = 0;
+		long cpu = 0;
+		long allocated = 0;
+
+		Statistics(String kind, String name) {
+			this.kind = kind;
+			this.name = name;
+		}
+	}
+
+	/**
+	 * A target or task that has started but not yet finished on a thread
+	 */
+	private static class Frame {
+		final long wallStart;
+		final long cpuStart;
+		final long allocatedStart;
+		long children = 0;
+
+		Frame(long wallStart, long cpuStart, long allocatedStart) {
+			this.wallStart = wallStart;
+			this.cpuStart = cpuStart;
+			this.allocatedStart = allocatedStart;
+		}
+	}
+
+	private final ThreadMXBean fThreadBean = ManagementFactory.getThreadMXBean();
+	private final boolean fCpuSupported;
+	private Method fAllocatedBytes = null;
+
+	private final ThreadLocal<Deque<Frame>> fFrames = new ThreadLocal<Deque<Frame>>() {
+		@Override
+		protected Deque<Frame> initialValue() {
+			return new ArrayDeque<>();
+		}
+	};
+	private final Map<String, Statistics> fTargets = new HashMap<>();
+	private final Map<String, Statistics> fTasks = new HashMap<>();
+	private final Map<String, Statistics> fLocations = new HashMap<>();
+	private long fBuildStart;
+
+	public ProfilingBuildListener() {
+		fCpuSupported = fThreadBean.isCurrentThreadCpuTimeSupported() && fThreadBean.isThreadCpuTimeEnabled();
+		try {
+			// the extended thread bean is not available on all VMs
+			Class<?> extendedBean = Class.forName("com.sun.management.ThreadMXBean"); //$NON-NLS-1$
+			if (extendedBean.isInstance(fThreadBean)) {
+				fAllocatedBytes = extendedBean.getMethod("getThreadAllocatedBytes", new Class<?>[] { long.class }); //$NON-NLS-1$
+			}
+		}
+		catch (Exception e) {
+			// allocations are not measured
+		}
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see org.apache.tools.ant.BuildListener#buildStarted(org.apache.tools.ant.BuildEvent)
+	 */
+	@Override
+	public void buildStarted(BuildEvent event) {
+		fBuildStart = System.nanoTime();
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see org.apache.tools.ant.BuildListener#buildFinished(org.apache.tools.ant.BuildEvent)
+	 */
+	@Override
+	public void buildFinished(BuildEvent event) {
+		Project project = event.getProject();
+		long total = System.nanoTime() - fBuildStart;
+		List<Statistics> targets = sorted(fTargets);
+		List<Statistics> tasks = sorted(fTasks);
+		List<Statistics> locations = sorted(fLocations);
+		if (project == null) {
+			return;
+		}
+		StringBuffer report = new StringBuffer();
+		report.append(MessageFormat.format(InternalAntMessages.ProfilingBuildListener_Build_time, new Object[] { Long.valueOf(toMillis(total)) }));
+		appendSection(report, InternalAntMessages.ProfilingBuildListener_Targets, targets);
+		appendSection(report, InternalAntMessages.ProfilingBuildListener_Task_types, tasks);
+		appendSection(report, InternalAntMessages.ProfilingBuildListener_Task_locations, locations);
+		project.log(report.toString(), Project.MSG_INFO);
+
+		String fileName = project.getProperty(IAntCoreConstants.PROFILE_FILE_PROPERTY);
+		if (fileName != null && fileName.length() > 0) {
+			String buildFile = project.getProperty("ant.file"); //$NON-NLS-1$
+			File file = AntCoreUtil.getFileRelativeToBaseDir(fileName, project.getUserProperty("basedir"), buildFile); //$NON-NLS-1$
+			List<Statistics> all = new ArrayList<>(targets.size() + tasks.size() + locations.size());
+			all.addAll(targets);
+			all.addAll(tasks);
+			all.addAll(locations);
+			try {
+				writeProfile(file, all);
+				project.log(MessageFormat.format(InternalAntMessages.ProfilingBuildListener_Profile_written, new Object[] {
+						file.getAbsolutePath() }), Project.MSG_INFO);
+			}
+			catch (IOException e) {
+				project.log(MessageFormat.format(InternalAntMessages.ProfilingBuildListener_Could_not_write_profile, new Object[] {
+						file.getAbsolutePath(), e.getMessage() }), Project.MSG_ERR);
+			}
+		}
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see org.apache.tools.ant.BuildListener#targetStarted(org.apache.tools.ant.BuildEvent)
+	 */
+	@Override
+	public void targetStarted(BuildEvent event) {
+		push();
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see org.apache.tools.ant.BuildListener#targetFinished(org.apache.tools.ant.BuildEvent)
+	 */
+	@Override
+	public void targetFinished(BuildEvent event) {
+		Frame frame = pop();
+		Target target = event.getTarget();
+		if (frame == null || target == null) {
+			return;
+		}
+		String name = target.getName();
+		Project project = target.getProject();
+		if (project != null && project.getName() != null) {
+			name = project.getName() + '.' + name;
+		}
+		long[] measurements = measure(frame);
+		synchronized (this) {
+			add(fTargets, KIND_TARGET, name, measurements);
+		}
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see org.apache.tools.ant.BuildListener#taskStarted(org.apache.tools.ant.BuildEvent)
+	 */
+	@Override
+	public void taskStarted(BuildEvent event) {
+		push();
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see org.apache.tools.ant.BuildListener#taskFinished(org.apache.tools.ant.BuildEvent)
+	 */
+	@Override
+	public void taskFinished(BuildEvent event) {
+		Frame frame = pop();
+		Task task = event.getTask();
+		if (frame == null || task == null) {
+			return;
+		}
+		String type = task.getTaskType();
+		if (type == null) {
+			type = task.getTaskName();
+		}
+		String location = null;
+		Location taskLocation = task.getLocation();
+		if (taskLocation != null && taskLocation != Location.UNKNOWN_LOCATION) {
+			location = taskLocation.getFileName() + ':' + taskLocation.getLineNumber();
+		}
+		long[] measurements = measure(frame);
+		synchronized (this) {
+			add(fTasks, KIND_TASK, type, measurements);
+			if (location != null) {
+				add(fLocations, KIND_LOCATION, location, measurements);
+			}
+		}
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see org.apache.tools.ant.BuildListener#messageLogged(org.apache.tools.ant.BuildEvent)
+	 */
+	@Override
+	public void messageLogged(BuildEvent event) {
+		// do nothing
+	}
+
+	private void push() {
+		fFrames.get().push(new Frame(System.nanoTime(), getCpuTime(), getAllocatedBytes()));
+	}
+
+	private Frame pop() {
+		Deque<Frame> frames = fFrames.get();
+		if (frames.isEmpty()) {
+			// the target or task started before the listener was added
+			return null;
+		}
+		return frames.pop();
+	}
+
+	/**
+	 * Returns the elapsed, self, CPU and allocation measurements of the given finished frame and charges its elapsed time to the enclosing frame.
+	 */
+	private long[] measure(Frame frame) {
+		long wall = System.nanoTime() - frame.wallStart;
+		long cpu = fCpuSupported ? getCpuTime() - frame.cpuStart : 0;
+		long allocated = fAllocatedBytes != null ? getAllocatedBytes() - frame.allocatedStart : 0;
+		Frame parent = fFrames.get().peek();
+		if (parent != null) {
+			parent.children += wall;
+		}
+		return new long[] { wall, wall - frame.children, cpu, allocated };
+	}
+
+	private void add(Map<String, Statistics> table, String kind, String name, long[] measurements) {
+		Statistics statistics = table.get(name);
+		if (statistics == null) {
+			statistics = new Statistics(kind, name);
+			table.put(name, statistics);
+		}
+		statistics.count++;
+		statistics.wall += measurements[0];
+		statistics.self += measurements[1];
+		statistics.cpu += measurements[2];
+		statistics.allocated += measurements[3];
+	}
+
+	private long getCpuTime() {
+		if (!fCpuSupported) {
+			return 0;
+		}
+		return fThreadBean.getCurrentThreadCpuTime();
+	}
+
+	private long getAllocatedBytes() {
+		if (fAllocatedBytes == null) {
+			return 0;
+		}
+		try {
+			return ((Long) fAllocatedBytes.invoke(fThreadBean, new Object[] { Long.valueOf(Thread.currentThread().getId()) })).longValue();
+		}
+		catch (Exception e) {
+			fAllocatedBytes = null;
+			return 0;
+		}
+	}
+
+	/**
+	 * Returns the statistics of the given table ordered by decreasing self time
+	 */
+	private synchronized List<Statistics> sorted(Map<String, Statistics> table) {
+		List<Statistics> result = new ArrayList<>(table.values());
+		Collections.sort(result, new Comparator<Statistics>() {
+			@Override
+			public int compare(Statistics s1, Statistics s2) {
+				return Long.compare(s2.self, s1.self);
+			}
+		});
+		return result;
+	}
+
+	private void appendSection(StringBuffer report, String title, List<Statistics> entries) {
+		if (entries.isEmpty()) {
+			return;
+		}
+		report.append(System.lineSeparator()).append(System.lineSeparator()).append(title);
+		report.append(System.lineSeparator()).append(InternalAntMessages.ProfilingBuildListener_Columns);
+		for (int i = 0; i < entries.size() && i < REPORT_SIZE; i++) {
+			Statistics statistics = entries.get(i);
+			report.append(System.lineSeparator());
+			report.append(String.format("%10d %10d %10d %8d %12d  %s", //$NON-NLS-1$
+					Long.valueOf(toMillis(statistics.self)), Long.valueOf(toMillis(statistics.wall)), Long.valueOf(toMillis(statistics.cpu)), Integer.valueOf(statistics.count), Long.valueOf(statistics.allocated / 1024), statistics.name));
+		}
+	}
+
+	private void writeProfile(File file, List<Statistics> entries) throws IOException {
+		File parent = file.getParentFile();
+		if (parent != null && !parent.exists()) {
+			parent.mkdirs();
+		}
+		try (PrintWriter writer = new PrintWriter(new OutputStreamWriter(new FileOutputStream(file), IAntCoreConstants.UTF_8))) {
+			writer.println("kind,name,count,wall_ns,self_ns,cpu_ns,allocated_bytes"); //$NON-NLS-1$
+			for (Statistics statistics : entries) {
+				writer.print(statistics.kind);
+				writer.print(',');
+				writer.print(quote(statistics.name));
+				writer.print(',');
+				writer.print(statistics.count);
+				writer.print(',');
+				writer.print(statistics.wall);
+				writer.print(',');
+				writer.print(statistics.self);
+				writer.print(',');
+				writer.print(statistics.cpu);
+				writer.print(',');
+				writer.println(statistics.allocated);
+			}
+			if (writer.checkError()) {
+				throw new IOException(file.getAbsolutePath());
+			}
+		}
+	}
+
+	private String quote(String value) {
+		if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0) {
+			return value;
+		}
+		return '"' + value.replace("\"", "\"\"") + '"'; //$NON-NLS-1$ //$NON-NLS-2$
+	}
+
+	private long toMillis(long nanos) {
+		return nanos / 1000000L;
+	}
+}
@@ -0,0 +1,399 @@
+/*******************************************************************************
+ * Copyright (c) 2018 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.ant.internal.core.ant;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.text.MessageFormat; // can't use ICU in ant
+import java.util.ArrayList;
+import java.util.Enumeration;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Properties;
+import java.util.StringTokenizer;
+import java.util.TreeMap;
+
+import org.apache.tools.ant.BuildException;
+import org.apache.tools.ant.Location;
+import org.apache.tools.ant.Project;
+import org.apache.tools.ant.PropertyHelper;
+import org.apache.tools.ant.RuntimeConfigurable;
+import org.apache.tools.ant.Target;
+import org.apache.tools.ant.Task;
+import org.apache.tools.ant.types.FileSet;
+import org.apache.tools.ant.types.Resource;
+import org.apache.tools.ant.types.ResourceCollection;
+import org.eclipse.ant.internal.core.IAntCoreConstants;
+
+/**
+ * A content addressed store of the outputs of targets.
+ * <p>
+ * A target takes part in caching if the project has a file set with the id <code>eclipse.cache.outputs.</code><em>target name</em> that declares
+ * its outputs. Its inputs may be declared by a resource collection with the id <code>eclipse.cache.inputs.</code><em>target name</em>, and the
+ * properties that affect it by a comma separated list of property names in the property <code>eclipse.cache.properties.</code><em>target
+ * name</em>. The references have to be declared outside of targets.
+ * </p>
+ * <p>
+ * Before such a target runs, a fingerprint is computed from its name and location, the attributes and text of its tasks after property
+ * expansion, the values of the declared properties and the names and contents of the declared inputs. If the store holds outputs for the
+ * fingerprint, they are copied to the output directory instead of running the target. Otherwise the target runs and its outputs are added to the
+ * store. Files are stored once per distinct content under the SHA-256 hash of the content.
+ * </p>
+ * <p>
+ * This class exists so that the Ant integration has backwards compatibility with Ant releases previous to 1.8. It uses the evaluation of target
+ * conditions introduced in Ant 1.8.
+ * </p>
+ */
+class TargetOutputCache {
+
+	private static final String DIGEST_ALGORITHM = "SHA-256"; //$NON-NLS-1$
+	private static final String OBJECTS_FOLDER = "objects"; //$NON-NLS-1$
+	private static final String TARGETS_FOLDER = "targets"; //$NON-NLS-1$
+	private static final char[] HEX_DIGITS = "0123456789abcdef".toCharArray(); //$NON-NLS-1$
+
+	/**
+	 * A target that restores its outputs from the cache when its fingerprint is known
+	 */
+	private static class CachingTarget extends Target {
+		private final TargetOutputCache fCache;
+
+		CachingTarget(Target target, TargetOutputCache cache) {
+			super(target);
+			fCache = cache;
+		}
+
+		/*
+		 * (non-Javadoc)
+		 *
+		 * @see org.apache.tools.ant.Target#execute()
+		 */
+		@Override
+		public void execute() throws BuildException {
+			PropertyHelper helper = PropertyHelper.getPropertyHelper(getProject());
+			if (!helper.testIfCondition(getIf()) || !helper.testUnlessCondition(getUnless())) {
+				// let the target report why it is skipped
+				super.execute();
+				return;
+			}
+			String fingerprint = fCache.getFingerprint(this);
+			if (fingerprint != null && fCache.restoreOutputs(this, fingerprint)) {
+				return;
+			}
+			super.execute();
+			if (fingerprint != null) {
+				fCache.storeOutputs(this, fingerprint);
+			}
+		}
+	}
+
+	private final File fObjects;
+	private final File fTargets;
+
+	private TargetOutputCache(File store) {
+		fObjects = new File(store, OBJECTS_FOLDER);
+		fTargets = new File(store, TARGETS_FOLDER);
+	}
+
+	/**
+	 * Replaces the targets of the given project that declare their outputs with targets that use the store in the given directory
+	 *
+	 * @param project
+	 *            the project whose targets are to be cached
+	 * @param store
+	 *            the directory of the store
+	 */
+	static void install(Project project, File store) {
+		TargetOutputCache cache = new TargetOutputCache(store);
+		Map<Target, Target> replacements = new IdentityHashMap<>();
+		List<Entry<String, Target>> targets = new ArrayList<>(project.getTargets().entrySet());
+		for (Entry<String, Target> entry : targets) {
+			Target target = entry.getValue();
+			if (target instanceof CachingTarget || project.getReference(IAntCoreConstants.CACHE_OUTPUTS_REFERENCE_PREFIX + target.getName()) == null) {
+				continue;
+			}
+			Target replacement = replacements.get(target);
+			if (replacement == null) {
+				replacement = new CachingTarget(target, cache);
+				replacements.put(target, replacement);
+			}
+			project.addOrReplaceTarget(entry.getKey(), replacement);
+		}
+	}
+
+	/**
+	 * Returns the fingerprint of the given target or <code>null</code> if the outputs of the target cannot be cached
+	 */
+	String getFingerprint(Target target) {
+		Project project = target.getProject();
+		String name = target.getName();
+		FileSet outputs = getOutputs(target);
+		if (outputs == null) {
+			return null;
+		}
+		Object inputs = project.getReference(IAntCoreConstants.CACHE_INPUTS_REFERENCE_PREFIX + name);
+		if (inputs != null && !(inputs instanceof ResourceCollection)) {
+			project.log(target, MessageFormat.format(InternalAntMessages.TargetOutputCache_Not_a_resource_collection, new Object[] {
+					IAntCoreConstants.CACHE_INPUTS_REFERENCE_PREFIX + name }), Project.MSG_WARN);
+			return null;
+		}
+		try {
+			MessageDigest digest = MessageDigest.getInstance(DIGEST_ALGORITHM);
+			update(digest, name);
+			Location location = target.getLocation();
+			update(digest, location == null ? null : location.getFileName());
+			update(digest, outputs.getDir(project).getAbsolutePath());
+			for (Task task : target.getTasks()) {
+				updateElement(digest, project, task.getRuntimeConfigurableWrapper());
+			}
+			String names = project.getProperty(IAntCoreConstants.CACHE_PROPERTIES_PROPERTY_PREFIX + name);
+			if (names != null) {
+				for (StringTokenizer tokenizer = new StringTokenizer(names, ", "); tokenizer.hasMoreTokens();) { //$NON-NLS-1$
+					String property = tokenizer.nextToken();
+					update(digest, property);
+					update(digest, project.getProperty(property));
+				}
+			}
+			if (inputs != null) {
+				updateInputs(digest, (ResourceCollection) inputs);
+			}
+			return toHex(digest.digest());
+		}
+		catch (IOException e) {
+			project.log(target, MessageFormat.format(InternalAntMessages.TargetOutputCache_Could_not_compute_fingerprint, new Object[] { name,
+					e.getMessage() }), Project.MSG_WARN);
+			return null;
+		}
+		catch (NoSuchAlgorithmException e) {
+			return null;
+		}
+	}
+
+	private FileSet getOutputs(Target target) {
+		Project project = target.getProject();
+		Object outputs = project.getReference(IAntCoreConstants.CACHE_OUTPUTS_REFERENCE_PREFIX + target.getName());
+		if (outputs instanceof FileSet) {
+			return (FileSet) outputs;
+		}
+		project.log(target, MessageFormat.format(InternalAntMessages.TargetOutputCache_Not_a_file_set, new Object[] {
+				IAntCoreConstants.CACHE_OUTPUTS_REFERENCE_PREFIX + target.getName() }), Project.MSG_WARN);
+		return null;
+	}
+
+	private void updateElement(MessageDigest digest, Project project, RuntimeConfigurable element) {
+		if (element == null) {
+			return;
+		}
+		update(digest, element.getElementTag());
+		Map<String, Object> attributes = new TreeMap<>(element.getAttributeMap());
+		for (Entry<String, Object> attribute : attributes.entrySet()) {
+			update(digest, attribute.getKey());
+			update(digest, expand(project, attribute.getValue()));
+		}
+		update(digest, expand(project, element.getText().toString()));
+		for (Enumeration<RuntimeConfigurable> children = element.getChildren(); children.hasMoreElements();) {
+			updateElement(digest, project, children.nextElement());
+		}
+		// mark the end of the children so that nesting is part of the fingerprint
+		update(digest, null);
+	}
+
+	private String expand(Project project, Object value) {
+		if (!(value instanceof String)) {
+			return String.valueOf(value);
+		}
+		try {
+			return project.replaceProperties((String) value);
+		}
+		catch (BuildException e) {
+			return (String) value;
+		}
+	}
+
+	private void updateInputs(MessageDigest digest, ResourceCollection inputs) throws IOException, NoSuchAlgorithmException {
+		Map<String, Resource> resources = new TreeMap<>();
+		for (Iterator<Resource> iter = inputs.iterator(); iter.hasNext();) {
+			Resource resource = iter.next();
+			resources.put(resource.toLongString(), resource);
+		}
+		for (Entry<String, Resource> entry : resources.entrySet()) {
+			update(digest, entry.getKey());
+			Resource resource = entry.getValue();
+			if (!resource.isExists() || resource.isDirectory()) {
+				update(digest, null);
+				continue;
+			}
+			try (InputStream stream = resource.getInputStream()) {
+				update(digest, hash(stream, null));
+			}
+		}
+	}
+
+	/**
+	 * Copies the outputs stored for the given fingerprint to the output directory of the given target. Returns whether the outputs were restored.
+	 */
+	boolean restoreOutputs(Target target, String fingerprint) {
+		File entryFile = new File(fTargets, fingerprint);
+		if (!entryFile.isFile()) {
+			return false;
+		}
+		Project project = target.getProject();
+		try {
+			Properties entry = new Properties();
+			try (InputStream stream = Files.newInputStream(entryFile.toPath())) {
+				entry.load(stream);
+			}
+			for (String path : entry.stringPropertyNames()) {
+				if (!getObjectFile(entry.getProperty(path)).isFile()) {
+					// the store has been pruned, build the outputs again
+					return false;
+				}
+			}
+			File outputDir = getOutputs(target).getDir(project);
+			int restored = 0;
+			for (String path : entry.stringPropertyNames()) {
+				String hash = entry.getProperty(path);
+				File object = getObjectFile(hash);
+				File output = new File(outputDir, path.replace('/', File.separatorChar));
+				if (output.isFile() && output.length() == object.length()) {
+					try (InputStream stream = Files.newInputStream(output.toPath())) {
+						if (hash.equals(hash(stream, null))) {
+							continue;
+						}
+					}
+				}
+				File parent = output.getParentFile();
+				if (parent != null && !parent.isDirectory() && !parent.mkdirs()) {
+					throw new IOException(parent.getAbsolutePath());
+				}
+				Files.copy(object.toPath(), output.toPath(), StandardCopyOption.REPLACE_EXISTING);
+				restored++;
+			}
+			project.log(target, MessageFormat.format(InternalAntMessages.TargetOutputCache_Restored_outputs, new Object[] { target.getName(),
+					Integer.toString(restored), Integer.toString(entry.size() - restored) }), Project.MSG_INFO);
+			return true;
+		}
+		catch (IOException | NoSuchAlgorithmException e) {
+			project.log(target, MessageFormat.format(InternalAntMessages.TargetOutputCache_Could_not_restore_outputs, new Object[] {
+					target.getName(), e.getMessage() }), Project.MSG_WARN);
+			return false;
+		}
+	}
+
+	/**
+	 * Adds the outputs of the given target to the store under the given fingerprint
+	 */
+	void storeOutputs(Target target, String fingerprint) {
+		Project project = target.getProject();
+		FileSet outputs = getOutputs(target);
+		if (outputs == null) {
+			return;
+		}
+		try {
+			File outputDir = outputs.getDir(project);
+			String[] files = outputDir.isDirectory() ? outputs.getDirectoryScanner(project).getIncludedFiles() : new String[0];
+			Properties entry = new Properties();
+			for (String file : files) {
+				entry.setProperty(file.replace(File.separatorChar, '/'), storeObject(new File(outputDir, file)));
+			}
+			if (!fTargets.isDirectory() && !fTargets.mkdirs()) {
+				throw new IOException(fTargets.getAbsolutePath());
+			}
+			File temp = File.createTempFile(fingerprint, null, fTargets);
+			try (OutputStream stream = Files.newOutputStream(temp.toPath())) {
+				entry.store(stream, target.getName());
+			}
+			Files.move(temp.toPath(), new File(fTargets, fingerprint).toPath(), StandardCopyOption.REPLACE_EXISTING);
+			project.log(target, MessageFormat.format(InternalAntMessages.TargetOutputCache_Stored_outputs, new Object[] { target.getName(),
+					Integer.toString(files.length) }), Project.MSG_VERBOSE);
+		}
+		catch (IOException | NoSuchAlgorithmException e) {
+			project.log(target, MessageFormat.format(InternalAntMessages.TargetOutputCache_Could_not_store_outputs, new Object[] { target.getName(),
+					e.getMessage() }), Project.MSG_WARN);
+		}
+	}
+
+	/**
+	 * Copies the given file into the store unless content with the same hash is already stored and returns the hash
+	 */
+	private String storeObject(File file) throws IOException, NoSuchAlgorithmException {
+		if (!fObjects.isDirectory() && !fObjects.mkdirs()) {
+			throw new IOException(fObjects.getAbsolutePath());
+		}
+		File temp = File.createTempFile("object", null, fObjects); //$NON-NLS-1$
+		try {
+			String hash;
+			try (InputStream in = Files.newInputStream(file.toPath()); OutputStream out = Files.newOutputStream(temp.toPath())) {
+				hash = hash(in, out);
+			}
+			File object = getObjectFile(hash);
+			if (!object.isFile()) {
+				File folder = object.getParentFile();
+				if (!folder.isDirectory() && !folder.mkdirs()) {
+					throw new IOException(folder.getAbsolutePath());
+				}
+				Files.move(temp.toPath(), object.toPath(), StandardCopyOption.REPLACE_EXISTING);
+			}
+			return hash;
+		}
+		finally {
+			temp.delete();
+		}
+	}
+
+	private File getObjectFile(String hash) {
+		return new File(new File(fObjects, hash.substring(0, 2)), hash.substring(2));
+	}
+
+	/*
+	 * Returns the hash of the contents of the given stream, copying the contents to the given output stream if it is not null
+	 */
+	private static String hash(InputStream in, OutputStream out) throws IOException, NoSuchAlgorithmException {
+		MessageDigest digest = MessageDigest.getInstance(DIGEST_ALGORITHM);
+		byte[] buffer = new byte[8192];
+		int read;
+		while ((read = in.read(buffer)) != -1) {
+			digest.update(buffer, 0, read);
+			if (out != null) {
+				out.write(buffer, 0, read);
+			}
+		}
+		return toHex(digest.digest());
+	}
+
+	private static void update(MessageDigest digest, String value) {
+		if (value == null) {
+			digest.update((byte) 0);
+			return;
+		}
+		digest.update((byte) 1);
+		digest.update(value.getBytes(StandardCharsets.UTF_8));
+		digest.update((byte) 0);
+	}
+
+	private static String toHex(byte[] bytes) {
+		char[] hex = new char[bytes.length * 2];
+		for (int i = 0; i < bytes.length; i++) {
+			hex[i * 2] = HEX_DIGITS[(bytes[i] >> 4) & 0xF];
+			hex[i * 2 + 1] = HEX_DIGITS[bytes[i] & 0xF];
+		}
+		return new String(hex);
+	}
+}
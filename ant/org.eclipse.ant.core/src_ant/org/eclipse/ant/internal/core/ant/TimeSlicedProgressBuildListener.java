@@ -0,0 +1,317 @@
+/*******************************************************************************
+ * Copyright (c) 2018 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.ant.internal.core.ant;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.apache.tools.ant.BuildEvent;
+import org.apache.tools.ant.BuildException;
+import org.apache.tools.ant.BuildListener;
+import org.apache.tools.ant.Project;
+import org.apache.tools.ant.Target;
+import org.apache.tools.ant.Task;
+import org.apache.tools.ant.taskdefs.Ant;
+import org.eclipse.ant.core.AntCorePlugin;
+import org.eclipse.ant.internal.core.IAntCoreConstants;
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.NullProgressMonitor;
+import org.eclipse.core.runtime.OperationCanceledException;
+
+/**
+ * Reports progress and checks for cancellation of a script execution without forwarding every build event to the progress monitor.
+ * <p>
+ * The total amount of work is computed from the execution plan of the requested targets. Completed work and the name of the running target are
+ * collected as the build proceeds and handed to the progress monitor at most once per {@link #UPDATE_INTERVAL}. When the monitor is a
+ * {@link NullProgressMonitor} nothing is reported and only cancellation is checked.
+ * </p>
+ * <p>
+ * Tasks find a progress monitor under the {@link AntCorePlugin#ECLIPSE_PROGRESS_MONITOR} reference as with the {@link ProgressBuildListener}. That
+ * monitor answers cancellation and reports sub task names, but the work a task reports is not forwarded: progress advances as the tasks of the
+ * requested targets complete. This listener is therefore only used when the {@link org.eclipse.ant.internal.core.IAntCoreConstants#TIME_SLICED_PROGRESS_PROPERTY}
+ * system property is set to <code>true</code>.
+ * </p>
+ */
+public class TimeSlicedProgressBuildListener implements BuildListener {
+
+	/**
+	 * The minimum time in nanoseconds between two updates of the progress monitor
+	 */
+	static final long UPDATE_INTERVAL = 250000000L;
+
+	/**
+	 * The amount of work of one target of the execution plan
+	 */
+	private static final int TARGET_WORK = 100;
+
+	private final Project fMainProject;
+	private final IProgressMonitor fMonitor;
+	private final boolean fReporting;
+	private final IProgressMonitor fTaskMonitor;
+	private final Set<Project> fProjects = new HashSet<>();
+	private Thread fCurrentTaskThread;
+
+	private int fTaskWork = 0;
+	private int fTargetWorkDone = 0;
+	private int fPendingWork = 0;
+	private String fPendingName = null;
+	private long fLastUpdate = 0;
+
+	/**
+	 * The monitor made available to tasks. Forwards cancellation to the main monitor and names through the time sliced updates.
+	 */
+	private class TaskProgressMonitor implements IProgressMonitor {
+
+		@Override
+		public void beginTask(String name, int totalWork) {
+			setName(name);
+		}
+
+		@Override
+		public void done() {
+			// work is only reported per completed task
+		}
+
+		@Override
+		public void internalWorked(double work) {
+			// work is only reported per completed task
+		}
+
+		@Override
+		public boolean isCanceled() {
+			return fMonitor.isCanceled();
+		}
+
+		@Override
+		public void setCanceled(boolean value) {
+			fMonitor.setCanceled(value);
+		}
+
+		@Override
+		public void setTaskName(String name) {
+			setName(name);
+		}
+
+		@Override
+		public void subTask(String name) {
+			setName(name);
+		}
+
+		@Override
+		public void worked(int work) {
+			// work is only reported per completed task
+		}
+	}
+
+	public TimeSlicedProgressBuildListener(Project project, List<String> targetNames, IProgressMonitor monitor) {
+		fMainProject = project;
+		fMonitor = monitor == null ? new NullProgressMonitor() : monitor;
+		fReporting = !(fMonitor instanceof NullProgressMonitor);
+		fTaskMonitor = new TaskProgressMonitor();
+		fProjects.add(project);
+		if (fReporting) {
+			fMonitor.beginTask(IAntCoreConstants.EMPTY_STRING, computePlanSize(targetNames) * TARGET_WORK);
+		}
+	}
+
+	/**
+	 * Returns the number of targets that will be executed for the given target names. The default executor executes the dependencies of each
+	 * requested target again.
+	 */
+	protected int computePlanSize(List<String> targetNames) {
+		int result = 0;
+		for (String targetName : targetNames) {
+			try {
+				result += fMainProject.topoSort(targetName, fMainProject.getTargets(), false).size();
+			}
+			catch (BuildException e) {
+				// unknown target or circular dependency: the build will report the problem
+				result++;
+			}
+		}
+		return result;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see org.apache.tools.ant.BuildListener#buildStarted(org.apache.tools.ant.BuildEvent)
+	 */
+	@Override
+	public void buildStarted(BuildEvent event) {
+		checkCanceled();
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see org.apache.tools.ant.BuildListener#buildFinished(org.apache.tools.ant.BuildEvent)
+	 */
+	@Override
+	public synchronized void buildFinished(BuildEvent event) {
+		if (fReporting) {
+			update(true);
+		}
+		fMonitor.done();
+		for (Project project : fProjects) {
+			project.removeBuildListener(this);
+			project.getReferences().remove(AntCorePlugin.ECLIPSE_PROGRESS_MONITOR);
+		}
+		fProjects.clear();
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see org.apache.tools.ant.BuildListener#targetStarted(org.apache.tools.ant.BuildEvent)
+	 */
+	@Override
+	public void targetStarted(BuildEvent event) {
+		checkCanceled();
+		Project project = event.getProject();
+		Target target = event.getTarget();
+		if (project == null || target == null) {
+			return;
+		}
+		synchronized (this) {
+			fProjects.add(project);
+			if (!fReporting) {
+				return;
+			}
+			if (project == fMainProject) {
+				int tasks = target.getTasks().length;
+				fTaskWork = tasks == 0 ? 0 : TARGET_WORK / tasks;
+				fTargetWorkDone = 0;
+			}
+			fPendingName = target.getName();
+			update(false);
+		}
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see org.apache.tools.ant.BuildListener#targetFinished(org.apache.tools.ant.BuildEvent)
+	 */
+	@Override
+	public void targetFinished(BuildEvent event) {
+		checkCanceled();
+		if (!fReporting || event.getProject() != fMainProject) {
+			return;
+		}
+		synchronized (this) {
+			fPendingWork += TARGET_WORK - fTargetWorkDone;
+			fTargetWorkDone = TARGET_WORK;
+			update(false);
+		}
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see org.apache.tools.ant.BuildListener#taskStarted(org.apache.tools.ant.BuildEvent)
+	 */
+	@Override
+	public void taskStarted(BuildEvent event) {
+		checkCanceled();
+		Project project = event.getProject();
+		Task task = event.getTask();
+		if (project == null || task == null) {
+			return;
+		}
+		fCurrentTaskThread = Thread.currentThread();
+		if (task instanceof Ant) {
+			// the called script reports through its own project
+			project.getReferences().remove(AntCorePlugin.ECLIPSE_PROGRESS_MONITOR);
+		} else {
+			project.addReference(AntCorePlugin.ECLIPSE_PROGRESS_MONITOR, fTaskMonitor);
+		}
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see org.apache.tools.ant.BuildListener#taskFinished(org.apache.tools.ant.BuildEvent)
+	 */
+	@Override
+	public void taskFinished(BuildEvent event) {
+		checkCanceled();
+		Project project = event.getProject();
+		if (project == null) {
+			return;
+		}
+		project.getReferences().remove(AntCorePlugin.ECLIPSE_PROGRESS_MONITOR);
+		fCurrentTaskThread = null;
+		if (!fReporting || project != fMainProject) {
+			return;
+		}
+		synchronized (this) {
+			int work = Math.min(fTaskWork, TARGET_WORK - fTargetWorkDone);
+			fTargetWorkDone += work;
+			fPendingWork += work;
+			update(false);
+		}
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see org.apache.tools.ant.BuildListener#messageLogged(org.apache.tools.ant.BuildEvent)
+	 */
+	@Override
+	public void messageLogged(BuildEvent event) {
+		checkCanceled();
+	}
+
+	/**
+	 * Records the name to report as the sub task of the build
+	 */
+	synchronized void setName(String name) {
+		if (fReporting && name != null && name.length() > 0) {
+			fPendingName = name;
+			update(false);
+		}
+	}
+
+	/**
+	 * Hands the collected work and name to the progress monitor if forced or if the update interval has passed since the last update. Callers must
+	 * hold the lock of this listener.
+	 */
+	private void update(boolean force) {
+		long now = System.nanoTime();
+		if (!force && now - fLastUpdate < UPDATE_INTERVAL) {
+			return;
+		}
+		fLastUpdate = now;
+		if (fPendingName != null) {
+			fMonitor.subTask(fPendingName);
+			fPendingName = null;
+		}
+		if (fPendingWork > 0) {
+			fMonitor.worked(fPendingWork);
+			fPendingWork = 0;
+		}
+	}
+
+	protected void checkCanceled() {
+		// only cancel if the current task thread matches the current thread
+		// do not want to throw an exception in a separate thread or process
+		// see bug 32657
+		if (fCurrentTaskThread != null && fCurrentTaskThread != Thread.currentThread()) {
+			return;
+		}
+		if (fMonitor.isCanceled()) {
+			fCurrentTaskThread = null;
+			throw new OperationCanceledException(InternalAntMessages.ProgressBuildListener_Build_cancelled);
+		}
+	}
+}
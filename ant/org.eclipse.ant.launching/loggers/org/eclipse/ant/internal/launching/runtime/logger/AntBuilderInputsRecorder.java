@@ -0,0 +1,626 @@
+/*******************************************************************************
+ * Copyright (c) 2018 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.ant.internal.launching.runtime.logger;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Enumeration;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Hashtable;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Set;
+import java.util.StringTokenizer;
+
+import org.apache.tools.ant.BuildEvent;
+import org.apache.tools.ant.BuildException;
+import org.apache.tools.ant.DirectoryScanner;
+import org.apache.tools.ant.Project;
+import org.apache.tools.ant.RuntimeConfigurable;
+import org.apache.tools.ant.SubBuildListener;
+import org.apache.tools.ant.Task;
+import org.apache.tools.ant.types.AbstractFileSet;
+import org.apache.tools.ant.types.Commandline;
+import org.apache.tools.ant.types.FileList;
+import org.apache.tools.ant.types.Path;
+import org.apache.tools.ant.types.ResourceCollection;
+import org.eclipse.ant.internal.core.AbstractEclipseBuildLogger;
+import org.eclipse.ant.internal.launching.launchConfigurations.AntBuilderInputs;
+import org.eclipse.ant.internal.launching.launchConfigurations.AntBuilderInputs.FileScope;
+
+/**
+ * Records the files that a build of an Ant builder reads and writes for {@link AntBuilderInputs}.
+ * <p>
+ * The files are taken from the buildfiles of the build and from the attributes and nested elements of the tasks that ran. The attributes that name
+ * files are only known for the core tasks and nested elements listed here: for instance <code>destfile</code> or <code>todir</code> name files or
+ * folders to write, <code>file</code> or <code>srcdir</code> files, folders or paths to read, and the file sets, file lists and paths that are
+ * referenced are read, folders being restricted by the include and exclude patterns of their element. The record of a build is incomplete, which
+ * makes the next build run, when another task or element names an existing file or references a collection of files, or when a task reads a
+ * resource that is not a file.
+ * </p>
+ */
+public class AntBuilderInputsRecorder implements SubBuildListener {
+
+	/**
+	 * A file that is read
+	 */
+	private static final int INPUT = 0;
+
+	/**
+	 * A file or folder that is written
+	 */
+	private static final int OUTPUT = 1;
+
+	/**
+	 * A folder of which the files that match the patterns of the element are read
+	 */
+	private static final int FOLDER = 2;
+
+	/**
+	 * A path of files and folders that are read
+	 */
+	private static final int PATH = 3;
+
+	/**
+	 * An argument of a program, the files and folders that it names are read
+	 */
+	private static final int ARGUMENT = 4;
+
+	/**
+	 * A command line of a program, the files and folders that its arguments name are read
+	 */
+	private static final int COMMAND_LINE = 5;
+
+	/**
+	 * A resource that is not a file, whose changes are not known
+	 */
+	private static final int REMOTE = 6;
+
+	/**
+	 * The roles of the attributes that name files by the known tasks and nested elements, the other attributes of which do not name files
+	 */
+	private static final Map<String, Map<String, Integer>> ELEMENTS = new HashMap<>();
+
+	/**
+	 * The known tasks whose nested elements are tasks that are recorded when they run, or templates of tasks
+	 */
+	private static final Set<String> CONTAINERS = new HashSet<>(Arrays.asList(new String[] { "sequential", "parallel", "macrodef", "presetdef" })); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$
+
+	static {
+		// tasks and elements without files
+		known(new String[] { "antcall", "param", "sequential", "parallel", "macrodef", "presetdef", "fail", "sleep", "tstamp", "format", //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$ //$NON-NLS-5$ //$NON-NLS-6$ //$NON-NLS-7$ //$NON-NLS-8$ //$NON-NLS-9$ //$NON-NLS-10$
+				"basename", "dirname", "pathconvert", "input", "condition", "and", "or", "not", "xor", "equals", "istrue", "isfalse", "isset", //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$ //$NON-NLS-5$ //$NON-NLS-6$ //$NON-NLS-7$ //$NON-NLS-8$ //$NON-NLS-9$ //$NON-NLS-10$ //$NON-NLS-11$ //$NON-NLS-12$ //$NON-NLS-13$
+				"contains", "os", "matches", "isreference", "typefound", "antversion", "include", "exclude", "attribute", "section", "filterchain", //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$ //$NON-NLS-5$ //$NON-NLS-6$ //$NON-NLS-7$ //$NON-NLS-8$ //$NON-NLS-9$ //$NON-NLS-10$ //$NON-NLS-11$
+				"resources", "union", "intersect", "difference", "restrict", "sort", "first", "last", "style", "outputproperty", "filename", "date", //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$ //$NON-NLS-5$ //$NON-NLS-6$ //$NON-NLS-7$ //$NON-NLS-8$ //$NON-NLS-9$ //$NON-NLS-10$ //$NON-NLS-11$ //$NON-NLS-12$
+				"size", "depth", "type", "loadresource", "eclipse.refreshLocal", "eclipse.convertPath", "eclipse.incrementalBuild" }); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$ //$NON-NLS-5$ //$NON-NLS-6$ //$NON-NLS-7$
+		// tasks
+		add("ant", OUTPUT, "output"); //$NON-NLS-1$ //$NON-NLS-2$
+		add("subant", INPUT, "genericantfile"); //$NON-NLS-1$ //$NON-NLS-2$
+		add("subant", OUTPUT, "output"); //$NON-NLS-1$ //$NON-NLS-2$
+		add("available", INPUT, "file"); //$NON-NLS-1$ //$NON-NLS-2$
+		add("available", PATH, "classpath", "filepath"); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+		add("uptodate", INPUT, "srcfile", "targetfile"); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+		add("filesmatch", INPUT, "file1", "file2"); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+		add("length", INPUT, "file"); //$NON-NLS-1$ //$NON-NLS-2$
+		add("checksum", INPUT, "file"); //$NON-NLS-1$ //$NON-NLS-2$
+		add("checksum", OUTPUT, "todir"); //$NON-NLS-1$ //$NON-NLS-2$
+		add("concat", OUTPUT, "destfile"); //$NON-NLS-1$ //$NON-NLS-2$
+		add("copy", INPUT, "file"); //$NON-NLS-1$ //$NON-NLS-2$
+		add("copy", OUTPUT, "tofile", "todir"); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+		add("move", INPUT, "file"); //$NON-NLS-1$ //$NON-NLS-2$
+		add("move", OUTPUT, "tofile", "todir"); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+		add("sync", OUTPUT, "todir"); //$NON-NLS-1$ //$NON-NLS-2$
+		add("delete", OUTPUT, "file", "dir"); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+		add("mkdir", OUTPUT, "dir"); //$NON-NLS-1$ //$NON-NLS-2$
+		add("touch", OUTPUT, "file"); //$NON-NLS-1$ //$NON-NLS-2$
+		add("echo", OUTPUT, "file"); //$NON-NLS-1$ //$NON-NLS-2$
+		add("echoproperties", INPUT, "srcfile"); //$NON-NLS-1$ //$NON-NLS-2$
+		add("echoproperties", OUTPUT, "destfile"); //$NON-NLS-1$ //$NON-NLS-2$
+		add("record", OUTPUT, "name"); //$NON-NLS-1$ //$NON-NLS-2$
+		add("manifest", OUTPUT, "file"); //$NON-NLS-1$ //$NON-NLS-2$
+		add("property", INPUT, "file"); //$NON-NLS-1$ //$NON-NLS-2$
+		add("property", PATH, "classpath"); //$NON-NLS-1$ //$NON-NLS-2$
+		add("propertyfile", INPUT, "file"); //$NON-NLS-1$ //$NON-NLS-2$
+		add("buildnumber", INPUT, "file"); //$NON-NLS-1$ //$NON-NLS-2$
+		add("loadfile", INPUT, "srcfile"); //$NON-NLS-1$ //$NON-NLS-2$
+		add("loadproperties", INPUT, "srcfile"); //$NON-NLS-1$ //$NON-NLS-2$
+		add("loadproperties", PATH, "classpath"); //$NON-NLS-1$ //$NON-NLS-2$
+		add("taskdef", INPUT, "file"); //$NON-NLS-1$ //$NON-NLS-2$
+		add("taskdef", PATH, "classpath"); //$NON-NLS-1$ //$NON-NLS-2$
+		add("typedef", INPUT, "file"); //$NON-NLS-1$ //$NON-NLS-2$
+		add("typedef", PATH, "classpath"); //$NON-NLS-1$ //$NON-NLS-2$
+		add("replace", INPUT, "file", "replacefilterfile", "propertyfile"); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$
+		add("replace", FOLDER, "dir"); //$NON-NLS-1$ //$NON-NLS-2$
+		add("replaceregexp", INPUT, "file"); //$NON-NLS-1$ //$NON-NLS-2$
+		add("fixcrlf", INPUT, "file"); //$NON-NLS-1$ //$NON-NLS-2$
+		add("fixcrlf", FOLDER, "srcdir"); //$NON-NLS-1$ //$NON-NLS-2$
+		add("fixcrlf", OUTPUT, "destdir"); //$NON-NLS-1$ //$NON-NLS-2$
+		add("javac", PATH, "srcdir", "classpath", "sourcepath", "bootclasspath", "extdirs"); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$ //$NON-NLS-5$ //$NON-NLS-6$
+		add("javac", OUTPUT, "destdir"); //$NON-NLS-1$ //$NON-NLS-2$
+		add("javadoc", INPUT, "overview", "stylesheetfile"); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+		add("javadoc", PATH, "sourcepath", "sourcefiles", "classpath", "bootclasspath"); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$ //$NON-NLS-5$
+		add("javadoc", OUTPUT, "destdir"); //$NON-NLS-1$ //$NON-NLS-2$
+		String[] archives = new String[] { "jar", "zip", "war", "ear" }; //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$
+		for (String archive : archives) {
+			add(archive, INPUT, "manifest", "webxml", "appxml"); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+			add(archive, FOLDER, "basedir"); //$NON-NLS-1$
+			add(archive, OUTPUT, "destfile", "jarfile", "zipfile", "warfile", "earfile"); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$ //$NON-NLS-5$
+		}
+		add("tar", FOLDER, "basedir"); //$NON-NLS-1$ //$NON-NLS-2$
+		add("tar", OUTPUT, "destfile", "tarfile"); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+		String[] compressions = new String[] { "gzip", "bzip2", "gunzip", "bunzip2", "unzip", "unjar", "unwar", "untar" }; //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$ //$NON-NLS-5$ //$NON-NLS-6$ //$NON-NLS-7$ //$NON-NLS-8$
+		for (String compression : compressions) {
+			add(compression, INPUT, "src"); //$NON-NLS-1$
+			add(compression, OUTPUT, "dest", "destfile", "zipfile"); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+		}
+		for (String xslt : new String[] { "xslt", "style" }) { //$NON-NLS-1$ //$NON-NLS-2$
+			add(xslt, INPUT, "in", "style"); //$NON-NLS-1$ //$NON-NLS-2$
+			add(xslt, FOLDER, "basedir"); //$NON-NLS-1$
+			add(xslt, PATH, "classpath"); //$NON-NLS-1$
+			add(xslt, OUTPUT, "out", "destdir"); //$NON-NLS-1$ //$NON-NLS-2$
+		}
+		for (String program : new String[] { "exec", "apply", "java", "redirector" }) { //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$
+			add(program, INPUT, "executable", "jar", "input"); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+			add(program, PATH, "classpath"); //$NON-NLS-1$
+			add(program, OUTPUT, "output", "error", "dest"); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+		}
+		add("get", REMOTE, "src"); //$NON-NLS-1$ //$NON-NLS-2$
+		add("get", OUTPUT, "dest"); //$NON-NLS-1$ //$NON-NLS-2$
+		// nested elements
+		for (String fileSet : new String[] { "fileset", "dirset", "zipfileset", "tarfileset", "srcfiles" }) { //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$ //$NON-NLS-5$
+			add(fileSet, INPUT, "file", "src"); //$NON-NLS-1$ //$NON-NLS-2$
+			add(fileSet, FOLDER, "dir"); //$NON-NLS-1$
+		}
+		for (String path : new String[] { "path", "classpath", "src", "sourcepath", "bootclasspath", "extdirs", "pathelement" }) { //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$ //$NON-NLS-5$ //$NON-NLS-6$ //$NON-NLS-7$
+			add(path, PATH, "path", "location"); //$NON-NLS-1$ //$NON-NLS-2$
+		}
+		add("file", INPUT, "file"); //$NON-NLS-1$ //$NON-NLS-2$
+		add("file", ARGUMENT, "name"); //$NON-NLS-1$ //$NON-NLS-2$
+		add("url", INPUT, "file"); //$NON-NLS-1$ //$NON-NLS-2$
+		add("url", REMOTE, "url"); //$NON-NLS-1$ //$NON-NLS-2$
+		for (String argument : new String[] { "arg", "jvmarg", "compilerarg", "sysproperty", "env" }) { //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$ //$NON-NLS-5$
+			add(argument, INPUT, "file"); //$NON-NLS-1$
+			add(argument, PATH, "path"); //$NON-NLS-1$
+			add(argument, ARGUMENT, "value"); //$NON-NLS-1$
+			add(argument, COMMAND_LINE, "line"); //$NON-NLS-1$
+		}
+		add("patternset", INPUT, "includesfile", "excludesfile"); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+		add("includesfile", INPUT, "name"); //$NON-NLS-1$ //$NON-NLS-2$
+		add("excludesfile", INPUT, "name"); //$NON-NLS-1$ //$NON-NLS-2$
+		add("filterset", INPUT, "filtersfile"); //$NON-NLS-1$ //$NON-NLS-2$
+		add("filter", INPUT, "filtersfile"); //$NON-NLS-1$ //$NON-NLS-2$
+		add("mapper", PATH, "classpath"); //$NON-NLS-1$ //$NON-NLS-2$
+	}
+
+	private static final String FILE_LIST = "filelist"; //$NON-NLS-1$
+
+	private static final String ANT_FILE = "ant.file"; //$NON-NLS-1$
+	private static final String ANT_FILE_TYPE = "ant.file.type"; //$NON-NLS-1$
+
+	private final Set<String> fInputs = new LinkedHashSet<>();
+	private final List<FileScope> fScopes = new ArrayList<>();
+	private final Set<String> fOutputs = new LinkedHashSet<>();
+	private boolean fComplete = true;
+
+	/**
+	 * Adds the given elements, none of the attributes of which name files
+	 */
+	private static void known(String[] elements) {
+		for (String element : elements) {
+			add(element, INPUT);
+		}
+	}
+
+	/**
+	 * Adds the given element, the given attributes of which have the given role
+	 */
+	private static void add(String element, int role, String... attributes) {
+		Map<String, Integer> roles = ELEMENTS.get(element);
+		if (roles == null) {
+			roles = new HashMap<>();
+			ELEMENTS.put(element, roles);
+		}
+		for (String attribute : attributes) {
+			roles.put(attribute, Integer.valueOf(role));
+		}
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see org.apache.tools.ant.BuildListener#buildStarted(org.apache.tools.ant.BuildEvent)
+	 */
+	@Override
+	public void buildStarted(BuildEvent event) {
+		// do nothing
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see org.apache.tools.ant.BuildListener#buildFinished(org.apache.tools.ant.BuildEvent)
+	 */
+	@Override
+	public void buildFinished(BuildEvent event) {
+		Project project = event.getProject();
+		addBuildFiles(project);
+		String processId = project.getUserProperty(AbstractEclipseBuildLogger.ANT_PROCESS_ID);
+		if (processId == null) {
+			return;
+		}
+		synchronized (this) {
+			AntBuilderInputs.stopRecording(processId, event.getException() == null, fComplete, new ArrayList<>(fInputs), new ArrayList<>(fScopes), new ArrayList<>(fOutputs));
+		}
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see org.apache.tools.ant.SubBuildListener#subBuildStarted(org.apache.tools.ant.BuildEvent)
+	 */
+	@Override
+	public void subBuildStarted(BuildEvent event) {
+		// do nothing
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see org.apache.tools.ant.SubBuildListener#subBuildFinished(org.apache.tools.ant.BuildEvent)
+	 */
+	@Override
+	public void subBuildFinished(BuildEvent event) {
+		addBuildFiles(event.getProject());
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see org.apache.tools.ant.BuildListener#targetStarted(org.apache.tools.ant.BuildEvent)
+	 */
+	@Override
+	public void targetStarted(BuildEvent event) {
+		// do nothing
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see org.apache.tools.ant.BuildListener#targetFinished(org.apache.tools.ant.BuildEvent)
+	 */
+	@Override
+	public void targetFinished(BuildEvent event) {
+		// do nothing
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see org.apache.tools.ant.BuildListener#taskStarted(org.apache.tools.ant.BuildEvent)
+	 */
+	@Override
+	public void taskStarted(BuildEvent event) {
+		// do nothing
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see org.apache.tools.ant.BuildListener#taskFinished(org.apache.tools.ant.BuildEvent)
+	 */
+	@Override
+	public void taskFinished(BuildEvent event) {
+		Task task = event.getTask();
+		if (task == null) {
+			return;
+		}
+		// the configured task may have been released, its wrapper keeps the attributes as written in the buildfile
+		RuntimeConfigurable wrapper = task.getRuntimeConfigurableWrapper();
+		if (wrapper != null) {
+			synchronized (this) {
+				addFiles(event.getProject(), wrapper);
+			}
+		}
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see org.apache.tools.ant.BuildListener#messageLogged(org.apache.tools.ant.BuildEvent)
+	 */
+	@Override
+	public void messageLogged(BuildEvent event) {
+		// do nothing
+	}
+
+	/**
+	 * Adds the buildfile of the given project and the files it imports
+	 */
+	private synchronized void addBuildFiles(Project project) {
+		Hashtable<String, Object> properties = project.getProperties();
+		for (Entry<String, Object> property : properties.entrySet()) {
+			String name = property.getKey();
+			if ((name.equals(ANT_FILE) || name.startsWith(ANT_FILE + '.')) && !name.startsWith(ANT_FILE_TYPE)) {
+				fInputs.add(new File(String.valueOf(property.getValue())).getAbsolutePath());
+			}
+		}
+	}
+
+	/**
+	 * Adds the files named by the given element and its children
+	 *
+	 * @return whether the element or its children name files
+	 */
+	private boolean addFiles(Project project, RuntimeConfigurable element) {
+		String tag = element.getElementTag();
+		Map<String, Integer> roles = null;
+		if (tag != null && tag.indexOf(':') == -1) {
+			// elements of other namespaces may have the name of a core task
+			roles = ELEMENTS.get(tag.toLowerCase());
+		}
+		boolean files = false;
+		if (FILE_LIST.equals(tag)) {
+			files = addFileList(project, element);
+		} else if (roles == null) {
+			files = namesFiles(project, element);
+		} else {
+			files = addFiles(project, element, roles);
+		}
+		if (!CONTAINERS.contains(tag) && !FILE_LIST.equals(tag)) {
+			Enumeration<RuntimeConfigurable> children = element.getChildren();
+			while (children.hasMoreElements()) {
+				files |= addFiles(project, children.nextElement());
+			}
+		}
+		if (roles == null && files) {
+			// the element may read any of its files
+			fComplete = false;
+		}
+		return files;
+	}
+
+	/**
+	 * Adds the files that the given attributes of a known element name
+	 */
+	private boolean addFiles(Project project, RuntimeConfigurable element, Map<String, Integer> roles) {
+		Hashtable<String, Object> attributes = element.getAttributeMap();
+		boolean files = false;
+		boolean caseSensitive = true;
+		List<String> folders = new ArrayList<>();
+		for (Entry<String, Object> attribute : attributes.entrySet()) {
+			String name = attribute.getKey().toLowerCase();
+			String value = project.replaceProperties(String.valueOf(attribute.getValue()));
+			Integer role = roles.get(name);
+			if (role != null) {
+				files = true;
+				switch (role.intValue()) {
+					case INPUT:
+						fInputs.add(project.resolveFile(value).getAbsolutePath());
+						break;
+					case OUTPUT:
+						fOutputs.add(project.resolveFile(value).getAbsolutePath());
+						break;
+					case FOLDER:
+						folders.add(value);
+						break;
+					case PATH:
+						addPath(project, new Path(project, value));
+						break;
+					case ARGUMENT:
+						addArguments(project, new String[] { value });
+						break;
+					case COMMAND_LINE:
+						addArguments(project, Commandline.translateCommandline(value));
+						break;
+					default:
+						fComplete = false;
+						break;
+				}
+			} else if (isReference(name)) {
+				files |= addReference(project, project.getReference(value));
+			} else if (name.equals("casesensitive")) { //$NON-NLS-1$
+				caseSensitive = Project.toBoolean(value);
+			}
+		}
+		if (!folders.isEmpty()) {
+			String[] includes = getPatterns(project, element, "includes", "include"); //$NON-NLS-1$ //$NON-NLS-2$
+			String[] excludes = getPatterns(project, element, "excludes", "exclude"); //$NON-NLS-1$ //$NON-NLS-2$
+			String defaultExcludes = (String) attributes.get("defaultexcludes"); //$NON-NLS-1$
+			if (defaultExcludes == null || Project.toBoolean(project.replaceProperties(defaultExcludes))) {
+				List<String> all = new ArrayList<>(Arrays.asList(excludes));
+				all.addAll(Arrays.asList(DirectoryScanner.getDefaultExcludes()));
+				excludes = all.toArray(new String[all.size()]);
+			}
+			for (String folder : folders) {
+				fScopes.add(new FileScope(project.resolveFile(folder).getAbsolutePath(), includes, excludes, caseSensitive));
+			}
+		}
+		return files;
+	}
+
+	/**
+	 * Returns whether an attribute of the given element of unknown use names an existing file or references a collection of files
+	 */
+	private boolean namesFiles(Project project, RuntimeConfigurable element) {
+		for (Entry<String, Object> attribute : element.getAttributeMap().entrySet()) {
+			String value = project.replaceProperties(String.valueOf(attribute.getValue()));
+			if (isReference(attribute.getKey().toLowerCase())) {
+				if (project.getReference(value) instanceof ResourceCollection) {
+					return true;
+				}
+			} else if (!getFiles(project, value).isEmpty()) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Adds the files of a file list, whose file names are relative to its folder
+	 */
+	private boolean addFileList(Project project, RuntimeConfigurable element) {
+		Hashtable<String, Object> attributes = element.getAttributeMap();
+		Object refid = attributes.get("refid"); //$NON-NLS-1$
+		if (refid != null) {
+			return addReference(project, project.getReference(project.replaceProperties(String.valueOf(refid))));
+		}
+		Object dir = attributes.get("dir"); //$NON-NLS-1$
+		File folder = dir == null ? project.getBaseDir() : project.resolveFile(project.replaceProperties(String.valueOf(dir)));
+		List<String> names = new ArrayList<>();
+		Object files = attributes.get("files"); //$NON-NLS-1$
+		if (files != null) {
+			StringTokenizer tokenizer = new StringTokenizer(project.replaceProperties(String.valueOf(files)), ", \t\n\r\f", false); //$NON-NLS-1$
+			while (tokenizer.hasMoreTokens()) {
+				names.add(tokenizer.nextToken());
+			}
+		}
+		Enumeration<RuntimeConfigurable> children = element.getChildren();
+		while (children.hasMoreElements()) {
+			Object name = children.nextElement().getAttributeMap().get("name"); //$NON-NLS-1$
+			if (name != null) {
+				names.add(project.replaceProperties(String.valueOf(name)));
+			}
+		}
+		for (String name : names) {
+			fInputs.add(new File(folder, name).getAbsolutePath());
+		}
+		return true;
+	}
+
+	/**
+	 * Adds the files and folders that the given arguments of a program name
+	 */
+	private void addArguments(Project project, String[] arguments) {
+		for (String argument : arguments) {
+			for (File file : getFiles(project, argument)) {
+				if (file.isDirectory()) {
+					fScopes.add(new FileScope(file.getAbsolutePath(), new String[0], DirectoryScanner.getDefaultExcludes(), true));
+				} else {
+					fInputs.add(file.getAbsolutePath());
+				}
+			}
+		}
+	}
+
+	/**
+	 * Returns the existing files and folders that the given value names, as a file or a path
+	 */
+	private List<File> getFiles(Project project, String value) {
+		List<File> files = new ArrayList<>();
+		if (value.trim().length() == 0) {
+			return files;
+		}
+		try {
+			for (String element : new Path(project, value).list()) {
+				File file = project.resolveFile(element);
+				if (file.exists()) {
+					files.add(file);
+				}
+			}
+		}
+		catch (BuildException e) {
+			// not a path
+		}
+		return files;
+	}
+
+	private static boolean isReference(String name) {
+		return name.endsWith("refid") || name.endsWith("pathref"); //$NON-NLS-1$ //$NON-NLS-2$
+	}
+
+	/**
+	 * Adds the files of the given reference
+	 *
+	 * @return whether the reference is a collection of files
+	 */
+	private boolean addReference(Project project, Object reference) {
+		if (reference instanceof AbstractFileSet) {
+			AbstractFileSet fileSet = (AbstractFileSet) reference;
+			File dir = fileSet.getDir(project);
+			if (dir != null) {
+				List<String> excludes = new ArrayList<>(Arrays.asList(normalize(fileSet.mergeExcludes(project))));
+				if (fileSet.getDefaultexcludes()) {
+					excludes.addAll(Arrays.asList(DirectoryScanner.getDefaultExcludes()));
+				}
+				fScopes.add(new FileScope(dir.getAbsolutePath(), normalize(fileSet.mergeIncludes(project)), excludes.toArray(new String[excludes.size()]), fileSet.isCaseSensitive()));
+			}
+		} else if (reference instanceof FileList) {
+			for (String name : ((FileList) reference).getFiles(project)) {
+				fInputs.add(new File(((FileList) reference).getDir(project), name).getAbsolutePath());
+			}
+		} else if (reference instanceof Path) {
+			addPath(project, (Path) reference);
+		} else if (reference instanceof ResourceCollection) {
+			// the resources are not known
+			fComplete = false;
+		} else {
+			return false;
+		}
+		return true;
+	}
+
+	private void addPath(Project project, Path path) {
+		for (String element : path.list()) {
+			File file = project.resolveFile(element);
+			if (file.isDirectory()) {
+				fScopes.add(new FileScope(file.getAbsolutePath(), new String[0], DirectoryScanner.getDefaultExcludes(), true));
+			} else {
+				fInputs.add(file.getAbsolutePath());
+			}
+		}
+	}
+
+	/**
+	 * Returns the patterns of the given attribute and of the nested elements of the given name
+	 */
+	private String[] getPatterns(Project project, RuntimeConfigurable element, String attributeName, String elementName) {
+		List<String> patterns = new ArrayList<>();
+		Object attribute = element.getAttributeMap().get(attributeName);
+		if (attribute != null) {
+			StringTokenizer tokenizer = new StringTokenizer(project.replaceProperties(String.valueOf(attribute)), ", ", false); //$NON-NLS-1$
+			while (tokenizer.hasMoreTokens()) {
+				patterns.add(tokenizer.nextToken());
+			}
+		}
+		Enumeration<RuntimeConfigurable> children = element.getChildren();
+		while (children.hasMoreElements()) {
+			RuntimeConfigurable child = children.nextElement();
+			Object name = child.getAttributeMap().get("name"); //$NON-NLS-1$
+			if (elementName.equals(child.getElementTag()) && name != null) {
+				patterns.add(project.replaceProperties(String.valueOf(name)));
+			}
+		}
+		return normalize(patterns.toArray(new String[patterns.size()]));
+	}
+
+	/**
+	 * Returns the given patterns with the separators of the platform, a pattern that ends with a separator matching all files below, as in
+	 * {@link DirectoryScanner}
+	 */
+	private static String[] normalize(String[] patterns) {
+		if (patterns == null) {
+			return new String[0];
+		}
+		String[] normalized = new String[patterns.length];
+		for (int i = 0; i < patterns.length; i++) {
+			String pattern = patterns[i].replace('/', File.separatorChar).replace('\\', File.separatorChar);
+			if (pattern.endsWith(File.separator)) {
+				pattern += "**"; //$NON-NLS-1$
+			}
+			normalized[i] = pattern;
+		}
+		return normalized;
+	}
+}
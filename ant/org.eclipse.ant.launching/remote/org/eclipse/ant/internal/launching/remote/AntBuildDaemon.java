@@ -0,0 +1,225 @@
+/*******************************************************************************
+ * Copyright (c) 2018 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.ant.internal.launching.remote;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.PrintStream;
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.net.MalformedURLException;
+import java.net.Socket;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+import java.util.StringTokenizer;
+
+/**
+ * The main class of a separate VM that runs Ant builds one after the other on behalf of the Eclipse Ant launching support, so that the builds do not
+ * pay for starting and warming up a VM.
+ * <p>
+ * The daemon connects to the port given as its first argument. Each request is an <code>int</code> count followed by that many UTF strings, the
+ * arguments of {@link InternalAntRunner}. The output of the build is reported by the build logger named in the arguments as for any separate VM
+ * build. When the build is finished the daemon answers with a <code>boolean</code> that is <code>true</code> if it exits rather than accepting
+ * another request, which it does after the number of builds given as its second argument or when the memory in use after a build stays above the
+ * percentage of the maximum heap given as its third argument, followed by a UTF string that describes an error that escaped the build, or is empty.
+ * </p>
+ * <p>
+ * Each build runs in a new class loader over the classpath of the VM so that the static state of Ant and of the Eclipse tasks starts afresh. SWT is
+ * loaded once for all builds as its native library can only be bound to one class loader. The system properties, the standard streams and the
+ * security manager, which belong to the VM, are restored after each build.
+ * </p>
+ */
+public class AntBuildDaemon {
+
+	private static final String RUNNER_CLASS = "org.eclipse.ant.internal.launching.remote.InternalAntRunner"; //$NON-NLS-1$
+
+	/**
+	 * The prefixes of the classes that are shared by all builds
+	 */
+	private static final String[] SHARED_PREFIXES = new String[] { "org.eclipse.swt." }; //$NON-NLS-1$
+
+	/**
+	 * The maximum length of the error reported for a build, which keeps the UTF encoded error within 64K bytes
+	 */
+	private static final int MAX_ERROR_LENGTH = 16384;
+
+	private final URL[] fClasspath;
+	private final ClassLoader fSharedLoader;
+	private final int fMaxBuilds;
+	private final int fMaxMemoryPercent;
+	private int fBuilds = 0;
+	private boolean fRestoreFailed = false;
+
+	/**
+	 * Loads the classes of a build, except for the shared classes which are loaded once for the daemon
+	 */
+	private static class BuildClassLoader extends URLClassLoader {
+		private final ClassLoader fShared;
+
+		BuildClassLoader(URL[] urls, ClassLoader shared) {
+			super(urls, shared.getParent());
+			fShared = shared;
+		}
+
+		@Override
+		protected synchronized Class<?> loadClass(String name, boolean resolve) throws ClassNotFoundException {
+			for (int i = 0; i < SHARED_PREFIXES.length; i++) {
+				if (name.startsWith(SHARED_PREFIXES[i])) {
+					return fShared.loadClass(name);
+				}
+			}
+			return super.loadClass(name, resolve);
+		}
+	}
+
+	public static void main(String[] args) {
+		try {
+			int port = Integer.parseInt(args[0]);
+			int maxBuilds = Integer.parseInt(args[1]);
+			int maxMemoryPercent = Integer.parseInt(args[2]);
+			new AntBuildDaemon(maxBuilds, maxMemoryPercent).serve(port);
+		}
+		catch (Throwable t) {
+			// there is no connection to report the error over; Eclipse notices the exit and runs the builds in new VMs
+			System.exit(1);
+		}
+		System.exit(0);
+	}
+
+	AntBuildDaemon(int maxBuilds, int maxMemoryPercent) throws MalformedURLException {
+		fMaxBuilds = maxBuilds;
+		fMaxMemoryPercent = maxMemoryPercent;
+		List<URL> urls = new ArrayList<URL>();
+		StringTokenizer tokenizer = new StringTokenizer(System.getProperty("java.class.path"), File.pathSeparator); //$NON-NLS-1$
+		while (tokenizer.hasMoreTokens()) {
+			urls.add(new File(tokenizer.nextToken()).toURI().toURL());
+		}
+		fClasspath = urls.toArray(new URL[urls.size()]);
+		fSharedLoader = AntBuildDaemon.class.getClassLoader();
+	}
+
+	private void serve(int port) throws IOException {
+		Socket socket = new Socket((String) null, port);
+		try {
+			DataInputStream in = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+			DataOutputStream out = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()));
+			boolean retire = false;
+			while (!retire) {
+				String[] args;
+				try {
+					args = new String[in.readInt()];
+				}
+				catch (EOFException e) {
+					// Eclipse closed the connection
+					return;
+				}
+				for (int i = 0; i < args.length; i++) {
+					args[i] = in.readUTF();
+				}
+				String error = runBuild(args);
+				fBuilds++;
+				retire = fRestoreFailed || fBuilds >= fMaxBuilds || isMemoryLow();
+				out.writeBoolean(retire);
+				out.writeUTF(error == null ? "" : error); //$NON-NLS-1$
+				out.flush();
+			}
+		}
+		finally {
+			socket.close();
+		}
+	}
+
+	/**
+	 * Runs a build in a new class loader and restores the state of the VM that the build may have changed
+	 *
+	 * @return the description of an error that escaped the build or <code>null</code>
+	 */
+	private String runBuild(String[] args) {
+		BuildClassLoader loader = new BuildClassLoader(fClasspath, fSharedLoader);
+		Thread thread = Thread.currentThread();
+		ClassLoader originalLoader = thread.getContextClassLoader();
+		Properties originalProperties = (Properties) System.getProperties().clone();
+		PrintStream originalOut = System.out;
+		PrintStream originalErr = System.err;
+		InputStream originalIn = System.in;
+		SecurityManager originalSM = System.getSecurityManager();
+		thread.setContextClassLoader(loader);
+		try {
+			Method run = loader.loadClass(RUNNER_CLASS).getMethod("runBuild", new Class<?>[] { String[].class }); //$NON-NLS-1$
+			run.invoke(null, new Object[] { args });
+			return null;
+		}
+		catch (InvocationTargetException e) {
+			// failures of the build itself are reported by the build logger
+			return getError(e.getTargetException());
+		}
+		catch (Exception e) {
+			return getError(e);
+		}
+		finally {
+			thread.setContextClassLoader(originalLoader);
+			System.setProperties(originalProperties);
+			System.setOut(originalOut);
+			System.setErr(originalErr);
+			System.setIn(originalIn);
+			if (System.getSecurityManager() != originalSM) {
+				try {
+					System.setSecurityManager(originalSM);
+				}
+				catch (RuntimeException e) {
+					// the security manager left by the build keeps its place, so no further build is run in this VM
+					fRestoreFailed = true;
+				}
+			}
+			if (loader instanceof Closeable) {
+				try {
+					((Closeable) loader).close();
+				}
+				catch (IOException e) {
+					// the jar files are closed when the loader is collected
+				}
+			}
+		}
+	}
+
+	private String getError(Throwable t) {
+		StringWriter writer = new StringWriter();
+		t.printStackTrace(new PrintWriter(writer));
+		String error = writer.toString();
+		return error.length() > MAX_ERROR_LENGTH ? error.substring(0, MAX_ERROR_LENGTH) : error;
+	}
+
+	/**
+	 * Returns whether the memory still in use after a build exceeds the configured share of the maximum heap
+	 */
+	private boolean isMemoryLow() {
+		Runtime runtime = Runtime.getRuntime();
+		long limit = runtime.maxMemory() / 100 * fMaxMemoryPercent;
+		if (runtime.totalMemory() - runtime.freeMemory() <= limit) {
+			return false;
+		}
+		// only collect when the heap looks full, most of it may be garbage of the build
+		System.gc();
+		return runtime.totalMemory() - runtime.freeMemory() > limit;
+	}
+}
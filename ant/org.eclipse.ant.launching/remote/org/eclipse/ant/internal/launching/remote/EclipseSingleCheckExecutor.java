@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2005, 2016 IBM Corporation and others.
+ * Copyright (c) 2005, 2018 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -18,6 +18,11 @@ import org.apache.tools.ant.Executor;
 import org.apache.tools.ant.Project;
 import org.apache.tools.ant.helper.SingleCheckExecutor;
 
+/**
+ * The executor of the remote runner. The executor keeps no state, the targets of each call are only recorded on the project passed, so that the
+ * one instance returned as the executor of all sub-projects can be used by <code>&lt;ant&gt;</code> and <code>&lt;antcall&gt;</code> tasks that
+ * run in parallel, including on virtual threads.
+ */
 public class EclipseSingleCheckExecutor extends SingleCheckExecutor {
 
 	/*
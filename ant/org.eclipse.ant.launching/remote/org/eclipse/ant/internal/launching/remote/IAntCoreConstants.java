@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2016 IBM Corporation and others.
+ * Copyright (c) 2016, 2018 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -141,4 +141,14 @@ public interface IAntCoreConstants {
 	 * @since 3.3.0
 	 */
 	public static final String TARGET_VECTOR_NAME = "eclipse.ant.targetVector"; //$NON-NLS-1$
+
+	/**
+	 * The name of the property that makes the <code>&lt;parallel&gt;</code> task run its nested tasks on virtual threads when the Java runtime of
+	 * the build supports them <br>
+	 * <br>
+	 * Value is: <code>eclipse.ant.virtualThreads</code>
+	 * 
+	 * @since 1.2.200
+	 */
+	public static final String VIRTUAL_THREADS_PROPERTY = "eclipse.ant.virtualThreads"; //$NON-NLS-1$
 }
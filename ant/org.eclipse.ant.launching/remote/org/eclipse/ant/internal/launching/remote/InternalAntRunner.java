@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2017 IBM Corporation and others.
+ * Copyright (c) 2000, 2018 IBM Corporation and others.
  * Portions Copyright  2000-2005 The Apache Software Foundation
  * All rights reserved. This program and the accompanying materials are made 
  * available under the terms of the Apache Software License v2.0 which 
@@ -148,6 +148,17 @@ public class InternalAntRunner {
 		System.exit(0);
 	}
 
+	/**
+	 * Runs a build with the given arguments without exiting the VM afterwards. Used by the {@link AntBuildDaemon}, which calls this method in a new
+	 * class loader for each build.
+	 * 
+	 * @param args
+	 *            the command line arguments of the build
+	 */
+	public static void runBuild(String[] args) {
+		new InternalAntRunner().run(getArrayList(args));
+	}
+
 	/*
 	 * Helper method to ensure an array is converted into an ArrayList.
 	 */
@@ -429,6 +440,7 @@ public class InternalAntRunner {
 
 			setTasks();
 			setTypes();
+			setParallelTask();
 
 			if (isVersionCompatible("1.6")) { //$NON-NLS-1$
 				getCurrentProject().setKeepGoingMode(keepGoing);
@@ -518,6 +530,21 @@ public class InternalAntRunner {
 		}
 	}
 
+	/**
+	 * Replaces the <code>&lt;parallel&gt;</code> task with one that runs on virtual threads if requested by the
+	 * {@link IAntCoreConstants#VIRTUAL_THREADS_PROPERTY} property and supported by the running VM.
+	 */
+	private void setParallelTask() {
+		if (!Boolean.valueOf(getCurrentProject().getUserProperty(IAntCoreConstants.VIRTUAL_THREADS_PROPERTY)).booleanValue()) {
+			return;
+		}
+		if (VirtualThreadParallel.getVirtualThreadFactory() == null) {
+			getCurrentProject().log(RemoteAntMessages.getString("InternalAntRunner.virtual_threads_not_supported"), Project.MSG_WARN); //$NON-NLS-1$
+			return;
+		}
+		getCurrentProject().addTaskDefinition("parallel", VirtualThreadParallel.class); //$NON-NLS-1$
+	}
+
 	private void setTypes() {
 		if (eclipseSpecifiedTypes != null) {
 			String typeName;
@@ -0,0 +1,295 @@
+/*******************************************************************************
+ * Copyright (c) 2018 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.ant.internal.launching.remote;
+
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+import org.apache.tools.ant.BuildException;
+import org.apache.tools.ant.Location;
+import org.apache.tools.ant.Task;
+import org.apache.tools.ant.TaskContainer;
+import org.apache.tools.ant.util.StringUtils;
+
+/**
+ * A replacement for the <code>&lt;parallel&gt;</code> task of Ant that runs each nested task on its own virtual thread when the Java runtime of the
+ * build supports them. The attributes <code>threadCount</code>, <code>threadsPerProcessor</code>, <code>timeout</code> and <code>failOnAny</code>
+ * and the nested <code>&lt;daemons&gt;</code> element have the same meaning as for the Ant task; <code>pollInterval</code> is accepted and ignored.
+ * <p>
+ * The number of nested tasks that run at the same time is limited with a semaphore rather than a pool of threads so that waiting tasks do not
+ * occupy a thread. As for the Ant task, the failures of the nested tasks are reported in the order of the tasks rather than the order in which
+ * they occurred.
+ * </p>
+ */
+public class VirtualThreadParallel extends Task implements TaskContainer {
+
+	private static ThreadFactory fgVirtualThreadFactory = null;
+	private static boolean fgVirtualThreadsChecked = false;
+
+	private final List<Task> fTasks = new ArrayList<Task>();
+	private Daemons fDaemons = null;
+	private int fThreadCount = 0;
+	private int fThreadsPerProcessor = 0;
+	private long fTimeout = 0;
+	private boolean fFailOnAny = false;
+
+	/**
+	 * The tasks of the nested <code>&lt;daemons&gt;</code> element, which are started but not waited for
+	 */
+	public static class Daemons implements TaskContainer {
+		final List<Task> fDaemonTasks = new ArrayList<Task>();
+
+		/*
+		 * (non-Javadoc)
+		 *
+		 * @see org.apache.tools.ant.TaskContainer#addTask(org.apache.tools.ant.Task)
+		 */
+		@Override
+		public void addTask(Task task) {
+			fDaemonTasks.add(task);
+		}
+	}
+
+	/**
+	 * The failures of the nested tasks by the index of the task
+	 */
+	private static class Failures {
+		final AtomicReferenceArray<Throwable> fFailures;
+		final AtomicInteger fCount = new AtomicInteger();
+
+		Failures(int size) {
+			fFailures = new AtomicReferenceArray<Throwable>(size);
+		}
+
+		void add(int index, Throwable failure) {
+			fFailures.set(index, failure);
+			fCount.incrementAndGet();
+		}
+	}
+
+	/**
+	 * Runs one nested task and records its failure
+	 */
+	private static class TaskRunner implements Runnable {
+		private final Task fTask;
+		private final int fIndex;
+		private final Semaphore fPermits;
+		private final Failures fFailures;
+
+		TaskRunner(Task task, int index, Semaphore permits, Failures failures) {
+			fTask = task;
+			fIndex = index;
+			fPermits = permits;
+			fFailures = failures;
+		}
+
+		@Override
+		public void run() {
+			try {
+				fTask.perform();
+			}
+			catch (Throwable t) {
+				if (fFailures != null) {
+					fFailures.add(fIndex, t);
+				}
+			}
+			finally {
+				if (fPermits != null) {
+					fPermits.release();
+				}
+			}
+		}
+	}
+
+	/**
+	 * Returns a factory of virtual threads, or <code>null</code> if the running VM does not support them. The factory is created reflectively as
+	 * the remote runner is compiled against Java 1.6.
+	 *
+	 * @return a factory of virtual threads or <code>null</code>
+	 */
+	public static synchronized ThreadFactory getVirtualThreadFactory() {
+		if (!fgVirtualThreadsChecked) {
+			fgVirtualThreadsChecked = true;
+			try {
+				Object builder = Thread.class.getMethod("ofVirtual").invoke(null); //$NON-NLS-1$
+				Class<?> builderClass = Class.forName("java.lang.Thread$Builder"); //$NON-NLS-1$
+				Method name = builderClass.getMethod("name", new Class<?>[] { String.class, long.class }); //$NON-NLS-1$
+				builder = name.invoke(builder, new Object[] { "Ant parallel ", Long.valueOf(0) }); //$NON-NLS-1$
+				fgVirtualThreadFactory = (ThreadFactory) builderClass.getMethod("factory").invoke(builder); //$NON-NLS-1$
+			}
+			catch (Exception e) {
+				// virtual threads are not available (or are a preview feature that is not enabled)
+				fgVirtualThreadFactory = null;
+			}
+		}
+		return fgVirtualThreadFactory;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see org.apache.tools.ant.TaskContainer#addTask(org.apache.tools.ant.Task)
+	 */
+	@Override
+	public void addTask(Task task) {
+		fTasks.add(task);
+	}
+
+	/**
+	 * Adds the nested <code>&lt;daemons&gt;</code> element
+	 *
+	 * @param daemons
+	 *            the daemon tasks
+	 */
+	public void addDaemons(Daemons daemons) {
+		if (fDaemons != null) {
+			throw new BuildException(RemoteAntMessages.getString("VirtualThreadParallel.Only_one_daemon_group")); //$NON-NLS-1$
+		}
+		fDaemons = daemons;
+	}
+
+	public void setThreadCount(int threadCount) {
+		fThreadCount = threadCount;
+	}
+
+	public void setThreadsPerProcessor(int threadsPerProcessor) {
+		fThreadsPerProcessor = threadsPerProcessor;
+	}
+
+	public void setTimeout(long timeout) {
+		fTimeout = timeout;
+	}
+
+	public void setFailOnAny(boolean failOnAny) {
+		fFailOnAny = failOnAny;
+	}
+
+	public void setPollInterval(@SuppressWarnings("unused") int pollInterval) {
+		// the threads are joined rather than polled
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see org.apache.tools.ant.Task#execute()
+	 */
+	@Override
+	public void execute() throws BuildException {
+		ThreadFactory factory = getVirtualThreadFactory();
+		if (factory == null) {
+			throw new BuildException(RemoteAntMessages.getString("VirtualThreadParallel.Virtual_threads_not_supported"), getLocation()); //$NON-NLS-1$
+		}
+		if (fDaemons != null) {
+			for (Iterator<Task> iter = fDaemons.fDaemonTasks.iterator(); iter.hasNext();) {
+				// virtual threads are always daemon threads
+				factory.newThread(new TaskRunner(iter.next(), -1, null, null)).start();
+			}
+		}
+
+		long deadline = fTimeout > 0 ? System.currentTimeMillis() + fTimeout : 0;
+		Semaphore permits = new Semaphore(getThreadLimit());
+		Failures failures = new Failures(fTasks.size());
+		List<Thread> threads = new ArrayList<Thread>(fTasks.size());
+		boolean timedOut = false;
+		try {
+			for (int i = 0; i < fTasks.size(); i++) {
+				if (fFailOnAny && failures.fCount.get() > 0) {
+					break;
+				}
+				if (!acquire(permits, deadline)) {
+					timedOut = true;
+					break;
+				}
+				Thread thread = factory.newThread(new TaskRunner(fTasks.get(i), i, permits, failures));
+				threads.add(thread);
+				thread.start();
+			}
+			for (Iterator<Thread> iter = threads.iterator(); iter.hasNext() && !timedOut;) {
+				Thread thread = iter.next();
+				if (deadline == 0) {
+					thread.join();
+				} else {
+					long remaining = deadline - System.currentTimeMillis();
+					if (remaining > 0) {
+						thread.join(remaining);
+					}
+					timedOut = thread.isAlive();
+				}
+			}
+		}
+		catch (InterruptedException e) {
+			timedOut = true;
+			Thread.currentThread().interrupt();
+		}
+		if (timedOut) {
+			for (Iterator<Thread> iter = threads.iterator(); iter.hasNext();) {
+				iter.next().interrupt();
+			}
+			throw new BuildException(RemoteAntMessages.getString("VirtualThreadParallel.Timed_out"), getLocation()); //$NON-NLS-1$
+		}
+		processFailures(failures);
+	}
+
+	private int getThreadLimit() {
+		if (fThreadsPerProcessor > 0) {
+			return fThreadsPerProcessor * Runtime.getRuntime().availableProcessors();
+		}
+		if (fThreadCount > 0) {
+			return fThreadCount;
+		}
+		return Math.max(1, fTasks.size());
+	}
+
+	private boolean acquire(Semaphore permits, long deadline) throws InterruptedException {
+		if (deadline == 0) {
+			permits.acquire();
+			return true;
+		}
+		return permits.tryAcquire(Math.max(0, deadline - System.currentTimeMillis()), TimeUnit.MILLISECONDS);
+	}
+
+	private void processFailures(Failures failures) {
+		List<Throwable> ordered = new ArrayList<Throwable>(failures.fCount.get());
+		for (int i = 0; i < failures.fFailures.length(); i++) {
+			Throwable failure = failures.fFailures.get(i);
+			if (failure != null) {
+				ordered.add(failure);
+			}
+		}
+		if (ordered.isEmpty()) {
+			return;
+		}
+		if (ordered.size() == 1) {
+			Throwable failure = ordered.get(0);
+			if (failure instanceof BuildException) {
+				throw (BuildException) failure;
+			}
+			throw new BuildException(failure);
+		}
+		StringBuffer message = new StringBuffer();
+		Location location = null;
+		for (Iterator<Throwable> iter = ordered.iterator(); iter.hasNext();) {
+			Throwable failure = iter.next();
+			if (location == null && failure instanceof BuildException) {
+				location = ((BuildException) failure).getLocation();
+			}
+			message.append(failure.getMessage()).append(StringUtils.LINE_SEP);
+		}
+		throw new BuildException(message.toString(), location == null ? getLocation() : location);
+	}
+}
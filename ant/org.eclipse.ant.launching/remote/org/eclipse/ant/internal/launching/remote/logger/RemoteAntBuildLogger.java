@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2003, 2016 IBM Corporation and others.
+ * Copyright (c) 2003, 2018 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -20,6 +20,7 @@ import java.util.ArrayList;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.locks.ReentrantLock;
 
 import org.apache.tools.ant.BuildEvent;
 import org.apache.tools.ant.BuildException;
@@ -74,6 +75,13 @@ public class RemoteAntBuildLogger extends DefaultLogger {
 	private String fLastFileName = null;
 	private String fLastTaskName = null;
 
+	/**
+	 * Serializes the events of tasks that run in parallel so that the lines of a message and the task and file names that are only sent when they
+	 * change stay consistent. A lock is used rather than synchronized methods so that virtual threads waiting to log do not pin their carrier
+	 * threads.
+	 */
+	private final ReentrantLock fLock = new ReentrantLock();
+
 	/*
 	 * (non-Javadoc)
 	 * 
@@ -81,7 +89,13 @@ public class RemoteAntBuildLogger extends DefaultLogger {
 	 */
 	@Override
 	protected void printMessage(String message, PrintStream stream, int priority) {
-		marshalMessage(priority, message);
+		fLock.lock();
+		try {
+			marshalMessage(priority, message);
+		}
+		finally {
+			fLock.unlock();
+		}
 	}
 
 	/**
@@ -149,12 +163,18 @@ public class RemoteAntBuildLogger extends DefaultLogger {
 	 */
 	@Override
 	public void buildFinished(BuildEvent event) {
-		if (!fSentProcessId) {
-			establishConnection();
+		fLock.lock();
+		try {
+			if (!fSentProcessId) {
+				establishConnection();
+			}
+			handleException(event);
+			printMessage(getTimeString(System.currentTimeMillis() - fStartTime), out, Project.MSG_INFO);
+			shutDown();
+		}
+		finally {
+			fLock.unlock();
 		}
-		handleException(event);
-		printMessage(getTimeString(System.currentTimeMillis() - fStartTime), out, Project.MSG_INFO);
-		shutDown();
 	}
 
 	protected void handleException(BuildEvent event) {
@@ -220,12 +240,18 @@ public class RemoteAntBuildLogger extends DefaultLogger {
 	 */
 	@Override
 	public void targetStarted(BuildEvent event) {
-		if (!fSentProcessId) {
-			establishConnection();
-		}
+		fLock.lock();
+		try {
+			if (!fSentProcessId) {
+				establishConnection();
+			}
 
-		if (Project.MSG_INFO <= msgOutputLevel) {
-			marshalTargetMessage(event);
+			if (Project.MSG_INFO <= msgOutputLevel) {
+				marshalTargetMessage(event);
+			}
+		}
+		finally {
+			fLock.unlock();
 		}
 	}
 
@@ -261,23 +287,29 @@ public class RemoteAntBuildLogger extends DefaultLogger {
 			return;
 		}
 
-		if (!fSentProcessId) {
-			if (event.getPriority() == InternalAntRunner.MSG_PROJECT_HELP) {
-				if (Project.MSG_INFO > msgOutputLevel) {
+		fLock.lock();
+		try {
+			if (!fSentProcessId) {
+				if (event.getPriority() == InternalAntRunner.MSG_PROJECT_HELP) {
+					if (Project.MSG_INFO > msgOutputLevel) {
+						return;
+					}
+					// no buildstarted or project started for project help option
+					establishConnection();
 					return;
 				}
-				// no buildstarted or project started for project help option
-				establishConnection();
+				if (fEventQueue == null) {
+					fEventQueue = new ArrayList<BuildEvent>(10);
+				}
+				fEventQueue.add(event);
 				return;
 			}
-			if (fEventQueue == null) {
-				fEventQueue = new ArrayList<BuildEvent>(10);
-			}
-			fEventQueue.add(event);
-			return;
-		}
 
-		processEvent(event);
+			processEvent(event);
+		}
+		finally {
+			fLock.unlock();
+		}
 	}
 
 	private void processEvent(BuildEvent event) {
@@ -405,8 +437,14 @@ public class RemoteAntBuildLogger extends DefaultLogger {
 	 */
 	@Override
 	public void buildStarted(BuildEvent event) {
-		establishConnection();
-		super.buildStarted(event);
+		fLock.lock();
+		try {
+			establishConnection();
+			super.buildStarted(event);
+		}
+		finally {
+			fLock.unlock();
+		}
 	}
 
 	public void configure(Map<String, String> userProperties) {
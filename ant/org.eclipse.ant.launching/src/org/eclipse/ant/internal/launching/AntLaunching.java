@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2009, 2010 IBM Corporation and others.
+ * Copyright (c) 2009, 2018 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -10,6 +10,7 @@
  *******************************************************************************/
 package org.eclipse.ant.internal.launching;
 
+import org.eclipse.ant.internal.launching.launchConfigurations.RemoteAntBuildDaemon;
 import org.eclipse.core.externaltools.internal.IExternalToolConstants;
 import org.eclipse.core.runtime.IStatus;
 import org.eclipse.core.runtime.Plugin;
@@ -32,6 +33,18 @@ public class AntLaunching extends Plugin {
 	 */
 	public static final String SET_INPUTHANDLER = "org.eclipse.ant.uiSET_INPUTHANDLER"; //$NON-NLS-1$
 
+	/**
+	 * Boolean attribute indicating if an Ant builder skips incremental and auto builds whose resource delta touches none of the files that the last
+	 * build of the builder read or wrote. Default value is <code>false</code>.
+	 */
+	public static final String SKIP_UNAFFECTED_BUILDS = "org.eclipse.ant.ui.SKIP_UNAFFECTED_BUILDS"; //$NON-NLS-1$
+
+	/**
+	 * String attribute listing the comma separated names of the targets that the user has chosen to run in separate VMs at the same time as the
+	 * other targets of the build, see the worker VMs preference. Default value is <code>null</code>, which runs the targets one after the other.
+	 */
+	public static final String CONCURRENT_TARGETS = "org.eclipse.ant.ui.CONCURRENT_TARGETS"; //$NON-NLS-1$
+
 	/**
 	 * int preference identifier constant which specifies the length of time to wait to connect with the socket that communicates with the separate
 	 * JRE to capture the output
@@ -99,6 +112,7 @@ public class AntLaunching extends Plugin {
 	 */
 	@Override
 	public void stop(BundleContext context) throws Exception {
+		RemoteAntBuildDaemon.shutDown();
 		plugin = null;
 		super.stop(context);
 	}
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2004, 2013 IBM Corporation and others.
+ * Copyright (c) 2004, 2018 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -31,6 +31,10 @@ public class AntLaunchingPreferenceInitializer extends AbstractPreferenceInitial
 		IEclipsePreferences node = DefaultScope.INSTANCE.getNode(AntLaunching.getUniqueIdentifier());
 		if (node != null) {
 			node.putInt(IAntLaunchingPreferenceConstants.ANT_COMMUNICATION_TIMEOUT, 20000);
+			node.putBoolean(IAntLaunchingPreferenceConstants.ANT_BUILD_DAEMON, false);
+			node.putInt(IAntLaunchingPreferenceConstants.ANT_BUILD_DAEMON_MAX_BUILDS, 50);
+			node.putBoolean(IAntLaunchingPreferenceConstants.ANT_CLASS_DATA_SHARING, false);
+			node.putInt(IAntLaunchingPreferenceConstants.ANT_WORKER_VMS, 1);
 			try {
 				node.flush();
 			}
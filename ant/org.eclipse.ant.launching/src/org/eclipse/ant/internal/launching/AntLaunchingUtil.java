@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2016 IBM Corporation and others.
+ * Copyright (c) 2000, 2018 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -398,6 +398,20 @@ public final class AntLaunchingUtil {
 	}
 
 	public static void linkBuildFailedMessage(String message, IProcess process) {
+		linkBuildFailedMessage(message, "", process); //$NON-NLS-1$
+	}
+
+	/**
+	 * Links a message of a failed build that is written to the console after the given prefix to the buildfile location it names, if any.
+	 * 
+	 * @param message
+	 *            the message
+	 * @param prefix
+	 *            the text that precedes the message on its line
+	 * @param process
+	 *            the process of the build
+	 */
+	public static void linkBuildFailedMessage(String message, String prefix, IProcess process) {
 		String fileName = null;
 		String lineNumber = ""; //$NON-NLS-1$
 		int fileStart = 0;
@@ -437,7 +451,7 @@ public final class AntLaunchingUtil {
 						launch = ((AntProcess) process).getLaunch();
 					}
 					if (launch != null) {
-						((AntLaunch) launch).addLinkDescriptor(message, fileName, num, 0, message.length());
+						((AntLaunch) launch).addLinkDescriptor(prefix + message, fileName, num, prefix.length(), message.length());
 					}
 				}
 			}
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2009 IBM Corporation and others.
+ * Copyright (c) 2000, 2018 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -20,4 +20,28 @@ public interface IAntLaunchingPreferenceConstants {
 	 * JRE to capture the output
 	 */
 	public static final String ANT_COMMUNICATION_TIMEOUT = "timeout"; //$NON-NLS-1$
+
+	/**
+	 * boolean preference identifier constant which specifies whether builds in a separate JRE are run by a build daemon, a separate VM that is
+	 * reused by later builds with the same JRE, classpath, VM arguments, environment and working directory
+	 */
+	public static final String ANT_BUILD_DAEMON = "buildDaemon"; //$NON-NLS-1$
+
+	/**
+	 * int preference identifier constant which specifies the number of builds after which a build daemon exits and is replaced
+	 */
+	public static final String ANT_BUILD_DAEMON_MAX_BUILDS = "buildDaemonMaxBuilds"; //$NON-NLS-1$
+
+	/**
+	 * boolean preference identifier constant which specifies whether builds in a separate JRE of Java 13 or later share the classes of the Ant
+	 * runtime classpath through a class data sharing archive that is created by the first build
+	 */
+	public static final String ANT_CLASS_DATA_SHARING = "classDataSharing"; //$NON-NLS-1$
+
+	/**
+	 * int preference identifier constant which specifies the maximum number of separate VMs that run the independent targets of a build in a
+	 * separate JRE at the same time, see {@link org.eclipse.ant.internal.launching.launchConfigurations.AntTargetShards}. Builds are run by a
+	 * single VM if less than two.
+	 */
+	public static final String ANT_WORKER_VMS = "workerVMs"; //$NON-NLS-1$
 }
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2005, 2016 IBM Corporation and others.
+ * Copyright (c) 2005, 2018 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -14,8 +14,15 @@ package org.eclipse.ant.internal.launching.debug;
 import java.io.File;
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Map;
 
+import org.eclipse.ant.internal.launching.AntLaunching;
 import org.eclipse.core.resources.IFile;
+import org.eclipse.core.resources.IResourceChangeEvent;
+import org.eclipse.core.resources.IResourceChangeListener;
+import org.eclipse.core.resources.IResourceDelta;
+import org.eclipse.core.resources.IResourceDeltaVisitor;
 import org.eclipse.core.resources.IStorage;
 import org.eclipse.core.resources.IWorkspaceRoot;
 import org.eclipse.core.resources.ResourcesPlugin;
@@ -23,17 +30,49 @@ import org.eclipse.core.runtime.CoreException;
 import org.eclipse.core.runtime.IPath;
 import org.eclipse.core.runtime.Path;
 import org.eclipse.debug.core.sourcelookup.ISourceContainerType;
+import org.eclipse.debug.core.sourcelookup.ISourceLookupDirector;
 import org.eclipse.debug.core.sourcelookup.containers.AbstractSourceContainer;
 import org.eclipse.debug.core.sourcelookup.containers.LocalFileStorage;
 
-public class AntSourceContainer extends AbstractSourceContainer {
+public class AntSourceContainer extends AbstractSourceContainer implements IResourceChangeListener {
 
 	private IWorkspaceRoot fRoot;
 
+	/**
+	 * The source elements by the path of the buildfile they were found for, for the debug session of the source lookup director. Cleared when
+	 * files are added to or removed from the workspace, which may change the files of a location.
+	 */
+	private final Map<String, Object[]> fSources = new HashMap<>();
+
 	public AntSourceContainer() {
 		fRoot = ResourcesPlugin.getWorkspace().getRoot();
 	}
 
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see org.eclipse.debug.core.sourcelookup.containers.AbstractSourceContainer#init(org.eclipse.debug.core.sourcelookup.ISourceLookupDirector)
+	 */
+	@Override
+	public void init(ISourceLookupDirector director) {
+		super.init(director);
+		ResourcesPlugin.getWorkspace().addResourceChangeListener(this, IResourceChangeEvent.POST_CHANGE);
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see org.eclipse.debug.core.sourcelookup.containers.AbstractSourceContainer#dispose()
+	 */
+	@Override
+	public void dispose() {
+		ResourcesPlugin.getWorkspace().removeResourceChangeListener(this);
+		synchronized (fSources) {
+			fSources.clear();
+		}
+		super.dispose();
+	}
+
 	/*
 	 * (non-Javadoc)
 	 * 
@@ -41,24 +80,44 @@ public class AntSourceContainer extends AbstractSourceContainer {
 	 */
 	@Override
 	public Object[] findSourceElements(String path) throws CoreException {
-		ArrayList<IStorage> sources = new ArrayList<>();
 		File osFile = new File(path);
-		if (osFile.exists()) {
-			try {
-				IPath canonicalPath = new Path(osFile.getCanonicalPath());
-				IFile[] files = fRoot.findFilesForLocationURI(canonicalPath.makeAbsolute().toFile().toURI());
-				if (files.length > 0) {
-					for (int i = 0; i < files.length; i++) {
-						sources.add(files[i]);
-					}
-				} else {
-					sources.add(new LocalFileStorage(osFile));
-				}
+		if (!osFile.exists()) {
+			return new Object[0];
+		}
+		synchronized (fSources) {
+			Object[] cached = fSources.get(path);
+			if (cached != null) {
+				return cached.clone();
 			}
-			catch (IOException e) {
-				// do nothing
+		}
+		Object[] sources = findSourceElements(osFile);
+		if (sources.length > 0) {
+			synchronized (fSources) {
+				fSources.put(path, sources);
 			}
 		}
+		return sources.clone();
+	}
+
+	/**
+	 * Returns the workspace files at the location of the given existing file, or a storage for the file if there are none
+	 */
+	private Object[] findSourceElements(File osFile) {
+		ArrayList<IStorage> sources = new ArrayList<>();
+		try {
+			IPath canonicalPath = new Path(osFile.getCanonicalPath());
+			IFile[] files = fRoot.findFilesForLocationURI(canonicalPath.makeAbsolute().toFile().toURI());
+			if (files.length > 0) {
+				for (int i = 0; i < files.length; i++) {
+					sources.add(files[i]);
+				}
+			} else {
+				sources.add(new LocalFileStorage(osFile));
+			}
+		}
+		catch (IOException e) {
+			// do nothing
+		}
 		return sources.toArray();
 	}
 
@@ -81,4 +140,43 @@ public class AntSourceContainer extends AbstractSourceContainer {
 	public ISourceContainerType getType() {
 		return null;
 	}
-}
\ No newline at end of file
+
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see org.eclipse.core.resources.IResourceChangeListener#resourceChanged(org.eclipse.core.resources.IResourceChangeEvent)
+	 */
+	@Override
+	public void resourceChanged(IResourceChangeEvent event) {
+		IResourceDelta delta = event.getDelta();
+		if (delta == null) {
+			return;
+		}
+		final boolean[] moved = new boolean[] { false };
+		try {
+			delta.accept(new IResourceDeltaVisitor() {
+				@Override
+				public boolean visit(IResourceDelta child) {
+					if (moved[0]) {
+						return false;
+					}
+					if (child.getKind() != IResourceDelta.CHANGED || (child.getFlags() & (IResourceDelta.OPEN | IResourceDelta.DESCRIPTION)) != 0) {
+						// the files of some locations have changed
+						moved[0] = true;
+						return false;
+					}
+					return true;
+				}
+			});
+		}
+		catch (CoreException e) {
+			AntLaunching.log(e);
+			moved[0] = true;
+		}
+		if (moved[0]) {
+			synchronized (fSources) {
+				fSources.clear();
+			}
+		}
+	}
+}
@@ -0,0 +1,303 @@
+/*******************************************************************************
+ * Copyright (c) 2018 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.ant.internal.launching.launchConfigurations;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+
+import org.eclipse.ant.internal.launching.AntLaunching;
+import org.eclipse.debug.core.DebugPlugin;
+import org.eclipse.debug.core.ILaunch;
+import org.eclipse.debug.core.ILaunchManager;
+import org.eclipse.debug.core.ILaunchesListener2;
+
+/**
+ * Writes the files that hand the properties of an Ant build, and the classpath and VM arguments of a separate VM, over to the separate VM instead of
+ * passing them on the command line.
+ * <p>
+ * An argument file is named after a digest of its contents so that it is written once and reused by all launches for as long as the configuration
+ * does not change. Argument files that have not been used for a week are deleted the first time a file is requested in a session.
+ * </p>
+ * <p>
+ * The property values may be secret, so each launch writes its own property file, which only its owner can read, and deletes it when the launch
+ * terminates or is removed. Property files left over by an earlier session are deleted with the unused argument files.
+ * </p>
+ */
+public final class AntArgumentFiles {
+
+	private static final String FOLDER = "argumentFiles"; //$NON-NLS-1$
+	private static final String PROPERTY_FILE_EXTENSION = ".properties"; //$NON-NLS-1$
+	private static final String DIGEST_ALGORITHM = "SHA-256"; //$NON-NLS-1$
+	private static final char[] HEX_DIGITS = "0123456789abcdef".toCharArray(); //$NON-NLS-1$
+	private static final long MAX_UNUSED_TIME = 7L * 24 * 60 * 60 * 1000;
+
+	private static boolean fgCleanedUp = false;
+
+	private AntArgumentFiles() {
+		// no instances
+	}
+
+	/**
+	 * Deletes a property file when its launch terminates or is removed
+	 */
+	private static class PropertyFileRemover implements ILaunchesListener2 {
+		private final ILaunch fLaunch;
+		private final File fFile;
+
+		PropertyFileRemover(ILaunch launch, File file) {
+			fLaunch = launch;
+			fFile = file;
+		}
+
+		@Override
+		public void launchesTerminated(ILaunch[] launches) {
+			launchesRemoved(launches);
+		}
+
+		@Override
+		public void launchesRemoved(ILaunch[] launches) {
+			for (ILaunch launch : launches) {
+				if (launch == fLaunch) {
+					DebugPlugin.getDefault().getLaunchManager().removeLaunchListener(this);
+					fFile.delete();
+					return;
+				}
+			}
+		}
+
+		@Override
+		public void launchesAdded(ILaunch[] launches) {
+			// the launch is added before its file is written
+		}
+
+		@Override
+		public void launchesChanged(ILaunch[] launches) {
+			// not interested
+		}
+	}
+
+	/**
+	 * Returns a new file in the format of <code>java.util.Properties</code> that defines the given properties in the iteration order of the map.
+	 * The values are trimmed and properties without a value are left out, as for the <code>-D</code> arguments that the file replaces. The file is
+	 * deleted when the given launch terminates or is removed.
+	 *
+	 * @param properties
+	 *            the properties by name
+	 * @param launch
+	 *            the launch that reads the file
+	 * @return the property file
+	 * @throws IOException
+	 *             if the file cannot be written
+	 */
+	public static File getPropertyFile(Map<String, String> properties, ILaunch launch) throws IOException {
+		StringBuilder contents = new StringBuilder();
+		for (Entry<String, String> property : properties.entrySet()) {
+			String value = property.getValue();
+			if (value.length() == 0) {
+				// "-Dname=" defines no property
+				continue;
+			}
+			appendEscaped(contents, property.getKey(), true);
+			contents.append('=');
+			appendEscaped(contents, value.trim(), false);
+			contents.append('\n');
+		}
+		File file;
+		synchronized (AntArgumentFiles.class) {
+			File folder = getFolder();
+			file = File.createTempFile("launch", PROPERTY_FILE_EXTENSION, folder); //$NON-NLS-1$
+		}
+		// only the owner may read the values
+		file.setReadable(false, false);
+		file.setReadable(true, true);
+		ILaunchManager manager = DebugPlugin.getDefault().getLaunchManager();
+		PropertyFileRemover remover = new PropertyFileRemover(launch, file);
+		manager.addLaunchListener(remover);
+		try {
+			Files.write(file.toPath(), contents.toString().getBytes(StandardCharsets.ISO_8859_1));
+		}
+		catch (IOException e) {
+			remover.launchesRemoved(new ILaunch[] { launch });
+			throw e;
+		}
+		if (launch.isTerminated()) {
+			remover.launchesRemoved(new ILaunch[] { launch });
+		}
+		return file;
+	}
+
+	/**
+	 * Returns an argument file of the Java launcher (Java 9 and later) that contains the given arguments, or <code>null</code> if an argument
+	 * contains characters other than ASCII characters. The launcher reads argument files in the native encoding of the platform, which cannot be
+	 * relied on for other characters.
+	 *
+	 * @param arguments
+	 *            the arguments of the Java launcher
+	 * @return the argument file or <code>null</code>
+	 * @throws IOException
+	 *             if the file cannot be written
+	 */
+	public static File getArgumentFile(List<String> arguments) throws IOException {
+		StringBuilder contents = new StringBuilder();
+		for (String argument : arguments) {
+			contents.append('"');
+			for (int i = 0; i < argument.length(); i++) {
+				char c = argument.charAt(i);
+				if (c > 0x7e) {
+					return null;
+				}
+				switch (c) {
+					case '"':
+					case '\\':
+						contents.append('\\').append(c);
+						break;
+					case '\n':
+						contents.append("\\n"); //$NON-NLS-1$
+						break;
+					case '\r':
+						contents.append("\\r"); //$NON-NLS-1$
+						break;
+					case '\t':
+						contents.append("\\t"); //$NON-NLS-1$
+						break;
+					default:
+						contents.append(c);
+				}
+			}
+			contents.append("\"\n"); //$NON-NLS-1$
+		}
+		return getFile(contents.toString(), ".args"); //$NON-NLS-1$
+	}
+
+	/**
+	 * Returns the folder of the files, which exists, deleting the files that are no longer used the first time it is requested in a session
+	 */
+	private static File getFolder() throws IOException {
+		File folder = AntLaunching.getDefault().getStateLocation().append(FOLDER).toFile();
+		if (!fgCleanedUp) {
+			fgCleanedUp = true;
+			cleanUp(folder);
+		}
+		if (!folder.isDirectory() && !folder.mkdirs()) {
+			throw new IOException(folder.getAbsolutePath());
+		}
+		return folder;
+	}
+
+	private static synchronized File getFile(String contents, String extension) throws IOException {
+		File folder = getFolder();
+		byte[] bytes = contents.getBytes(StandardCharsets.ISO_8859_1);
+		File file = new File(folder, toHex(digest(bytes)) + extension);
+		if (file.isFile()) {
+			// a file of the same name has the same contents
+			file.setLastModified(System.currentTimeMillis());
+			return file;
+		}
+		// a separate VM that is started at the same time must not see a partial file
+		File temp = File.createTempFile("arguments", ".tmp", folder); //$NON-NLS-1$ //$NON-NLS-2$
+		try {
+			Files.write(temp.toPath(), bytes);
+			Files.move(temp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+		}
+		finally {
+			temp.delete();
+		}
+		return file;
+	}
+
+	/**
+	 * Deletes the files of the given folder that have not been used for a week and the property files of earlier sessions
+	 */
+	static void cleanUp(File folder) {
+		File[] files = folder.listFiles();
+		if (files == null) {
+			return;
+		}
+		long oldest = System.currentTimeMillis() - MAX_UNUSED_TIME;
+		for (File file : files) {
+			if (file.lastModified() < oldest || file.getName().endsWith(PROPERTY_FILE_EXTENSION)) {
+				// class data sharing archives are created read-only
+				file.setWritable(true);
+				file.delete();
+			}
+		}
+	}
+
+	/**
+	 * Appends the given string in the escaped form of property files, which are read in ISO 8859-1
+	 */
+	private static void appendEscaped(StringBuilder buffer, String string, boolean key) {
+		for (int i = 0; i < string.length(); i++) {
+			char c = string.charAt(i);
+			switch (c) {
+				case ' ':
+					if (key || i == 0) {
+						buffer.append('\\');
+					}
+					buffer.append(c);
+					break;
+				case '\\':
+				case '=':
+				case ':':
+				case '#':
+				case '!':
+					buffer.append('\\').append(c);
+					break;
+				case '\t':
+					buffer.append("\\t"); //$NON-NLS-1$
+					break;
+				case '\n':
+					buffer.append("\\n"); //$NON-NLS-1$
+					break;
+				case '\r':
+					buffer.append("\\r"); //$NON-NLS-1$
+					break;
+				case '\f':
+					buffer.append("\\f"); //$NON-NLS-1$
+					break;
+				default:
+					if (c < 0x20 || c > 0x7e) {
+						buffer.append("\\u"); //$NON-NLS-1$
+						buffer.append(HEX_DIGITS[(c >> 12) & 0xF]).append(HEX_DIGITS[(c >> 8) & 0xF]);
+						buffer.append(HEX_DIGITS[(c >> 4) & 0xF]).append(HEX_DIGITS[c & 0xF]);
+					} else {
+						buffer.append(c);
+					}
+			}
+		}
+	}
+
+	static byte[] digest(byte[] bytes) throws IOException {
+		try {
+			return MessageDigest.getInstance(DIGEST_ALGORITHM).digest(bytes);
+		}
+		catch (NoSuchAlgorithmException e) {
+			throw new IOException(e);
+		}
+	}
+
+	static String toHex(byte[] bytes) {
+		char[] hex = new char[bytes.length * 2];
+		for (int i = 0; i < bytes.length; i++) {
+			hex[i * 2] = HEX_DIGITS[(bytes[i] >> 4) & 0xF];
+			hex[i * 2 + 1] = HEX_DIGITS[bytes[i] & 0xF];
+		}
+		return new String(hex);
+	}
+}
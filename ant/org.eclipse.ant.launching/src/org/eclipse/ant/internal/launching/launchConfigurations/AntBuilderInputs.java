@@ -0,0 +1,316 @@
+/*******************************************************************************
+ * Copyright (c) 2018 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.ant.internal.launching.launchConfigurations;
+
+import java.io.File;
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Set;
+
+import org.apache.tools.ant.types.selectors.SelectorUtils;
+import org.eclipse.core.resources.IResource;
+import org.eclipse.core.resources.IResourceDelta;
+import org.eclipse.core.resources.IResourceDeltaVisitor;
+import org.eclipse.core.runtime.CoreException;
+import org.eclipse.core.runtime.IPath;
+import org.eclipse.core.runtime.Path;
+
+/**
+ * Records the files that the builds of Ant builders read and write, so that an incremental or auto build can skip a builder whose resource delta
+ * touches none of them.
+ * <p>
+ * The files are recorded by <code>org.eclipse.ant.internal.launching.runtime.logger.AntBuilderInputsRecorder</code> from the file and folder
+ * attributes and the file sets of the tasks that ran, and from the buildfiles that were read. A build that may have read other files is not
+ * skipped the next time. A record is kept per builder of a project until the
+ * next build of the builder; it is only used for the same targets and launch configuration attributes. Files outside of the project, which are not
+ * covered by the resource delta of the builder, are compared by time stamp and size instead.
+ * </p>
+ */
+public final class AntBuilderInputs {
+
+	/**
+	 * A folder of which the files that match the include patterns and no exclude pattern are read by a build
+	 */
+	public static class FileScope {
+		final IPath fFolder;
+		final String[] fIncludes;
+		final String[] fExcludes;
+		final boolean fCaseSensitive;
+
+		/**
+		 * Creates a scope.
+		 *
+		 * @param folder
+		 *            the absolute location of the folder
+		 * @param includes
+		 *            the include patterns relative to the folder, empty to include all files
+		 * @param excludes
+		 *            the exclude patterns relative to the folder
+		 * @param caseSensitive
+		 *            whether the patterns are case sensitive
+		 */
+		public FileScope(String folder, String[] includes, String[] excludes, boolean caseSensitive) {
+			fFolder = new Path(folder);
+			fIncludes = includes;
+			fExcludes = excludes;
+			fCaseSensitive = caseSensitive;
+		}
+
+		boolean contains(IPath location) {
+			if (!fFolder.isPrefixOf(location)) {
+				return false;
+			}
+			String relative = location.makeRelativeTo(fFolder).toOSString();
+			boolean included = fIncludes.length == 0;
+			for (int i = 0; !included && i < fIncludes.length; i++) {
+				included = SelectorUtils.matchPath(fIncludes[i], relative, fCaseSensitive);
+			}
+			if (!included) {
+				return false;
+			}
+			for (String exclude : fExcludes) {
+				if (SelectorUtils.matchPath(exclude, relative, fCaseSensitive)) {
+					return false;
+				}
+			}
+			return true;
+		}
+	}
+
+	/**
+	 * The files of a build of a builder
+	 */
+	private static class Record {
+		final String[] fTargets;
+		final Map<String, Object> fAttributes;
+		final IPath fProjectLocation;
+		final Set<IPath> fInputs = new HashSet<>();
+		final List<FileScope> fScopes = new ArrayList<>();
+		final Set<IPath> fOutputs = new HashSet<>();
+		final Map<File, long[]> fExternalInputs = new HashMap<>();
+		final List<File> fExternalOutputs = new ArrayList<>();
+		boolean fUnbounded = false;
+
+		Record(String[] targets, Map<String, Object> attributes, IPath projectLocation) {
+			fTargets = targets;
+			fAttributes = attributes;
+			fProjectLocation = projectLocation;
+		}
+	}
+
+	/**
+	 * The records by builder
+	 */
+	private static final Map<String, Record> fgRecords = new HashMap<>();
+
+	/**
+	 * The records being recorded, with the key of their builder, by the process id of their build
+	 */
+	private static final Map<String, Entry<String, Record>> fgRecordings = new HashMap<>();
+
+	private AntBuilderInputs() {
+		// no instances
+	}
+
+	/**
+	 * Returns the key of the records of the given builder of the given project.
+	 *
+	 * @param projectName
+	 *            the name of the project being built
+	 * @param configurationName
+	 *            the name of the launch configuration of the builder
+	 * @return the key
+	 */
+	public static String getKey(String projectName, String configurationName) {
+		return projectName + '/' + configurationName;
+	}
+
+	/**
+	 * Returns whether the last build of the given builder was recorded with the given targets and attributes, and the given delta touches none of the
+	 * files that it read or wrote.
+	 *
+	 * @param key
+	 *            the key of the builder
+	 * @param targets
+	 *            the targets to run, <code>null</code> for the default target
+	 * @param attributes
+	 *            the attributes of the launch configuration of the builder
+	 * @param delta
+	 *            the resource delta of the project of the builder since its last build, <code>null</code> if unknown
+	 * @return whether the build can be skipped
+	 */
+	public static boolean isUnaffected(String key, String[] targets, Map<String, Object> attributes, IResourceDelta delta) {
+		if (delta == null) {
+			return false;
+		}
+		final Record record;
+		synchronized (fgRecords) {
+			record = fgRecords.get(key);
+		}
+		if (record == null || record.fUnbounded || !Arrays.equals(record.fTargets, targets) || !record.fAttributes.equals(attributes)) {
+			return false;
+		}
+		for (Entry<File, long[]> entry : record.fExternalInputs.entrySet()) {
+			File file = entry.getKey();
+			long[] stamp = entry.getValue();
+			if (file.lastModified() != stamp[0] || file.length() != stamp[1]) {
+				return false;
+			}
+		}
+		for (File file : record.fExternalOutputs) {
+			if (!file.exists()) {
+				return false;
+			}
+		}
+		final boolean[] affected = new boolean[] { false };
+		try {
+			delta.accept(new IResourceDeltaVisitor() {
+				@Override
+				public boolean visit(IResourceDelta child) {
+					if (affected[0]) {
+						return false;
+					}
+					IPath location = child.getResource().getLocation();
+					if (location == null) {
+						return true;
+					}
+					int kind = child.getKind();
+					if (kind == IResourceDelta.REMOVED) {
+						for (IPath output : record.fOutputs) {
+							// an output or a file that was written to an output folder
+							if (location.isPrefixOf(output) || output.isPrefixOf(location)) {
+								affected[0] = true;
+								return false;
+							}
+						}
+					}
+					if (child.getResource().getType() != IResource.FILE) {
+						return true;
+					}
+					if (kind == IResourceDelta.CHANGED && (child.getFlags() & (IResourceDelta.CONTENT | IResourceDelta.REPLACED)) == 0) {
+						// markers and properties are not read by builds
+						return false;
+					}
+					if (record.fInputs.contains(location)) {
+						affected[0] = true;
+						return false;
+					}
+					for (FileScope scope : record.fScopes) {
+						if (scope.contains(location)) {
+							affected[0] = true;
+							return false;
+						}
+					}
+					return false;
+				}
+			});
+		}
+		catch (CoreException e) {
+			return false;
+		}
+		return !affected[0];
+	}
+
+	/**
+	 * Discards the record of the given builder, for instance because its build cleans what it has built.
+	 *
+	 * @param key
+	 *            the key of the builder
+	 */
+	public static void discard(String key) {
+		synchronized (fgRecords) {
+			fgRecords.remove(key);
+		}
+	}
+
+	/**
+	 * Starts to record a build of the given builder. The last record of the builder is discarded until the build has finished.
+	 *
+	 * @param processId
+	 *            the process id of the build
+	 * @param key
+	 *            the key of the builder
+	 * @param targets
+	 *            the targets that are run, <code>null</code> for the default target
+	 * @param attributes
+	 *            the attributes of the launch configuration of the builder
+	 * @param projectLocation
+	 *            the location of the project of the builder
+	 */
+	public static void startRecording(String processId, String key, String[] targets, Map<String, Object> attributes, IPath projectLocation) {
+		Record record = new Record(targets, new HashMap<>(attributes), projectLocation);
+		synchronized (fgRecords) {
+			fgRecords.remove(key);
+			fgRecordings.put(processId, new AbstractMap.SimpleEntry<>(key, record));
+		}
+	}
+
+	/**
+	 * Completes the record of the given build. Does nothing if the build was not being recorded.
+	 *
+	 * @param processId
+	 *            the process id of the build
+	 * @param succeeded
+	 *            whether the build succeeded, the builds that failed are not recorded
+	 * @param complete
+	 *            whether all the files that the build read are known, the next build runs if not
+	 * @param inputs
+	 *            the absolute locations of the files that the build read
+	 * @param scopes
+	 *            the folders that the build read
+	 * @param outputs
+	 *            the absolute locations of the files and folders that the build wrote
+	 */
+	public static void stopRecording(String processId, boolean succeeded, boolean complete, List<String> inputs, List<FileScope> scopes, List<String> outputs) {
+		Entry<String, Record> recording;
+		synchronized (fgRecords) {
+			recording = fgRecordings.remove(processId);
+		}
+		if (recording == null || !succeeded) {
+			return;
+		}
+		Record record = recording.getValue();
+		record.fUnbounded = !complete;
+		for (String input : inputs) {
+			IPath location = new Path(input);
+			if (record.fProjectLocation.isPrefixOf(location)) {
+				record.fInputs.add(location);
+			} else {
+				File file = location.toFile();
+				record.fExternalInputs.put(file, new long[] { file.lastModified(), file.length() });
+			}
+		}
+		for (FileScope scope : scopes) {
+			if (!record.fProjectLocation.isPrefixOf(scope.fFolder)) {
+				// changes to the files of the folder are not known
+				record.fUnbounded = true;
+			}
+			record.fScopes.add(scope);
+		}
+		for (String output : outputs) {
+			IPath location = new Path(output);
+			if (record.fProjectLocation.isPrefixOf(location)) {
+				record.fOutputs.add(location);
+			} else {
+				record.fExternalOutputs.add(location.toFile());
+			}
+		}
+		synchronized (fgRecords) {
+			fgRecords.put(recording.getKey(), record);
+		}
+	}
+}
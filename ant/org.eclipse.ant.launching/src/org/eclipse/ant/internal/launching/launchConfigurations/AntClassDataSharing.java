@@ -0,0 +1,184 @@
+/*******************************************************************************
+ * Copyright (c) 2018 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.ant.internal.launching.launchConfigurations;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.eclipse.ant.internal.launching.AntLaunching;
+import org.eclipse.jdt.launching.IVMInstall;
+import org.eclipse.jdt.launching.IVMInstall2;
+
+/**
+ * Maintains the dynamic class data sharing archives of the separate VMs that run Ant builds, so that a VM maps the classes of the Ant runtime
+ * classpath from an archive instead of loading and verifying them again.
+ * <p>
+ * An archive is specific to a JRE, its VM arguments and the classpath including the size and time stamp of each entry, all of which are part of
+ * the name of the archive. The first launch of a classpath creates the archive when its VM exits, later launches use it. Dynamic archives require
+ * Java 13 or later; from Java 19 the VM also recreates an archive that it cannot use. Archives that have not been used for a week are deleted the
+ * first time an archive is requested in a session.
+ * </p>
+ */
+public final class AntClassDataSharing {
+
+	private static final String FOLDER = "classDataSharing"; //$NON-NLS-1$
+
+	/**
+	 * The time after which the creation of an archive by a VM that has not created it yet is assumed to have failed
+	 */
+	private static final long MAX_CREATION_TIME = 60L * 60 * 1000;
+
+	/**
+	 * The archives that are being created by a running VM, with the start of their creation
+	 */
+	private static final Map<File, Long> fgArchivesInCreation = new HashMap<>();
+	private static boolean fgCleanedUp = false;
+
+	private AntClassDataSharing() {
+		// no instances
+	}
+
+	/**
+	 * Returns the VM arguments that make a VM with the given JRE, classpath and VM arguments use or create the class data sharing archive of the
+	 * classpath.
+	 *
+	 * @param install
+	 *            the JRE of the VM
+	 * @param classpath
+	 *            the classpath of the VM
+	 * @param vmArguments
+	 *            the VM arguments of the launch configuration
+	 * @return the VM arguments, empty if the JRE does not support dynamic archives, the classpath contains a folder or another VM is creating the
+	 *         archive
+	 */
+	public static synchronized String getVMArguments(IVMInstall install, String[] classpath, String vmArguments) {
+		int version = install instanceof IVMInstall2 ? getMajorVersion(((IVMInstall2) install).getJavaVersion()) : 0;
+		if (version < 13) {
+			return ""; //$NON-NLS-1$
+		}
+		for (String entry : classpath) {
+			if (new File(entry).isDirectory()) {
+				// the VM cannot archive the classes of folders
+				return ""; //$NON-NLS-1$
+			}
+		}
+		File folder = AntLaunching.getDefault().getStateLocation().append(FOLDER).toFile();
+		if (!fgCleanedUp) {
+			fgCleanedUp = true;
+			AntArgumentFiles.cleanUp(folder);
+		}
+		File archive;
+		try {
+			archive = new File(folder, getKey(install, classpath, vmArguments) + ".jsa"); //$NON-NLS-1$
+		}
+		catch (IOException e) {
+			AntLaunching.log(e);
+			return ""; //$NON-NLS-1$
+		}
+		if (archive.isFile()) {
+			fgArchivesInCreation.remove(archive);
+			// the VM only reads the archive
+			archive.setLastModified(System.currentTimeMillis());
+			if (version >= 19) {
+				return "-XX:+AutoCreateSharedArchive -XX:SharedArchiveFile=\"" + archive.getAbsolutePath() + '"'; //$NON-NLS-1$
+			}
+			return "-XX:SharedArchiveFile=\"" + archive.getAbsolutePath() + '"'; //$NON-NLS-1$
+		}
+		Long started = fgArchivesInCreation.get(archive);
+		if (started != null && System.currentTimeMillis() - started.longValue() < MAX_CREATION_TIME) {
+			// two VMs must not write the same archive
+			return ""; //$NON-NLS-1$
+		}
+		if (!folder.isDirectory() && !folder.mkdirs()) {
+			return ""; //$NON-NLS-1$
+		}
+		fgArchivesInCreation.put(archive, Long.valueOf(System.currentTimeMillis()));
+		if (version >= 19) {
+			return "-XX:+AutoCreateSharedArchive -XX:SharedArchiveFile=\"" + archive.getAbsolutePath() + '"'; //$NON-NLS-1$
+		}
+		return "-XX:ArchiveClassesAtExit=\"" + archive.getAbsolutePath() + '"'; //$NON-NLS-1$
+	}
+
+	/**
+	 * Returns the part of the name of the archive that identifies the given JRE, classpath and VM arguments. This method is public for testing
+	 * purposes only.
+	 *
+	 * @param install
+	 *            the JRE of the VM
+	 * @param classpath
+	 *            the classpath of the VM
+	 * @param vmArguments
+	 *            the VM arguments of the launch configuration
+	 * @return the key of the archive
+	 * @throws IOException
+	 *             if the key cannot be digested
+	 */
+	public static String getKey(IVMInstall install, String[] classpath, String vmArguments) throws IOException {
+		StringBuilder key = new StringBuilder();
+		key.append(install.getVMInstallType().getId()).append('\n').append(install.getId()).append('\n');
+		key.append(((IVMInstall2) install).getJavaVersion()).append('\n');
+		File location = install.getInstallLocation();
+		if (location != null) {
+			key.append(location.getAbsolutePath());
+		}
+		key.append('\n');
+		String[] installArguments = install.getVMArguments();
+		if (installArguments != null) {
+			for (String argument : installArguments) {
+				key.append(argument).append('\0');
+			}
+		}
+		key.append('\n');
+		if (vmArguments != null) {
+			key.append(vmArguments);
+		}
+		key.append('\n');
+		for (String entry : classpath) {
+			// the VM does not use an archive if an entry has changed since its creation
+			File file = new File(entry);
+			key.append(entry).append('\0').append(file.length()).append('\0').append(file.lastModified()).append('\n');
+		}
+		return AntArgumentFiles.toHex(AntArgumentFiles.digest(key.toString().getBytes(StandardCharsets.UTF_8)));
+	}
+
+	/**
+	 * Returns the major version of the given Java version, such as 8 for <code>1.8.0_151</code> and 11 for <code>11.0.2</code>, or 0 if unknown.
+	 * This method is public for testing purposes only.
+	 *
+	 * @param version
+	 *            the Java version
+	 * @return the major version or 0
+	 */
+	public static int getMajorVersion(String version) {
+		if (version == null) {
+			return 0;
+		}
+		if (version.startsWith("1.")) { //$NON-NLS-1$
+			version = version.substring(2);
+		}
+		int end = 0;
+		while (end < version.length() && Character.isDigit(version.charAt(end))) {
+			end++;
+		}
+		if (end == 0) {
+			return 0;
+		}
+		try {
+			return Integer.parseInt(version.substring(0, end));
+		}
+		catch (NumberFormatException e) {
+			return 0;
+		}
+	}
+}
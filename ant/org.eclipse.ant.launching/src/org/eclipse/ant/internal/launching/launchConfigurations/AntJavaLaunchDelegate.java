@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2013 IBM Corporation and others.
+ * Copyright (c) 2000, 2018 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -10,16 +10,106 @@
  *******************************************************************************/
 package org.eclipse.ant.internal.launching.launchConfigurations;
 
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.eclipse.ant.internal.launching.AntLaunching;
 import org.eclipse.core.runtime.CoreException;
 import org.eclipse.core.runtime.IProgressMonitor;
 import org.eclipse.debug.core.ILaunchConfiguration;
+import org.eclipse.jdt.launching.ExecutionArguments;
 import org.eclipse.jdt.launching.IJavaLaunchConfigurationConstants;
+import org.eclipse.jdt.launching.IVMInstall;
 import org.eclipse.jdt.launching.JavaLaunchDelegate;
+import org.eclipse.jdt.launching.JavaRuntime;
 
 /**
  * Used by the AntLaunchDelegate for Ant builds in a separate VM The subclassing is needed to be able to launch an Ant build from a non-Java project
  */
 public class AntJavaLaunchDelegate extends JavaLaunchDelegate {
+
+	/**
+	 * The argument file that passes the classpath and the VM arguments to the VM, or <code>null</code> if they are passed on the command line
+	 */
+	private File fArgumentFile = null;
+
+	/**
+	 * The classpath resolved by {@link #useArgumentFile(ILaunchConfiguration)} for its configuration, so that it is not resolved again by the launch
+	 */
+	private ILaunchConfiguration fResolvedConfiguration = null;
+	private String[] fResolvedClasspath = null;
+
+	/**
+	 * Passes the classpath and the VM arguments of the given configuration to the VM in an argument file if the VM of the configuration supports
+	 * argument files (Java 9 and later). The file is reused by later launches with the same classpath and VM arguments.
+	 * 
+	 * @param configuration
+	 *            the configuration of the separate VM
+	 */
+	public void useArgumentFile(ILaunchConfiguration configuration) {
+		fArgumentFile = null;
+		fResolvedConfiguration = null;
+		fResolvedClasspath = null;
+		try {
+			IVMInstall install = verifyVMInstall(configuration);
+			if (!JavaRuntime.isModularJava(install)) {
+				return;
+			}
+			List<String> arguments = new ArrayList<>();
+			Collections.addAll(arguments, new ExecutionArguments(super.getVMArguments(configuration), "").getVMArgumentsArray()); //$NON-NLS-1$
+			String[] classpath = super.getClasspath(configuration);
+			fResolvedConfiguration = configuration;
+			fResolvedClasspath = classpath;
+			if (classpath.length > 0) {
+				StringBuilder path = new StringBuilder();
+				for (String entry : classpath) {
+					if (path.length() > 0) {
+						path.append(File.pathSeparatorChar);
+					}
+					path.append(entry);
+				}
+				arguments.add("-classpath"); //$NON-NLS-1$
+				arguments.add(path.toString());
+			}
+			fArgumentFile = AntArgumentFiles.getArgumentFile(arguments);
+		}
+		catch (CoreException e) {
+			// the launch reports the problem
+		}
+		catch (IOException e) {
+			AntLaunching.log(e);
+		}
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see org.eclipse.jdt.launching.AbstractJavaLaunchConfigurationDelegate#getClasspath(org.eclipse.debug.core.ILaunchConfiguration)
+	 */
+	@Override
+	public String[] getClasspath(ILaunchConfiguration configuration) throws CoreException {
+		if (configuration == fResolvedConfiguration) {
+			// the classpath is part of the argument file or has been resolved for it
+			return fArgumentFile != null ? new String[0] : fResolvedClasspath;
+		}
+		return super.getClasspath(configuration);
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see org.eclipse.jdt.launching.AbstractJavaLaunchConfigurationDelegate#getVMArguments(org.eclipse.debug.core.ILaunchConfiguration)
+	 */
+	@Override
+	public String getVMArguments(ILaunchConfiguration configuration) throws CoreException {
+		if (fArgumentFile != null) {
+			return "\"@" + fArgumentFile.getAbsolutePath() + '"'; //$NON-NLS-1$
+		}
+		return super.getVMArguments(configuration);
+	}
 	/*
 	 * (non-Javadoc)
 	 * 
@@ -1,5 +1,5 @@
 /**********************************************************************
- * Copyright (c) 2000, 2015 IBM Corporation and others. All rights reserved. This
+ * Copyright (c) 2000, 2018 IBM Corporation and others. All rights reserved. This
  * program and the accompanying materials are made available under the terms of
  * the Eclipse Public License v1.0 which accompanies this distribution, and is
  * available at http://www.eclipse.org/legal/epl-v10.html
@@ -30,6 +30,13 @@ public class AntLaunchConfigurationMessages extends NLS {
 
 	public static String ContributedClasspathEntriesEntry_1;
 
+	public static String RemoteAntBuildDaemon_Could_not_start;
+	public static String RemoteAntBuildDaemon_Exited;
+	public static String RemoteAntBuildDaemon_Build_error;
+
+	public static String AntLaunchDelegate_Worker_VMs;
+	public static String AntLaunchDelegate_Worker_VMs_failed;
+
 	static {
 		// load message values from bundle file
 		NLS.initializeMessages(BUNDLE_NAME, AntLaunchConfigurationMessages.class);
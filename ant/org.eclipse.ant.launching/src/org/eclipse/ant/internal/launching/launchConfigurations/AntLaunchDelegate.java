@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2017 IBM Corporation and others.
+ * Copyright (c) 2000, 2018 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -17,12 +17,18 @@ import java.io.File;
 import java.io.IOException;
 import java.net.URISyntaxException;
 import java.net.URL;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
+import org.apache.tools.ant.Project;
 import org.apache.tools.ant.ProjectHelper;
 import org.eclipse.ant.core.AntCorePlugin;
 import org.eclipse.ant.core.AntCorePreferences;
@@ -34,12 +40,14 @@ import org.eclipse.ant.internal.core.AbstractEclipseBuildLogger;
 import org.eclipse.ant.internal.launching.AntLaunch;
 import org.eclipse.ant.internal.launching.AntLaunching;
 import org.eclipse.ant.internal.launching.AntLaunchingUtil;
+import org.eclipse.ant.internal.launching.IAntLaunchingPreferenceConstants;
 import org.eclipse.ant.internal.launching.debug.IAntDebugConstants;
 import org.eclipse.ant.internal.launching.debug.model.RemoteAntDebugBuildListener;
 import org.eclipse.ant.launching.IAntLaunchConstants;
 import org.eclipse.core.externaltools.internal.IExternalToolConstants;
 import org.eclipse.core.externaltools.internal.launchConfigurations.BackgroundResourceRefresher;
 import org.eclipse.core.externaltools.internal.launchConfigurations.ExternalToolsCoreUtil;
+import org.eclipse.core.externaltools.internal.model.ExternalToolBuilder;
 import org.eclipse.core.resources.IProject;
 import org.eclipse.core.runtime.CoreException;
 import org.eclipse.core.runtime.FileLocator;
@@ -51,7 +59,9 @@ import org.eclipse.core.runtime.Platform;
 import org.eclipse.core.runtime.Status;
 import org.eclipse.core.runtime.SubMonitor;
 import org.eclipse.core.runtime.URIUtil;
+import org.eclipse.core.variables.VariablesPlugin;
 import org.eclipse.debug.core.DebugEvent;
+import org.eclipse.debug.core.DebugException;
 import org.eclipse.debug.core.DebugPlugin;
 import org.eclipse.debug.core.IBreakpointManager;
 import org.eclipse.debug.core.IDebugEventSetListener;
@@ -59,12 +69,16 @@ import org.eclipse.debug.core.ILaunch;
 import org.eclipse.debug.core.ILaunchConfiguration;
 import org.eclipse.debug.core.ILaunchConfigurationWorkingCopy;
 import org.eclipse.debug.core.ILaunchManager;
+import org.eclipse.debug.core.Launch;
 import org.eclipse.debug.core.RefreshUtil;
 import org.eclipse.debug.core.model.IBreakpoint;
 import org.eclipse.debug.core.model.IProcess;
+import org.eclipse.debug.core.model.IStreamMonitor;
+import org.eclipse.debug.core.model.IStreamsProxy;
 import org.eclipse.debug.core.model.LaunchConfigurationDelegate;
 import org.eclipse.jdt.core.JavaCore;
 import org.eclipse.jdt.launching.AbstractVMInstall;
+import org.eclipse.jdt.launching.ExecutionArguments;
 import org.eclipse.jdt.launching.IJavaLaunchConfigurationConstants;
 import org.eclipse.jdt.launching.IVMInstall;
 import org.eclipse.jdt.launching.JavaRuntime;
@@ -86,6 +100,7 @@ public class AntLaunchDelegate extends LaunchConfigurationDelegate {
 	private static final String NULL_LOGGER_CLASS = "org.eclipse.ant.internal.launching.runtime.logger.NullBuildLogger"; //$NON-NLS-1$
 	private static final String REMOTE_ANT_LOGGER_CLASS = "org.eclipse.ant.internal.launching.remote.logger.RemoteAntBuildLogger"; //$NON-NLS-1$
 	private static final String REMOTE_ANT_DEBUG_LOGGER_CLASS = "org.eclipse.ant.internal.launching.remote.logger.RemoteAntDebugBuildLogger"; //$NON-NLS-1$
+	private static final String BUILDER_INPUTS_RECORDER_CLASS = "org.eclipse.ant.internal.launching.runtime.logger.AntBuilderInputsRecorder"; //$NON-NLS-1$
 	private static final String BASE_DIR_PREFIX = "-Dbasedir="; //$NON-NLS-1$
 	private static final String INPUT_HANDLER_CLASS = "org.eclipse.ant.internal.ui.antsupport.inputhandler.AntInputHandler"; //$NON-NLS-1$
 	private static final String REMOTE_INPUT_HANDLER_CLASS = "org.eclipse.ant.internal.ui.antsupport.inputhandler.ProxyInputHandler"; //$NON-NLS-1$
@@ -107,6 +122,23 @@ public class AntLaunchDelegate extends LaunchConfigurationDelegate {
 	 */
 	private static final String ATTR_INCLUDE_REFERENCED_PROJECTS = AntLaunching.getUniqueIdentifier() + ".ATTR_INCLUDE_REFERENCED_PROJECTS"; //$NON-NLS-1$
 
+	/**
+	 * The time in milliseconds to wait for the output of a build in a build daemon after the build has finished
+	 */
+	private static final long DAEMON_SHUTDOWN_TIMEOUT = 5000;
+
+	/**
+	 * The Ant options that are followed by a value, which is not a target
+	 */
+	private static final List<String> VALUE_OPTIONS = Arrays.asList(new String[] { "-logfile", "-l", "-logger", "-listener", "-propertyfile", //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$ //$NON-NLS-5$
+			"-inputhandler", "-lib", "-main", "-nice" }); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$
+
+	/**
+	 * The Ant options that select another buildfile or run no targets, with which a build is not split into shards
+	 */
+	private static final List<String> UNSPLITTABLE_OPTIONS = Arrays.asList(new String[] { "-buildfile", "-file", "-f", "-find", "-s", //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$ //$NON-NLS-5$
+			"-projecthelp", "-p", "-help", "-h", "-version", "-diagnostics" }); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$ //$NON-NLS-5$ //$NON-NLS-6$
+
 	private static String fgSWTLibraryLocation;
 
 	private String fMode;
@@ -214,9 +246,27 @@ public class AntLaunchDelegate extends LaunchConfigurationDelegate {
 			AntLaunching.log(ce);
 		}
 
+		String inputsKey = getBuilderInputsKey(configuration, isSeparateJRE);
+		if (inputsKey != null) {
+			String buildType = ExternalToolBuilder.getBuildType();
+			if (IExternalToolConstants.BUILD_TYPE_CLEAN.equals(buildType)) {
+				AntBuilderInputs.discard(inputsKey);
+				inputsKey = null;
+			} else if ((IExternalToolConstants.BUILD_TYPE_INCREMENTAL.equals(buildType) || IExternalToolConstants.BUILD_TYPE_AUTO.equals(buildType))
+					&& AntBuilderInputs.isUnaffected(inputsKey, targets, configuration.getAttributes(), ExternalToolBuilder.getBuildDelta())) {
+				// nothing the last build read or wrote has changed
+				monitor.done();
+				return;
+			}
+		}
+
 		AntRunner runner = null;
 		if (!isSeparateJRE) {
 			runner = configureAntRunner(configuration, location, basedir, idProperty, arguments, userProperties, propertyFiles, targets, customClasspath, antHome, setInputHandler);
+			if (inputsKey != null) {
+				AntBuilderInputs.startRecording(idStamp, inputsKey, targets, configuration.getAttributes(), ExternalToolBuilder.getBuildProject().getLocation());
+				runner.addBuildListener(BUILDER_INPUTS_RECORDER_CLASS);
+			}
 		}
 
 		monitor.worked(1);
@@ -240,12 +290,25 @@ public class AntLaunchDelegate extends LaunchConfigurationDelegate {
 			}
 		}
 
-		StringBuffer commandLine = generateCommandLine(location, arguments, userProperties, propertyFiles, targets, antHome, basedir, isSeparateJRE, captureOutput, setInputHandler);
+		StringBuffer commandLine = generateCommandLine(launch, location, arguments, userProperties, propertyFiles, targets, antHome, basedir, isSeparateJRE, captureOutput, setInputHandler);
 
 		if (isSeparateJRE) {
 			monitor.beginTask(MessageFormat.format(AntLaunchConfigurationMessages.AntLaunchDelegate_Launching__0__1, new Object[] {
 					configuration.getName() }), 10);
-			runInSeparateVM(configuration, launch, monitor, idStamp, antHome, port, requestPort, commandLine, captureOutput, setInputHandler);
+			List<String[]> shards = getShards(configuration, location, arguments, targets, captureOutput);
+			if (shards != null) {
+				List<StringBuffer> commandLines = new ArrayList<>(shards.size());
+				int[] ports = new int[shards.size()];
+				for (int i = 0; i < ports.length; i++) {
+					// each VM reports to its own listener
+					ports[i] = SocketUtil.findFreePort();
+					userProperties.put("eclipse.connect.port", Integer.toString(ports[i])); //$NON-NLS-1$
+					commandLines.add(generateCommandLine(launch, location, arguments, userProperties, propertyFiles, shards.get(i), antHome, basedir, true, true, setInputHandler));
+				}
+				runShardsInSeparateVMs(configuration, launch, monitor, idStamp, antHome, shards, ports, commandLines, setInputHandler);
+			} else {
+				runInSeparateVM(configuration, launch, monitor, idStamp, antHome, port, requestPort, commandLine, captureOutput, setInputHandler);
+			}
 		} else {
 			runInSameVM(configuration, launch, monitor, location, idStamp, runner, commandLine);
 		}
@@ -253,6 +316,54 @@ public class AntLaunchDelegate extends LaunchConfigurationDelegate {
 		monitor.done();
 	}
 
+	/**
+	 * Returns the targets that each of several separate VMs runs at the same time, see {@link AntTargetShards}, or <code>null</code> if the build is
+	 * run by a single VM. A build is only split if the worker VMs preference allows it, the user has chosen targets to run at the same time, it is
+	 * not debugged, it is reported by the remote build logger and its arguments name no targets.
+	 */
+	private List<String[]> getShards(ILaunchConfiguration configuration, IPath location, String[] arguments, String[] targets, boolean captureOutput) throws CoreException {
+		if (!captureOutput || fUserSpecifiedLogger || fMode.equals(ILaunchManager.DEBUG_MODE)) {
+			return null;
+		}
+		int workers = Platform.getPreferencesService().getInt(AntLaunching.getUniqueIdentifier(), IAntLaunchingPreferenceConstants.ANT_WORKER_VMS, 1, null);
+		if (workers < 2) {
+			return null;
+		}
+		if (arguments != null) {
+			for (int i = 0; i < arguments.length; i++) {
+				String argument = arguments[i];
+				if (!argument.startsWith("-") || UNSPLITTABLE_OPTIONS.contains(argument)) { //$NON-NLS-1$
+					return null;
+				}
+				if (VALUE_OPTIONS.contains(argument)) {
+					i++;
+				}
+			}
+		}
+		String[] concurrentTargets = AntLaunchingUtil.parseRunTargets(configuration.getAttribute(AntLaunching.CONCURRENT_TARGETS, (String) null));
+		if (concurrentTargets.length == 0) {
+			return null;
+		}
+		return AntTargetShards.getShards(location.toFile(), targets, new HashSet<>(Arrays.asList(concurrentTargets)), workers);
+	}
+
+	/**
+	 * Returns the key under which the files that this build of an Ant builder reads and writes are recorded, see {@link AntBuilderInputs}, or
+	 * <code>null</code> if the build is not recorded. Only the builds of builders that run in the same JRE and skip unaffected builds are recorded.
+	 */
+	private String getBuilderInputsKey(ILaunchConfiguration configuration, boolean isSeparateJRE) throws CoreException {
+		if (isSeparateJRE || !IAntLaunchConstants.ID_ANT_BUILDER_LAUNCH_CONFIGURATION_TYPE.equals(configuration.getType().getIdentifier())
+				|| !configuration.getAttribute(AntLaunching.SKIP_UNAFFECTED_BUILDS, false)) {
+			return null;
+		}
+		IProject project = ExternalToolBuilder.getBuildProject();
+		if (project == null || project.getLocation() == null) {
+			// not launched by a build
+			return null;
+		}
+		return AntBuilderInputs.getKey(project.getName(), configuration.getName());
+	}
+
 	private void runInSameVM(ILaunchConfiguration configuration, ILaunch launch, IProgressMonitor monitor, IPath location, String idStamp, AntRunner runner, StringBuffer commandLine) throws CoreException {
 		Map<String, String> attributes = new HashMap<>(2);
 		attributes.put(IProcess.ATTR_PROCESS_TYPE, IAntLaunchConstants.ID_ANT_PROCESS_TYPE);
@@ -373,8 +484,13 @@ public class AntLaunchDelegate extends LaunchConfigurationDelegate {
 		}
 	}
 
-	private StringBuffer generateCommandLine(IPath location, String[] arguments, Map<String, String> userProperties, String[] propertyFiles, String[] targets, String antHome, String basedir, boolean separateVM, boolean captureOutput, boolean setInputHandler) {
+	private StringBuffer generateCommandLine(ILaunch launch, IPath location, String[] arguments, Map<String, String> userProperties, String[] propertyFiles, String[] targets, String antHome, String basedir, boolean separateVM, boolean captureOutput, boolean setInputHandler) {
 		StringBuffer commandLine = new StringBuffer();
+		// a separate VM reads the properties that do not change from launch to launch from a property file
+		Map<String, String> fileProperties = separateVM ? new LinkedHashMap<String, String>() : null;
+		// the -D properties of the arguments take precedence over the property file, so the properties that have to override them stay -D
+		// properties that follow them
+		Set<String> argumentProperties = separateVM ? getArgumentProperties(arguments) : Collections.<String> emptySet();
 
 		if (!separateVM) {
 			commandLine.append("ant"); //$NON-NLS-1$
@@ -408,7 +524,7 @@ public class AntLaunchDelegate extends LaunchConfigurationDelegate {
 			String key;
 			while (keys.hasNext()) {
 				key = keys.next();
-				appendProperty(commandLine, key, userProperties.get(key));
+				appendProperty(commandLine, fileProperties, argumentProperties, key, userProperties.get(key));
 			}
 		}
 
@@ -436,19 +552,23 @@ public class AntLaunchDelegate extends LaunchConfigurationDelegate {
 				String key = property.getName();
 				String value = property.getValue(false);
 				if (value != null) {
-					appendProperty(commandLine, key, value);
+					appendProperty(commandLine, fileProperties, argumentProperties, key, value);
 				}
 			}
 		}
 
 		if (basedir != null && basedir.length() > 0) {
-			appendProperty(commandLine, "basedir", basedir); //$NON-NLS-1$
+			appendProperty(commandLine, fileProperties, argumentProperties, "basedir", basedir); //$NON-NLS-1$
 		}
 
 		if (antHome != null) {
-			commandLine.append(" \"-Dant.home="); //$NON-NLS-1$
-			commandLine.append(antHome);
-			commandLine.append('\"');
+			if (fileProperties != null && !argumentProperties.contains("ant.home")) { //$NON-NLS-1$
+				fileProperties.put("ant.home", antHome); //$NON-NLS-1$
+			} else {
+				commandLine.append(" \"-Dant.home="); //$NON-NLS-1$
+				commandLine.append(antHome);
+				commandLine.append('\"');
+			}
 		}
 
 		if (separateVM) {
@@ -499,6 +619,9 @@ public class AntLaunchDelegate extends LaunchConfigurationDelegate {
 				commandLine.append('\"');
 			}
 		}
+		if (fileProperties != null && !fileProperties.isEmpty()) {
+			insertPropertyFile(commandLine, fileProperties, launch);
+		}
 		return commandLine;
 	}
 
@@ -522,6 +645,14 @@ public class AntLaunchDelegate extends LaunchConfigurationDelegate {
 		}
 	}
 
+	private void appendProperty(StringBuffer commandLine, Map<String, String> fileProperties, Set<String> argumentProperties, String name, String value) {
+		if (fileProperties != null && !isLaunchSpecificProperty(name) && !argumentProperties.contains(name)) {
+			fileProperties.put(name, value);
+			return;
+		}
+		appendProperty(commandLine, name, value);
+	}
+
 	private void appendProperty(StringBuffer commandLine, String name, String value) {
 		commandLine.append(" \"-D"); //$NON-NLS-1$
 		commandLine.append(name);
@@ -533,8 +664,62 @@ public class AntLaunchDelegate extends LaunchConfigurationDelegate {
 		commandLine.append("\""); //$NON-NLS-1$
 	}
 
+	/**
+	 * Returns the names of the properties that the given arguments define with -D, as the Ant runner reads them
+	 */
+	private Set<String> getArgumentProperties(String[] arguments) {
+		if (arguments == null) {
+			return Collections.emptySet();
+		}
+		Set<String> names = new HashSet<>();
+		for (String argument : arguments) {
+			if (argument.startsWith("-D")) { //$NON-NLS-1$
+				int index = argument.indexOf('=');
+				names.add(index == -1 ? argument.substring(2) : argument.substring(2, index));
+			}
+		}
+		return names;
+	}
+
+	/**
+	 * Returns whether the given property identifies a single launch, the properties that connect the separate VM to this launch
+	 */
+	private boolean isLaunchSpecificProperty(String name) {
+		return name.equals(AbstractEclipseBuildLogger.ANT_PROCESS_ID) || name.startsWith("eclipse.connect."); //$NON-NLS-1$
+	}
+
+	/**
+	 * Passes the given properties to the separate VM in a property file that is deleted when the launch terminates. The file is given before any
+	 * other property file as its properties take precedence over them, like the -D properties they replace.
+	 */
+	private void insertPropertyFile(StringBuffer commandLine, Map<String, String> properties, ILaunch launch) {
+		Map<String, String> values = new LinkedHashMap<>(properties.size());
+		for (Map.Entry<String, String> property : properties.entrySet()) {
+			String value = property.getValue();
+			try {
+				// as for the program arguments of the separate VM, but leaving the references that are not Eclipse variables to Ant
+				value = VariablesPlugin.getDefault().getStringVariableManager().performStringSubstitution(value, false);
+			}
+			catch (CoreException e) {
+				// pass the value as it is
+			}
+			values.put(property.getKey(), value);
+		}
+		try {
+			File file = AntArgumentFiles.getPropertyFile(values, launch);
+			commandLine.insert(0, " -propertyfile \"" + file.getAbsolutePath() + '"'); //$NON-NLS-1$
+		}
+		catch (IOException e) {
+			AntLaunching.log(e);
+			for (Map.Entry<String, String> property : properties.entrySet()) {
+				appendProperty(commandLine, property.getKey(), property.getValue());
+			}
+		}
+	}
+
 	private void runInSeparateVM(ILaunchConfiguration configuration, ILaunch launch, IProgressMonitor monitor, String idStamp, String antHome, int port, int requestPort, StringBuffer commandLine, boolean captureOutput, boolean setInputHandler) throws CoreException {
 		boolean debug = fMode.equals(ILaunchManager.DEBUG_MODE);
+		RemoteAntBuildListener client = null;
 		if (captureOutput) {
 			String encoding = DebugPlugin.getDefault().getLaunchManager().getEncoding(configuration);
 			if (debug) {
@@ -543,42 +728,22 @@ public class AntLaunchDelegate extends LaunchConfigurationDelegate {
 					listener.startListening(port, requestPort);
 				}
 			} else if (!fUserSpecifiedLogger) {
-				RemoteAntBuildListener client = new RemoteAntBuildListener(launch, encoding);
+				client = new RemoteAntBuildListener(launch, encoding);
 				if (port != -1) {
 					client.startListening(port);
 				}
 			}
 		}
 
-		ILaunchConfigurationWorkingCopy copy = configuration.getWorkingCopy();
-		setDefaultWorkingDirectory(copy);
-		copy.setAttribute(IJavaLaunchConfigurationConstants.ATTR_PROGRAM_ARGUMENTS, commandLine.toString());
-		copy.setAttribute(IJavaLaunchConfigurationConstants.ATTR_MAIN_TYPE_NAME, IAntLaunchConstants.MAIN_TYPE_NAME);
-		StringBuffer vmArgs = generateVMArguments(copy, setInputHandler, antHome);
-		copy.setAttribute(IJavaLaunchConfigurationConstants.ATTR_VM_ARGUMENTS, vmArgs.toString());
-		copy.setAttribute(ILaunchManager.ATTR_PRIVATE, true);
-		if (copy.getAttribute(IAntLaunchConstants.ATTR_DEFAULT_VM_INSTALL, false)) {
-			setDefaultVM(configuration, copy);
-		}
-
-		copy.setAttribute(IJavaLaunchConfigurationConstants.ATTR_USE_START_ON_FIRST_THREAD, false);
-
-		if (debug) { // do not allow launch in foreground bug 83254
-			copy.setAttribute(IExternalToolConstants.ATTR_LAUNCH_IN_BACKGROUND, true);
-		}
-
-		// set the ANT_HOME environment variable
-		if (antHome != null) {
-			Map<String, String> vars = copy.getAttribute(ILaunchManager.ATTR_ENVIRONMENT_VARIABLES, new HashMap<String, String>(1));
-			vars.put("ANT_HOME", antHome); //$NON-NLS-1$
-			copy.setAttribute(ILaunchManager.ATTR_ENVIRONMENT_VARIABLES, vars);
-		}
-		// copy.setAttribute(IJavaLaunchConfigurationConstants.ATTR_VM_ARGUMENTS,
-		// "-Xdebug -Xnoagent -Djava.compiler=NONE -Xrunjdwp:transport=dt_socket,server=y,suspend=y,address=8000");
 		IProgressMonitor subMonitor = SubMonitor.convert(monitor, 10);
 		AntJavaLaunchDelegate delegate = new AntJavaLaunchDelegate();
-		delegate.preLaunchCheck(copy, ILaunchManager.RUN_MODE, subMonitor);
-		delegate.launch(copy, ILaunchManager.RUN_MODE, launch, subMonitor);
+		ILaunchConfigurationWorkingCopy copy = createSeparateVMConfiguration(configuration, commandLine, antHome, setInputHandler, delegate, subMonitor);
+		// the build daemon reports the build through the remote build logger only
+		boolean useDaemon = client != null && port != -1
+				&& Platform.getPreferencesService().getBoolean(AntLaunching.getUniqueIdentifier(), IAntLaunchingPreferenceConstants.ANT_BUILD_DAEMON, false, null);
+		if (!useDaemon || !runInDaemon(copy, launch, subMonitor, delegate, idStamp, commandLine, client)) {
+			delegate.launch(copy, ILaunchManager.RUN_MODE, launch, subMonitor);
+		}
 		final IProcess[] processes = launch.getProcesses();
 		for (int i = 0; i < processes.length; i++) {
 			setProcessAttributes(processes[i], idStamp, null);
@@ -625,6 +790,260 @@ public class AntLaunchDelegate extends LaunchConfigurationDelegate {
 		}
 	}
 
+	/**
+	 * Runs the given shards of the build in separate VMs at the same time, see {@link AntTargetShards}. The VMs report to the console of a single
+	 * process, each line preceded by the number of the VM that wrote it. This includes what the VMs write to their standard output and error
+	 * streams, as they have no console of their own.
+	 */
+	private void runShardsInSeparateVMs(ILaunchConfiguration configuration, ILaunch launch, IProgressMonitor monitor, String idStamp, String antHome, List<String[]> shards, int[] ports, List<StringBuffer> commandLines, boolean setInputHandler) throws CoreException {
+		String encoding = DebugPlugin.getDefault().getLaunchManager().getEncoding(configuration);
+		final int count = shards.size();
+		final RemoteAntBuildListener[] clients = new RemoteAntBuildListener[count];
+		final IProcess[] workers = new IProcess[count];
+		final List<AntWorkerStreamListener> streamListeners = new ArrayList<>(2 * count);
+		Map<String, String> attributes = new HashMap<>(2);
+		attributes.put(IProcess.ATTR_PROCESS_TYPE, IAntLaunchConstants.ID_ANT_PROCESS_TYPE);
+		attributes.put(AbstractEclipseBuildLogger.ANT_PROCESS_ID, idStamp);
+		final AntProcess process = new AntProcess(ExternalToolsCoreUtil.getLocation(configuration).toOSString(), launch, attributes) {
+			@Override
+			public void terminate() {
+				super.terminate();
+				terminateWorkers(workers);
+			}
+		};
+		StringBuffer allCommandLines = new StringBuffer();
+		for (StringBuffer commandLine : commandLines) {
+			allCommandLines.append(commandLine).append(System.getProperty("line.separator")); //$NON-NLS-1$
+		}
+		setProcessAttributes(process, idStamp, allCommandLines);
+		writeShardMessage(process, MessageFormat.format(AntLaunchConfigurationMessages.AntLaunchDelegate_Worker_VMs, new Object[] {
+				Integer.toString(count) }), Project.MSG_INFO);
+		for (int i = 0; i < count; i++) {
+			StringBuffer shardTargets = new StringBuffer(getOrigin(i));
+			String[] targets = shards.get(i);
+			for (int j = 0; j < targets.length; j++) {
+				if (j > 0) {
+					shardTargets.append(", "); //$NON-NLS-1$
+				}
+				shardTargets.append(targets[j]);
+			}
+			writeShardMessage(process, shardTargets.toString(), Project.MSG_INFO);
+		}
+
+		IProgressMonitor subMonitor = SubMonitor.convert(monitor, 10);
+		AntJavaLaunchDelegate delegate = new AntJavaLaunchDelegate();
+		try {
+			for (int i = 0; i < count && !process.isCanceled(); i++) {
+				clients[i] = new RemoteAntBuildListener(launch, encoding, getOrigin(i));
+				clients[i].startListening(ports[i]);
+				ILaunchConfigurationWorkingCopy copy = createSeparateVMConfiguration(configuration, commandLines.get(i), antHome, setInputHandler, delegate, subMonitor);
+				// the VM is reported by the process of the launch rather than by a process of its own
+				Launch workerLaunch = new Launch(copy, ILaunchManager.RUN_MODE, null);
+				delegate.launch(copy, ILaunchManager.RUN_MODE, workerLaunch, subMonitor);
+				IProcess[] processes = workerLaunch.getProcesses();
+				if (processes.length > 0) {
+					workers[i] = processes[0];
+					IStreamsProxy streams = workers[i].getStreamsProxy();
+					AntStreamsProxy proxy = (AntStreamsProxy) process.getStreamsProxy();
+					if (streams != null && proxy != null) {
+						streamListeners.add(AntWorkerStreamListener.copy(streams.getOutputStreamMonitor(), (AntStreamMonitor) proxy.getOutputStreamMonitor(), getOrigin(i)));
+						streamListeners.add(AntWorkerStreamListener.copy(streams.getErrorStreamMonitor(), (AntStreamMonitor) proxy.getErrorStreamMonitor(), getOrigin(i)));
+					}
+				}
+			}
+		}
+		catch (CoreException e) {
+			terminateWorkers(workers);
+			process.terminated();
+			throw e;
+		}
+		Runnable r = () -> {
+			for (IProcess worker : workers) {
+				while (worker != null && !worker.isTerminated()) {
+					try {
+						Thread.sleep(50);
+					}
+					catch (InterruptedException e) {
+						// do nothing
+					}
+				}
+			}
+			for (AntWorkerStreamListener listener : streamListeners) {
+				listener.flush();
+			}
+			StringBuffer failed = new StringBuffer();
+			for (int i = 0; i < count; i++) {
+				if (clients[i] == null) {
+					continue;
+				}
+				// the last messages of the build may still be on their way
+				clients[i].waitForShutDown(DAEMON_SHUTDOWN_TIMEOUT);
+				boolean succeeded = workers[i] != null && !clients[i].hasBuildFailed();
+				try {
+					succeeded = succeeded && workers[i].getExitValue() == 0;
+				}
+				catch (DebugException e) {
+					succeeded = false;
+				}
+				if (!succeeded) {
+					if (failed.length() > 0) {
+						failed.append(", "); //$NON-NLS-1$
+					}
+					failed.append(i + 1);
+				}
+			}
+			if (!process.isCanceled() && failed.length() > 0) {
+				writeShardMessage(process, MessageFormat.format(AntLaunchConfigurationMessages.AntLaunchDelegate_Worker_VMs_failed, new Object[] {
+						failed.toString() }), Project.MSG_ERR);
+			}
+			process.terminated();
+		};
+		Thread background = new Thread(r, "Ant Worker VMs"); //$NON-NLS-1$
+		background.setDaemon(true);
+		background.start();
+
+		if (AntLaunchingUtil.isLaunchInBackground(configuration)) {
+			// refresh resources after process finishes
+			if (configuration.getAttribute(RefreshUtil.ATTR_REFRESH_SCOPE, (String) null) != null) {
+				BackgroundResourceRefresher refresher = new BackgroundResourceRefresher(configuration, process);
+				refresher.startBackgroundRefresh();
+			}
+		} else {
+			monitor.subTask(AntLaunchConfigurationMessages.AntLaunchDelegate_28);
+			while (!monitor.isCanceled() && !process.isTerminated()) {
+				try {
+					Thread.sleep(50);
+				}
+				catch (InterruptedException e) {
+					// do nothing
+				}
+			}
+			if (!monitor.isCanceled()) {
+				// refresh resources
+				RefreshUtil.refreshResources(configuration, monitor);
+			}
+		}
+	}
+
+	/**
+	 * Returns the text that precedes the lines of the shard of the given index in the console
+	 */
+	private String getOrigin(int shard) {
+		return Integer.toString(shard + 1) + "> "; //$NON-NLS-1$
+	}
+
+	private void writeShardMessage(AntProcess process, String message, int priority) {
+		AntStreamsProxy proxy = (AntStreamsProxy) process.getStreamsProxy();
+		if (proxy != null) {
+			IStreamMonitor monitor = priority == Project.MSG_ERR ? proxy.getErrorStreamMonitor() : proxy.getOutputStreamMonitor();
+			((AntStreamMonitor) monitor).append(message + System.getProperty("line.separator")); //$NON-NLS-1$
+		}
+	}
+
+	private void terminateWorkers(IProcess[] workers) {
+		for (IProcess worker : workers) {
+			if (worker != null && worker.canTerminate()) {
+				try {
+					worker.terminate();
+				}
+				catch (DebugException e) {
+					AntLaunching.log(e);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Returns a private copy of the given configuration that runs the given command line in a separate VM
+	 */
+	private ILaunchConfigurationWorkingCopy createSeparateVMConfiguration(ILaunchConfiguration configuration, StringBuffer commandLine, String antHome, boolean setInputHandler, AntJavaLaunchDelegate delegate, IProgressMonitor monitor) throws CoreException {
+		ILaunchConfigurationWorkingCopy copy = configuration.getWorkingCopy();
+		setDefaultWorkingDirectory(copy);
+		copy.setAttribute(IJavaLaunchConfigurationConstants.ATTR_PROGRAM_ARGUMENTS, commandLine.toString());
+		copy.setAttribute(IJavaLaunchConfigurationConstants.ATTR_MAIN_TYPE_NAME, IAntLaunchConstants.MAIN_TYPE_NAME);
+		StringBuffer vmArgs = generateVMArguments(copy, setInputHandler, antHome);
+		copy.setAttribute(IJavaLaunchConfigurationConstants.ATTR_VM_ARGUMENTS, vmArgs.toString());
+		copy.setAttribute(ILaunchManager.ATTR_PRIVATE, true);
+		if (copy.getAttribute(IAntLaunchConstants.ATTR_DEFAULT_VM_INSTALL, false)) {
+			setDefaultVM(configuration, copy);
+		}
+
+		copy.setAttribute(IJavaLaunchConfigurationConstants.ATTR_USE_START_ON_FIRST_THREAD, false);
+
+		if (fMode.equals(ILaunchManager.DEBUG_MODE)) { // do not allow launch in foreground bug 83254
+			copy.setAttribute(IExternalToolConstants.ATTR_LAUNCH_IN_BACKGROUND, true);
+		}
+
+		// set the ANT_HOME environment variable
+		if (antHome != null) {
+			Map<String, String> vars = copy.getAttribute(ILaunchManager.ATTR_ENVIRONMENT_VARIABLES, new HashMap<String, String>(1));
+			vars.put("ANT_HOME", antHome); //$NON-NLS-1$
+			copy.setAttribute(ILaunchManager.ATTR_ENVIRONMENT_VARIABLES, vars);
+		}
+		// copy.setAttribute(IJavaLaunchConfigurationConstants.ATTR_VM_ARGUMENTS,
+		// "-Xdebug -Xnoagent -Djava.compiler=NONE -Xrunjdwp:transport=dt_socket,server=y,suspend=y,address=8000");
+		delegate.preLaunchCheck(copy, ILaunchManager.RUN_MODE, monitor);
+		if (Platform.getPreferencesService().getBoolean(AntLaunching.getUniqueIdentifier(), IAntLaunchingPreferenceConstants.ANT_CLASS_DATA_SHARING, false, null)) {
+			String sharingArgs = AntClassDataSharing.getVMArguments(delegate.verifyVMInstall(copy), delegate.getClasspath(copy), vmArgs.toString());
+			if (sharingArgs.length() > 0) {
+				vmArgs.append(' ');
+				vmArgs.append(sharingArgs);
+				copy.setAttribute(IJavaLaunchConfigurationConstants.ATTR_VM_ARGUMENTS, vmArgs.toString());
+			}
+		}
+		// keep long classpaths and VM arguments off the command line
+		delegate.useArgumentFile(copy);
+		return copy;
+	}
+
+	/**
+	 * Runs the build in a build daemon rather than in a new VM, see {@link RemoteAntBuildDaemon}.
+	 * 
+	 * @return whether the build was started, <code>false</code> if no daemon could be started
+	 */
+	private boolean runInDaemon(ILaunchConfiguration copy, ILaunch launch, IProgressMonitor monitor, AntJavaLaunchDelegate delegate, String idStamp, StringBuffer commandLine, final RemoteAntBuildListener client) throws CoreException {
+		final RemoteAntBuildDaemon daemon;
+		try {
+			daemon = RemoteAntBuildDaemon.acquire(delegate, copy, monitor);
+		}
+		catch (CoreException e) {
+			// run this build in a new VM instead
+			AntLaunching.log(e.getStatus());
+			return false;
+		}
+		final String[] arguments = new ExecutionArguments("", delegate.getProgramArguments(copy)).getProgramArgumentsArray(); //$NON-NLS-1$
+		Map<String, String> attributes = new HashMap<>(2);
+		attributes.put(IProcess.ATTR_PROCESS_TYPE, IAntLaunchConstants.ID_ANT_PROCESS_TYPE);
+		attributes.put(AbstractEclipseBuildLogger.ANT_PROCESS_ID, idStamp);
+		final AntProcess process = new AntProcess(ExternalToolsCoreUtil.getLocation(copy).toOSString(), launch, attributes) {
+			@Override
+			public void terminate() {
+				super.terminate();
+				daemon.kill();
+			}
+		};
+		setProcessAttributes(process, idStamp, commandLine);
+		Runnable r = () -> {
+			try {
+				daemon.build(arguments);
+				RemoteAntBuildDaemon.release(daemon);
+			}
+			catch (IOException e) {
+				daemon.kill();
+				if (!process.isCanceled()) {
+					AntLaunching.log(e);
+				}
+			}
+			// the last messages of the build may still be on their way
+			client.waitForShutDown(DAEMON_SHUTDOWN_TIMEOUT);
+			process.terminated();
+		};
+		Thread background = new Thread(r, "Ant Build Daemon Client"); //$NON-NLS-1$
+		background.setDaemon(true);
+		background.start();
+		return true;
+	}
+
 	@SuppressWarnings("deprecation")
 	private void setDefaultVM(ILaunchConfiguration configuration, ILaunchConfigurationWorkingCopy copy) {
 		try {
@@ -0,0 +1,306 @@
+/*******************************************************************************
+ * Copyright (c) 2018 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.ant.internal.launching.launchConfigurations;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import javax.xml.parsers.ParserConfigurationException;
+import javax.xml.parsers.SAXParserFactory;
+
+import org.xml.sax.Attributes;
+import org.xml.sax.SAXException;
+import org.xml.sax.helpers.DefaultHandler;
+
+/**
+ * Splits the targets of a build into shards that can be run by separate VMs at the same time, because no target that one shard runs is run by
+ * another shard.
+ * <p>
+ * A build may rely on its targets running one after the other even where they do not depend on each other, so a build is only split where the user
+ * has chosen the targets that may run at the same time: several requested targets are only split if all of them are chosen, and a chosen target
+ * without tasks that only depends on targets which share no dependencies is replaced by these targets, so that a target such as <code>all</code>
+ * can be split too. Any other build runs its targets in their order in a single VM.
+ * </p>
+ * <p>
+ * The targets that a target depends on, directly or indirectly, are read from the <code>depends</code> attributes of the buildfile. Targets that
+ * share a dependency are run by the same shard in their order. The dependencies cannot be known without running the build if the buildfile imports
+ * or includes other files, extends extension points or has dependencies that are given by properties; such a build is not split.
+ * </p>
+ */
+public final class AntTargetShards {
+
+	private static final String TARGET = "target"; //$NON-NLS-1$
+	private static final String EXTENSION_POINT = "extension-point"; //$NON-NLS-1$
+
+	/**
+	 * A target of a buildfile
+	 */
+	private static class TargetInfo {
+		String[] fDepends = new String[0];
+		boolean fHasTasks = false;
+		boolean fConditional = false;
+	}
+
+	/**
+	 * Reads the targets of a buildfile and the names of the targets they depend on
+	 */
+	private static class BuildFileHandler extends DefaultHandler {
+		final Map<String, TargetInfo> fTargets = new HashMap<>();
+		String fDefaultTarget = null;
+		boolean fSplittable = true;
+		private int fDepth = 0;
+		private TargetInfo fCurrent = null;
+
+		@Override
+		public void startElement(String uri, String localName, String qName, Attributes attributes) {
+			fDepth++;
+			if (fDepth == 1) {
+				fDefaultTarget = attributes.getValue("default"); //$NON-NLS-1$
+			} else if (fDepth == 2) {
+				if (TARGET.equals(qName) || EXTENSION_POINT.equals(qName)) {
+					startTarget(attributes);
+				} else if ("import".equals(qName) || "include".equals(qName)) { //$NON-NLS-1$ //$NON-NLS-2$
+					fSplittable = false;
+				}
+			} else if (fDepth == 3 && fCurrent != null) {
+				fCurrent.fHasTasks = true;
+			}
+		}
+
+		private void startTarget(Attributes attributes) {
+			String name = attributes.getValue("name"); //$NON-NLS-1$
+			if (name == null || attributes.getValue("extensionOf") != null || fTargets.containsKey(name)) { //$NON-NLS-1$
+				fSplittable = false;
+				return;
+			}
+			TargetInfo info = new TargetInfo();
+			String depends = attributes.getValue("depends"); //$NON-NLS-1$
+			if (depends != null && depends.trim().length() > 0) {
+				if (depends.indexOf('$') != -1) {
+					fSplittable = false;
+				}
+				info.fDepends = depends.split(","); //$NON-NLS-1$
+				for (int i = 0; i < info.fDepends.length; i++) {
+					info.fDepends[i] = info.fDepends[i].trim();
+				}
+			}
+			info.fConditional = attributes.getValue("if") != null || attributes.getValue("unless") != null; //$NON-NLS-1$ //$NON-NLS-2$
+			fTargets.put(name, info);
+			fCurrent = info;
+		}
+
+		@Override
+		public void endElement(String uri, String localName, String qName) {
+			if (fDepth == 2) {
+				fCurrent = null;
+			}
+			fDepth--;
+		}
+	}
+
+	private final Map<String, TargetInfo> fTargets;
+	private final Set<String> fConcurrentTargets;
+	private final Map<String, Set<String>> fClosures = new HashMap<>();
+
+	private AntTargetShards(Map<String, TargetInfo> targets, Set<String> concurrentTargets) {
+		fTargets = targets;
+		fConcurrentTargets = concurrentTargets;
+	}
+
+	/**
+	 * Returns the targets of the given buildfile that each of at most the given number of VMs runs, or <code>null</code> if the build cannot be
+	 * split into at least two shards.
+	 *
+	 * @param buildFile
+	 *            the buildfile
+	 * @param targets
+	 *            the targets to run in their order, <code>null</code> or empty for the default target
+	 * @param concurrentTargets
+	 *            the targets that the user has chosen to run at the same time as the other targets of the build
+	 * @param maxShards
+	 *            the maximum number of shards
+	 * @return the targets by shard or <code>null</code>
+	 */
+	public static List<String[]> getShards(File buildFile, String[] targets, Set<String> concurrentTargets, int maxShards) {
+		if (maxShards < 2 || concurrentTargets.isEmpty()) {
+			return null;
+		}
+		BuildFileHandler handler = new BuildFileHandler();
+		try {
+			SAXParserFactory.newInstance().newSAXParser().parse(buildFile, handler);
+		}
+		catch (ParserConfigurationException | SAXException | IOException e) {
+			// the build reports the problems of the buildfile
+			return null;
+		}
+		if (!handler.fSplittable) {
+			return null;
+		}
+		List<String> requested;
+		if (targets == null || targets.length == 0) {
+			if (handler.fDefaultTarget == null) {
+				return null;
+			}
+			requested = Collections.singletonList(handler.fDefaultTarget);
+		} else {
+			requested = Arrays.asList(targets);
+		}
+		return new AntTargetShards(handler.fTargets, concurrentTargets).split(requested, maxShards);
+	}
+
+	private List<String[]> split(List<String> requested, int maxShards) {
+		if (requested.size() > 1 && !fConcurrentTargets.containsAll(requested)) {
+			// the targets must run one after the other
+			return null;
+		}
+		List<String> units = new ArrayList<>();
+		for (String target : requested) {
+			if (!expand(target, units)) {
+				return null;
+			}
+		}
+		// group the units that share a target, in the order of their first unit
+		List<List<String>> groups = new ArrayList<>();
+		List<Set<String>> groupClosures = new ArrayList<>();
+		for (String unit : units) {
+			List<String> group = new ArrayList<>();
+			Set<String> closure = new HashSet<>(getClosure(unit));
+			int index = groups.size();
+			for (int i = groups.size() - 1; i >= 0; i--) {
+				if (!Collections.disjoint(closure, groupClosures.get(i))) {
+					group.addAll(0, groups.remove(i));
+					closure.addAll(groupClosures.remove(i));
+					index = i;
+				}
+			}
+			group.add(unit);
+			groups.add(Math.min(index, groups.size()), group);
+			groupClosures.add(Math.min(index, groupClosures.size()), closure);
+		}
+		if (groups.size() < 2) {
+			return null;
+		}
+		// assign the largest groups first, each to the shard with the fewest targets
+		Integer[] order = new Integer[groups.size()];
+		for (int i = 0; i < order.length; i++) {
+			order[i] = Integer.valueOf(i);
+		}
+		final List<Set<String>> closures = groupClosures;
+		Arrays.sort(order, new Comparator<Integer>() {
+			@Override
+			public int compare(Integer o1, Integer o2) {
+				return closures.get(o2.intValue()).size() - closures.get(o1.intValue()).size();
+			}
+		});
+		int shardCount = Math.min(maxShards, groups.size());
+		List<Set<Integer>> shardGroups = new ArrayList<>();
+		int[] sizes = new int[shardCount];
+		for (int i = 0; i < shardCount; i++) {
+			shardGroups.add(new HashSet<Integer>());
+		}
+		for (Integer group : order) {
+			int smallest = 0;
+			for (int i = 1; i < shardCount; i++) {
+				if (sizes[i] < sizes[smallest]) {
+					smallest = i;
+				}
+			}
+			shardGroups.get(smallest).add(group);
+			sizes[smallest] += closures.get(group.intValue()).size();
+		}
+		List<String[]> shards = new ArrayList<>(shardCount);
+		for (Set<Integer> shard : shardGroups) {
+			List<String> shardTargets = new ArrayList<>();
+			for (int i = 0; i < groups.size(); i++) {
+				if (shard.contains(Integer.valueOf(i))) {
+					shardTargets.addAll(groups.get(i));
+				}
+			}
+			shards.add(shardTargets.toArray(new String[shardTargets.size()]));
+		}
+		return shards;
+	}
+
+	/**
+	 * Adds the given target, or the targets it can be replaced by if the user has chosen it, to the given units
+	 *
+	 * @return whether the target and all the targets it depends on are known
+	 */
+	private boolean expand(String target, List<String> units) {
+		TargetInfo info = fTargets.get(target);
+		if (info == null || getClosure(target) == null) {
+			return false;
+		}
+		if (!fConcurrentTargets.contains(target) || info.fHasTasks || info.fConditional || info.fDepends.length < 2) {
+			units.add(target);
+			return true;
+		}
+		Set<String> seen = new HashSet<>();
+		for (String depend : info.fDepends) {
+			Set<String> closure = getClosure(depend);
+			if (!Collections.disjoint(seen, closure)) {
+				// the dependencies of the target must run in one VM
+				units.add(target);
+				return true;
+			}
+			seen.addAll(closure);
+		}
+		for (String depend : info.fDepends) {
+			if (!expand(depend, units)) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Returns the given target and all the targets it depends on, or <code>null</code> if one of them is not known or they depend on each other
+	 */
+	private Set<String> getClosure(String target) {
+		if (fClosures.containsKey(target)) {
+			return fClosures.get(target);
+		}
+		Set<String> closure = new LinkedHashSet<>();
+		if (!addClosure(target, closure, new HashSet<String>())) {
+			closure = null;
+		}
+		fClosures.put(target, closure);
+		return closure;
+	}
+
+	private boolean addClosure(String target, Set<String> closure, Set<String> visiting) {
+		if (closure.contains(target)) {
+			return true;
+		}
+		TargetInfo info = fTargets.get(target);
+		if (info == null || !visiting.add(target)) {
+			return false;
+		}
+		for (String depend : info.fDepends) {
+			if (!addClosure(depend, closure, visiting)) {
+				return false;
+			}
+		}
+		visiting.remove(target);
+		closure.add(target);
+		return true;
+	}
+}
@@ -0,0 +1,89 @@
+/*******************************************************************************
+ * Copyright (c) 2018 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.ant.internal.launching.launchConfigurations;
+
+import org.eclipse.debug.core.IStreamListener;
+import org.eclipse.debug.core.model.IStreamMonitor;
+
+/**
+ * Copies the lines that a worker VM of a build writes to its standard output or error stream to the console of the process of the launch, each
+ * line preceded by the origin of the VM. See {@link AntTargetShards}.
+ */
+class AntWorkerStreamListener implements IStreamListener {
+
+	private final AntStreamMonitor fTarget;
+	private final String fOrigin;
+	private final StringBuffer fLine = new StringBuffer();
+
+	private AntWorkerStreamListener(AntStreamMonitor target, String origin) {
+		fTarget = target;
+		fOrigin = origin;
+	}
+
+	/**
+	 * Copies what the given stream of a worker VM has written and will write to the given stream of the process of the launch
+	 *
+	 * @param source
+	 *            the stream of the worker VM
+	 * @param target
+	 *            the stream of the process of the launch
+	 * @param origin
+	 *            the text that precedes each line
+	 * @return the listener, to be flushed when the worker VM has terminated
+	 */
+	static AntWorkerStreamListener copy(IStreamMonitor source, AntStreamMonitor target, String origin) {
+		AntWorkerStreamListener listener = new AntWorkerStreamListener(target, origin);
+		// as the process console, so that no text is missed or copied twice
+		synchronized (source) {
+			listener.append(source.getContents());
+			source.addListener(listener);
+		}
+		return listener;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see org.eclipse.debug.core.IStreamListener#streamAppended(java.lang.String, org.eclipse.debug.core.model.IStreamMonitor)
+	 */
+	@Override
+	public void streamAppended(String text, IStreamMonitor monitor) {
+		append(text);
+	}
+
+	private synchronized void append(String text) {
+		if (text == null || text.length() == 0) {
+			return;
+		}
+		StringBuffer lines = new StringBuffer();
+		for (int i = 0; i < text.length(); i++) {
+			char c = text.charAt(i);
+			fLine.append(c);
+			if (c == '\n') {
+				lines.append(fOrigin).append(fLine);
+				fLine.setLength(0);
+			}
+		}
+		if (lines.length() > 0) {
+			fTarget.append(lines.toString());
+		}
+	}
+
+	/**
+	 * Copies the last line of the stream if it does not end with a line separator
+	 */
+	synchronized void flush() {
+		if (fLine.length() > 0) {
+			fTarget.append(fOrigin + fLine + System.getProperty("line.separator")); //$NON-NLS-1$
+			fLine.setLength(0);
+		}
+	}
+}
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2016 IBM Corporation and others.
+ * Copyright (c) 2000, 2018 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -21,7 +21,9 @@ import java.net.URISyntaxException;
 import java.net.URL;
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 import org.eclipse.ant.core.AntCorePlugin;
 import org.eclipse.ant.core.AntCorePreferences;
@@ -59,6 +61,15 @@ public class ContributedClasspathEntriesEntry extends AbstractRuntimeClasspathEn
 
 	public static List<IRuntimeClasspathEntry> fgSWTEntries = null;
 
+	/**
+	 * The resolved entries by launch settings and target VM, valid for {@link #fgStateStamp}, {@link #fgPreferences} and
+	 * {@link #fgAdditionalEntries}
+	 */
+	private static final Map<String, IRuntimeClasspathEntry[]> fgResolvedEntries = new HashMap<>();
+	private static long fgStateStamp = -1;
+	private static AntCorePreferences fgPreferences = null;
+	private static IAntClasspathEntry[] fgAdditionalEntries = null;
+
 	/**
 	 * Default contructor required to instantiate persisted extensions.
 	 */
@@ -105,6 +116,68 @@ public class ContributedClasspathEntriesEntry extends AbstractRuntimeClasspathEn
 		boolean separateVM = AntLaunchingUtil.isSeparateJREAntBuild(configuration);
 		boolean setInputHandler = configuration.getAttribute(AntLaunching.SET_INPUTHANDLER, true);
 		AntCorePreferences prefs = AntCorePlugin.getPlugin().getPreferences();
+		IVMInstall install = getVMInstall(configuration);
+		String key = getKey(separateVM, setInputHandler, install);
+		synchronized (fgResolvedEntries) {
+			long stateStamp = Platform.getStateStamp();
+			if (stateStamp != fgStateStamp) {
+				// bundles were installed, updated or resolved: the contributed entries and the SWT fragments may differ
+				fgStateStamp = stateStamp;
+				fgSWTEntries = null;
+				fgResolvedEntries.clear();
+			}
+			// the preferences replace the array of additional entries whenever the user changes them
+			if (prefs != fgPreferences || prefs.getAdditionalClasspathEntries() != fgAdditionalEntries) {
+				fgPreferences = prefs;
+				fgAdditionalEntries = prefs.getAdditionalClasspathEntries();
+				fgResolvedEntries.clear();
+			}
+			IRuntimeClasspathEntry[] entries = fgResolvedEntries.get(key);
+			if (entries == null) {
+				entries = computeRuntimeClasspathEntries(prefs, install, separateVM, setInputHandler);
+				fgResolvedEntries.put(key, entries);
+			}
+			return entries.clone();
+		}
+	}
+
+	/**
+	 * Returns the key of the resolved entries for the given launch settings and target VM. The default VM install is part of the key as its
+	 * tools.jar is used when the target VM has none.
+	 */
+	private static String getKey(boolean separateVM, boolean setInputHandler, IVMInstall install) {
+		StringBuilder key = new StringBuilder();
+		key.append(separateVM).append('\n').append(setInputHandler);
+		appendKey(key, install);
+		appendKey(key, JavaRuntime.getDefaultVMInstall());
+		return key.toString();
+	}
+
+	private static void appendKey(StringBuilder key, IVMInstall install) {
+		key.append('\n');
+		if (install != null) {
+			key.append(install.getVMInstallType().getId()).append('\t').append(install.getId());
+			File location = install.getInstallLocation();
+			if (location != null) {
+				key.append('\t').append(location.getAbsolutePath());
+			}
+		}
+	}
+
+	/**
+	 * Returns the VM install of the given configuration, or <code>null</code> if none.
+	 */
+	private IVMInstall getVMInstall(ILaunchConfiguration configuration) {
+		try {
+			return JavaRuntime.computeVMInstall(configuration);
+		}
+		catch (CoreException ce) {
+			// likely dealing with a non-Java project
+		}
+		return null;
+	}
+
+	private IRuntimeClasspathEntry[] computeRuntimeClasspathEntries(AntCorePreferences prefs, IVMInstall install, boolean separateVM, boolean setInputHandler) {
 		IAntClasspathEntry[] antClasspathEntries = prefs.getContributedClasspathEntries();
 		IAntClasspathEntry[] userEntries = prefs.getAdditionalClasspathEntries();
 		List<IRuntimeClasspathEntry> rtes = new ArrayList<>(antClasspathEntries.length + userEntries.length);
@@ -125,13 +198,13 @@ public class ContributedClasspathEntriesEntry extends AbstractRuntimeClasspathEn
 				haveToolsEntry = true;
 				// replace with dynamically resolved tools.jar based on
 				// the JRE being used
-				addToolsJar(configuration, rtes, path);
+				addToolsJar(install, rtes, path);
 			} else {
 				rtes.add(JavaRuntime.newStringVariableClasspathEntry(path));
 			}
 		}
 		if (!haveToolsEntry) {
-			addToolsJar(configuration, rtes, null);
+			addToolsJar(install, rtes, null);
 		}
 
 		if (setInputHandler && separateVM) {
@@ -141,8 +214,8 @@ public class ContributedClasspathEntriesEntry extends AbstractRuntimeClasspathEn
 		return rtes.toArray(new IRuntimeClasspathEntry[rtes.size()]);
 	}
 
-	private void addToolsJar(ILaunchConfiguration configuration, List<IRuntimeClasspathEntry> rtes, String path) {
-		IRuntimeClasspathEntry tools = getToolsJar(configuration);
+	private void addToolsJar(IVMInstall vmInstall, List<IRuntimeClasspathEntry> rtes, String path) {
+		IRuntimeClasspathEntry tools = getToolsJar(vmInstall);
 		if (tools == null) {
 			if (path != null) {
 				// use the global entry
@@ -238,26 +311,19 @@ public class ContributedClasspathEntriesEntry extends AbstractRuntimeClasspathEn
 	}
 
 	/**
-	 * Returns the tools.jar to use for this launch configuration, or <code>null</code> if none.
+	 * Returns the tools.jar of the given VM install, or <code>null</code> if none.
 	 * 
-	 * @param configuration
-	 *            configuration to resolve a tools.jar for
+	 * @param install
+	 *            the VM install of the launch configuration, may be <code>null</code>
 	 * @return associated tools.jar archive, or <code>null</code>
 	 */
-	private IRuntimeClasspathEntry getToolsJar(ILaunchConfiguration configuration) {
-		try {
-			IVMInstall install = JavaRuntime.computeVMInstall(configuration);
-			if (install != null) {
-				IAntClasspathEntry entry = AntCorePlugin.getPlugin().getPreferences().getToolsJarEntry(new Path(install.getInstallLocation().getAbsolutePath()));
-				if (entry != null) {
-					return JavaRuntime.newArchiveRuntimeClasspathEntry(new Path(entry.getEntryURL().getPath()));
-				}
+	private IRuntimeClasspathEntry getToolsJar(IVMInstall install) {
+		if (install != null) {
+			IAntClasspathEntry entry = AntCorePlugin.getPlugin().getPreferences().getToolsJarEntry(new Path(install.getInstallLocation().getAbsolutePath()));
+			if (entry != null) {
+				return JavaRuntime.newArchiveRuntimeClasspathEntry(new Path(entry.getEntryURL().getPath()));
 			}
 		}
-		catch (CoreException ce) {
-			// likely dealing with a non-Java project
-		}
-
 		return null;
 	}
 
@@ -0,0 +1,293 @@
+/*******************************************************************************
+ * Copyright (c) 2018 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.ant.internal.launching.launchConfigurations;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketTimeoutException;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedList;
+import java.util.List;
+
+import org.eclipse.ant.internal.launching.AntLaunching;
+import org.eclipse.ant.internal.launching.IAntLaunchingPreferenceConstants;
+import org.eclipse.core.runtime.CoreException;
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.Platform;
+import org.eclipse.core.runtime.Status;
+import org.eclipse.debug.core.DebugPlugin;
+import org.eclipse.debug.core.ILaunchConfiguration;
+import org.eclipse.debug.core.ILaunchManager;
+import org.eclipse.debug.core.Launch;
+import org.eclipse.debug.core.model.IProcess;
+import org.eclipse.jdt.launching.ExecutionArguments;
+import org.eclipse.jdt.launching.IVMInstall;
+import org.eclipse.jdt.launching.IVMRunner;
+import org.eclipse.jdt.launching.VMRunnerConfiguration;
+
+import com.ibm.icu.text.MessageFormat;
+
+/**
+ * A separate VM that runs the Ant builds of several launches one after the other, see
+ * <code>org.eclipse.ant.internal.launching.remote.AntBuildDaemon</code>.
+ * <p>
+ * Daemons are only reused by launches with the same JRE, classpath, VM arguments, environment and working directory. A daemon runs one build at a
+ * time; idle daemons are kept in a pool of limited size until they are reused, replaced by more recently used daemons or the plug-in stops.
+ * </p>
+ */
+public class RemoteAntBuildDaemon {
+
+	private static final String MAIN_TYPE_NAME = "org.eclipse.ant.internal.launching.remote.AntBuildDaemon"; //$NON-NLS-1$
+
+	/**
+	 * The maximum number of idle daemons kept
+	 */
+	private static final int MAX_IDLE_DAEMONS = 4;
+
+	/**
+	 * The share of the maximum heap in percent that may remain in use after a build before the daemon is replaced
+	 */
+	private static final int MAX_MEMORY_PERCENT = 75;
+
+	/**
+	 * The interval in milliseconds at which a starting daemon is checked for having exited
+	 */
+	private static final int ACCEPT_INTERVAL = 200;
+
+	/**
+	 * The idle daemons, the most recently used last
+	 */
+	private static final LinkedList<RemoteAntBuildDaemon> fgIdleDaemons = new LinkedList<>();
+
+	private final String fKey;
+	private final IProcess fProcess;
+	private Socket fSocket;
+	private DataInputStream fInput;
+	private DataOutputStream fOutput;
+	private boolean fRetired = false;
+
+	private RemoteAntBuildDaemon(String key, IProcess process) {
+		fKey = key;
+		fProcess = process;
+	}
+
+	/**
+	 * Returns an idle daemon for the given launch configuration, starting a new one if there is none.
+	 *
+	 * @param delegate
+	 *            the delegate that resolves the Java launch attributes of the configuration
+	 * @param configuration
+	 *            the configuration of the separate VM
+	 * @param monitor
+	 *            the progress monitor
+	 * @return a daemon that is not used by any other launch
+	 * @throws CoreException
+	 *             if the daemon cannot be started
+	 */
+	public static RemoteAntBuildDaemon acquire(AntJavaLaunchDelegate delegate, ILaunchConfiguration configuration, IProgressMonitor monitor) throws CoreException {
+		IVMInstall vm = delegate.verifyVMInstall(configuration);
+		String[] classpath = delegate.getClasspath(configuration);
+		ExecutionArguments arguments = new ExecutionArguments(delegate.getVMArguments(configuration), ""); //$NON-NLS-1$
+		String[] vmArguments = arguments.getVMArgumentsArray();
+		String[] environment = delegate.getEnvironment(configuration);
+		File workingDirectory = delegate.verifyWorkingDirectory(configuration);
+		String key = getKey(vm, classpath, vmArguments, environment, workingDirectory);
+
+		synchronized (fgIdleDaemons) {
+			for (Iterator<RemoteAntBuildDaemon> iter = fgIdleDaemons.descendingIterator(); iter.hasNext();) {
+				RemoteAntBuildDaemon daemon = iter.next();
+				if (daemon.fKey.equals(key)) {
+					iter.remove();
+					if (!daemon.fProcess.isTerminated()) {
+						return daemon;
+					}
+					daemon.kill();
+				}
+			}
+		}
+
+		VMRunnerConfiguration runConfiguration = new VMRunnerConfiguration(MAIN_TYPE_NAME, classpath);
+		runConfiguration.setVMArguments(vmArguments);
+		runConfiguration.setEnvironment(environment);
+		if (workingDirectory != null) {
+			runConfiguration.setWorkingDirectory(workingDirectory.getAbsolutePath());
+		}
+		int maxBuilds = Platform.getPreferencesService().getInt(AntLaunching.getUniqueIdentifier(), IAntLaunchingPreferenceConstants.ANT_BUILD_DAEMON_MAX_BUILDS, 50, null);
+		int timeout = Platform.getPreferencesService().getInt(AntLaunching.getUniqueIdentifier(), IAntLaunchingPreferenceConstants.ANT_COMMUNICATION_TIMEOUT, 20000, null);
+		try (ServerSocket server = new ServerSocket(0, 1, InetAddress.getLoopbackAddress())) {
+			server.setSoTimeout(ACCEPT_INTERVAL);
+			runConfiguration.setProgramArguments(new String[] { Integer.toString(server.getLocalPort()), Integer.toString(Math.max(1, maxBuilds)),
+					Integer.toString(MAX_MEMORY_PERCENT) });
+			// the daemon is not shown as a launch and its console output is not captured
+			Launch launch = new Launch(null, ILaunchManager.RUN_MODE, null);
+			launch.setAttribute(DebugPlugin.ATTR_CAPTURE_OUTPUT, Boolean.FALSE.toString());
+			IVMRunner runner = vm.getVMRunner(ILaunchManager.RUN_MODE);
+			runner.run(runConfiguration, launch, monitor);
+			IProcess[] processes = launch.getProcesses();
+			if (processes.length == 0) {
+				throw new CoreException(new Status(IStatus.ERROR, AntLaunching.PLUGIN_ID, AntLaunchConfigurationMessages.RemoteAntBuildDaemon_Could_not_start));
+			}
+			RemoteAntBuildDaemon daemon = new RemoteAntBuildDaemon(key, processes[0]);
+			try {
+				daemon.connect(daemon.accept(server, timeout, monitor));
+			}
+			catch (IOException | CoreException e) {
+				daemon.kill();
+				throw e;
+			}
+			return daemon;
+		}
+		catch (IOException e) {
+			throw new CoreException(new Status(IStatus.ERROR, AntLaunching.PLUGIN_ID, AntLaunchConfigurationMessages.RemoteAntBuildDaemon_Could_not_start, e));
+		}
+	}
+
+	/**
+	 * Returns the given daemon to the pool of idle daemons, or stops it if it is no longer usable.
+	 *
+	 * @param daemon
+	 *            a daemon answered by {@link #acquire(AntJavaLaunchDelegate, ILaunchConfiguration, IProgressMonitor)} that is not running a build
+	 */
+	public static void release(RemoteAntBuildDaemon daemon) {
+		if (daemon.fRetired || daemon.fProcess.isTerminated() || AntLaunching.getDefault() == null) {
+			daemon.kill();
+			return;
+		}
+		RemoteAntBuildDaemon eldest = null;
+		synchronized (fgIdleDaemons) {
+			fgIdleDaemons.addLast(daemon);
+			if (fgIdleDaemons.size() > MAX_IDLE_DAEMONS) {
+				eldest = fgIdleDaemons.removeFirst();
+			}
+		}
+		if (eldest != null) {
+			eldest.kill();
+		}
+	}
+
+	/**
+	 * Stops all idle daemons
+	 */
+	public static void shutDown() {
+		List<RemoteAntBuildDaemon> daemons;
+		synchronized (fgIdleDaemons) {
+			daemons = new ArrayList<>(fgIdleDaemons);
+			fgIdleDaemons.clear();
+		}
+		for (RemoteAntBuildDaemon daemon : daemons) {
+			daemon.kill();
+		}
+	}
+
+	private static String getKey(IVMInstall vm, String[] classpath, String[] vmArguments, String[] environment, File workingDirectory) {
+		StringBuilder key = new StringBuilder();
+		key.append(vm.getVMInstallType().getId()).append('\n').append(vm.getId()).append('\n');
+		for (String entry : classpath) {
+			key.append(entry).append(File.pathSeparatorChar);
+		}
+		key.append('\n');
+		for (String argument : vmArguments) {
+			key.append(argument).append('\0');
+		}
+		key.append('\n');
+		if (environment != null) {
+			for (String variable : environment) {
+				key.append(variable).append('\0');
+			}
+		}
+		key.append('\n');
+		if (workingDirectory != null) {
+			key.append(workingDirectory.getAbsolutePath());
+		}
+		return key.toString();
+	}
+
+	/**
+	 * Waits for the daemon to connect to the given server socket, giving up as soon as the daemon has exited rather than when the timeout has
+	 * expired
+	 */
+	private Socket accept(ServerSocket server, int timeout, IProgressMonitor monitor) throws IOException, CoreException {
+		long deadline = System.currentTimeMillis() + timeout;
+		while (true) {
+			try {
+				return server.accept();
+			}
+			catch (SocketTimeoutException e) {
+				if (fProcess.isTerminated()) {
+					String message = MessageFormat.format(AntLaunchConfigurationMessages.RemoteAntBuildDaemon_Exited, new Object[] {
+							Integer.toString(fProcess.getExitValue()) });
+					throw new CoreException(new Status(IStatus.ERROR, AntLaunching.PLUGIN_ID, message));
+				}
+				if (System.currentTimeMillis() >= deadline || (monitor != null && monitor.isCanceled())) {
+					throw e;
+				}
+			}
+		}
+	}
+
+	private void connect(Socket socket) throws IOException {
+		fSocket = socket;
+		fInput = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+		fOutput = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()));
+	}
+
+	/**
+	 * Runs a build in this daemon and waits for it to finish. The output of the build is reported to the build listener of the launch as for any
+	 * build in a separate VM; an error that escaped the build in the daemon is logged.
+	 *
+	 * @param arguments
+	 *            the arguments of the remote <code>InternalAntRunner</code>
+	 * @throws IOException
+	 *             if the daemon has exited or cannot be reached
+	 */
+	public void build(String[] arguments) throws IOException {
+		fOutput.writeInt(arguments.length);
+		for (String argument : arguments) {
+			fOutput.writeUTF(argument);
+		}
+		fOutput.flush();
+		fRetired = fInput.readBoolean();
+		String error = fInput.readUTF();
+		if (error.length() > 0) {
+			AntLaunching.log(MessageFormat.format(AntLaunchConfigurationMessages.RemoteAntBuildDaemon_Build_error, new Object[] { error }), null);
+		}
+	}
+
+	/**
+	 * Stops the daemon, aborting the build it is running, if any
+	 */
+	public void kill() {
+		fRetired = true;
+		try {
+			if (fSocket != null) {
+				fSocket.close();
+			}
+		}
+		catch (IOException e) {
+			// the process is terminated anyway
+		}
+		try {
+			fProcess.terminate();
+		}
+		catch (CoreException e) {
+			AntLaunching.log(e);
+		}
+	}
+}
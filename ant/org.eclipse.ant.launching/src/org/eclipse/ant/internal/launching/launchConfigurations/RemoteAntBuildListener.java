@@ -1,5 +1,5 @@
 /*******************************************************************************
- *  Copyright (c) 2003, 2016 IBM Corporation and others.
+ *  Copyright (c) 2003, 2018 IBM Corporation and others.
  *  All rights reserved. This program and the accompanying materials
  *  are made available under the terms of the Eclipse Public License v1.0
  *  which accompanies this distribution, and is available at
@@ -22,6 +22,8 @@ import java.util.ArrayList;
 import java.util.Iterator;
 import java.util.List;
 import java.util.StringTokenizer;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
 
 import org.apache.tools.ant.Project;
 import org.eclipse.ant.internal.core.AbstractEclipseBuildLogger;
@@ -61,12 +63,18 @@ public class RemoteAntBuildListener implements ILaunchesListener {
 	private String fLastFileName = null;
 	private String fLastTaskName = null;
 	private boolean fBuildFailed = false;
+	private boolean fFailed = false;
+	/**
+	 * The text that precedes each line of the build in the console
+	 */
+	private String fOrigin = ""; //$NON-NLS-1$
 	/**
 	 * The encoding to use
 	 * 
 	 * @since 3.7
 	 */
 	private String fEncoding;
+	private final CountDownLatch fShutDown = new CountDownLatch(1);
 
 	/**
 	 * Reads the message stream from the RemoteAntBuildLogger
@@ -123,6 +131,21 @@ public class RemoteAntBuildListener implements ILaunchesListener {
 		DebugPlugin.getDefault().getLaunchManager().addLaunchListener(this);
 	}
 
+	/**
+	 * Constructor for one of several builds that write to the console of the same process
+	 * 
+	 * @param launch
+	 *            the backing launch to listen to
+	 * @param encoding
+	 *            the encoding to use for communications
+	 * @param origin
+	 *            the text that precedes each line of this build in the console
+	 */
+	public RemoteAntBuildListener(ILaunch launch, String encoding, String origin) {
+		this(launch, encoding);
+		fOrigin = origin;
+	}
+
 	/**
 	 * Returns the encoding set on the listener
 	 * 
@@ -145,6 +168,7 @@ public class RemoteAntBuildListener implements ILaunchesListener {
 	}
 
 	protected synchronized void shutDown() {
+		fShutDown.countDown();
 		fLaunch = null;
 		if (DebugPlugin.getDefault() != null) {
 			DebugPlugin.getDefault().getLaunchManager().removeLaunchListener(this);
@@ -190,14 +214,15 @@ public class RemoteAntBuildListener implements ILaunchesListener {
 			if (index > 0) {
 				int priority = Integer.parseInt(message.substring(0, index));
 				String msg = message.substring(index + 1);
-				writeMessage(msg + System.getProperty("line.separator"), priority); //$NON-NLS-1$
+				writeMessage(fOrigin + msg + System.getProperty("line.separator"), priority); //$NON-NLS-1$
 				if (msg.startsWith("BUILD FAILED")) { //$NON-NLS-1$
 					fBuildFailed = true;
+					fFailed = true;
 				} else if (fBuildFailed) {
 					if (msg.startsWith("Total time:")) { //$NON-NLS-1$
 						fBuildFailed = false;
 					} else {
-						AntLaunchingUtil.linkBuildFailedMessage(msg, getProcess());
+						AntLaunchingUtil.linkBuildFailedMessage(msg, fOrigin, getProcess());
 					}
 				}
 
@@ -218,9 +243,9 @@ public class RemoteAntBuildListener implements ILaunchesListener {
 				location += tokenizer.nextToken();
 			}
 			int lineNumber = Integer.parseInt(tokenizer.nextToken());
-			generateLink(msg, location, lineNumber, 0, msg.length() - 1);
+			generateLink(fOrigin + msg, location, lineNumber, fOrigin.length(), msg.length() - 1);
 		}
-		writeMessage(msg + System.getProperty("line.separator"), Project.MSG_INFO); //$NON-NLS-1$
+		writeMessage(fOrigin + msg + System.getProperty("line.separator"), Project.MSG_INFO); //$NON-NLS-1$
 	}
 
 	private void receiveTaskMessage(String message) {
@@ -237,6 +262,7 @@ public class RemoteAntBuildListener implements ILaunchesListener {
 		int index4 = index3 + 1 + lineLength;
 		String line = msg.substring(index3 + 1, index4);
 		StringBuffer labelBuff = new StringBuffer();
+		labelBuff.append(fOrigin);
 		labelBuff.append('[');
 		labelBuff.append(taskName);
 		labelBuff.append("] "); //$NON-NLS-1$
@@ -259,7 +285,7 @@ public class RemoteAntBuildListener implements ILaunchesListener {
 		fLastFileName = fileName;
 		int lineNumber = Integer.parseInt(msg.substring(finalIndex + locationLength));
 		int size = AntLaunching.LEFT_COLUMN_SIZE - (taskName.length() + 3);
-		int offset = Math.max(size - 2, 1);
+		int offset = Math.max(size - 2, 1) + fOrigin.length();
 		int length = AntLaunching.LEFT_COLUMN_SIZE - size - 3;
 		if (fileName != null) {
 			generateLink(line, fileName, lineNumber, offset, length);
@@ -276,6 +302,30 @@ public class RemoteAntBuildListener implements ILaunchesListener {
 		}
 	}
 
+	/**
+	 * Waits until the connection with the build has been closed and all of its messages have been received.
+	 * 
+	 * @param timeout
+	 *            the maximum time to wait in milliseconds
+	 */
+	public void waitForShutDown(long timeout) {
+		try {
+			fShutDown.await(timeout, TimeUnit.MILLISECONDS);
+		}
+		catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	/**
+	 * Returns whether the build has reported that it failed.
+	 * 
+	 * @return whether the build failed
+	 */
+	public boolean hasBuildFailed() {
+		return fFailed;
+	}
+
 	/**
 	 * Returns the associated process, finding it if necessary.
 	 */
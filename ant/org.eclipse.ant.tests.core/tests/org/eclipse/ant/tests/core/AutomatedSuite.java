@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2011 IBM Corporation and others.
+ * Copyright (c) 2000, 2018 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -13,6 +13,8 @@ package org.eclipse.ant.tests.core;
 import junit.framework.Test;
 import junit.framework.TestSuite;
 
+import org.eclipse.ant.tests.core.tests.ContentDescriberTests;
+import org.eclipse.ant.tests.core.tests.ExitInterceptorTests;
 import org.eclipse.ant.tests.core.tests.FrameworkTests;
 import org.eclipse.ant.tests.core.tests.OptionTests;
 import org.eclipse.ant.tests.core.tests.ProjectTests;
@@ -52,5 +54,7 @@ public class AutomatedSuite extends TestSuite {
 		addTest(new TestSuite(TaskTests.class));
 		addTest(new TestSuite(TypeTests.class));
 		addTest(new TestSuite(PropertyTests.class));
+		addTest(new TestSuite(ExitInterceptorTests.class));
+		addTest(new TestSuite(ContentDescriberTests.class));
 	}
 }
\ No newline at end of file
@@ -0,0 +1,195 @@
+/*******************************************************************************
+ * Copyright (c) 2018 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.ant.tests.core.tests;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.StringReader;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.Hashtable;
+
+import junit.framework.TestCase;
+
+import org.eclipse.ant.internal.core.contentDescriber.AntBuildfileContentDescriber;
+import org.eclipse.ant.internal.core.contentDescriber.AntBuildfilePrefilter;
+import org.eclipse.core.runtime.CoreException;
+import org.eclipse.core.runtime.content.IContentDescriber;
+
+/**
+ * Tests that the {@link AntBuildfilePrefilter} decides the common cases and agrees with the describer that parses the contents
+ */
+public class ContentDescriberTests extends TestCase {
+
+	private static final String PROJECT = "<project name=\"test\">\n<target name=\"build\"/>\n</project>\n"; //$NON-NLS-1$
+
+	/**
+	 * Tests the attributes and children of the project element
+	 */
+	public void testProject() throws Exception {
+		assertDecided("<project default=\"build\"/>", IContentDescriber.VALID); //$NON-NLS-1$
+		assertDecided("<?xml version=\"1.0\"?>\n<project name=\"test\" default='build' basedir=\".\">\n</project>", IContentDescriber.VALID); //$NON-NLS-1$
+		assertDecided(PROJECT, IContentDescriber.VALID);
+		assertDecided("<project name=\"test\">\n<description>text</description>\n<property name=\"a\" value=\"b\"/>\n</project>", IContentDescriber.VALID); //$NON-NLS-1$
+		assertDecided("<project name=\"test\">\n<description>text &amp; more</description>\n</project>", IContentDescriber.INDETERMINATE); //$NON-NLS-1$
+		assertDecided("<project name=\"test\"/>", IContentDescriber.INDETERMINATE); //$NON-NLS-1$
+		// a target that is not a child of the project
+		assertDecided("<project>\n<description><target/></description>\n</project>", IContentDescriber.INDETERMINATE); //$NON-NLS-1$
+	}
+
+	/**
+	 * Tests contents whose top-level element is not a project
+	 */
+	public void testOtherRoot() throws Exception {
+		assertDecided("<?xml version=\"1.0\"?>\n<plugin default=\"build\">\n<target name=\"build\"/>\n</plugin>", IContentDescriber.INDETERMINATE); //$NON-NLS-1$
+		assertDecided("<projects>\n<project default=\"build\"/>\n</projects>", IContentDescriber.INDETERMINATE); //$NON-NLS-1$
+		assertUndecided("<ant:project xmlns:ant=\"antlib:org.apache.tools.ant\" default=\"build\"/>"); //$NON-NLS-1$
+	}
+
+	/**
+	 * Tests comments and processing instructions before and inside the project
+	 */
+	public void testCommentsAndProcessingInstructions() throws Exception {
+		assertDecided("<?xml version=\"1.0\"?>\n<!-- <plugin> -->\n<?pi <plugin> ?>\n<project default=\"build\"/>", IContentDescriber.VALID); //$NON-NLS-1$
+		assertDecided("<project>\n<!-- <target name=\"build\"/> -->\n<?pi <target/> ?>\n</project>", IContentDescriber.INDETERMINATE); //$NON-NLS-1$
+		assertDecided("<project>\n<!-- comment -->\n<import file=\"common.xml\"/>\n</project>", IContentDescriber.VALID); //$NON-NLS-1$
+	}
+
+	/**
+	 * Tests document type declarations, of which those with an internal subset are left to the parser
+	 */
+	public void testDoctype() throws Exception {
+		assertDecided("<?xml version=\"1.0\"?>\n<!DOCTYPE project SYSTEM \"ant.dtd\">\n" + PROJECT, IContentDescriber.VALID); //$NON-NLS-1$
+		assertDecided("<!DOCTYPE project PUBLIC \"-//ANT//DTD project//EN\" \"ant.dtd\">\n<project/>", IContentDescriber.INDETERMINATE); //$NON-NLS-1$
+		assertUndecided("<!DOCTYPE project [\n<!ENTITY common SYSTEM \"common.xml\">\n]>\n" + PROJECT); //$NON-NLS-1$
+		assertUndecided("<!DOCTYPE project [\n<!ATTLIST project default CDATA \"build\">\n]>\n<project/>"); //$NON-NLS-1$
+		assertAgrees("<!DOCTYPE project [\n<!ELEMENT project ANY>\n]>\n" + PROJECT); //$NON-NLS-1$
+	}
+
+	/**
+	 * Tests character data sections inside the project and text that refers to entities
+	 */
+	public void testCharacterData() throws Exception {
+		assertDecided("<project>\n<description><![CDATA[<target name=\"build\"/>]]></description>\n</project>", IContentDescriber.INDETERMINATE); //$NON-NLS-1$
+		assertDecided("<project>\n<![CDATA[ ]]>\n<target name=\"build\"/>\n</project>", IContentDescriber.VALID); //$NON-NLS-1$
+		assertDecided("<project>\n<description>&#60;target/&#62;</description>\n</project>", IContentDescriber.INDETERMINATE); //$NON-NLS-1$
+		assertUndecided("<project>\n<description>&unknown;</description>\n<target/>\n</project>"); //$NON-NLS-1$
+		assertUndecided("<project name=\"&lt;test&gt;\" default=\"build\"/>"); //$NON-NLS-1$
+	}
+
+	/**
+	 * Tests byte order marks and declared encodings
+	 */
+	public void testEncodings() throws Exception {
+		String contents = "<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n<project name=\"\u00E9t\u00E9\" default=\"build\"/>"; //$NON-NLS-1$
+		assertDecided(contents, IContentDescriber.VALID);
+		byte[] bytes = contents.getBytes(StandardCharsets.UTF_8);
+		byte[] marked = new byte[bytes.length + 3];
+		marked[0] = (byte) 0xEF;
+		marked[1] = (byte) 0xBB;
+		marked[2] = (byte) 0xBF;
+		System.arraycopy(bytes, 0, marked, 3, bytes.length);
+		assertDecided(marked, IContentDescriber.VALID);
+		assertEquals("Wrong result for a reader with a byte order mark", IContentDescriber.VALID, AntBuildfilePrefilter.describe(new StringReader('\uFEFF' + contents))); //$NON-NLS-1$
+
+		String latin = "<?xml version=\"1.0\" encoding=\"ISO-8859-1\"?>\n<project>\n<!-- \u00E9t\u00E9 -->\n<target/>\n</project>"; //$NON-NLS-1$
+		assertDecided(latin.getBytes(StandardCharsets.ISO_8859_1), IContentDescriber.VALID);
+
+		String utf16 = "<?xml version=\"1.0\" encoding=\"UTF-16\"?>\n" + PROJECT; //$NON-NLS-1$
+		assertUndecided(utf16.getBytes(StandardCharsets.UTF_16));
+		assertUndecided(utf16.getBytes(StandardCharsets.UTF_16LE));
+		assertAgrees(utf16.getBytes(StandardCharsets.UTF_16));
+
+		// declared encodings that do not keep ASCII characters are left to the parser
+		assertUndecided("<?xml version=\"1.0\" encoding=\"UTF-16\"?>\n<project default=\"build\"/>".getBytes(StandardCharsets.ISO_8859_1)); //$NON-NLS-1$
+		if (Charset.isSupported("Cp037")) { //$NON-NLS-1$
+			byte[] ebcdic = "<?xml version=\"1.0\" encoding=\"Cp037\"?>\n<project default=\"build\"/>".getBytes("Cp037"); //$NON-NLS-1$ //$NON-NLS-2$
+			assertUndecided(ebcdic);
+		}
+	}
+
+	/**
+	 * Tests contents that end before the answer is known or that are longer than the part that is scanned
+	 */
+	public void testTruncated() throws Exception {
+		assertUndecided("<project name=\"test\""); //$NON-NLS-1$
+		assertUndecided("<project name=\"test\">\n<description>"); //$NON-NLS-1$
+		assertUndecided("<?xml version=\"1.0\"?>\n<!-- <project default=\"build\"/>"); //$NON-NLS-1$
+		assertUndecided("<project>\n<![CDATA[ <target/>"); //$NON-NLS-1$
+		assertUndecided(""); //$NON-NLS-1$
+		assertAgrees("<project name=\"test\""); //$NON-NLS-1$
+		assertAgrees("<project name=\"test\">\n<target name=\"build\">"); //$NON-NLS-1$
+
+		StringBuilder buffer = new StringBuilder("<project>\n<!-- "); //$NON-NLS-1$
+		for (int i = 0; i < 10000; i++) {
+			buffer.append('-').append(' ');
+		}
+		buffer.append("-->\n<target name=\"build\"/>\n</project>"); //$NON-NLS-1$
+		assertUndecided(buffer.toString());
+		assertAgrees(buffer.toString());
+	}
+
+	/**
+	 * Asserts that the prefilter decides the given contents and that the describers with and without the prefilter give the expected result
+	 */
+	private void assertDecided(String contents, int expected) throws Exception {
+		assertDecided(contents.getBytes(StandardCharsets.UTF_8), expected);
+		assertEquals("Wrong prefilter result for a reader: " + contents, expected, AntBuildfilePrefilter.describe(new StringReader(contents))); //$NON-NLS-1$
+		assertEquals("Wrong result for a reader: " + contents, expected, getDescriber(true).describe(new StringReader(contents), null)); //$NON-NLS-1$
+		assertEquals("Wrong parsed result for a reader: " + contents, expected, getDescriber(false).describe(new StringReader(contents), null)); //$NON-NLS-1$
+	}
+
+	private void assertDecided(byte[] contents, int expected) throws Exception {
+		String text = new String(contents, StandardCharsets.ISO_8859_1);
+		assertEquals("Wrong prefilter result: " + text, expected, AntBuildfilePrefilter.describe(new ByteArrayInputStream(contents))); //$NON-NLS-1$
+		assertEquals("Wrong result: " + text, expected, describe(contents, true)); //$NON-NLS-1$
+		assertEquals("Wrong parsed result: " + text, expected, describe(contents, false)); //$NON-NLS-1$
+	}
+
+	/**
+	 * Asserts that the prefilter leaves the given contents to the parser
+	 */
+	private void assertUndecided(String contents) throws Exception {
+		assertUndecided(contents.getBytes(StandardCharsets.UTF_8));
+		assertEquals("The reader should be parsed: " + contents, AntBuildfilePrefilter.UNDECIDED, AntBuildfilePrefilter.describe(new StringReader(contents))); //$NON-NLS-1$
+	}
+
+	private void assertUndecided(byte[] contents) throws Exception {
+		InputStream stream = new ByteArrayInputStream(contents);
+		assertEquals("The contents should be parsed: " + new String(contents, StandardCharsets.ISO_8859_1), AntBuildfilePrefilter.UNDECIDED, AntBuildfilePrefilter.describe(stream)); //$NON-NLS-1$
+		assertEquals("The contents should have been reset", contents.length > 0 ? contents[0] & 0xFF : -1, stream.read()); //$NON-NLS-1$
+	}
+
+	/**
+	 * Asserts that the describers with and without the prefilter give the same result for the given contents
+	 */
+	private void assertAgrees(String contents) throws Exception {
+		assertAgrees(contents.getBytes(StandardCharsets.UTF_8));
+		assertEquals("The results for a reader differ: " + contents, getDescriber(false).describe(new StringReader(contents), null), getDescriber(true).describe(new StringReader(contents), null)); //$NON-NLS-1$
+	}
+
+	private void assertAgrees(byte[] contents) throws Exception {
+		assertEquals("The results differ: " + new String(contents, StandardCharsets.ISO_8859_1), describe(contents, false), describe(contents, true)); //$NON-NLS-1$
+	}
+
+	private int describe(byte[] contents, boolean prefilter) throws IOException, CoreException {
+		return getDescriber(prefilter).describe(new ByteArrayInputStream(contents), null);
+	}
+
+	private AntBuildfileContentDescriber getDescriber(boolean prefilter) throws CoreException {
+		AntBuildfileContentDescriber describer = new AntBuildfileContentDescriber();
+		Hashtable<String, String> parameters = new Hashtable<>();
+		parameters.put(AntBuildfileContentDescriber.PREFILTER_PARAMETER, Boolean.toString(prefilter));
+		describer.setInitializationData(null, null, parameters);
+		return describer;
+	}
+}
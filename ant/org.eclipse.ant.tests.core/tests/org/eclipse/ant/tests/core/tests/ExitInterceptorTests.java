@@ -0,0 +1,197 @@
+/*******************************************************************************
+ * Copyright (c) 2018 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.ant.tests.core.tests;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.reflect.InvocationTargetException;
+
+import junit.framework.TestCase;
+
+import org.eclipse.ant.core.AntSecurityException;
+import org.eclipse.ant.internal.core.AntExitInterceptor;
+
+/**
+ * Tests the class rewriting of the {@link AntExitInterceptor}
+ */
+public class ExitInterceptorTests extends TestCase {
+
+	/**
+	 * Calls the methods that exit the VM after running code of variable length instructions
+	 */
+	public static class Exiting {
+		public static int select(int value) {
+			switch (value) {
+				case 1:
+					return 3;
+				case 2:
+					return 4;
+				case 3:
+					return 5;
+				default:
+					return 0;
+			}
+		}
+
+		public static int lookup(int value) {
+			switch (value) {
+				case 100:
+					return 3;
+				case 20000:
+					return 4;
+				default:
+					return 0;
+			}
+		}
+
+		public static void systemExit() {
+			System.exit(select(2) + lookup(100));
+		}
+
+		public static void runtimeExit() {
+			long status = 2L;
+			Runtime.getRuntime().exit(select((int) status));
+		}
+
+		public static void runtimeHalt() {
+			Runtime runtime = Runtime.getRuntime();
+			int[] values = new int[300];
+			for (int i = 0; i < values.length; i++) {
+				values[i] = i;
+			}
+			runtime.halt(values[299]);
+		}
+
+		public static int unaffected() {
+			return select(3) + lookup(20000);
+		}
+	}
+
+	/**
+	 * Does not call any of the methods that exit the VM
+	 */
+	public static class NotExiting {
+		public static int processors() {
+			return Runtime.getRuntime().availableProcessors();
+		}
+	}
+
+	private static class RewritingClassLoader extends ClassLoader {
+		RewritingClassLoader() {
+			super(ExitInterceptorTests.class.getClassLoader());
+		}
+
+		Class<?> define(Class<?> original, byte[] classFile) {
+			return defineClass(original.getName(), classFile, 0, classFile.length);
+		}
+	}
+
+	/**
+	 * Tests that calls to <code>System.exit</code>, <code>Runtime.exit</code> and <code>Runtime.halt</code> are redirected and that the rest of the
+	 * code is unchanged
+	 */
+	public void testExitCallsRedirected() throws Exception {
+		byte[] rewritten = AntExitInterceptor.rewrite(getClassFile(Exiting.class));
+		assertNotNull("The class should have been rewritten", rewritten); //$NON-NLS-1$
+		Class<?> exiting = new RewritingClassLoader().define(Exiting.class, rewritten);
+		AntExitInterceptor.restrictCurrentThread(true);
+		try {
+			assertIntercepted(exiting, "systemExit"); //$NON-NLS-1$
+			assertIntercepted(exiting, "runtimeExit"); //$NON-NLS-1$
+			assertIntercepted(exiting, "runtimeHalt"); //$NON-NLS-1$
+			assertEquals("The other code should be unchanged", Integer.valueOf(9), exiting.getMethod("unaffected").invoke(null)); //$NON-NLS-1$ //$NON-NLS-2$
+		}
+		finally {
+			AntExitInterceptor.releaseCurrentThread();
+		}
+	}
+
+	/**
+	 * Tests that classes without calls to intercept and class files that cannot be read are left unchanged
+	 */
+	public void testPassThrough() throws IOException {
+		assertNull("A class without exit calls should not be rewritten", AntExitInterceptor.rewrite(getClassFile(NotExiting.class))); //$NON-NLS-1$
+		assertNull("An invalid class file should not be rewritten", AntExitInterceptor.rewrite(new byte[] { 1, 2, 3 })); //$NON-NLS-1$
+		byte[] truncated = getClassFile(Exiting.class);
+		byte[] header = new byte[64];
+		System.arraycopy(truncated, 0, header, 0, header.length);
+		assertNull("A truncated class file should not be rewritten", AntExitInterceptor.rewrite(header)); //$NON-NLS-1$
+	}
+
+	/**
+	 * Tests that a class is left unchanged when its constant pool has no room for the entries that redirect its calls
+	 */
+	public void testFullConstantPool() throws IOException {
+		assertNotNull("The class should have been rewritten", AntExitInterceptor.rewrite(createClassFile(65533))); //$NON-NLS-1$
+		assertNull("The constant pool would overflow", AntExitInterceptor.rewrite(createClassFile(65534))); //$NON-NLS-1$
+	}
+
+	private void assertIntercepted(Class<?> exiting, String method) throws Exception {
+		try {
+			exiting.getMethod(method).invoke(null);
+			fail("The call should have been intercepted: " + method); //$NON-NLS-1$
+		}
+		catch (InvocationTargetException e) {
+			assertTrue("Unexpected exception: " + e.getCause(), e.getCause() instanceof AntSecurityException); //$NON-NLS-1$
+		}
+	}
+
+	private byte[] getClassFile(Class<?> type) throws IOException {
+		String name = type.getName();
+		try (InputStream stream = type.getResourceAsStream(name.substring(name.lastIndexOf('.') + 1) + ".class")) { //$NON-NLS-1$
+			ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+			byte[] buffer = new byte[8192];
+			int read;
+			while ((read = stream.read(buffer)) != -1) {
+				bytes.write(buffer, 0, read);
+			}
+			return bytes.toByteArray();
+		}
+	}
+
+	/**
+	 * Creates a class file whose constant pool has the given count and a reference to <code>System.exit</code>
+	 */
+	private byte[] createClassFile(int count) throws IOException {
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		DataOutputStream data = new DataOutputStream(bytes);
+		data.writeInt(0xCAFEBABE);
+		data.writeShort(0);
+		data.writeShort(50);
+		data.writeShort(count);
+		data.writeByte(1);
+		data.writeUTF("java/lang/System"); //$NON-NLS-1$
+		data.writeByte(7);
+		data.writeShort(1);
+		data.writeByte(1);
+		data.writeUTF("exit"); //$NON-NLS-1$
+		data.writeByte(1);
+		data.writeUTF("(I)V"); //$NON-NLS-1$
+		data.writeByte(12);
+		data.writeShort(3);
+		data.writeShort(4);
+		data.writeByte(10);
+		data.writeShort(2);
+		data.writeShort(5);
+		for (int i = 7; i < count; i++) {
+			data.writeByte(1);
+			data.writeUTF(""); //$NON-NLS-1$
+		}
+		// access flags, this class, super class and no interfaces, fields, methods or attributes
+		for (int i = 0; i < 7; i++) {
+			data.writeShort(0);
+		}
+		data.flush();
+		return bytes.toByteArray();
+	}
+}
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2016 IBM Corporation and others.
+ * Copyright (c) 2000, 2018 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -11,9 +11,17 @@
  *******************************************************************************/
 package org.eclipse.ant.tests.core.tests;
 
+import java.io.ByteArrayOutputStream;
 import java.io.File;
+import java.io.PrintStream;
+import java.lang.management.ManagementFactory;
 import java.net.MalformedURLException;
 import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Collections;
+
+import javax.management.ObjectName;
 
 import org.eclipse.ant.core.AntCorePlugin;
 import org.eclipse.ant.core.AntCorePreferences;
@@ -21,13 +29,17 @@ import org.eclipse.ant.core.AntRunner;
 import org.eclipse.ant.core.IAntClasspathEntry;
 import org.eclipse.ant.core.Property;
 import org.eclipse.ant.core.TargetInfo;
+import org.eclipse.ant.internal.core.AntBatchRunner;
+import org.eclipse.ant.internal.core.AntBuildStatistics;
 import org.eclipse.ant.internal.core.AntClasspathEntry;
 import org.eclipse.ant.internal.core.IAntCoreConstants;
+import org.eclipse.ant.internal.core.IsolatedBuildSupport;
 import org.eclipse.ant.tests.core.AbstractAntTest;
 import org.eclipse.ant.tests.core.testplugin.AntTestChecker;
 import org.eclipse.ant.tests.core.testplugin.ProjectHelper;
 import org.eclipse.core.resources.IFile;
 import org.eclipse.core.runtime.CoreException;
+import org.eclipse.core.runtime.IProgressMonitor;
 import org.eclipse.core.runtime.Path;
 
 public class FrameworkTests extends AbstractAntTest {
@@ -283,4 +295,211 @@ public class FrameworkTests extends AbstractAntTest {
 		assertFalse("Incorrect classpath entry. This would have been the value before the fix", resultedEntries[entries.length].getLabel().equals(new Path("/home/tom/.eclipse/3.8/configuration/org.eclipse.osgi/bundles/21/2/.cp/lib/remote.jar").toOSString())); //$NON-NLS-1$ //$NON-NLS-2$
 		assertTrue("Incorrect classpath entry", resultedEntries[entries.length].getLabel().substring(index).equals(new Path("hub/home/tom/.eclipse/3.8/configuration/org.eclipse.osgi/bundles/21/2/.cp/lib/remote.jar").toOSString())); //$NON-NLS-1$ //$NON-NLS-2$
 	}
+
+	/**
+	 * Tests that the time sliced progress reported for a build covers the targets that are executed and is handed to the monitor in full
+	 * 
+	 * @throws CoreException
+	 */
+	public void testProgressReporting() throws CoreException {
+		final int[] totals = new int[] { -1, 0, 0 };
+		IProgressMonitor monitor = new IProgressMonitor() {
+			@Override
+			public void beginTask(String name, int totalWork) {
+				totals[0] = totalWork;
+			}
+
+			@Override
+			public void done() {
+				totals[2]++;
+			}
+
+			@Override
+			public void internalWorked(double work) {
+				// not used
+			}
+
+			@Override
+			public boolean isCanceled() {
+				return false;
+			}
+
+			@Override
+			public void setCanceled(boolean value) {
+				// not used
+			}
+
+			@Override
+			public void setTaskName(String name) {
+				// not used
+			}
+
+			@Override
+			public void subTask(String name) {
+				// not used
+			}
+
+			@Override
+			public void worked(int work) {
+				totals[1] += work;
+			}
+		};
+		AntRunner runner = new AntRunner();
+		runner.setBuildFileLocation(getBuildFile("echoing.xml").getLocation().toFile().toString()); //$NON-NLS-1$
+		runner.setExecutionTargets(new String[] { "echo1", "echo2", "echo3" }); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+		System.setProperty(IAntCoreConstants.TIME_SLICED_PROGRESS_PROPERTY, "true"); //$NON-NLS-1$
+		try {
+			runner.run(monitor);
+		}
+		finally {
+			System.getProperties().remove(IAntCoreConstants.TIME_SLICED_PROGRESS_PROPERTY);
+		}
+		assertTrue("No work reported", totals[0] > 0); //$NON-NLS-1$
+		assertEquals("Incorrect amount of work reported", totals[0], totals[1]); //$NON-NLS-1$
+		assertEquals("Monitor not done once", 1, totals[2]); //$NON-NLS-1$
+	}
+
+	/**
+	 * Tests that output written to the system streams by the threads of concurrent isolated builds reaches the streams of the build the thread
+	 * belongs to and that the system streams are restored when the last build ends
+	 * 
+	 * @throws InterruptedException
+	 */
+	public void testIsolatedBuildOutput() throws InterruptedException {
+		final PrintStream originalOut = System.out;
+		final ByteArrayOutputStream first = new ByteArrayOutputStream();
+		final ByteArrayOutputStream second = new ByteArrayOutputStream();
+		IsolatedBuildSupport.beginBuild(new PrintStream(first, true), new PrintStream(first, true));
+		try {
+			Thread other = new Thread() {
+				@Override
+				public void run() {
+					IsolatedBuildSupport.beginBuild(new PrintStream(second, true), new PrintStream(second, true));
+					try {
+						System.out.print("second"); //$NON-NLS-1$
+					}
+					finally {
+						IsolatedBuildSupport.endBuild();
+					}
+				}
+			};
+			other.start();
+			other.join();
+			Thread inherited = new Thread() {
+				@Override
+				public void run() {
+					System.out.print("child"); //$NON-NLS-1$
+				}
+			};
+			inherited.start();
+			inherited.join();
+			System.out.print("first"); //$NON-NLS-1$
+			assertTrue("Thread should belong to the build", IsolatedBuildSupport.isBuildThread()); //$NON-NLS-1$
+		}
+		finally {
+			IsolatedBuildSupport.endBuild();
+		}
+		assertFalse("Thread should not belong to a build", IsolatedBuildSupport.isBuildThread()); //$NON-NLS-1$
+		assertSame("System.out should be restored", originalOut, System.out); //$NON-NLS-1$
+		assertEquals("Incorrect output of the second build", "second", second.toString()); //$NON-NLS-1$ //$NON-NLS-2$
+		assertEquals("Incorrect output of the first build", "childfirst", first.toString()); //$NON-NLS-1$ //$NON-NLS-2$
+	}
+
+	/**
+	 * Tests that isolated builds needing the same system property values share them, that a build needing other values waits until they are
+	 * released and that the original values are restored
+	 * 
+	 * @throws InterruptedException
+	 */
+	public void testIsolatedBuildSystemProperties() throws InterruptedException {
+		final String name = "eclipse.ant.tests.isolated"; //$NON-NLS-1$
+		final String[] seen = new String[2];
+		IsolatedBuildSupport.shareSystemProperties(Collections.singletonMap(name, "first")); //$NON-NLS-1$
+		Thread other = new Thread() {
+			@Override
+			public void run() {
+				IsolatedBuildSupport.shareSystemProperties(Collections.singletonMap(name, "second")); //$NON-NLS-1$
+				seen[1] = System.getProperty(name);
+				IsolatedBuildSupport.releaseSystemProperties();
+			}
+		};
+		try {
+			Thread same = new Thread() {
+				@Override
+				public void run() {
+					IsolatedBuildSupport.shareSystemProperties(Collections.singletonMap(name, "first")); //$NON-NLS-1$
+					seen[0] = System.getProperty(name);
+					IsolatedBuildSupport.releaseSystemProperties();
+				}
+			};
+			same.start();
+			same.join(10000);
+			assertEquals("A build needing the same value should not wait", "first", seen[0]); //$NON-NLS-1$ //$NON-NLS-2$
+			other.start();
+			other.join(500);
+			assertTrue("A build needing another value should wait", other.isAlive()); //$NON-NLS-1$
+			assertEquals("The value should not have changed", "first", System.getProperty(name)); //$NON-NLS-1$ //$NON-NLS-2$
+		}
+		finally {
+			IsolatedBuildSupport.releaseSystemProperties();
+		}
+		other.join(10000);
+		assertEquals("The waiting build should see its value", "second", seen[1]); //$NON-NLS-1$ //$NON-NLS-2$
+		assertNull("The property should have been restored", System.getProperty(name)); //$NON-NLS-1$
+	}
+
+	/**
+	 * Tests that the batch runner runs every build of its manifest with its own log and reports the failure of any of them in its exit status
+	 * 
+	 * @throws Exception
+	 */
+	public void testBatchRunner() throws Exception {
+		File folder = getBuildFile("echoing.xml").getLocation().toFile().getParentFile(); //$NON-NLS-1$
+		File manifest = new File(folder, "batch.manifest"); //$NON-NLS-1$
+		File logs = new File(folder, "batchLogs"); //$NON-NLS-1$
+		File echoLog = new File(logs, "echo.log"); //$NON-NLS-1$
+		String contents = "# builds of the batch\n-buildfile echoing.xml echo2 -logfile batchLogs/echo.log\n\n-f failingTarget.xml\n"; //$NON-NLS-1$
+		Files.write(manifest.toPath(), contents.getBytes(StandardCharsets.UTF_8));
+		try {
+			Object status = new AntBatchRunner().run(new String[] { "-manifest", manifest.getAbsolutePath(), "-threads", "2", "-logdir", //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$
+					logs.getAbsolutePath() });
+			assertEquals("A failed build should fail the batch", AntBatchRunner.EXIT_FAILED, status); //$NON-NLS-1$
+			String echoOutput = new String(Files.readAllBytes(echoLog.toPath()), StandardCharsets.UTF_8);
+			assertTrue("The target should have been logged", echoOutput.indexOf("echo2") != -1); //$NON-NLS-1$ //$NON-NLS-2$
+			assertTrue("The build should have succeeded", echoOutput.indexOf(BUILD_SUCCESSFUL) != -1); //$NON-NLS-1$
+			File failedLog = new File(logs, "002-buildfiles-failingTarget.log"); //$NON-NLS-1$
+			assertTrue("The failed build should have been logged", failedLog.exists()); //$NON-NLS-1$
+			assertFalse("Another target should not have been logged", echoOutput.indexOf("echo1") != -1); //$NON-NLS-1$ //$NON-NLS-2$
+			assertFalse("The batch should have restored the preferences", AntCorePlugin.getPlugin().isRunningHeadless()); //$NON-NLS-1$
+		}
+		finally {
+			AntCorePlugin.getPlugin().setRunningHeadless(false);
+			File[] logFiles = logs.listFiles();
+			if (logFiles != null) {
+				for (File logFile : logFiles) {
+					logFile.delete();
+				}
+			}
+			logs.delete();
+			manifest.delete();
+		}
+	}
+
+	/**
+	 * Tests that builds, targets, tasks and class loaders are counted by the build statistics
+	 */
+	public void testBuildStatistics() throws Exception {
+		AntBuildStatistics statistics = AntBuildStatistics.getDefault();
+		long builds = statistics.getBuilds();
+		long targets = statistics.getTargets();
+		long tasks = statistics.getTasks();
+		long loaders = statistics.getClassLoaderCreations();
+		run("echoing.xml"); //$NON-NLS-1$
+		assertEquals("The build should have been counted", builds + 1, statistics.getBuilds()); //$NON-NLS-1$
+		assertTrue("The targets should have been counted", statistics.getTargets() > targets); //$NON-NLS-1$
+		assertTrue("The tasks should have been counted", statistics.getTasks() > tasks); //$NON-NLS-1$
+		assertTrue("The class loader should have been counted", statistics.getClassLoaderCreations() > loaders); //$NON-NLS-1$
+		ObjectName name = new ObjectName("org.eclipse.ant.core:type=BuildStatistics"); //$NON-NLS-1$
+		assertTrue("The statistics should be registered", ManagementFactory.getPlatformMBeanServer().isRegistered(name)); //$NON-NLS-1$
+	}
 }
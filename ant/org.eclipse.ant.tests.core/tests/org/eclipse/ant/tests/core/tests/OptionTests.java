@@ -11,12 +11,15 @@
 package org.eclipse.ant.tests.core.tests;
 
 import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
 import java.util.List;
 
 import org.eclipse.ant.core.AntCorePlugin;
+import org.eclipse.ant.internal.core.AntBuildStatistics;
 import org.eclipse.ant.tests.core.AbstractAntTest;
 import org.eclipse.ant.tests.core.testplugin.AntTestChecker;
 import org.eclipse.core.resources.IFile;
@@ -466,6 +469,45 @@ public class OptionTests extends AbstractAntTest {
 		assertNull("my.name was not set and should be null", AntTestChecker.getDefault().getUserProperty("my.name")); //$NON-NLS-1$ //$NON-NLS-2$
 	}
 
+	/**
+	 * Tests that an unchanged property file is answered from the cache, that a file modified just before it was read is not cached and that a
+	 * property file is read again once it has changed
+	 */
+	public void testChangedPropertyFile() throws CoreException {
+		IFile file = getProject().getFile("changed.properties"); //$NON-NLS-1$
+		AntBuildStatistics statistics = AntBuildStatistics.getDefault();
+		try {
+			file.create(new ByteArrayInputStream("changed.value=one".getBytes(StandardCharsets.ISO_8859_1)), true, null); //$NON-NLS-1$
+			String path = file.getLocation().toOSString();
+			run("TestForEcho.xml", new String[] { "-propertyfile", path }); //$NON-NLS-1$ //$NON-NLS-2$
+			assertSuccessful();
+			assertEquals("changed.value should have been set", "one", AntTestChecker.getDefault().getUserProperty("changed.value")); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+
+			long hits = statistics.getPropertyFileCacheHits();
+			run("TestForEcho.xml", new String[] { "-propertyfile", path }); //$NON-NLS-1$ //$NON-NLS-2$
+			assertSuccessful();
+			assertEquals("A file modified just before it was read should not have been cached", hits, statistics.getPropertyFileCacheHits()); //$NON-NLS-1$
+
+			// as if the file had been written long before
+			assertTrue(file.getLocation().toFile().setLastModified(System.currentTimeMillis() - 60000));
+			run("TestForEcho.xml", new String[] { "-propertyfile", path }); //$NON-NLS-1$ //$NON-NLS-2$
+			assertSuccessful();
+			hits = statistics.getPropertyFileCacheHits();
+			run("TestForEcho.xml", new String[] { "-propertyfile", path }); //$NON-NLS-1$ //$NON-NLS-2$
+			assertSuccessful();
+			assertEquals("The unchanged file should have been answered from the cache", hits + 1, statistics.getPropertyFileCacheHits()); //$NON-NLS-1$
+			assertEquals("one", AntTestChecker.getDefault().getUserProperty("changed.value")); //$NON-NLS-1$ //$NON-NLS-2$
+
+			file.setContents(new ByteArrayInputStream("changed.value=three".getBytes(StandardCharsets.ISO_8859_1)), true, false, null); //$NON-NLS-1$
+			run("TestForEcho.xml", new String[] { "-propertyfile", path }); //$NON-NLS-1$ //$NON-NLS-2$
+			assertSuccessful();
+			assertEquals("changed.value should have been read again", "three", AntTestChecker.getDefault().getUserProperty("changed.value")); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+		}
+		finally {
+			file.delete(true, null);
+		}
+	}
+
 	public void testPropertyFileWithMinusDTakingPrecedence() throws CoreException {
 		run("echoing.xml", new String[] { "-propertyfile", getPropertyFileName(), "-DAntTests=testing", "-Declipse.is.cool=true" }, false); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$
 		assertSuccessful();
@@ -671,4 +713,33 @@ public class OptionTests extends AbstractAntTest {
 
 		assertTrue("The build should have failed", false); //$NON-NLS-1$
 	}
-}
\ No newline at end of file
+
+	/**
+	 * Tests the "-profile" option
+	 */
+	public void testProfile() throws CoreException, IOException {
+		run("TestForEcho.xml", new String[] { "-profile", "-Declipse.ant.profile.file=TestProfile.csv" }); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+		assertSuccessful();
+		boolean reported = false;
+		for (String message : AntTestChecker.getDefault().getMessages()) {
+			if (message.startsWith("Build profile: total time")) { //$NON-NLS-1$
+				reported = true;
+				break;
+			}
+		}
+		assertTrue("The build profile should have been logged", reported); //$NON-NLS-1$
+		IFile file = checkFileExists("TestProfile.csv"); //$NON-NLS-1$
+		try (InputStream stream = file.getContents(); InputStreamReader in = new InputStreamReader(new BufferedInputStream(stream))) {
+			StringBuffer buffer = new StringBuffer();
+			char[] readBuffer = new char[2048];
+			int n = in.read(readBuffer);
+			while (n > 0) {
+				buffer.append(readBuffer, 0, n);
+				n = in.read(readBuffer);
+			}
+			String contents = buffer.toString();
+			assertTrue("The profile should start with the column names", contents.startsWith("kind,name,count")); //$NON-NLS-1$ //$NON-NLS-2$
+			assertTrue("The profile should contain the Test for Echo target", contents.indexOf("target,Echo Test.Test for Echo,1,") > 0); //$NON-NLS-1$ //$NON-NLS-2$
+		}
+	}
+}
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2013 IBM Corporation and others.
+ * Copyright (c) 2000, 2018 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -10,11 +10,21 @@
  *******************************************************************************/
 package org.eclipse.ant.tests.core.tests;
 
+import java.io.ByteArrayInputStream;
 import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
 
 import org.eclipse.ant.core.TargetInfo;
+import org.eclipse.ant.internal.core.IAntCoreConstants;
 import org.eclipse.ant.tests.core.AbstractAntTest;
 import org.eclipse.ant.tests.core.testplugin.AntTestChecker;
+import org.eclipse.ant.tests.core.testplugin.ProjectHelper;
+import org.eclipse.core.resources.IFile;
+import org.eclipse.core.resources.IFolder;
+import org.eclipse.core.resources.IResource;
 import org.eclipse.core.runtime.CoreException;
 
 public class TargetTests extends AbstractAntTest {
@@ -102,4 +112,104 @@ public class TargetTests extends AbstractAntTest {
 		assertTrue("Build file location should be logged as the first message", message != null && message.endsWith("AntTests" + File.separator + "buildfiles" + File.separator + "TestForEcho.xml")); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$
 		assertSuccessful();
 	}
-}
\ No newline at end of file
+
+	/**
+	 * Ensures that the targets of an unchanged buildfile come from the cache and are computed again once a file it imports has changed
+	 */
+	public void testTargetsOfChangedImport() throws CoreException {
+		IFile main = getProject().getFolder(ProjectHelper.BUILDFILES_FOLDER).getFile("cachedTargets.xml"); //$NON-NLS-1$
+		IFile imported = getProject().getFolder(ProjectHelper.BUILDFILES_FOLDER).getFile("cachedTargetsImport.xml"); //$NON-NLS-1$
+		try {
+			setContents(main, "<project name=\"cached\" default=\"main\"><import file=\"cachedTargetsImport.xml\"/><target name=\"main\"/></project>"); //$NON-NLS-1$
+			setContents(imported, "<project name=\"imported\"><target name=\"one\"/></project>"); //$NON-NLS-1$
+			backDate(main, imported);
+			TargetInfo[] first = getTargets("cachedTargets.xml"); //$NON-NLS-1$
+			assertEquals("Should be two targets in cachedTargets.xml", 2, first.length); //$NON-NLS-1$
+			TargetInfo[] second = getTargets("cachedTargets.xml"); //$NON-NLS-1$
+			assertEquals("Should still be two targets in cachedTargets.xml", 2, second.length); //$NON-NLS-1$
+			assertSame("The targets should have come from the cache", first[0], second[0]); //$NON-NLS-1$
+
+			setContents(imported, "<project name=\"imported\"><target name=\"one\"/><target name=\"two\"/></project>"); //$NON-NLS-1$
+			TargetInfo[] third = getTargets("cachedTargets.xml"); //$NON-NLS-1$
+			assertEquals("Should be three targets once the import changed", 3, third.length); //$NON-NLS-1$
+			assertNotSame("The targets should have been computed again", first[0], third[0]); //$NON-NLS-1$
+		}
+		finally {
+			main.delete(true, null);
+			imported.delete(true, null);
+		}
+	}
+
+	/**
+	 * Ensures that the targets of a buildfile are computed again once the property file that names the file it imports has changed
+	 */
+	public void testTargetsOfChangedImportProperty() throws CoreException {
+		IFolder folder = getProject().getFolder(ProjectHelper.BUILDFILES_FOLDER);
+		IFile main = folder.getFile("cachedTargetsProperty.xml"); //$NON-NLS-1$
+		IFile properties = folder.getFile("cachedTargetsProperty.properties"); //$NON-NLS-1$
+		IFile one = folder.getFile("cachedTargetsOne.xml"); //$NON-NLS-1$
+		IFile two = folder.getFile("cachedTargetsTwo.xml"); //$NON-NLS-1$
+		try {
+			setContents(main, "<project name=\"cached\" default=\"main\"><property file=\"cachedTargetsProperty.properties\"/><import file=\"${imported}\"/><target name=\"main\"/></project>"); //$NON-NLS-1$
+			setContents(properties, "imported=cachedTargetsOne.xml"); //$NON-NLS-1$
+			setContents(one, "<project name=\"one\"><target name=\"one\"/></project>"); //$NON-NLS-1$
+			setContents(two, "<project name=\"two\"><target name=\"one\"/><target name=\"two\"/></project>"); //$NON-NLS-1$
+			backDate(main, properties, one, two);
+			TargetInfo[] first = getTargets("cachedTargetsProperty.xml"); //$NON-NLS-1$
+			assertEquals("Should be two targets in cachedTargetsProperty.xml", 2, first.length); //$NON-NLS-1$
+			assertSame("The targets should have come from the cache", first[0], getTargets("cachedTargetsProperty.xml")[0]); //$NON-NLS-1$ //$NON-NLS-2$
+
+			setContents(properties, "imported=cachedTargetsTwo.xml"); //$NON-NLS-1$
+			assertEquals("Should be three targets once the property file changed", 3, getTargets("cachedTargetsProperty.xml").length); //$NON-NLS-1$ //$NON-NLS-2$
+		}
+		finally {
+			main.delete(true, null);
+			properties.delete(true, null);
+			one.delete(true, null);
+			two.delete(true, null);
+		}
+	}
+
+	/**
+	 * Ensures that the declared outputs of a target are restored from the cache instead of running the target again
+	 */
+	public void testCachedTargetOutputs() throws Exception {
+		File store = Files.createTempDirectory("targetOutputs").toFile(); //$NON-NLS-1$
+		IFolder outputs = getProject().getFolder(ProjectHelper.BUILDFILES_FOLDER).getFolder("cachedOutputs"); //$NON-NLS-1$
+		String[] args = new String[] { "-D" + IAntCoreConstants.TARGET_OUTPUT_CACHE_PROPERTY + "=" + store.getAbsolutePath() }; //$NON-NLS-1$ //$NON-NLS-2$
+		try {
+			run("cachedOutputs.xml", args); //$NON-NLS-1$
+			assertTrue("The target should have run", AntTestChecker.getDefault().getMessages().contains("Copying")); //$NON-NLS-1$ //$NON-NLS-2$
+			outputs.delete(true, null);
+			run("cachedOutputs.xml", args); //$NON-NLS-1$
+			assertFalse("The target should not have run", AntTestChecker.getDefault().getMessages().contains("Copying")); //$NON-NLS-1$ //$NON-NLS-2$
+			outputs.refreshLocal(IResource.DEPTH_INFINITE, null);
+			assertTrue("The output should have been restored", outputs.getFile("cachedOutputs.xml").exists()); //$NON-NLS-1$ //$NON-NLS-2$
+			assertSuccessful();
+		}
+		finally {
+			outputs.refreshLocal(IResource.DEPTH_INFINITE, null);
+			outputs.delete(true, null);
+			Files.walk(store.toPath()).sorted(Comparator.reverseOrder()).map(Path::toFile).forEach(File::delete);
+		}
+	}
+
+	/**
+	 * Moves the time stamps of the given files into the past so that they are older than the parse that caches their targets
+	 */
+	private void backDate(IFile... files) throws CoreException {
+		long stamp = System.currentTimeMillis() - 10000;
+		for (IFile file : files) {
+			file.setLocalTimeStamp(stamp);
+		}
+	}
+
+	private void setContents(IFile file, String contents) throws CoreException {
+		ByteArrayInputStream stream = new ByteArrayInputStream(contents.getBytes(StandardCharsets.UTF_8));
+		if (file.exists()) {
+			file.setContents(stream, true, false, null);
+		} else {
+			file.create(stream, true, null);
+		}
+	}
+}
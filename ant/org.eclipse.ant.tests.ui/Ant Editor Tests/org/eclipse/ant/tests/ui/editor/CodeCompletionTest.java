@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2002, 2014 GEBIT Gesellschaft fuer EDV-Beratung
+ * Copyright (c) 2002, 2018 GEBIT Gesellschaft fuer EDV-Beratung
  * und Informatik-Technologien mbH, 
  * Berlin, Duesseldorf, Frankfurt (Germany) and others.
  * All rights reserved. This program and the accompanying materials 
@@ -17,6 +17,7 @@ package org.eclipse.ant.tests.ui.editor;
 
 import java.io.File;
 import java.io.FileNotFoundException;
+import java.util.Arrays;
 
 import javax.xml.parsers.DocumentBuilder;
 import javax.xml.parsers.DocumentBuilderFactory;
@@ -615,9 +616,13 @@ public class CodeCompletionTest extends AbstractAntUITest {
 
 		// "<project><target><mk"
 		proposals = processor.getTaskProposals("<project><target><mk", "target", "mk"); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
-		assertEquals(1, proposals.length);
-		proposal = proposals[0];
-		assertEquals("mkdir", proposal.getDisplayString()); //$NON-NLS-1$
+		// the task that starts with the prefix, followed by the tasks that contain it
+		String[] expected = new String[] { "mkdir", "ccmkattr", "ccmkbl", "ccmkdir", "ccmkelem", "ccmklabel", "ccmklbtype" }; //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$ //$NON-NLS-5$ //$NON-NLS-6$ //$NON-NLS-7$
+		String[] displayStrings = new String[proposals.length];
+		for (int i = 0; i < proposals.length; i++) {
+			displayStrings[i] = proposals[i].getDisplayString();
+		}
+		assertEquals(Arrays.asList(expected), Arrays.asList(displayStrings));
 		processor.dispose();
 	}
 
@@ -1206,8 +1211,10 @@ public class CodeCompletionTest extends AbstractAntUITest {
 		processor.setColumnNumber(columnNumber);
 		processor.setCursorPosition(lineOffset + columnNumber);
 		ICompletionProposal[] proposals = processor.getProposalsFromDocument(getCurrentDocument(), "ext"); //$NON-NLS-1$
-		assertTrue(proposals.length == 3);
+		assertTrue(proposals.length == 4);
 		assertContains("extension-point", proposals); //$NON-NLS-1$
+		// the task that contains the prefix
+		assertContains("renameext", proposals); //$NON-NLS-1$
 		processor.dispose();
 	}
 
@@ -0,0 +1,95 @@
+/*******************************************************************************
+ * Copyright (c) 2018 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.ant.tests.ui.editor;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import org.eclipse.ant.internal.ui.editor.ProposalNameIndex;
+
+import junit.framework.TestCase;
+
+/**
+ * Tests the names that content assist proposes for a prefix
+ */
+public class ProposalNameIndexTests extends TestCase {
+
+	private static final ProposalNameIndex INDEX = new ProposalNameIndex(Arrays.asList("javac", "Jar", "jarJar", "ant.project.name", //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$
+			"antProjectName", "echo", "mkdir", "ccmkdir", "zip")); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$ //$NON-NLS-5$
+
+	/**
+	 * Tests that an empty prefix returns all the names in the order of their lower case form
+	 */
+	public void testEmptyPrefix() {
+		assertEquals(Arrays.asList("ant.project.name", "antProjectName", "ccmkdir", "echo", "Jar", "jarJar", "javac", "mkdir", "zip"), INDEX.getNames("")); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$ //$NON-NLS-5$ //$NON-NLS-6$ //$NON-NLS-7$ //$NON-NLS-8$ //$NON-NLS-9$ //$NON-NLS-10$
+		assertEquals(Collections.emptyList(), new ProposalNameIndex(Collections.<String> emptyList()).getNames("")); //$NON-NLS-1$
+		assertEquals(Collections.emptyList(), new ProposalNameIndex(Collections.<String> emptyList()).getNames("a")); //$NON-NLS-1$
+	}
+
+	/**
+	 * Tests that no names are returned for prefixes that no name matches, including prefixes before the first and after the last name
+	 */
+	public void testNoMatch() {
+		assertEquals(Collections.emptyList(), INDEX.getNames("b")); //$NON-NLS-1$
+		assertEquals(Collections.emptyList(), INDEX.getNames("aa")); //$NON-NLS-1$
+		assertEquals(Collections.emptyList(), INDEX.getNames("zz")); //$NON-NLS-1$
+		assertEquals(Collections.emptyList(), INDEX.getNames("zip.")); //$NON-NLS-1$
+		assertEquals(Collections.emptyList(), INDEX.getNames("~")); //$NON-NLS-1$
+	}
+
+	/**
+	 * Tests the names that start with a prefix at the start, in the middle and at the end of the index
+	 */
+	public void testPrefix() {
+		assertEquals(Arrays.asList("ant.project.name", "antProjectName"), INDEX.getNames("ant")); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+		assertEquals(Arrays.asList("echo"), INDEX.getNames("ech")); //$NON-NLS-1$ //$NON-NLS-2$
+		assertEquals(Arrays.asList("zip"), INDEX.getNames("z")); //$NON-NLS-1$ //$NON-NLS-2$
+		assertEquals(Arrays.asList("zip"), INDEX.getNames("zip")); //$NON-NLS-1$ //$NON-NLS-2$
+	}
+
+	/**
+	 * Tests that names of mixed case are found by their lower case form and returned as they were given
+	 */
+	public void testMixedCase() {
+		assertEquals(Arrays.asList("Jar", "jarJar", "javac"), INDEX.getNames("j")); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$
+		assertEquals(Arrays.asList("Jar", "jarJar"), INDEX.getNames("jar")); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+		assertEquals(Arrays.asList("jarJar"), INDEX.getNames("jarj")); //$NON-NLS-1$ //$NON-NLS-2$
+	}
+
+	/**
+	 * Tests that the names whose words start with the parts of the prefix follow the names that start with it
+	 */
+	public void testCamelCase() {
+		assertEquals(Arrays.asList("ant.project.name", "antProjectName"), INDEX.getNames("apn")); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+		assertEquals(Arrays.asList("ant.project.name", "antProjectName"), INDEX.getNames("anprna")); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+		assertEquals(Arrays.asList("jarJar"), INDEX.getNames("jj")); //$NON-NLS-1$ //$NON-NLS-2$
+		assertEquals("The first word should be matched", Collections.emptyList(), INDEX.getNames("pn")); //$NON-NLS-1$ //$NON-NLS-2$
+		assertEquals("Words should not be skipped", Collections.emptyList(), INDEX.getNames("aname")); //$NON-NLS-1$ //$NON-NLS-2$
+	}
+
+	/**
+	 * Tests that the names that contain the prefix follow the other names, and only for prefixes of more than one character
+	 */
+	public void testSubstring() {
+		assertEquals(Arrays.asList("mkdir", "ccmkdir"), INDEX.getNames("mk")); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+		assertEquals(Arrays.asList("Jar", "jarJar"), INDEX.getNames("ar")); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+		assertEquals("A single character should only match the start of a name", Arrays.asList("mkdir"), INDEX.getNames("m")); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+	}
+
+	/**
+	 * Tests that the names that start with the prefix come first, followed by the names whose words start with its parts and then by the names
+	 * that contain it
+	 */
+	public void testOrder() {
+		ProposalNameIndex index = new ProposalNameIndex(Arrays.asList("exec", "deck", "extraClasses", "echo", "eclipseCompile")); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$ //$NON-NLS-5$
+		assertEquals(Arrays.asList("echo", "eclipseCompile", "extraClasses", "deck", "exec"), index.getNames("ec")); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$ //$NON-NLS-5$ //$NON-NLS-6$
+	}
+}
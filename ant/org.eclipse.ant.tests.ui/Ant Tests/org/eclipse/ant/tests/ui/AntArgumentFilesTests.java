@@ -0,0 +1,118 @@
+/*******************************************************************************
+ * Copyright (c) 2018 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.ant.tests.ui;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+
+import org.eclipse.ant.internal.launching.launchConfigurations.AntArgumentFiles;
+import org.eclipse.debug.core.DebugPlugin;
+import org.eclipse.debug.core.ILaunchManager;
+import org.eclipse.debug.core.Launch;
+
+import junit.framework.TestCase;
+
+/**
+ * Tests the files that pass the properties, classpath and VM arguments of an Ant build to a separate VM
+ */
+public class AntArgumentFilesTests extends TestCase {
+
+	private final List<Launch> fLaunches = new ArrayList<>();
+
+	@Override
+	protected void tearDown() throws Exception {
+		ILaunchManager manager = DebugPlugin.getDefault().getLaunchManager();
+		for (Launch launch : fLaunches) {
+			manager.removeLaunch(launch);
+		}
+		fLaunches.clear();
+		super.tearDown();
+	}
+
+	/**
+	 * Tests that the properties are read back as they were given, with the values trimmed and the empty values left out like -D arguments
+	 */
+	public void testPropertyFile() throws IOException {
+		Map<String, String> properties = new LinkedHashMap<>();
+		properties.put("name", "value"); //$NON-NLS-1$ //$NON-NLS-2$
+		properties.put("padded", "  value  "); //$NON-NLS-1$ //$NON-NLS-2$
+		properties.put("empty", ""); //$NON-NLS-1$ //$NON-NLS-2$
+		properties.put("key with = and :", "a\\b#c!d\ne"); //$NON-NLS-1$ //$NON-NLS-2$
+		properties.put("unicode", "\u00e9t\u00e9 \u4e2d"); //$NON-NLS-1$ //$NON-NLS-2$
+		File file = AntArgumentFiles.getPropertyFile(properties, newLaunch());
+		Properties loaded = load(file);
+		assertEquals("value", loaded.getProperty("name")); //$NON-NLS-1$ //$NON-NLS-2$
+		assertEquals("Values should be trimmed", "value", loaded.getProperty("padded")); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+		assertFalse("Empty values should be left out", loaded.containsKey("empty")); //$NON-NLS-1$ //$NON-NLS-2$
+		assertEquals("a\\b#c!d\ne", loaded.getProperty("key with = and :")); //$NON-NLS-1$ //$NON-NLS-2$
+		assertEquals("\u00e9t\u00e9 \u4e2d", loaded.getProperty("unicode")); //$NON-NLS-1$ //$NON-NLS-2$
+		assertEquals("Unexpected properties: " + loaded, 4, loaded.size()); //$NON-NLS-1$
+	}
+
+	/**
+	 * Tests that each launch has its own property file, which is deleted when the launch is removed
+	 */
+	public void testPropertyFileDeleted() throws IOException {
+		Map<String, String> properties = new LinkedHashMap<>();
+		properties.put("password", "secret"); //$NON-NLS-1$ //$NON-NLS-2$
+		Launch first = newLaunch();
+		Launch second = newLaunch();
+		File firstFile = AntArgumentFiles.getPropertyFile(properties, first);
+		File secondFile = AntArgumentFiles.getPropertyFile(properties, second);
+		assertFalse("Each launch should have its own file", firstFile.equals(secondFile)); //$NON-NLS-1$
+		assertTrue(firstFile.isFile());
+		assertTrue(secondFile.isFile());
+
+		DebugPlugin.getDefault().getLaunchManager().removeLaunch(first);
+		assertFalse("The file should be deleted with its launch", firstFile.exists()); //$NON-NLS-1$
+		assertTrue("The file of the other launch should be kept", secondFile.isFile()); //$NON-NLS-1$
+		DebugPlugin.getDefault().getLaunchManager().removeLaunch(second);
+		assertFalse("The file should be deleted with its launch", secondFile.exists()); //$NON-NLS-1$
+	}
+
+	/**
+	 * Tests that argument files quote the arguments and are shared by launches with the same arguments
+	 */
+	public void testArgumentFile() throws IOException {
+		List<String> arguments = Arrays.asList("-Xmx512m", "-Dquoted=\"a b\"", "-classpath", "C:\\ant\\lib\\ant.jar"); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$
+		File file = AntArgumentFiles.getArgumentFile(arguments);
+		assertNotNull(file);
+		String contents = new String(Files.readAllBytes(file.toPath()), StandardCharsets.ISO_8859_1);
+		assertEquals("\"-Xmx512m\"\n\"-Dquoted=\\\"a b\\\"\"\n\"-classpath\"\n\"C:\\\\ant\\\\lib\\\\ant.jar\"\n", contents); //$NON-NLS-1$
+		assertEquals("The same arguments should share a file", file, AntArgumentFiles.getArgumentFile(new ArrayList<>(arguments))); //$NON-NLS-1$
+		assertFalse("Other arguments should have another file", file.equals(AntArgumentFiles.getArgumentFile(Arrays.asList("-Xmx1g")))); //$NON-NLS-1$ //$NON-NLS-2$
+		assertNull("Arguments that are not ASCII should stay on the command line", AntArgumentFiles.getArgumentFile(Arrays.asList("-Dname=\u00e9"))); //$NON-NLS-1$ //$NON-NLS-2$
+	}
+
+	private Launch newLaunch() {
+		Launch launch = new Launch(null, ILaunchManager.RUN_MODE, null);
+		DebugPlugin.getDefault().getLaunchManager().addLaunch(launch);
+		fLaunches.add(launch);
+		return launch;
+	}
+
+	private Properties load(File file) throws IOException {
+		Properties properties = new Properties();
+		try (InputStream stream = Files.newInputStream(file.toPath())) {
+			properties.load(stream);
+		}
+		return properties;
+	}
+}
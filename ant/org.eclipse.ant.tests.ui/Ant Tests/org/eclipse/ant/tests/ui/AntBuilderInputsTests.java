@@ -0,0 +1,191 @@
+/*******************************************************************************
+ * Copyright (c) 2018 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.ant.tests.ui;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.eclipse.ant.core.AntRunner;
+import org.eclipse.ant.internal.core.AbstractEclipseBuildLogger;
+import org.eclipse.ant.internal.launching.launchConfigurations.AntBuilderInputs;
+import org.eclipse.ant.tests.ui.testplugin.AbstractAntUITest;
+import org.eclipse.core.resources.IResource;
+import org.eclipse.core.resources.IResourceDelta;
+import org.eclipse.core.resources.IResourceDeltaVisitor;
+import org.eclipse.core.runtime.CoreException;
+
+/**
+ * Tests the files that the builds of Ant builders are recorded to read and write, and the builds that are skipped because of them
+ */
+public class AntBuilderInputsTests extends AbstractAntUITest {
+
+	private static final String RECORDER_CLASS = "org.eclipse.ant.internal.launching.runtime.logger.AntBuilderInputsRecorder"; //$NON-NLS-1$
+	private static final String INPUTS = "builderInputs/"; //$NON-NLS-1$
+	private static final Map<String, Object> ATTRIBUTES = Collections.<String, Object> singletonMap("attribute", "value"); //$NON-NLS-1$ //$NON-NLS-2$
+
+	public AntBuilderInputsTests(String name) {
+		super(name);
+	}
+
+	@Override
+	protected void tearDown() throws Exception {
+		AntBuilderInputs.discard(getKey());
+		super.tearDown();
+	}
+
+	/**
+	 * Tests that a build is only skipped for the recorded targets and attributes and a known delta
+	 */
+	public void testRecordMatches() throws CoreException {
+		String[] targets = record("copy"); //$NON-NLS-1$
+		IResourceDelta unrelated = getDelta(INPUTS + "unrelated.txt", IResourceDelta.CHANGED, IResourceDelta.CONTENT); //$NON-NLS-1$
+		assertTrue("An unrelated change should not affect the build", AntBuilderInputs.isUnaffected(getKey(), targets, ATTRIBUTES, unrelated)); //$NON-NLS-1$
+		assertFalse("An unknown delta may affect the build", AntBuilderInputs.isUnaffected(getKey(), targets, ATTRIBUTES, null)); //$NON-NLS-1$
+		assertFalse("Other targets are not recorded", AntBuilderInputs.isUnaffected(getKey(), new String[] { "mkdir" }, ATTRIBUTES, unrelated)); //$NON-NLS-1$ //$NON-NLS-2$
+		assertFalse("Other attributes are not recorded", AntBuilderInputs.isUnaffected(getKey(), targets, new HashMap<String, Object>(), unrelated)); //$NON-NLS-1$
+		assertFalse("Other builders are not recorded", AntBuilderInputs.isUnaffected(getKey() + "2", targets, ATTRIBUTES, unrelated)); //$NON-NLS-1$ //$NON-NLS-2$
+		AntBuilderInputs.discard(getKey());
+		assertFalse("A discarded record should not be used", AntBuilderInputs.isUnaffected(getKey(), targets, ATTRIBUTES, unrelated)); //$NON-NLS-1$
+	}
+
+	/**
+	 * Tests that a build is affected by changes to the files it copies and by the removal of the copies, but not by other changes to them
+	 */
+	public void testCopy() throws CoreException {
+		String[] targets = record("copy"); //$NON-NLS-1$
+		assertAffected(targets, INPUTS + "copied.txt", IResourceDelta.CHANGED, IResourceDelta.CONTENT); //$NON-NLS-1$
+		assertAffected(targets, INPUTS + "output/copied.txt", IResourceDelta.REMOVED, 0); //$NON-NLS-1$
+		assertAffected(targets, INPUTS + "output/", IResourceDelta.REMOVED, 0); //$NON-NLS-1$
+		assertUnaffected(targets, INPUTS + "copied.txt", IResourceDelta.CHANGED, IResourceDelta.MARKERS); //$NON-NLS-1$
+		assertUnaffected(targets, INPUTS + "output/copied.txt", IResourceDelta.CHANGED, IResourceDelta.CONTENT); //$NON-NLS-1$
+	}
+
+	/**
+	 * Tests that a folder that is created is not read, but that its removal affects the build
+	 */
+	public void testMkdir() throws CoreException {
+		String[] targets = record("mkdir"); //$NON-NLS-1$
+		assertUnaffected(targets, INPUTS + "made/file.txt", IResourceDelta.ADDED, 0); //$NON-NLS-1$
+		assertUnaffected(targets, INPUTS + "made/file.txt", IResourceDelta.CHANGED, IResourceDelta.CONTENT); //$NON-NLS-1$
+		assertAffected(targets, INPUTS + "made/", IResourceDelta.REMOVED, 0); //$NON-NLS-1$
+	}
+
+	/**
+	 * Tests that the input and the style sheet of a transformation are read
+	 */
+	public void testXslt() throws CoreException {
+		String[] targets = record("xslt"); //$NON-NLS-1$
+		assertAffected(targets, INPUTS + "input.xml", IResourceDelta.CHANGED, IResourceDelta.CONTENT); //$NON-NLS-1$
+		assertAffected(targets, INPUTS + "style.xsl", IResourceDelta.CHANGED, IResourceDelta.CONTENT); //$NON-NLS-1$
+		assertAffected(targets, INPUTS + "output/input.txt", IResourceDelta.REMOVED, 0); //$NON-NLS-1$
+		assertUnaffected(targets, INPUTS + "copied.txt", IResourceDelta.CHANGED, IResourceDelta.CONTENT); //$NON-NLS-1$
+	}
+
+	/**
+	 * Tests that the files of nested resources are read
+	 */
+	public void testNestedResource() throws CoreException {
+		String[] targets = record("loadproperties"); //$NON-NLS-1$
+		assertAffected(targets, INPUTS + "loaded.properties", IResourceDelta.CHANGED, IResourceDelta.CONTENT); //$NON-NLS-1$
+		assertUnaffected(targets, INPUTS + "copied.txt", IResourceDelta.CHANGED, IResourceDelta.CONTENT); //$NON-NLS-1$
+	}
+
+	/**
+	 * Tests that a build is not skipped when a task of unknown use names files
+	 */
+	public void testUnknownTask() throws CoreException {
+		String[] targets = record("unknown"); //$NON-NLS-1$
+		assertAffected(targets, INPUTS + "unrelated.txt", IResourceDelta.CHANGED, IResourceDelta.CONTENT); //$NON-NLS-1$
+	}
+
+	/**
+	 * Tests that the buildfile is read
+	 */
+	public void testBuildfile() throws CoreException {
+		String[] targets = record("copy"); //$NON-NLS-1$
+		assertAffected(targets, "builderInputs.xml", IResourceDelta.CHANGED, IResourceDelta.CONTENT); //$NON-NLS-1$
+	}
+
+	private void assertAffected(String[] targets, String path, int kind, int flags) {
+		assertFalse("The build should be affected by " + path, AntBuilderInputs.isUnaffected(getKey(), targets, ATTRIBUTES, getDelta(path, kind, flags))); //$NON-NLS-1$
+	}
+
+	private void assertUnaffected(String[] targets, String path, int kind, int flags) {
+		assertTrue("The build should not be affected by " + path, AntBuilderInputs.isUnaffected(getKey(), targets, ATTRIBUTES, getDelta(path, kind, flags))); //$NON-NLS-1$
+	}
+
+	private String getKey() {
+		return AntBuilderInputs.getKey(getProject().getName(), getName());
+	}
+
+	/**
+	 * Runs and records the given target of the test buildfile
+	 *
+	 * @return the targets that were run
+	 */
+	private String[] record(String target) throws CoreException {
+		String[] targets = new String[] { target };
+		String processId = getName() + System.currentTimeMillis();
+		AntBuilderInputs.startRecording(processId, getKey(), targets, ATTRIBUTES, getProject().getLocation());
+		AntRunner runner = new AntRunner();
+		runner.setBuildFileLocation(getBuildFile("builderInputs.xml").getAbsolutePath()); //$NON-NLS-1$
+		runner.setExecutionTargets(targets);
+		runner.addBuildListener(RECORDER_CLASS);
+		Map<String, String> properties = new HashMap<>();
+		properties.put(AbstractEclipseBuildLogger.ANT_PROCESS_ID, processId);
+		runner.addUserProperties(properties);
+		runner.run();
+		return targets;
+	}
+
+	/**
+	 * Returns a delta of the project with the given change to the resource at the given path in the buildfiles folder, a path of a folder ending
+	 * with a slash
+	 */
+	private IResourceDelta getDelta(String path, int kind, int flags) {
+		IResource resource = path.endsWith("/") ? getProject().getFolder("buildfiles/" + path) : getIFile(path); //$NON-NLS-1$ //$NON-NLS-2$
+		IResourceDelta delta = createDelta(resource, kind, flags, null);
+		for (IResource parent = resource.getParent(); parent.getType() != IResource.ROOT; parent = parent.getParent()) {
+			delta = createDelta(parent, IResourceDelta.CHANGED, 0, delta);
+		}
+		return delta;
+	}
+
+	private IResourceDelta createDelta(final IResource resource, final int kind, final int flags, final IResourceDelta child) {
+		InvocationHandler handler = new InvocationHandler() {
+			@Override
+			public Object invoke(Object proxy, Method method, Object[] args) throws CoreException {
+				String name = method.getName();
+				if (name.equals("accept") && args.length == 1) { //$NON-NLS-1$
+					if (((IResourceDeltaVisitor) args[0]).visit((IResourceDelta) proxy) && child != null) {
+						child.accept((IResourceDeltaVisitor) args[0]);
+					}
+					return null;
+				}
+				if (name.equals("getResource")) { //$NON-NLS-1$
+					return resource;
+				}
+				if (name.equals("getKind")) { //$NON-NLS-1$
+					return Integer.valueOf(kind);
+				}
+				if (name.equals("getFlags")) { //$NON-NLS-1$
+					return Integer.valueOf(flags);
+				}
+				throw new UnsupportedOperationException(name);
+			}
+		};
+		return (IResourceDelta) Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[] { IResourceDelta.class }, handler);
+	}
+}
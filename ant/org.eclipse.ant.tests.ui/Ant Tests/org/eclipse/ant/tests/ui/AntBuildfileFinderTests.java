@@ -0,0 +1,68 @@
+/*******************************************************************************
+ * Copyright (c) 2018 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.ant.tests.ui;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+
+import org.eclipse.ant.internal.ui.AntUIPlugin;
+import org.eclipse.ant.internal.ui.IAntUIPreferenceConstants;
+import org.eclipse.ant.internal.ui.launchConfigurations.AntBuildfileFinder;
+import org.eclipse.ant.tests.ui.testplugin.AbstractAntUITest;
+import org.eclipse.core.resources.IFile;
+import org.eclipse.core.resources.IFolder;
+import org.eclipse.core.runtime.CoreException;
+import org.eclipse.jface.preference.IPreferenceStore;
+
+/**
+ * Tests the buildfiles that the Ant launch shortcut finds for the selected containers
+ */
+public class AntBuildfileFinderTests extends AbstractAntUITest {
+
+	public AntBuildfileFinderTests(String name) {
+		super(name);
+	}
+
+	/**
+	 * Tests that a buildfile added or removed between two selections is found for the second selection, although the buildfile of the first
+	 * selection is remembered
+	 */
+	public void testBuildFileAdded() throws CoreException {
+		IPreferenceStore store = AntUIPlugin.getDefault().getPreferenceStore();
+		String names = store.getString(IAntUIPreferenceConstants.ANT_FIND_BUILD_FILE_NAMES);
+		store.setValue(IAntUIPreferenceConstants.ANT_FIND_BUILD_FILE_NAMES, "build.xml"); //$NON-NLS-1$
+		IFolder folder = getProject().getFolder("buildfiles").getFolder("finder"); //$NON-NLS-1$ //$NON-NLS-2$
+		IFolder nested = folder.getFolder("nested"); //$NON-NLS-1$
+		try {
+			folder.create(true, true, null);
+			nested.create(true, true, null);
+			AntBuildfileFinder finder = AntBuildfileFinder.getDefault();
+			IFile parentBuildFile = getIFile("build.xml"); //$NON-NLS-1$
+			assertEquals("The buildfile of the closest parent should be found", parentBuildFile, finder.findBuildFile(nested)); //$NON-NLS-1$
+			// remembered
+			assertEquals("The buildfile of the closest parent should be found", parentBuildFile, finder.findBuildFile(folder)); //$NON-NLS-1$
+
+			IFile buildFile = folder.getFile("build.xml"); //$NON-NLS-1$
+			buildFile.create(new ByteArrayInputStream("<project default=\"default\"><target name=\"default\"/></project>".getBytes(StandardCharsets.UTF_8)), true, null); //$NON-NLS-1$
+			assertEquals("The added buildfile should be found", buildFile, finder.findBuildFile(nested)); //$NON-NLS-1$
+			assertEquals("The added buildfile should be found", buildFile, finder.findBuildFile(folder)); //$NON-NLS-1$
+
+			buildFile.delete(true, null);
+			assertEquals("The removed buildfile should no longer be found", parentBuildFile, finder.findBuildFile(nested)); //$NON-NLS-1$
+		}
+		finally {
+			if (folder.exists()) {
+				folder.delete(true, null);
+			}
+			store.setValue(IAntUIPreferenceConstants.ANT_FIND_BUILD_FILE_NAMES, names);
+		}
+	}
+}
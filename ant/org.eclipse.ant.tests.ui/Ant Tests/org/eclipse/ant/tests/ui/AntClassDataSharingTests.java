@@ -0,0 +1,74 @@
+/*******************************************************************************
+ * Copyright (c) 2018 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.ant.tests.ui;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+
+import org.eclipse.ant.internal.launching.launchConfigurations.AntClassDataSharing;
+import org.eclipse.jdt.launching.IVMInstall;
+import org.eclipse.jdt.launching.JavaRuntime;
+
+import junit.framework.TestCase;
+
+/**
+ * Tests the class data sharing archives of the separate VMs that run Ant builds
+ */
+public class AntClassDataSharingTests extends TestCase {
+
+	private File fJar = null;
+
+	@Override
+	protected void tearDown() throws Exception {
+		if (fJar != null) {
+			fJar.delete();
+			fJar = null;
+		}
+		super.tearDown();
+	}
+
+	/**
+	 * Tests that the major version is read from the old and the new version schemes
+	 */
+	public void testMajorVersion() {
+		assertEquals(8, AntClassDataSharing.getMajorVersion("1.8.0_151")); //$NON-NLS-1$
+		assertEquals(11, AntClassDataSharing.getMajorVersion("11.0.2")); //$NON-NLS-1$
+		assertEquals(13, AntClassDataSharing.getMajorVersion("13")); //$NON-NLS-1$
+		assertEquals(21, AntClassDataSharing.getMajorVersion("21-ea")); //$NON-NLS-1$
+		assertEquals(0, AntClassDataSharing.getMajorVersion(null));
+		assertEquals(0, AntClassDataSharing.getMajorVersion("unknown")); //$NON-NLS-1$
+	}
+
+	/**
+	 * Tests that an archive is only used again for the same VM arguments and an unchanged classpath
+	 */
+	public void testKey() throws IOException {
+		IVMInstall install = JavaRuntime.getDefaultVMInstall();
+		assertNotNull("No default JRE", install); //$NON-NLS-1$
+		fJar = File.createTempFile("classDataSharing", ".jar"); //$NON-NLS-1$ //$NON-NLS-2$
+		Files.write(fJar.toPath(), "contents".getBytes(StandardCharsets.UTF_8)); //$NON-NLS-1$
+		fJar.setLastModified(System.currentTimeMillis() - 60000);
+		String[] classpath = new String[] { fJar.getAbsolutePath() };
+		String key = AntClassDataSharing.getKey(install, classpath, "-Xmx256m"); //$NON-NLS-1$
+		assertEquals("The same launch should use the same archive", key, AntClassDataSharing.getKey(install, classpath, "-Xmx256m")); //$NON-NLS-1$ //$NON-NLS-2$
+		assertFalse("Other VM arguments should use another archive", key.equals(AntClassDataSharing.getKey(install, classpath, "-Xmx512m"))); //$NON-NLS-1$ //$NON-NLS-2$
+		assertFalse("Another classpath should use another archive", key.equals(AntClassDataSharing.getKey(install, new String[0], "-Xmx256m"))); //$NON-NLS-1$ //$NON-NLS-2$
+		fJar.setLastModified(System.currentTimeMillis());
+		assertFalse("A changed classpath entry should invalidate the archive", key.equals(AntClassDataSharing.getKey(install, classpath, "-Xmx256m"))); //$NON-NLS-1$ //$NON-NLS-2$
+		String touched = AntClassDataSharing.getKey(install, classpath, "-Xmx256m"); //$NON-NLS-1$
+		long modified = fJar.lastModified();
+		Files.write(fJar.toPath(), "changed contents".getBytes(StandardCharsets.UTF_8)); //$NON-NLS-1$
+		fJar.setLastModified(modified);
+		assertFalse("A classpath entry of another size should invalidate the archive", touched.equals(AntClassDataSharing.getKey(install, classpath, "-Xmx256m"))); //$NON-NLS-1$ //$NON-NLS-2$
+	}
+}
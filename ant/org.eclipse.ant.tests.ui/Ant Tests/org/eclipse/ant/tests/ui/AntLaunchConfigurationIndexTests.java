@@ -0,0 +1,81 @@
+/*******************************************************************************
+ * Copyright (c) 2018 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.ant.tests.ui;
+
+import java.util.Arrays;
+
+import org.eclipse.ant.internal.ui.launchConfigurations.AntLaunchConfigurationIndex;
+import org.eclipse.ant.tests.ui.testplugin.AbstractAntUITest;
+import org.eclipse.core.externaltools.internal.IExternalToolConstants;
+import org.eclipse.core.resources.IFile;
+import org.eclipse.core.runtime.CoreException;
+import org.eclipse.debug.core.ILaunchConfiguration;
+import org.eclipse.debug.core.ILaunchConfigurationWorkingCopy;
+import org.eclipse.jdt.launching.IJavaLaunchConfigurationConstants;
+
+/**
+ * Tests the index of the Ant launch configurations by the location of their buildfile and by their project
+ */
+public class AntLaunchConfigurationIndexTests extends AbstractAntUITest {
+
+	private ILaunchConfiguration fConfiguration = null;
+
+	public AntLaunchConfigurationIndexTests(String name) {
+		super(name);
+	}
+
+	@Override
+	protected void tearDown() throws Exception {
+		if (fConfiguration != null && fConfiguration.exists()) {
+			fConfiguration.delete();
+		}
+		fConfiguration = null;
+		super.tearDown();
+	}
+
+	/**
+	 * Tests that a configuration is indexed again once the location of its buildfile or its project changes, and is no longer found once it is
+	 * deleted
+	 */
+	public void testConfigurationChanged() throws CoreException {
+		IFile echoing = getIFile("echoing.xml"); //$NON-NLS-1$
+		IFile other = getIFile("74840.xml"); //$NON-NLS-1$
+		String projectName = getProject().getName();
+		AntLaunchConfigurationIndex index = AntLaunchConfigurationIndex.getDefault();
+		// build the index before the configuration exists
+		index.getConfigurations(echoing.getLocation());
+
+		ILaunchConfigurationWorkingCopy copy = getLaunchConfiguration("echoing").copy("indexedConfiguration"); //$NON-NLS-1$ //$NON-NLS-2$
+		copy.setContainer(null);
+		copy.setAttribute(IExternalToolConstants.ATTR_LOCATION, getLocation(echoing));
+		copy.setAttribute(IJavaLaunchConfigurationConstants.ATTR_PROJECT_NAME, projectName);
+		fConfiguration = copy.doSave();
+		assertTrue("The added configuration should be indexed by its buildfile", index.getConfigurations(echoing.getLocation()).contains(fConfiguration)); //$NON-NLS-1$
+		assertTrue("The added configuration should be indexed by its project", Arrays.asList(index.getConfigurationsOfProject(projectName)).contains(fConfiguration)); //$NON-NLS-1$
+
+		copy = fConfiguration.getWorkingCopy();
+		copy.setAttribute(IExternalToolConstants.ATTR_LOCATION, getLocation(other));
+		copy.setAttribute(IJavaLaunchConfigurationConstants.ATTR_PROJECT_NAME, "otherProject"); //$NON-NLS-1$
+		fConfiguration = copy.doSave();
+		assertFalse("The configuration should no longer be indexed by its old buildfile", index.getConfigurations(echoing.getLocation()).contains(fConfiguration)); //$NON-NLS-1$
+		assertTrue("The configuration should be indexed by its new buildfile", index.getConfigurations(other.getLocation()).contains(fConfiguration)); //$NON-NLS-1$
+		assertFalse("The configuration should no longer be indexed by its old project", Arrays.asList(index.getConfigurationsOfProject(projectName)).contains(fConfiguration)); //$NON-NLS-1$
+		assertTrue("The configuration should be indexed by its new project", Arrays.asList(index.getConfigurationsOfProject("otherProject")).contains(fConfiguration)); //$NON-NLS-1$ //$NON-NLS-2$
+
+		fConfiguration.delete();
+		assertFalse("A deleted configuration should not be found", index.getConfigurations(other.getLocation()).contains(fConfiguration)); //$NON-NLS-1$
+		assertEquals("A deleted configuration should not be found", 0, index.getConfigurationsOfProject("otherProject").length); //$NON-NLS-1$ //$NON-NLS-2$
+	}
+
+	private String getLocation(IFile file) {
+		return "${workspace_loc:" + file.getFullPath().toString() + "}"; //$NON-NLS-1$ //$NON-NLS-2$
+	}
+}
@@ -0,0 +1,76 @@
+/*******************************************************************************
+ * Copyright (c) 2018 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.ant.tests.ui;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+
+import org.eclipse.ant.internal.launching.debug.AntSourceContainer;
+import org.eclipse.ant.internal.launching.debug.AntSourceLookupDirector;
+import org.eclipse.ant.tests.ui.testplugin.AbstractAntUITest;
+import org.eclipse.core.resources.IFile;
+import org.eclipse.core.resources.IResource;
+import org.eclipse.core.runtime.CoreException;
+import org.eclipse.core.runtime.Path;
+import org.eclipse.debug.core.sourcelookup.containers.LocalFileStorage;
+
+/**
+ * Tests the source elements that the Ant source container finds for the buildfiles of a debug session
+ */
+public class AntSourceContainerTests extends AbstractAntUITest {
+
+	public AntSourceContainerTests(String name) {
+		super(name);
+	}
+
+	/**
+	 * Tests that a buildfile outside the workspace is found as a file in the workspace once it is linked into the workspace, and as a file outside
+	 * the workspace again once the link is removed
+	 */
+	public void testLinkedBuildFile() throws CoreException, IOException {
+		File buildFile = File.createTempFile("sourceContainer", ".xml"); //$NON-NLS-1$ //$NON-NLS-2$
+		Files.write(buildFile.toPath(), "<project default=\"default\"><target name=\"default\"/></project>".getBytes(StandardCharsets.UTF_8)); //$NON-NLS-1$
+		String path = buildFile.getCanonicalPath();
+		IFile link = getProject().getFile(buildFile.getName());
+		AntSourceContainer container = new AntSourceContainer();
+		container.init(new AntSourceLookupDirector());
+		try {
+			assertSource(container.findSourceElements(path), null);
+			// from the cache
+			assertSource(container.findSourceElements(path), null);
+			link.createLink(new Path(path), IResource.NONE, null);
+			assertSource(container.findSourceElements(path), link);
+			link.delete(true, null);
+			assertSource(container.findSourceElements(path), null);
+		}
+		finally {
+			container.dispose();
+			if (link.exists()) {
+				link.delete(true, null);
+			}
+			buildFile.delete();
+		}
+	}
+
+	/**
+	 * Asserts that the given source elements are the given workspace file, or a file outside the workspace if <code>null</code>
+	 */
+	private void assertSource(Object[] sources, IFile file) {
+		assertEquals("There should be one source element", 1, sources.length); //$NON-NLS-1$
+		if (file == null) {
+			assertTrue("The buildfile should be found outside the workspace: " + sources[0], sources[0] instanceof LocalFileStorage); //$NON-NLS-1$
+		} else {
+			assertEquals("The buildfile should be found in the workspace", file, sources[0]); //$NON-NLS-1$
+		}
+	}
+}
@@ -0,0 +1,139 @@
+/*******************************************************************************
+ * Copyright (c) 2018 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.ant.tests.ui;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.eclipse.ant.internal.launching.launchConfigurations.AntTargetShards;
+
+import junit.framework.TestCase;
+
+/**
+ * Tests the targets that the separate VMs of a build run at the same time
+ */
+public class AntTargetShardsTests extends TestCase {
+
+	private static final String BUILDFILE = "<project default=\"all\">\n" //$NON-NLS-1$
+			+ "<target name=\"init\"><echo message=\"init\"/></target>\n" //$NON-NLS-1$
+			+ "<target name=\"a\" depends=\"init\"><echo message=\"a\"/></target>\n" //$NON-NLS-1$
+			+ "<target name=\"b\"><echo message=\"b\"/></target>\n" //$NON-NLS-1$
+			+ "<target name=\"c\" depends=\"init\"><echo message=\"c\"/></target>\n" //$NON-NLS-1$
+			+ "<target name=\"d\"><echo message=\"d\"/></target>\n" //$NON-NLS-1$
+			+ "<target name=\"bd\" depends=\"b,d\"/>\n" //$NON-NLS-1$
+			+ "<target name=\"all\" depends=\"a,bd\"/>\n" //$NON-NLS-1$
+			+ "</project>\n"; //$NON-NLS-1$
+
+	private final List<File> fFiles = new ArrayList<>();
+
+	@Override
+	protected void tearDown() throws Exception {
+		for (File file : fFiles) {
+			file.delete();
+		}
+		fFiles.clear();
+		super.tearDown();
+	}
+
+	/**
+	 * Tests that a build is not split unless the user has chosen its targets
+	 */
+	public void testNotChosen() throws IOException {
+		File buildFile = createBuildFile(BUILDFILE);
+		assertNull("No target was chosen", AntTargetShards.getShards(buildFile, null, Collections.<String> emptySet(), 4)); //$NON-NLS-1$
+		assertNull("The default target was not chosen", AntTargetShards.getShards(buildFile, null, set("a", "b"), 4)); //$NON-NLS-1$ //$NON-NLS-2$
+		assertNull("Only some of the targets were chosen", AntTargetShards.getShards(buildFile, new String[] { "a", "b" }, set("a"), 4)); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$
+		assertNull("A single VM was allowed", AntTargetShards.getShards(buildFile, null, set("all"), 1)); //$NON-NLS-1$ //$NON-NLS-2$
+	}
+
+	/**
+	 * Tests that a chosen target without tasks is replaced by the targets it depends on, but that these targets are only replaced in turn if they
+	 * are chosen too
+	 */
+	public void testChosenDependencies() throws IOException {
+		File buildFile = createBuildFile(BUILDFILE);
+		List<String[]> shards = AntTargetShards.getShards(buildFile, null, set("all"), 4); //$NON-NLS-1$
+		assertShards(shards, new String[] { "a" }, new String[] { "bd" }); //$NON-NLS-1$ //$NON-NLS-2$
+		shards = AntTargetShards.getShards(buildFile, null, set("all", "bd"), 4); //$NON-NLS-1$ //$NON-NLS-2$
+		assertShards(shards, new String[] { "a" }, new String[] { "b" }, new String[] { "d" }); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+	}
+
+	/**
+	 * Tests that chosen targets that share a dependency are run by the same VM in their order, and that each VM runs its targets in their order
+	 */
+	public void testOrder() throws IOException {
+		File buildFile = createBuildFile(BUILDFILE);
+		List<String[]> shards = AntTargetShards.getShards(buildFile, new String[] { "c", "b", "a" }, set("a", "b", "c"), 4); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$ //$NON-NLS-5$ //$NON-NLS-6$
+		assertShards(shards, new String[] { "c", "a" }, new String[] { "b" }); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+		shards = AntTargetShards.getShards(buildFile, new String[] { "d", "b", "c" }, set("b", "c", "d"), 2); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$ //$NON-NLS-5$ //$NON-NLS-6$
+		assertShards(shards, new String[] { "c" }, new String[] { "d", "b" }); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+	}
+
+	/**
+	 * Tests that a build is run by a single VM when its dependencies cannot be known without running it or when all its targets share a dependency
+	 */
+	public void testFallback() throws IOException {
+		Set<String> chosen = set("all"); //$NON-NLS-1$
+		File buildFile = createBuildFile("<project default=\"all\">\n" //$NON-NLS-1$
+				+ "<target name=\"a\"/><target name=\"all\" depends=\"a,missing\"/>\n" //$NON-NLS-1$
+				+ "</project>\n"); //$NON-NLS-1$
+		assertNull("A dependency is not known", AntTargetShards.getShards(buildFile, null, chosen, 4)); //$NON-NLS-1$
+		buildFile = createBuildFile("<project default=\"all\">\n" //$NON-NLS-1$
+				+ "<import file=\"other.xml\"/>\n" //$NON-NLS-1$
+				+ "<target name=\"a\"/><target name=\"b\"/><target name=\"all\" depends=\"a,b\"/>\n" //$NON-NLS-1$
+				+ "</project>\n"); //$NON-NLS-1$
+		assertNull("The buildfile imports another file", AntTargetShards.getShards(buildFile, null, chosen, 4)); //$NON-NLS-1$
+		buildFile = createBuildFile("<project default=\"all\">\n" //$NON-NLS-1$
+				+ "<target name=\"a\"/><target name=\"b\"/><target name=\"all\" depends=\"a,${other}\"/>\n" //$NON-NLS-1$
+				+ "</project>\n"); //$NON-NLS-1$
+		assertNull("A dependency is given by a property", AntTargetShards.getShards(buildFile, null, chosen, 4)); //$NON-NLS-1$
+		buildFile = createBuildFile("<project default=\"all\">\n" //$NON-NLS-1$
+				+ "<target name=\"a\" depends=\"b\"/><target name=\"b\" depends=\"a\"/><target name=\"c\"/><target name=\"all\" depends=\"a,c\"/>\n" //$NON-NLS-1$
+				+ "</project>\n"); //$NON-NLS-1$
+		assertNull("The dependencies are circular", AntTargetShards.getShards(buildFile, null, chosen, 4)); //$NON-NLS-1$
+		buildFile = createBuildFile(BUILDFILE);
+		assertNull("The targets share a dependency", AntTargetShards.getShards(buildFile, new String[] { "a", "c" }, set("a", "c"), 4)); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$ //$NON-NLS-5$
+		assertNull("The buildfile does not exist", AntTargetShards.getShards(new File(buildFile.getParentFile(), "missing.xml"), null, chosen, 4)); //$NON-NLS-1$ //$NON-NLS-2$
+	}
+
+	private void assertShards(List<String[]> shards, String[]... expected) {
+		assertNotNull("The build should have been split", shards); //$NON-NLS-1$
+		List<String> actual = new ArrayList<>();
+		for (String[] shard : shards) {
+			actual.add(Arrays.toString(shard));
+		}
+		List<String> wanted = new ArrayList<>();
+		for (String[] shard : expected) {
+			wanted.add(Arrays.toString(shard));
+		}
+		assertEquals(new HashSet<>(wanted), new HashSet<>(actual));
+		assertEquals("Unexpected shards: " + actual, wanted.size(), actual.size()); //$NON-NLS-1$
+	}
+
+	private Set<String> set(String... targets) {
+		return new HashSet<>(Arrays.asList(targets));
+	}
+
+	private File createBuildFile(String contents) throws IOException {
+		File file = File.createTempFile("shards", ".xml"); //$NON-NLS-1$ //$NON-NLS-2$
+		fFiles.add(file);
+		Files.write(file.toPath(), contents.getBytes(StandardCharsets.UTF_8));
+		return file;
+	}
+}
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2004, 2013 IBM Corporation and others.
+ * Copyright (c) 2004, 2018 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -10,15 +10,21 @@
  *******************************************************************************/
 package org.eclipse.ant.tests.ui;
 
+import java.io.ByteArrayInputStream;
 import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
 import java.util.HashMap;
 import java.util.Map;
 
+import org.eclipse.ant.internal.ui.AntTargetsCache;
 import org.eclipse.ant.internal.ui.AntUtil;
 import org.eclipse.ant.internal.ui.model.AntTargetNode;
 import org.eclipse.ant.launching.IAntLaunchConstants;
 import org.eclipse.ant.tests.ui.testplugin.AbstractAntUITest;
 import org.eclipse.core.externaltools.internal.IExternalToolConstants;
+import org.eclipse.core.resources.IFile;
+import org.eclipse.core.resources.IResource;
 import org.eclipse.core.runtime.CoreException;
 import org.eclipse.debug.core.ILaunchConfiguration;
 import org.eclipse.debug.core.ILaunchConfigurationWorkingCopy;
@@ -92,6 +98,47 @@ public class AntUtilTests extends AbstractAntUITest {
 		assertContains("import-default", targets); //$NON-NLS-1$
 	}
 
+	public void testGetTargetsLaunchConfigurationCached() throws Exception {
+		String buildFileName = "importRequiringUserProp"; //$NON-NLS-1$
+		File buildFile = getBuildFile(buildFileName + ".xml"); //$NON-NLS-1$
+		Map<String, String> properties = new HashMap<>();
+		properties.put("importFileName", "toBeImported.xml"); //$NON-NLS-1$ //$NON-NLS-2$
+		ILaunchConfiguration config = getLaunchConfiguration(buildFileName, null, properties, null);
+		AntTargetNode[] targets = AntUtil.getTargets(buildFile.getAbsolutePath(), config);
+		assertTrue(targets != null);
+		int hits = AntTargetsCache.getHits();
+		AntTargetNode[] cached = AntUtil.getTargets(buildFile.getAbsolutePath(), config);
+		assertEquals("The targets should have been taken from the cache", hits + 1, AntTargetsCache.getHits()); //$NON-NLS-1$
+		assertTrue(cached != null);
+		assertTrue("Incorrect number of targets retrieved; should be 3 was: " + cached.length, cached.length == 3); //$NON-NLS-1$
+		assertContains("import-default", cached); //$NON-NLS-1$
+		for (int i = 0; i < targets.length; i++) {
+			assertNotSame("The cached targets must be new nodes", targets[i], cached[i]); //$NON-NLS-1$
+			assertEquals(targets[i].getTargetName(), cached[i].getTargetName());
+			assertEquals(targets[i].getTarget().getDescription(), cached[i].getTarget().getDescription());
+			assertEquals(targets[i].getLabel(), cached[i].getLabel());
+			assertEquals(targets[i].isDefaultTarget(), cached[i].isDefaultTarget());
+			assertNotNull(cached[i].getProjectNode());
+		}
+		// changing an imported file discards the cached targets
+		IFile imported = getIFile("toBeImported.xml"); //$NON-NLS-1$
+		byte[] original = Files.readAllBytes(imported.getLocation().toFile().toPath());
+		try {
+			String contents = new String(original, StandardCharsets.UTF_8).replace("</project>", "<target name=\"added\"/>\n</project>"); //$NON-NLS-1$ //$NON-NLS-2$
+			imported.setContents(new ByteArrayInputStream(contents.getBytes(StandardCharsets.UTF_8)), IResource.FORCE, null);
+			AntTargetNode[] changed = AntUtil.getTargets(buildFile.getAbsolutePath(), config);
+			assertEquals("The targets should have been listed again", hits + 1, AntTargetsCache.getHits()); //$NON-NLS-1$
+			assertTrue("Incorrect number of targets retrieved; should be 4 was: " + changed.length, changed.length == 4); //$NON-NLS-1$
+			assertContains("added", changed); //$NON-NLS-1$
+		}
+		finally {
+			imported.setContents(new ByteArrayInputStream(original), IResource.FORCE, null);
+		}
+		// the targets of other properties are not reused
+		AntTargetNode[] unresolved = AntUtil.getTargets(buildFile.getAbsolutePath(), getLaunchConfiguration(buildFileName, null, null, null));
+		assertTrue(unresolved == null || unresolved.length != 3);
+	}
+
 	protected ILaunchConfiguration getLaunchConfiguration(String buildFileName, String arguments, Map<String, String> properties, String propertyFiles) throws CoreException {
 		ILaunchConfiguration config = getLaunchConfiguration(buildFileName);
 		assertNotNull("Could not locate launch configuration for " + buildFileName, config); //$NON-NLS-1$
@@ -17,6 +17,9 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 
+import org.eclipse.ant.internal.launching.AntLaunching;
+import org.eclipse.ant.internal.launching.IAntLaunchingPreferenceConstants;
+import org.eclipse.ant.internal.launching.launchConfigurations.RemoteAntBuildDaemon;
 import org.eclipse.ant.internal.ui.AntUIPlugin;
 import org.eclipse.ant.internal.ui.IAntUIConstants;
 import org.eclipse.ant.internal.ui.IAntUIPreferenceConstants;
@@ -25,9 +28,12 @@ import org.eclipse.ant.tests.ui.AbstractAntUIBuildTest;
 import org.eclipse.ant.tests.ui.debug.TestAgainException;
 import org.eclipse.ant.tests.ui.testplugin.ConsoleLineTracker;
 import org.eclipse.ant.tests.ui.testplugin.ProjectHelper;
+import org.eclipse.core.externaltools.internal.IExternalToolConstants;
 import org.eclipse.core.resources.IFile;
 import org.eclipse.core.resources.IResource;
 import org.eclipse.core.runtime.CoreException;
+import org.eclipse.core.runtime.preferences.IEclipsePreferences;
+import org.eclipse.core.runtime.preferences.InstanceScope;
 import org.eclipse.debug.core.ILaunchConfiguration;
 import org.eclipse.debug.core.ILaunchConfigurationWorkingCopy;
 import org.eclipse.jdt.launching.IJavaLaunchConfigurationConstants;
@@ -210,6 +216,24 @@ public class SeparateVMTests extends AbstractAntUIBuildTest {
 		assertTrue("Incorrect echo message. Should not include unsubstituted property ", !ConsoleLineTracker.getMessage(2).trim().startsWith("[echo] ${workspace_loc}")); //$NON-NLS-1$ //$NON-NLS-2$
 	}
 
+	/**
+	 * Tests that a property of the launch configuration still takes precedence over a -D property of the same name in the arguments when the
+	 * separate VM reads the other properties from a property file
+	 */
+	public void testPropertyPrecedence() throws CoreException {
+		ILaunchConfiguration config = getLaunchConfiguration("74840SepVM"); //$NON-NLS-1$
+		assertNotNull("Could not locate launch configuration for " + "74840SepVM", config); //$NON-NLS-1$ //$NON-NLS-2$
+		ILaunchConfigurationWorkingCopy copy = config.getWorkingCopy();
+		Map<String, String> properties = new HashMap<>(1);
+		properties.put("platform.location", "fromTab"); //$NON-NLS-1$ //$NON-NLS-2$
+		copy.setAttribute(IAntLaunchConstants.ATTR_ANT_PROPERTIES, properties);
+		copy.setAttribute(IExternalToolConstants.ATTR_TOOL_ARGUMENTS, "-Dplatform.location=fromArguments"); //$NON-NLS-1$
+		launchAndTerminate(copy, 20000);
+		ConsoleLineTracker.waitForConsole();
+		assertLines(6);
+		assertTrue("The property of the launch configuration should take precedence: " + ConsoleLineTracker.getMessage(2), ConsoleLineTracker.getMessage(2).trim().endsWith("fromTab")); //$NON-NLS-1$ //$NON-NLS-2$
+	}
+
 	/**
 	 * Tests launching Ant in a separate VM and getting messages logged to the console for project help.
 	 */
@@ -270,6 +294,60 @@ public class SeparateVMTests extends AbstractAntUIBuildTest {
 		return msg.endsWith(PLUGIN_VERSION);
 	}
 
+	/**
+	 * Tests that the tasks nested in a parallel task run on virtual threads and that their failures are reported in the order of the tasks. The
+	 * separate VM runs on the default JRE, so the test is skipped unless the running JRE has virtual threads.
+	 */
+	public void testParallelFailures() throws CoreException {
+		try {
+			Thread.class.getMethod("isVirtual"); //$NON-NLS-1$
+		}
+		catch (NoSuchMethodException e) {
+			return;
+		}
+		launch("parallel", "-Declipse.ant.virtualThreads=true"); //$NON-NLS-1$ //$NON-NLS-2$
+		ConsoleLineTracker.waitForConsole();
+		List<String> lines = ConsoleLineTracker.getAllMessages();
+		assertTrue("The nested tasks should run on virtual threads: " + lines, indexOf(lines, "virtual thread: true") != -1); //$NON-NLS-1$ //$NON-NLS-2$
+		int first = indexOf(lines, "first failure"); //$NON-NLS-1$
+		int second = indexOf(lines, "second failure"); //$NON-NLS-1$
+		int third = indexOf(lines, "third failure"); //$NON-NLS-1$
+		assertTrue("All failures should be reported: " + lines, first != -1 && second != -1 && third != -1); //$NON-NLS-1$
+		assertTrue("The failures should be reported in the order of the tasks: " + lines, first < second && second < third); //$NON-NLS-1$
+	}
+
+	/**
+	 * Tests that builds run one after the other by a build daemon do not see the system properties set by the builds before them
+	 */
+	public void testBuildDaemonState() throws CoreException {
+		IEclipsePreferences node = InstanceScope.INSTANCE.getNode(AntLaunching.getUniqueIdentifier());
+		node.putBoolean(IAntLaunchingPreferenceConstants.ANT_BUILD_DAEMON, true);
+		try {
+			ILaunchConfigurationWorkingCopy copy = getLaunchConfiguration("echoNoInput").getWorkingCopy(); //$NON-NLS-1$
+			// the runner sets eclipse.ant.noInput when there is no input handler
+			copy.setAttribute(IAntUIConstants.SET_INPUTHANDLER, false);
+			for (int i = 0; i < 2; i++) {
+				launch(copy);
+				ConsoleLineTracker.waitForConsole();
+				List<String> lines = ConsoleLineTracker.getAllMessages();
+				assertTrue("The build should not see the properties of an earlier build: " + lines, indexOf(lines, "noInput=${eclipse.ant.noInput}") != -1); //$NON-NLS-1$ //$NON-NLS-2$
+			}
+		}
+		finally {
+			node.remove(IAntLaunchingPreferenceConstants.ANT_BUILD_DAEMON);
+			RemoteAntBuildDaemon.shutDown();
+		}
+	}
+
+	private int indexOf(List<String> lines, String message) {
+		for (int i = 0; i < lines.size(); i++) {
+			if (lines.get(i).endsWith(message)) {
+				return i;
+			}
+		}
+		return -1;
+	}
+
 	public void testFailInputHandler() throws CoreException {
 		ILaunchConfiguration config = getLaunchConfiguration("echoingSepVM"); //$NON-NLS-1$
 		assertNotNull("Could not locate launch configuration for " + "echoingSepVM", config); //$NON-NLS-1$ //$NON-NLS-2$
@@ -1,5 +1,5 @@
 /*******************************************************************************
- *  Copyright (c) 2003, 2013 IBM Corporation and others.
+ *  Copyright (c) 2003, 2018 IBM Corporation and others.
  *  All rights reserved. This program and the accompanying materials
  *  are made available under the terms of the Eclipse Public License v1.0
  *  which accompanies this distribution, and is available at
@@ -212,6 +212,8 @@ public abstract class AbstractAntUITest extends TestCase {
 			ProjectHelper.createLaunchConfigurationForSeparateVM("extensionPointTypeSepVM", null); //$NON-NLS-1$
 			ProjectHelper.createLaunchConfigurationForSeparateVM("input", null); //$NON-NLS-1$
 			ProjectHelper.createLaunchConfigurationForSeparateVM("environmentVar", null); //$NON-NLS-1$
+			ProjectHelper.createLaunchConfigurationForSeparateVM("parallel", null); //$NON-NLS-1$
+			ProjectHelper.createLaunchConfigurationForSeparateVM("echoNoInput", null); //$NON-NLS-1$
 
 			ProjectHelper.createLaunchConfigurationForBoth("breakpoints"); //$NON-NLS-1$
 			ProjectHelper.createLaunchConfigurationForBoth("debugAntCall"); //$NON-NLS-1$
@@ -15,6 +15,13 @@
 package org.eclipse.ant.tests.ui.testplugin;
 
 import org.eclipse.ant.tests.ui.APITests;
+import org.eclipse.ant.tests.ui.AntArgumentFilesTests;
+import org.eclipse.ant.tests.ui.AntBuilderInputsTests;
+import org.eclipse.ant.tests.ui.AntBuildfileFinderTests;
+import org.eclipse.ant.tests.ui.AntClassDataSharingTests;
+import org.eclipse.ant.tests.ui.AntLaunchConfigurationIndexTests;
+import org.eclipse.ant.tests.ui.AntSourceContainerTests;
+import org.eclipse.ant.tests.ui.AntTargetShardsTests;
 import org.eclipse.ant.tests.ui.AntUtilTests;
 import org.eclipse.ant.tests.ui.AntViewTests;
 import org.eclipse.ant.tests.ui.BuildTests;
@@ -28,6 +35,7 @@ import org.eclipse.ant.tests.ui.editor.AntEditorContentOutlineTests;
 import org.eclipse.ant.tests.ui.editor.AntEditorTests;
 import org.eclipse.ant.tests.ui.editor.CodeCompletionTest;
 import org.eclipse.ant.tests.ui.editor.OccurrencesFinderTests;
+import org.eclipse.ant.tests.ui.editor.ProposalNameIndexTests;
 import org.eclipse.ant.tests.ui.editor.TaskDescriptionProviderTest;
 import org.eclipse.ant.tests.ui.editor.formatter.FormattingPreferencesTest;
 import org.eclipse.ant.tests.ui.editor.formatter.XmlDocumentFormatterTest;
@@ -53,6 +61,7 @@ public class AntUITests extends TestSuite {
 		suite.addTest(new TestSuite(SeparateVMTests.class));
 		suite.addTest(new TestSuite(AntEditorTests.class));
 		suite.addTest(new TestSuite(CodeCompletionTest.class));
+		suite.addTest(new TestSuite(ProposalNameIndexTests.class));
 		suite.addTest(new TestSuite(TaskDescriptionProviderTest.class));
 		suite.addTest(new TestSuite(AntEditorContentOutlineTests.class));
 		suite.addTest(new TestSuite(MigrationTests.class));
@@ -63,6 +72,13 @@ public class AntUITests extends TestSuite {
 		suite.addTest(new TestSuite(XmlTagFormatterTest.class));
 		suite.addTest(new TestSuite(XmlFormatterTest.class));
 		suite.addTest(new TestSuite(AntUtilTests.class));
+		suite.addTest(new TestSuite(AntArgumentFilesTests.class));
+		suite.addTest(new TestSuite(AntBuilderInputsTests.class));
+		suite.addTest(new TestSuite(AntTargetShardsTests.class));
+		suite.addTest(new TestSuite(AntClassDataSharingTests.class));
+		suite.addTest(new TestSuite(AntSourceContainerTests.class));
+		suite.addTest(new TestSuite(AntLaunchConfigurationIndexTests.class));
+		suite.addTest(new TestSuite(AntBuildfileFinderTests.class));
 		suite.addTest(new TestSuite(AntViewTests.class));
 		suite.addTest(new TestSuite(BreakpointTests.class));
 		suite.addTest(new TestSuite(RunToLineTests.class));
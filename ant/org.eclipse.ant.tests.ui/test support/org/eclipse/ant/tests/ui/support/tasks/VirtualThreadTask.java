@@ -0,0 +1,42 @@
+/*******************************************************************************
+ * Copyright (c) 2018 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.ant.tests.ui.support.tasks;
+
+import org.apache.tools.ant.BuildException;
+import org.apache.tools.ant.Task;
+import org.apache.tools.ant.taskdefs.Echo;
+
+/**
+ * Echoes whether the task runs on a virtual thread
+ */
+public class VirtualThreadTask extends Task {
+
+	/**
+	 * @see org.apache.tools.ant.Task#execute()
+	 */
+	@Override
+	public void execute() throws BuildException {
+		Echo echo = new Echo();
+		echo.setProject(getProject());
+		echo.setMessage("virtual thread: " + isVirtual()); //$NON-NLS-1$
+		echo.execute();
+	}
+
+	private boolean isVirtual() {
+		try {
+			return ((Boolean) Thread.class.getMethod("isVirtual").invoke(Thread.currentThread())).booleanValue(); //$NON-NLS-1$
+		}
+		catch (Exception e) {
+			// the VM has no virtual threads
+			return false;
+		}
+	}
+}
@@ -0,0 +1,224 @@
+/*******************************************************************************
+ * Copyright (c) 2018 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.ant.internal.ui.dtd.schema;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import org.eclipse.ant.internal.ui.dtd.IAtom;
+import org.eclipse.ant.internal.ui.dtd.IDfm;
+
+/**
+ * A state of a Dfm compiled into tables. The symbols that any state of a content model accepts are numbered in the order of their names, and the
+ * next state of each state for each symbol is kept in one dense <code>int[]</code> table that is shared by the states. Advancing a state is a
+ * binary search for the number of the symbol and a table lookup, and the symbols that a state accepts are computed once.
+ * <p>
+ * Like a Dfm, a compiled Dfm is immutable and can be used by multiple threads. The arrays returned by <code>getAccepts()</code> and
+ * <code>getKeys()</code> are shared and must not be modified.
+ * </p>
+ */
+public final class CompiledDfm implements IDfm {
+
+	private static final String[] NO_ACCEPTS = new String[0];
+
+	/**
+	 * The tables shared by the states of a content model
+	 */
+	private static class Tables {
+		/**
+		 * The symbols accepted by any of the states, sorted by name
+		 */
+		String[] fSymbols;
+		/**
+		 * The next state by state and symbol at <code>state * fSymbols.length + symbol</code>, <code>-1</code> if the state does not accept the symbol
+		 */
+		int[] fNext;
+		CompiledDfm[] fStates;
+	}
+
+	private final Tables fTables;
+	private final int fState;
+	private final boolean fAccepting;
+	private final boolean fAny;
+	private final boolean fEmpty;
+	/**
+	 * The symbols accepted by this state and their atoms, sorted by name; the keys are <code>null</code> if there are none
+	 */
+	private final String[] fAccepts;
+	private final IAtom[] fKeys;
+
+	private CompiledDfm(Tables tables, int state, Dfm dfm, String[] accepts, IAtom[] keys) {
+		fTables = tables;
+		fState = state;
+		fAccepting = dfm.accepting;
+		fAny = dfm.any;
+		fEmpty = dfm.empty;
+		fAccepts = accepts;
+		fKeys = keys;
+	}
+
+	/**
+	 * Compiles the given Dfm and the states that it advances to.
+	 *
+	 * @param dfm
+	 *            the start state of a content model
+	 * @return the compiled start state
+	 */
+	public static CompiledDfm compile(Dfm dfm) {
+		// number the states in the order they are reached
+		Map<Dfm, Integer> numbers = new IdentityHashMap<>();
+		List<Dfm> states = new ArrayList<>();
+		Map<String, Integer> symbols = new TreeMap<>();
+		numbers.put(dfm, Integer.valueOf(0));
+		states.add(dfm);
+		for (int i = 0; i < states.size(); i++) {
+			Dfm state = states.get(i);
+			if (state.any || state.empty || state.keys == null) {
+				continue;
+			}
+			for (int j = 0; j < state.keys.length; j++) {
+				symbols.put(state.keys[j].toString(), null);
+				Dfm follow = (Dfm) state.values[j];
+				if (!numbers.containsKey(follow)) {
+					numbers.put(follow, Integer.valueOf(states.size()));
+					states.add(follow);
+				}
+			}
+		}
+		Tables tables = new Tables();
+		tables.fSymbols = symbols.keySet().toArray(new String[symbols.size()]);
+		for (int i = 0; i < tables.fSymbols.length; i++) {
+			symbols.put(tables.fSymbols[i], Integer.valueOf(i));
+		}
+		int width = tables.fSymbols.length;
+		tables.fNext = new int[states.size() * width];
+		Arrays.fill(tables.fNext, -1);
+		tables.fStates = new CompiledDfm[states.size()];
+		for (int i = 0; i < states.size(); i++) {
+			Dfm state = states.get(i);
+			String[] accepts = NO_ACCEPTS;
+			IAtom[] keys = null;
+			if (!state.any && !state.empty && state.keys != null && state.keys.length > 0) {
+				Map<String, IAtom> sorted = new TreeMap<>();
+				for (int j = 0; j < state.keys.length; j++) {
+					String name = state.keys[j].toString();
+					sorted.put(name, (IAtom) state.keys[j]);
+					int symbol = symbols.get(name).intValue();
+					tables.fNext[i * width + symbol] = numbers.get(state.values[j]).intValue();
+				}
+				accepts = sorted.keySet().toArray(new String[sorted.size()]);
+				keys = sorted.values().toArray(new IAtom[sorted.size()]);
+			}
+			tables.fStates[i] = new CompiledDfm(tables, i, state, accepts, keys);
+		}
+		return tables.fStates[0];
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see org.eclipse.ant.internal.ui.dtd.IDfm#isAccepting()
+	 */
+	@Override
+	public boolean isAccepting() {
+		return fAccepting;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see org.eclipse.ant.internal.ui.dtd.IDfm#advance(java.lang.String)
+	 */
+	@Override
+	public IDfm advance(String name) {
+		if (fAny) {
+			return this;
+		}
+		if (fKeys == null) {
+			return null;
+		}
+		int symbol = Arrays.binarySearch(fTables.fSymbols, name);
+		if (symbol < 0) {
+			return null;
+		}
+		int next = fTables.fNext[fState * fTables.fSymbols.length + symbol];
+		return next < 0 ? null : fTables.fStates[next];
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see org.eclipse.ant.internal.ui.dtd.IDfm#advance(java.lang.String, java.lang.String)
+	 */
+	@Override
+	public IDfm advance(String namespace, String localname) {
+		// no namespace support here
+		return advance(localname);
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see org.eclipse.ant.internal.ui.dtd.IDfm#getAtom(java.lang.String)
+	 */
+	@Override
+	public IAtom getAtom(String name) {
+		if (fKeys == null) {
+			return null;
+		}
+		int index = Arrays.binarySearch(fAccepts, name);
+		return index < 0 ? null : fKeys[index];
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see org.eclipse.ant.internal.ui.dtd.IDfm#getAccepts()
+	 */
+	@Override
+	public String[] getAccepts() {
+		return fAccepts;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see org.eclipse.ant.internal.ui.dtd.IDfm#getKeys()
+	 */
+	@Override
+	public Object[] getKeys() {
+		return fKeys;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see org.eclipse.ant.internal.ui.dtd.IDfm#isAny()
+	 */
+	@Override
+	public boolean isAny() {
+		return fAny;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see org.eclipse.ant.internal.ui.dtd.IDfm#isEmpty()
+	 */
+	@Override
+	public boolean isEmpty() {
+		return fEmpty;
+	}
+}
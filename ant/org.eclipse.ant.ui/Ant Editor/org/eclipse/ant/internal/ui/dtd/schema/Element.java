@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2002, 2013 Object Factory Inc.
+ * Copyright (c) 2002, 2018 Object Factory Inc.
  * All rights reserved. This program and the accompanying materials 
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -25,7 +25,7 @@ public class Element extends Atom implements IElement {
 	private boolean fText;
 	private IModel fModel;
 	private Map<String, IAttribute> fMap = new HashMap<>(4);
-	private Dfm fElementDfm;
+	private CompiledDfm fElementDfm;
 
 	/**
 	 * Constructor
@@ -116,9 +116,9 @@ public class Element extends Atom implements IElement {
 	 */
 	@Override
 	public IDfm getDfm() {
-		Dfm dfm = fElementDfm;
+		CompiledDfm dfm = fElementDfm;
 		if (dfm == null) {
-			dfm = parseElementDfm();
+			dfm = CompiledDfm.compile(parseElementDfm());
 			fElementDfm = dfm;
 		}
 		return dfm;
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2002, 2015 GEBIT Gesellschaft fuer EDV-Beratung
+ * Copyright (c) 2002, 2018 GEBIT Gesellschaft fuer EDV-Beratung
  * und Informatik-Technologien mbH, 
  * Berlin, Duesseldorf, Frankfurt (Germany) and others.
  * All rights reserved. This program and the accompanying materials 
@@ -132,6 +132,15 @@ public class AntEditorCompletionProcessor extends TemplateCompletionProcessor im
 			}
 			String string1 = o1.getDisplayString();
 			String string2 = o2.getDisplayString();
+			// names that start with the prefix come before the names that only match its parts or contain it, see ProposalNameIndex
+			String prefix = currentPrefix;
+			if (prefix != null && prefix.length() > 0) {
+				boolean starts1 = string1.toLowerCase().startsWith(prefix);
+				boolean starts2 = string2.toLowerCase().startsWith(prefix);
+				if (starts1 != starts2) {
+					return starts1 ? -1 : 1;
+				}
+			}
 			return string1.compareToIgnoreCase(string2);
 		}
 
@@ -230,6 +239,18 @@ public class AntEditorCompletionProcessor extends TemplateCompletionProcessor im
 	private boolean fTemplatesOnly = false;
 	protected IContentAssistantExtension2 fContentAssistant;
 
+	/**
+	 * The names of the tasks and types, properties, references and targets of the project of the model, indexed when they are first proposed after
+	 * the model has been reconciled
+	 */
+	private Project fIndexedProject = null;
+	private long fIndexedStamp = -1;
+	private ProposalNameIndex fTaskIndex = null;
+	private ProposalNameIndex fPropertyIndex = null;
+	private ProposalNameIndex fReferenceIndex = null;
+	private ProposalNameIndex fTargetIndex = null;
+	private Map<String, Object> fProperties = null;
+
 	public AntEditorCompletionProcessor(AntModel model) {
 		super();
 		antModel = model;
@@ -511,14 +532,12 @@ public class AntEditorCompletionProcessor extends TemplateCompletionProcessor im
 
 	private ICompletionProposal[] getDefaultValueProposals(String prefix) {
 		Map<String, Target> targets = getTargets();
-		List<AntCompletionProposal> defaultProposals = new ArrayList<>(targets.size());
-		Iterator<Target> itr = targets.values().iterator();
+		List<String> targetNames = getTargetIndex().getNames(prefix);
+		List<AntCompletionProposal> defaultProposals = new ArrayList<>(targetNames.size());
 		Target target;
-		String targetName;
-		while (itr.hasNext()) {
-			target = itr.next();
-			targetName = target.getName();
-			if (targetName.toLowerCase().startsWith(prefix) && targetName.length() > 0) {
+		for (String targetName : targetNames) {
+			target = targets.get(targetName);
+			if (target != null && targetName.length() > 0) {
 				defaultProposals.add(new AntCompletionProposal(targetName, cursorPosition - prefix.length(), prefix.length(), targetName.length(), getTargetImage(targetName), targetName, target.getDescription(), AntCompletionProposal.TASK_PROPOSAL));
 			}
 		}
@@ -527,9 +546,8 @@ public class AntEditorCompletionProcessor extends TemplateCompletionProcessor im
 	}
 
 	private ICompletionProposal[] getReferencesValueProposals(String prefix) {
-		Project project = antModel.getProjectNode().getProject();
-		Map<String, Object> references = project.getReferences();
-		if (references.isEmpty()) {
+		List<String> refIds = getReferenceIndex().getNames(prefix);
+		if (refIds.isEmpty()) {
 			return NO_PROPOSALS;
 		}
 
@@ -544,16 +562,12 @@ public class AntEditorCompletionProcessor extends TemplateCompletionProcessor im
 		if (node instanceof AntTaskNode) {
 			id = ((AntTaskNode) node).getId();
 		}
-		Set<String> refIds = references.keySet();
 		List<ICompletionProposal> proposals = new ArrayList<>(refIds.size());
-		String refId;
 		ICompletionProposal proposal;
 		int prefixLength = prefix.length();
 		int replacementOffset = cursorPosition - prefixLength;
-		Iterator<String> iter = refIds.iterator();
-		while (iter.hasNext()) {
-			refId = iter.next();
-			if (!refId.equals(id) && (prefixLength == 0 || refId.toLowerCase().startsWith(prefix))) {
+		for (String refId : refIds) {
+			if (!refId.equals(id)) {
 				proposal = new AntCompletionProposal(refId, replacementOffset, prefixLength, refId.length(), null, refId, null, AntCompletionProposal.TASK_PROPOSAL);
 				proposals.add(proposal);
 			}
@@ -604,13 +618,13 @@ public class AntEditorCompletionProcessor extends TemplateCompletionProcessor im
 		}
 
 		Map<String, Target> targets = getTargets();
-		Set<String> targetNames = targets.keySet();
-		List<ICompletionProposal> proposals = new ArrayList<>(targets.size() - 2); // current target and implicit target
+		List<String> targetNames = getTargetIndex().getNames(prefix);
+		List<ICompletionProposal> proposals = new ArrayList<>(targetNames.size());
 		for (String targetName : targetNames) {
 			if (targetName.equals(currentTargetName)) {
 				continue;
 			}
-			if (targetName.toLowerCase().startsWith(prefix) && targetName.length() > 0) {
+			if (targetName.length() > 0) {
 				proposals.add(new AntCompletionProposal(targetName, cursorPosition - prefix.length(), prefix.length(), targetName.length(), getTargetImage(targetName), targetName, targets.get(targetName).getDescription(), AntCompletionProposal.TASK_PROPOSAL));
 			}
 		}
@@ -646,15 +660,13 @@ public class AntEditorCompletionProcessor extends TemplateCompletionProcessor im
 		}
 
 		Map<String, Target> targets = getTargets();
-		Set<String> targetNames = targets.keySet();
 		Enumeration<String> dependencies = null;
-		for (String targetName : targetNames) {
-			if (targetName.equals(currentTargetName)) {
-				Target currentTarget = targets.get(targetName);
-				dependencies = currentTarget.getDependencies();
-				continue;
-			}
-			if (targetName.toLowerCase().startsWith(prefix) && targetName.length() > 0) {
+		Target currentTarget = targets.get(currentTargetName);
+		if (currentTarget != null) {
+			dependencies = currentTarget.getDependencies();
+		}
+		for (String targetName : getTargetIndex().getNames(prefix)) {
+			if (!targetName.equals(currentTargetName) && targetName.length() > 0) {
 				possibleDependencies.add(targetName);
 			}
 		}
@@ -989,7 +1001,8 @@ public class AntEditorCompletionProcessor extends TemplateCompletionProcessor im
 	protected ICompletionProposal[] getPropertyProposals(IDocument document, String prefix, int aCursorPosition) {
 		List<ICompletionProposal> proposals = new ArrayList<>();
 		Map<String, ICompletionProposal> displayStringToProposals = new HashMap<>();
-		Map<String, Object> properties = findPropertiesFromDocument();
+		List<String> propertyNames = getPropertyIndex().getNames(prefix);
+		Map<String, Object> properties = fProperties;
 
 		Image image = AntUIImages.getImage(IAntUIConstants.IMG_PROPERTY);
 		// Determine replacement length and offset
@@ -1016,26 +1029,22 @@ public class AntEditorCompletionProcessor extends TemplateCompletionProcessor im
 		if (text.length() > aCursorPosition && text.charAt(aCursorPosition) == '}') {
 			replacementLength += 1;
 		}
-		String propertyName;
-		for (Iterator<String> i = properties.keySet().iterator(); i.hasNext();) {
-			propertyName = i.next();
-			if (prefix.length() == 0 || propertyName.toLowerCase().startsWith(prefix)) {
-				String additionalPropertyInfo = (String) properties.get(propertyName);
+		for (String propertyName : propertyNames) {
+			String additionalPropertyInfo = (String) properties.get(propertyName);
 
-				StringBuffer replacementString = new StringBuffer();
-				if (appendBraces) {
-					replacementString.append("${"); //$NON-NLS-1$
-				}
-				replacementString.append(propertyName);
-				if (appendBraces) {
-					replacementString.append('}');
-				}
+			StringBuffer replacementString = new StringBuffer();
+			if (appendBraces) {
+				replacementString.append("${"); //$NON-NLS-1$
+			}
+			replacementString.append(propertyName);
+			if (appendBraces) {
+				replacementString.append('}');
+			}
 
-				if (displayStringToProposals.get(propertyName) == null) {
-					ICompletionProposal proposal = new AntCompletionProposal(replacementString.toString(), replacementOffset, replacementLength, replacementString.length(), image, propertyName, additionalPropertyInfo, AntCompletionProposal.PROPERTY_PROPOSAL);
-					proposals.add(proposal);
-					displayStringToProposals.put(propertyName, proposal);
-				}
+			if (displayStringToProposals.get(propertyName) == null) {
+				ICompletionProposal proposal = new AntCompletionProposal(replacementString.toString(), replacementOffset, replacementLength, replacementString.length(), image, propertyName, additionalPropertyInfo, AntCompletionProposal.PROPERTY_PROPOSAL);
+				proposals.add(proposal);
+				displayStringToProposals.put(propertyName, proposal);
 			}
 		}
 		return proposals.toArray(new ICompletionProposal[proposals.size()]);
@@ -1058,9 +1067,7 @@ public class AntEditorCompletionProcessor extends TemplateCompletionProcessor im
 		ICompletionProposal proposal;
 		if (areTasksOrTypesValidChildren(parentName)) {
 			// use the definitions in the project as that includes more than what is defined in the DTD
-			Project project = antModel.getProjectNode().getProject();
-			Map<String, AntTypeDefinition> tasksAndTypes = ComponentHelper.getComponentHelper(project).getAntTypeTable();
-			createProposals(document, prefix, proposals, tasksAndTypes);
+			createProposals(document, prefix, proposals);
 			if (parentName.equals("project")) { //$NON-NLS-1$
 				if ("target".startsWith(prefix)) { //$NON-NLS-1$
 					proposals.add(newCompletionProposal(document, prefix, "target")); //$NON-NLS-1$
@@ -1147,16 +1154,11 @@ public class AntEditorCompletionProcessor extends TemplateCompletionProcessor im
 		return NO_PROPOSALS;
 	}
 
-	private void createProposals(IDocument document, String prefix, List<ICompletionProposal> proposals, Map<String, AntTypeDefinition> tasks) {
-		Iterator<String> keys = tasks.keySet().iterator();
+	private void createProposals(IDocument document, String prefix, List<ICompletionProposal> proposals) {
 		ICompletionProposal proposal;
-		String key;
-		while (keys.hasNext()) {
-			key = antModel.getUserNamespaceCorrectName(keys.next());
-			if (prefix.length() == 0 || key.toLowerCase().startsWith(prefix)) {
-				proposal = newCompletionProposal(document, prefix, key);
-				proposals.add(proposal);
-			}
+		for (String name : getTaskIndex().getNames(prefix)) {
+			proposal = newCompletionProposal(document, prefix, name);
+			proposals.add(proposal);
 		}
 	}
 
@@ -1616,19 +1618,74 @@ public class AntEditorCompletionProcessor extends TemplateCompletionProcessor im
 		}
 	}
 
+	private Map<String, Target> getTargets() {
+		Project project = antModel.getProjectNode().getProject();
+		return project.getTargets();
+	}
+
 	/**
-	 * Return the properties as defined in the entire buildfile
+	 * Returns the project of the model, discarding the indexes of its names if the model has been reconciled since they were built
 	 * 
-	 * @return a map with all the found properties
+	 * @return the project of the model
 	 */
-	private Map<String, Object> findPropertiesFromDocument() {
+	private Project getIndexedProject() {
 		Project project = antModel.getProjectNode().getProject();
-		return project.getProperties();
+		long stamp = antModel.getModificationStamp();
+		if (project != fIndexedProject || stamp != fIndexedStamp) {
+			fIndexedProject = project;
+			fIndexedStamp = stamp;
+			fTaskIndex = null;
+			fPropertyIndex = null;
+			fReferenceIndex = null;
+			fTargetIndex = null;
+			fProperties = null;
+		}
+		return project;
 	}
 
-	private Map<String, Target> getTargets() {
-		Project project = antModel.getProjectNode().getProject();
-		return project.getTargets();
+	/**
+	 * Returns the index of the names of the tasks and types defined in the project, in the form used in the buildfile
+	 */
+	private ProposalNameIndex getTaskIndex() {
+		Project project = getIndexedProject();
+		if (fTaskIndex == null) {
+			Map<String, AntTypeDefinition> tasksAndTypes = ComponentHelper.getComponentHelper(project).getAntTypeTable();
+			List<String> names = new ArrayList<>(tasksAndTypes.size());
+			for (String name : tasksAndTypes.keySet()) {
+				names.add(antModel.getUserNamespaceCorrectName(name));
+			}
+			fTaskIndex = new ProposalNameIndex(names);
+		}
+		return fTaskIndex;
+	}
+
+	/**
+	 * Returns the index of the names of the properties defined in the entire buildfile. The properties themselves are kept in
+	 * <code>fProperties</code>.
+	 */
+	private ProposalNameIndex getPropertyIndex() {
+		Project project = getIndexedProject();
+		if (fPropertyIndex == null) {
+			fProperties = project.getProperties();
+			fPropertyIndex = new ProposalNameIndex(fProperties.keySet());
+		}
+		return fPropertyIndex;
+	}
+
+	private ProposalNameIndex getReferenceIndex() {
+		Project project = getIndexedProject();
+		if (fReferenceIndex == null) {
+			fReferenceIndex = new ProposalNameIndex(project.getReferences().keySet());
+		}
+		return fReferenceIndex;
+	}
+
+	private ProposalNameIndex getTargetIndex() {
+		Project project = getIndexedProject();
+		if (fTargetIndex == null) {
+			fTargetIndex = new ProposalNameIndex(project.getTargets().keySet());
+		}
+		return fTargetIndex;
 	}
 
 	protected File getEditedFile() {
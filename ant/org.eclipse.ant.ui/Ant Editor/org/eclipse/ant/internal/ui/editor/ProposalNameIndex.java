@@ -0,0 +1,216 @@
+/*******************************************************************************
+ * Copyright (c) 2018 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.ant.internal.ui.editor;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The names that proposals of one kind are made for, sorted by their lower case form so that the names that start with a prefix are found by a
+ * binary search instead of by testing every name.
+ * <p>
+ * The names that start with the prefix are followed by the names whose words start with the parts of the prefix, such as
+ * <code>ant.project.name</code> or <code>antProjectName</code> for <code>apn</code>, and then by the names that contain the prefix. Both are
+ * looked up by the pairs of characters they contain: the first letters of the first two words, and any two consecutive characters of the lower
+ * case form. Only the names found that way are tested against the prefix.
+ * </p>
+ */
+public final class ProposalNameIndex {
+
+	/**
+	 * The shortest prefix for which the names that contain it are returned, as a single character is contained in most names
+	 */
+	private static final int MIN_SUBSTRING_LENGTH = 2;
+
+	private static final int[] NO_NAMES = new int[0];
+
+	/**
+	 * The lower case forms of the names in ascending order, and the names in the same order
+	 */
+	private final String[] fKeys;
+	private final String[] fNames;
+
+	/**
+	 * The indices of the names in ascending order by the lower case first letters of their first two words
+	 */
+	private final Map<String, int[]> fWordStarts;
+
+	/**
+	 * The indices of the names in ascending order by the pairs of consecutive characters of their lower case form
+	 */
+	private final Map<String, int[]> fPairs;
+
+	/**
+	 * Creates an index of the given names.
+	 *
+	 * @param names
+	 *            the names to index
+	 */
+	public ProposalNameIndex(Collection<String> names) {
+		List<String[]> entries = new ArrayList<>(names.size());
+		for (String name : names) {
+			entries.add(new String[] { name.toLowerCase(), name });
+		}
+		Collections.sort(entries, new Comparator<String[]>() {
+			@Override
+			public int compare(String[] o1, String[] o2) {
+				return o1[0].compareTo(o2[0]);
+			}
+		});
+		fKeys = new String[entries.size()];
+		fNames = new String[entries.size()];
+		Map<String, List<Integer>> wordStarts = new HashMap<>();
+		Map<String, List<Integer>> pairs = new HashMap<>();
+		for (int i = 0; i < fKeys.length; i++) {
+			String[] entry = entries.get(i);
+			fKeys[i] = entry[0];
+			fNames[i] = entry[1];
+			int second = getNextWord(fNames[i], 1);
+			if (second < fNames[i].length()) {
+				add(wordStarts, new String(new char[] { Character.toLowerCase(fNames[i].charAt(0)), Character.toLowerCase(fNames[i].charAt(second)) }), i);
+			}
+			for (int j = 0; j + 2 <= fKeys[i].length(); j++) {
+				add(pairs, fKeys[i].substring(j, j + 2), i);
+			}
+		}
+		fWordStarts = toArrays(wordStarts);
+		fPairs = toArrays(pairs);
+	}
+
+	private static void add(Map<String, List<Integer>> postings, String pair, int index) {
+		List<Integer> indices = postings.get(pair);
+		if (indices == null) {
+			indices = new ArrayList<>();
+			postings.put(pair, indices);
+		}
+		// the same pair may occur more than once in a name
+		if (indices.isEmpty() || indices.get(indices.size() - 1).intValue() != index) {
+			indices.add(Integer.valueOf(index));
+		}
+	}
+
+	private static Map<String, int[]> toArrays(Map<String, List<Integer>> postings) {
+		Map<String, int[]> arrays = new HashMap<>(postings.size());
+		for (Map.Entry<String, List<Integer>> entry : postings.entrySet()) {
+			List<Integer> indices = entry.getValue();
+			int[] array = new int[indices.size()];
+			for (int i = 0; i < array.length; i++) {
+				array[i] = indices.get(i).intValue();
+			}
+			arrays.put(entry.getKey(), array);
+		}
+		return arrays;
+	}
+
+	private static int[] getPostings(Map<String, int[]> postings, String pair) {
+		int[] indices = postings.get(pair);
+		return indices == null ? NO_NAMES : indices;
+	}
+
+	/**
+	 * Returns the names whose lower case form starts with the given prefix, followed by the names whose words start with the parts of the prefix
+	 * and then by the names whose lower case form contains the prefix.
+	 *
+	 * @param prefix
+	 *            the lower case prefix, may be empty
+	 * @return the names, each group in the order of their lower case form
+	 */
+	public List<String> getNames(String prefix) {
+		int low = 0;
+		int high = fKeys.length;
+		while (low < high) {
+			int middle = (low + high) >>> 1;
+			if (fKeys[middle].compareTo(prefix) < 0) {
+				low = middle + 1;
+			} else {
+				high = middle;
+			}
+		}
+		List<String> names = new ArrayList<>();
+		high = low;
+		while (high < fKeys.length && fKeys[high].startsWith(prefix)) {
+			names.add(fNames[high]);
+			high++;
+		}
+		if (prefix.length() == 0) {
+			return names;
+		}
+		// a name whose words match the prefix starts with its first character and has its second word start at one of the others
+		BitSet words = new BitSet(fKeys.length);
+		BitSet candidates = new BitSet(fKeys.length);
+		for (int i = 1; i < prefix.length(); i++) {
+			for (int index : getPostings(fWordStarts, new String(new char[] { prefix.charAt(0), prefix.charAt(i) }))) {
+				candidates.set(index);
+			}
+		}
+		for (int i = candidates.nextSetBit(0); i >= 0; i = candidates.nextSetBit(i + 1)) {
+			if ((i < low || i >= high) && matchesWords(fNames[i], 0, prefix, 0)) {
+				words.set(i);
+				names.add(fNames[i]);
+			}
+		}
+		if (prefix.length() < MIN_SUBSTRING_LENGTH) {
+			return names;
+		}
+		// a name that contains the prefix contains each of its pairs, so only the names of its rarest pair are tested
+		int[] rarest = null;
+		for (int i = 0; i + 2 <= prefix.length(); i++) {
+			int[] indices = getPostings(fPairs, prefix.substring(i, i + 2));
+			if (rarest == null || indices.length < rarest.length) {
+				rarest = indices;
+			}
+		}
+		for (int i : rarest) {
+			if ((i < low || i >= high) && !words.get(i) && fKeys[i].indexOf(prefix) != -1) {
+				names.add(fNames[i]);
+			}
+		}
+		return names;
+	}
+
+	/**
+	 * Returns whether the rest of the prefix from the given offset is matched by the starts of consecutive words of the name, the first of which
+	 * starts at the given index. A word starts at an upper case letter or after a character that is neither a letter nor a digit.
+	 */
+	private static boolean matchesWords(String name, int start, String prefix, int offset) {
+		for (int i = start; i < name.length() && Character.toLowerCase(name.charAt(i)) == prefix.charAt(offset); i++) {
+			offset++;
+			if (offset == prefix.length()) {
+				return true;
+			}
+			int next = getNextWord(name, i + 1);
+			// a word that starts at the next character is matched by continuing this word
+			if (next > i + 1 && matchesWords(name, next, prefix, offset)) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Returns the index at which the first word at or after the given index starts, or the length of the name if no word starts there
+	 */
+	private static int getNextWord(String name, int index) {
+		for (int i = index; i < name.length(); i++) {
+			char c = name.charAt(i);
+			if (Character.isUpperCase(c) || (Character.isLetterOrDigit(c) && !Character.isLetterOrDigit(name.charAt(i - 1)))) {
+				return i;
+			}
+		}
+		return name.length();
+	}
+}
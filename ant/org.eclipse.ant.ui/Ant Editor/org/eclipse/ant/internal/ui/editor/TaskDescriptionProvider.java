@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2002, 2013 GEBIT Gesellschaft fuer EDV-Beratung
+ * Copyright (c) 2002, 2018 GEBIT Gesellschaft fuer EDV-Beratung
  * und Informatik-Technologien mbH, 
  * Berlin, Duesseldorf, Frankfurt (Germany) and others.
  * All rights reserved. This program and the accompanying materials 
@@ -17,12 +17,14 @@ package org.eclipse.ant.internal.ui.editor;
 import java.io.IOException;
 import java.lang.reflect.InvocationTargetException;
 import java.net.URL;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.Map.Entry;
 
-import javax.xml.parsers.DocumentBuilder;
-import javax.xml.parsers.DocumentBuilderFactory;
 import javax.xml.parsers.ParserConfigurationException;
+import javax.xml.parsers.SAXParserFactory;
 
 import org.eclipse.ant.internal.core.IAntCoreConstants;
 import org.eclipse.ant.internal.ui.AntUIPlugin;
@@ -30,10 +32,7 @@ import org.eclipse.core.runtime.IProgressMonitor;
 import org.eclipse.jface.operation.IRunnableWithProgress;
 import org.eclipse.ui.PlatformUI;
 import org.eclipse.ui.progress.IProgressService;
-import org.w3c.dom.Document;
-import org.w3c.dom.Element;
-import org.w3c.dom.Node;
-import org.w3c.dom.NodeList;
+import org.xml.sax.Attributes;
 import org.xml.sax.InputSource;
 import org.xml.sax.SAXException;
 import org.xml.sax.helpers.DefaultHandler;
@@ -131,94 +130,100 @@ public class TaskDescriptionProvider {
 	}
 
 	/**
-	 * Parses the task description XML file and stores the information.
+	 * Reads the task descriptions from the XML file into {@link ProposalNode}s while the file is parsed, without building a DOM of the file. The
+	 * attributes and elements at any depth below a task become its children, an element taking precedence over an attribute of the same name. The
+	 * description of a node is the text that its <code>description</code> child starts with.
 	 */
-	protected void initialize() {
-		taskNodes = new HashMap<>();
-		Document doc = parseFile(TASKS_DESCRIPTION_XML_FILE_NAME);
-		Node root = doc.getDocumentElement();
-		NodeList tasks = root.getChildNodes();
-		Node node = null;
-		for (int i = 0; i < tasks.getLength(); i++) {
-			node = tasks.item(i);
-			if (node.getNodeType() == Node.ELEMENT_NODE) {
-				if (XML_TAG_TASK.equals(node.getNodeName())) {
-					Element task = (Element) node;
-					String name = task.getAttribute(IAntCoreConstants.NAME);
-					if (name != null) {
-						ProposalNode tasknode = new ProposalNode(getDescription(task), null);
-						taskNodes.put(name, tasknode);
-						NodeList nodes = task.getElementsByTagName(XML_TAG_ATTRIBUTE);
-						Element e = null;
-						for (int j = 0; j < nodes.getLength(); j++) {
-							e = (Element) nodes.item(j);
-							addNode(e, tasknode);
-						}
-						nodes = task.getElementsByTagName(XML_TAG_ELEMENT);
-						for (int j = 0; j < nodes.getLength(); j++) {
-							e = (Element) nodes.item(j);
-							addNode(e, tasknode);
-						}
-					}
+	private class TaskDescriptionHandler extends DefaultHandler {
+		/**
+		 * The nodes of the open XML elements, <code>null</code> for the XML elements that are not tasks, attributes or elements
+		 */
+		private final List<ProposalNode> fNodes = new ArrayList<>();
+		private ProposalNode fTask = null;
+		private final Map<String, ProposalNode> fAttributes = new HashMap<>();
+		private final Map<String, ProposalNode> fElements = new HashMap<>();
+		private ProposalNode fDescribed = null;
+		private StringBuilder fDescription = null;
+		private int fDescriptionDepth = -1;
+		private boolean fDescriptionEnded = false;
+
+		@Override
+		public void startElement(String uri, String localName, String qName, Attributes attributes) {
+			int depth = fNodes.size();
+			ProposalNode node = null;
+			if (fDescription != null) {
+				// a child element ends the text of the description
+				fDescriptionEnded = true;
+			} else if (depth == 1 && XML_TAG_TASK.equals(qName)) {
+				fTask = node = new ProposalNode(null, null);
+				taskNodes.put(getValue(attributes, IAntCoreConstants.NAME), node);
+			} else if (fTask != null && XML_TAG_ATTRIBUTE.equals(qName)) {
+				node = new ProposalNode(null, getValue(attributes, XML_ATTRIBUTE_REQUIRED));
+				fAttributes.put(getValue(attributes, IAntCoreConstants.NAME), node);
+			} else if (fTask != null && XML_TAG_ELEMENT.equals(qName)) {
+				node = new ProposalNode(null, getValue(attributes, XML_ATTRIBUTE_REQUIRED));
+				fElements.put(getValue(attributes, IAntCoreConstants.NAME), node);
+			} else if (IAntCoreConstants.DESCRIPTION.equals(qName) && depth > 0 && fDescriptionDepth == -1) {
+				ProposalNode parent = fNodes.get(depth - 1);
+				if (parent != null && parent.desc == null) {
+					fDescribed = parent;
+					fDescription = new StringBuilder();
+					fDescriptionDepth = depth;
+					fDescriptionEnded = false;
 				}
 			}
+			fNodes.add(node);
 		}
-	}
 
-	/**
-	 * Adds a new child {@link ProposalNode} to the given parent node
-	 * 
-	 * @param element
-	 * @param node
-	 * @since 3.5
-	 */
-	void addNode(Element element, ProposalNode node) {
-		String name = element.getAttribute(IAntCoreConstants.NAME);
-		if (name != null) {
-			node.addChild(name, new ProposalNode(getDescription(element), element.getAttribute(XML_ATTRIBUTE_REQUIRED)));
+		@Override
+		public void characters(char[] ch, int start, int length) {
+			if (fDescription != null && !fDescriptionEnded) {
+				fDescription.append(ch, start, length);
+			}
 		}
-	}
 
-	/**
-	 * Recursively find the description text for the parent {@link Element}
-	 * 
-	 * @param element
-	 * @return the description element text or <code>null</code>
-	 * @since 3.5
-	 */
-	String getDescription(Element element) {
-		NodeList nodes = element.getChildNodes();
-		for (int i = 0; i < nodes.getLength(); i++) {
-			Node node = nodes.item(i);
-			if (node.getNodeType() == Node.ELEMENT_NODE && IAntCoreConstants.DESCRIPTION.equals(node.getNodeName())) {
-				node = node.getFirstChild();
-				if (node != null) {
-					return node.getNodeValue();
+		@Override
+		public void endElement(String uri, String localName, String qName) {
+			fNodes.remove(fNodes.size() - 1);
+			int depth = fNodes.size();
+			if (depth == fDescriptionDepth) {
+				if (fDescription.length() > 0) {
+					fDescribed.desc = fDescription.toString();
+				}
+				fDescribed = null;
+				fDescription = null;
+				fDescriptionDepth = -1;
+			} else if (depth == 1 && fTask != null) {
+				for (Entry<String, ProposalNode> attribute : fAttributes.entrySet()) {
+					fTask.addChild(attribute.getKey(), attribute.getValue());
+				}
+				for (Entry<String, ProposalNode> element : fElements.entrySet()) {
+					fTask.addChild(element.getKey(), element.getValue());
 				}
+				fAttributes.clear();
+				fElements.clear();
+				fTask = null;
 			}
 		}
-		return null;
+
+		/**
+		 * Returns the value of the given attribute, the empty string if it is not specified
+		 */
+		private String getValue(Attributes attributes, String name) {
+			String value = attributes.getValue(name);
+			return value == null ? IAntCoreConstants.EMPTY_STRING : value;
+		}
 	}
 
 	/**
-	 * Returns the (DOM) document as a result of parsing the file with the specified file name.
-	 * <P>
-	 * The file will be loaded as resource, thus must begin with '/' and must be relative to the classpath.
+	 * Parses the task description XML file and stores the information.
 	 */
-	private Document parseFile(String aFileName) {
-		Document tempDocument = null;
-
-		DocumentBuilderFactory tempFactory = DocumentBuilderFactory.newInstance();
-		tempFactory.setIgnoringComments(true);
-		tempFactory.setIgnoringElementContentWhitespace(true);
-		tempFactory.setCoalescing(true);
-
+	protected void initialize() {
+		taskNodes = new HashMap<>();
+		SAXParserFactory factory = SAXParserFactory.newInstance();
 		try {
-			DocumentBuilder tempDocBuilder = tempFactory.newDocumentBuilder();
-			tempDocBuilder.setErrorHandler(new DefaultHandler());
-			URL tempURL = getClass().getResource(aFileName);
-			InputSource tempInputSource = new InputSource(tempURL.toExternalForm());
-			tempDocument = tempDocBuilder.parse(tempInputSource);
+			URL url = getClass().getResource(TASKS_DESCRIPTION_XML_FILE_NAME);
+			factory.newSAXParser().parse(new InputSource(url.toExternalForm()), new TaskDescriptionHandler());
 		}
 		catch (ParserConfigurationException e) {
 			AntUIPlugin.log(e);
@@ -229,8 +234,6 @@ public class TaskDescriptionProvider {
 		catch (SAXException saxException) {
 			AntUIPlugin.log(saxException);
 		}
-
-		return tempDocument;
 	}
 
 	/**
@@ -0,0 +1,367 @@
+/*******************************************************************************
+ * Copyright (c) 2018 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.ant.internal.ui;
+
+import java.io.File;
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.TreeMap;
+
+import org.apache.tools.ant.Target;
+import org.eclipse.ant.internal.ui.model.AntElementNode;
+import org.eclipse.ant.internal.ui.model.AntImportNode;
+import org.eclipse.ant.internal.ui.model.AntModelProject;
+import org.eclipse.ant.internal.ui.model.AntProjectNode;
+import org.eclipse.ant.internal.ui.model.AntTargetNode;
+import org.eclipse.ant.internal.ui.model.IAntElement;
+import org.eclipse.core.resources.IResource;
+import org.eclipse.core.resources.IResourceChangeEvent;
+import org.eclipse.core.resources.IResourceChangeListener;
+import org.eclipse.core.resources.IResourceDelta;
+import org.eclipse.core.resources.IResourceDeltaVisitor;
+import org.eclipse.core.resources.ResourcesPlugin;
+import org.eclipse.core.runtime.CoreException;
+import org.eclipse.core.runtime.IPath;
+
+/**
+ * Caches the targets of the buildfiles that are listed for launch configurations, see {@link AntUtil#getTargets(String,
+ * org.eclipse.debug.core.ILaunchConfiguration)}.
+ * <p>
+ * The targets of a buildfile are cached for the classpath, properties and property files they were listed with. They are reused for as long as the
+ * contents of the buildfile, which may be edited but not saved, are the same and none of the files they were read from has changed: the buildfile,
+ * the files it imports and the property files. Changes are detected through resource deltas for files in the workspace and through time stamps
+ * for all files.
+ * </p>
+ * <p>
+ * Only the names, descriptions and labels of the targets and whether they are the default target are kept, the nodes are created again for each
+ * request so that the cache does not hold on to the Ant projects and class loaders of the parsed buildfiles. The targets of buildfiles with
+ * problems are not cached as the problems are reported through the nodes.
+ * </p>
+ */
+public final class AntTargetsCache implements IResourceChangeListener {
+
+	/**
+	 * The maximum number of cached target listings
+	 */
+	private static final int MAX_ENTRIES = 32;
+
+	private static AntTargetsCache fgDefault = null;
+
+	private int fHits = 0;
+
+	/**
+	 * The targets of a buildfile and the state of the files they were read from
+	 */
+	static class Listing {
+		final String fContents;
+		final String[] fNames;
+		final String[] fDescriptions;
+		final String[] fLabels;
+		final boolean[] fDefaults;
+		final boolean[] fExternals;
+		final Map<File, long[]> fStamps;
+
+		Listing(String contents, AntTargetNode[] targets, Map<File, long[]> stamps) {
+			fContents = contents;
+			fStamps = stamps;
+			if (targets == null) {
+				fNames = null;
+				fDescriptions = null;
+				fLabels = null;
+				fDefaults = null;
+				fExternals = null;
+				return;
+			}
+			fNames = new String[targets.length];
+			fDescriptions = new String[targets.length];
+			fLabels = new String[targets.length];
+			fDefaults = new boolean[targets.length];
+			fExternals = new boolean[targets.length];
+			for (int i = 0; i < targets.length; i++) {
+				AntTargetNode target = targets[i];
+				fNames[i] = target.getTargetName();
+				fDescriptions[i] = target.getTarget().getDescription();
+				fLabels[i] = target.getLabel();
+				fDefaults[i] = target.isDefaultTarget();
+				fExternals[i] = target.isExternal() || target.getImportNode() != null;
+			}
+		}
+
+		/**
+		 * Returns new nodes for the targets, <code>null</code> if the buildfile has none
+		 */
+		AntTargetNode[] getTargets() {
+			if (fNames == null) {
+				return null;
+			}
+			AntModelProject project = new AntModelProject();
+			AntProjectNode projectNode = new AntProjectNode(project, null);
+			AntTargetNode[] targets = new AntTargetNode[fNames.length];
+			for (int i = 0; i < fNames.length; i++) {
+				Target target = new Target();
+				target.setName(fNames[i]);
+				target.setDescription(fDescriptions[i]);
+				target.setProject(project);
+				if (fDefaults[i]) {
+					project.setDefault(fNames[i]);
+				}
+				targets[i] = AntTargetNode.newAntTargetNode(target, fLabels[i]);
+				// shows the targets as imported
+				targets[i].setExternal(fExternals[i]);
+				projectNode.addChildNode(targets[i]);
+			}
+			return targets;
+		}
+
+		boolean isValid(String contents) {
+			if (!fContents.equals(contents)) {
+				return false;
+			}
+			for (Entry<File, long[]> entry : fStamps.entrySet()) {
+				if (!isSame(entry.getKey(), entry.getValue())) {
+					return false;
+				}
+			}
+			return true;
+		}
+	}
+
+	private final Map<String, Listing> fListings = new LinkedHashMap<String, Listing>(16, 0.75f, true) {
+		private static final long serialVersionUID = 1L;
+
+		@Override
+		protected boolean removeEldestEntry(Map.Entry<String, Listing> eldest) {
+			return size() > MAX_ENTRIES;
+		}
+	};
+
+	private AntTargetsCache() {
+		ResourcesPlugin.getWorkspace().addResourceChangeListener(this, IResourceChangeEvent.POST_CHANGE);
+	}
+
+	/**
+	 * Returns the shared cache
+	 */
+	static synchronized AntTargetsCache getDefault() {
+		if (fgDefault == null) {
+			fgDefault = new AntTargetsCache();
+		}
+		return fgDefault;
+	}
+
+	/**
+	 * Discards the shared cache, if any
+	 */
+	static synchronized void dispose() {
+		if (fgDefault != null) {
+			ResourcesPlugin.getWorkspace().removeResourceChangeListener(fgDefault);
+			fgDefault = null;
+		}
+	}
+
+	/**
+	 * Returns the number of requests that the shared cache has answered. This method is public for testing purposes only.
+	 *
+	 * @return the number of cache hits
+	 */
+	public static synchronized int getHits() {
+		return fgDefault == null ? 0 : fgDefault.getHitCount();
+	}
+
+	private synchronized int getHitCount() {
+		return fHits;
+	}
+
+	/**
+	 * Returns the key of the targets of the given buildfile when listed with the given classpath, properties and property files
+	 */
+	static String getKey(File buildFile, URL[] urls, Map<String, String> properties, String[] propertyFiles) {
+		StringBuilder key = new StringBuilder(buildFile.getAbsolutePath());
+		key.append('\0');
+		if (urls != null) {
+			for (URL url : urls) {
+				key.append(url.toExternalForm()).append('\n');
+			}
+		}
+		key.append('\0');
+		if (properties != null) {
+			// the order of the map is not significant
+			for (Entry<String, String> property : new TreeMap<>(properties).entrySet()) {
+				key.append(property.getKey()).append('=').append(property.getValue()).append('\n');
+			}
+		}
+		key.append('\0');
+		if (propertyFiles != null) {
+			for (String propertyFile : propertyFiles) {
+				key.append(propertyFile).append('\n');
+			}
+		}
+		return key.toString();
+	}
+
+	/**
+	 * Returns the cached listing for the given key if it is still valid for the given contents of the buildfile
+	 *
+	 * @return the listing or <code>null</code>
+	 */
+	synchronized Listing get(String key, String contents) {
+		Listing listing = fListings.get(key);
+		if (listing == null) {
+			return null;
+		}
+		if (!listing.isValid(contents)) {
+			fListings.remove(key);
+			return null;
+		}
+		fHits++;
+		return listing;
+	}
+
+	/**
+	 * Caches the given targets, which were read from the given project of the given buildfile contents, unless there are problems with them
+	 *
+	 * @param project
+	 *            the project node of the buildfile, or <code>null</code> if it could not be parsed
+	 */
+	void put(String key, String contents, File buildFile, AntProjectNode project, AntTargetNode[] targets, String[] propertyFiles) {
+		Map<File, long[]> stamps = new HashMap<>();
+		addStamp(stamps, buildFile);
+		if (project != null) {
+			addStamps(stamps, project, buildFile);
+		}
+		if (propertyFiles != null) {
+			for (String propertyFile : propertyFiles) {
+				File file = new File(propertyFile);
+				if (file.isAbsolute()) {
+					addStamp(stamps, file);
+				}
+			}
+		}
+		// also reads the names and labels, which marks targets without a name as errors
+		Listing listing = new Listing(contents, targets, stamps);
+		if (hasProblem(project, targets)) {
+			return;
+		}
+		synchronized (this) {
+			fListings.put(key, listing);
+		}
+	}
+
+	private static boolean hasProblem(AntProjectNode project, AntTargetNode[] targets) {
+		if (project != null && (project.isErrorNode() || project.isWarningNode())) {
+			return true;
+		}
+		if (targets != null) {
+			for (AntTargetNode target : targets) {
+				if (target.isErrorNode() || target.isWarningNode()) {
+					return true;
+				}
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Adds the stamps of the files the given element and its children were read from, and of the files they import
+	 */
+	private void addStamps(Map<File, long[]> stamps, IAntElement element, File buildFile) {
+		File file = buildFile;
+		if (element instanceof AntElementNode) {
+			String path = ((AntElementNode) element).getFilePath();
+			if (path != null) {
+				file = new File(path);
+				addStamp(stamps, file);
+			}
+		}
+		if (element instanceof AntImportNode) {
+			String imported = ((AntImportNode) element).getFile();
+			if (imported != null && imported.indexOf('$') == -1) {
+				// also when the import failed, the file may be created later
+				File importedFile = new File(imported);
+				if (!importedFile.isAbsolute()) {
+					importedFile = new File(file.getParentFile(), imported);
+				}
+				addStamp(stamps, importedFile);
+			}
+		}
+		if (element.hasChildren()) {
+			for (IAntElement child : element.getChildNodes()) {
+				addStamps(stamps, child, buildFile);
+			}
+		}
+	}
+
+	private static void addStamp(Map<File, long[]> stamps, File file) {
+		File absolute = file.getAbsoluteFile();
+		if (!stamps.containsKey(absolute)) {
+			stamps.put(absolute, new long[] { absolute.lastModified(), absolute.length() });
+		}
+	}
+
+	private static boolean isSame(File file, long[] stamp) {
+		return file.lastModified() == stamp[0] && file.length() == stamp[1];
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see org.eclipse.core.resources.IResourceChangeListener#resourceChanged(org.eclipse.core.resources.IResourceChangeEvent)
+	 */
+	@Override
+	public void resourceChanged(IResourceChangeEvent event) {
+		IResourceDelta delta = event.getDelta();
+		if (delta == null) {
+			return;
+		}
+		final List<File> changed = new ArrayList<>();
+		try {
+			delta.accept(new IResourceDeltaVisitor() {
+				@Override
+				public boolean visit(IResourceDelta child) {
+					if (child.getResource().getType() != IResource.FILE) {
+						return true;
+					}
+					if (child.getKind() != IResourceDelta.CHANGED || (child.getFlags() & (IResourceDelta.CONTENT | IResourceDelta.REPLACED)) != 0) {
+						IPath location = child.getResource().getLocation();
+						if (location != null) {
+							changed.add(location.toFile().getAbsoluteFile());
+						}
+					}
+					return false;
+				}
+			});
+		}
+		catch (CoreException e) {
+			AntUIPlugin.log(e);
+			return;
+		}
+		if (changed.isEmpty()) {
+			return;
+		}
+		synchronized (this) {
+			for (Iterator<Listing> iter = fListings.values().iterator(); iter.hasNext();) {
+				Map<File, long[]> stamps = iter.next().fStamps;
+				for (File file : changed) {
+					if (stamps.containsKey(file)) {
+						iter.remove();
+						break;
+					}
+				}
+			}
+		}
+	}
+}
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2013 IBM Corporation and others.
+ * Copyright (c) 2000, 2018 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -16,6 +16,8 @@ import java.util.Locale;
 import org.eclipse.ant.internal.core.IAntCoreConstants;
 import org.eclipse.ant.internal.ui.editor.DecayCodeCompletionDataStructuresThread;
 import org.eclipse.ant.internal.ui.editor.text.AntEditorDocumentProvider;
+import org.eclipse.ant.internal.ui.launchConfigurations.AntBuildfileFinder;
+import org.eclipse.ant.internal.ui.launchConfigurations.AntLaunchConfigurationIndex;
 import org.eclipse.core.runtime.IStatus;
 import org.eclipse.core.runtime.Status;
 import org.eclipse.jface.dialogs.IDialogSettings;
@@ -85,6 +87,9 @@ public class AntUIPlugin extends AbstractUIPlugin {
 		try {
 			AntUIImages.disposeImageDescriptorRegistry();
 			DecayCodeCompletionDataStructuresThread.cancel();
+			AntTargetsCache.dispose();
+			AntLaunchConfigurationIndex.dispose();
+			AntBuildfileFinder.dispose();
 			ColorManager.getDefault().dispose();
 		}
 		finally {
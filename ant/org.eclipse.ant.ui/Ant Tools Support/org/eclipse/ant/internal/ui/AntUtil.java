@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2015 IBM Corporation and others.
+ * Copyright (c) 2000, 2018 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -173,24 +173,54 @@ public final class AntUtil {
 		return propertyFiles;
 	}
 
+	/**
+	 * Returns the targets of the given buildfile when it is run by the given launch configuration. The targets are cached for the properties,
+	 * property files and classpath of the configuration until the buildfile or one of the files it imports changes.
+	 * 
+	 * @param path
+	 *            the location of the buildfile
+	 * @param config
+	 *            the launch configuration
+	 * @return the targets or <code>null</code> if the buildfile does not exist or has no targets
+	 * @throws CoreException
+	 *             if the classpath or the property files of the configuration cannot be resolved
+	 */
 	public static AntTargetNode[] getTargets(String path, ILaunchConfiguration config) throws CoreException {
 		File buildfile = getBuildFile(path);
 		if (buildfile == null) {
 			return null;
 		}
 		URL[] urls = getCustomClasspath(config);
-		// no lexical, no position, no task
-		IAntModel model = getAntModel(buildfile, urls, false, false, false);
+		Map<String, String> properties = null;
 		try {
-			model.setProperties(getAllProperties(config));
+			properties = getAllProperties(config);
 		}
 		catch (CoreException ex) {
 			// do nothing
 		}
-		model.setPropertyFiles(getPropertyFiles(config));
+		String[] propertyFiles = getPropertyFiles(config);
+		IDocument doc = getDocument(buildfile);
+		if (doc == null) {
+			return null;
+		}
+		String contents = doc.get();
+		AntTargetsCache cache = AntTargetsCache.getDefault();
+		String key = AntTargetsCache.getKey(buildfile, urls, properties, propertyFiles);
+		AntTargetsCache.Listing listing = cache.get(key, contents);
+		if (listing != null) {
+			return listing.getTargets();
+		}
+		// no lexical, no position, no task
+		IAntModel model = getAntModel(buildfile, doc, urls, false, false, false);
+		if (properties != null) {
+			model.setProperties(properties);
+		}
+		model.setPropertyFiles(propertyFiles);
 		AntProjectNode project = model.getProjectNode(); // forces a reconcile
 		model.dispose();
-		return getTargets(project);
+		AntTargetNode[] targets = getTargets(project);
+		cache.put(key, contents, buildfile, project, targets, propertyFiles);
+		return targets;
 	}
 
 	private static Map<String, String> getAllProperties(ILaunchConfiguration config) throws CoreException {
@@ -291,6 +321,10 @@ public final class AntUtil {
 		if (doc == null) {
 			return null;
 		}
+		return getAntModel(buildFile, doc, urls, needsLexical, needsPosition, needsTask);
+	}
+
+	private static IAntModel getAntModel(final File buildFile, IDocument doc, URL[] urls, boolean needsLexical, boolean needsPosition, boolean needsTask) {
 		final IFile file = getFileForLocation(buildFile.getAbsolutePath(), null);
 		LocationProvider provider = new LocationProvider(null) {
 			/*
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2009 IBM Corporation and others.
+ * Copyright (c) 2000, 2018 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -116,4 +116,16 @@ public interface IAntUIConstants {
 	 * Boolean attribute indicating if an input handler should be supplied for the build Default value is <code>true</code>.
 	 */
 	public static final String SET_INPUTHANDLER = PLUGIN_ID + "SET_INPUTHANDLER"; //$NON-NLS-1$	
+
+	/**
+	 * Boolean attribute indicating if an Ant builder skips incremental and auto builds whose resource delta touches none of the files that the last
+	 * build of the builder read or wrote. Default value is <code>false</code>.
+	 */
+	public static final String SKIP_UNAFFECTED_BUILDS = PLUGIN_ID + ".SKIP_UNAFFECTED_BUILDS"; //$NON-NLS-1$
+
+	/**
+	 * String attribute listing the comma separated names of the targets that the user has chosen to run in separate VMs at the same time as the
+	 * other targets of the build. Default value is <code>null</code>, which runs the targets one after the other.
+	 */
+	public static final String CONCURRENT_TARGETS = PLUGIN_ID + ".CONCURRENT_TARGETS"; //$NON-NLS-1$
 }
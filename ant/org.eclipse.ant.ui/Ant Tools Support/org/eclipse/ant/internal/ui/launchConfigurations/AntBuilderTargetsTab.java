@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2005, 2013 IBM Corporation and others.
+ * Copyright (c) 2005, 2018 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -56,6 +56,8 @@ public class AntBuilderTargetsTab extends AbstractLaunchConfigurationTab {
 	private Text fAutoBuildTargetText;
 	private Text fDuringCleanTargetText;
 
+	private Button fSkipUnaffectedBuilds;
+
 	private Map<String, String> fAttributeToTargets = new HashMap<>();
 
 	private static final String NOT_ENABLED = AntLaunchConfigurationMessages.AntBuilderTargetsTab_0;
@@ -123,6 +125,17 @@ public class AntBuilderTargetsTab extends AbstractLaunchConfigurationTab {
 		gd = new GridData(GridData.HORIZONTAL_ALIGN_END);
 		fDuringCleanTarget.setLayoutData(gd);
 		fDuringCleanTarget.addSelectionListener(fSelectionListener);
+
+		fSkipUnaffectedBuilds = createCheckButton(parent, AntLaunchConfigurationMessages.AntBuilderTargetsTab_11);
+		gd = new GridData(GridData.HORIZONTAL_ALIGN_FILL);
+		gd.horizontalSpan = 2;
+		fSkipUnaffectedBuilds.setLayoutData(gd);
+		fSkipUnaffectedBuilds.addSelectionListener(new SelectionAdapter() {
+			@Override
+			public void widgetSelected(SelectionEvent e) {
+				updateLaunchConfigurationDialog();
+			}
+		});
 	}
 
 	private Label createLabel(String text, Composite parent) {
@@ -249,6 +262,15 @@ public class AntBuilderTargetsTab extends AbstractLaunchConfigurationTab {
 
 		initializeBuildKinds(configuration);
 		intializeTargets(configuration);
+
+		boolean skipUnaffectedBuilds = false;
+		try {
+			skipUnaffectedBuilds = configuration.getAttribute(IAntUIConstants.SKIP_UNAFFECTED_BUILDS, false);
+		}
+		catch (CoreException ce) {
+			AntUIPlugin.log("Error reading configuration", ce); //$NON-NLS-1$
+		}
+		fSkipUnaffectedBuilds.setSelection(skipUnaffectedBuilds);
 	}
 
 	private void intializeTargets(ILaunchConfiguration configuration) {
@@ -352,6 +374,11 @@ public class AntBuilderTargetsTab extends AbstractLaunchConfigurationTab {
 		targets = fAttributeToTargets.get(IAntLaunchConstants.ATTR_ANT_CLEAN_TARGETS);
 		configuration.setAttribute(IAntLaunchConstants.ATTR_ANT_CLEAN_TARGETS, targets);
 		configuration.setAttribute(IAntLaunchConstants.ATTR_TARGETS_UPDATED, true);
+		if (fSkipUnaffectedBuilds.getSelection()) {
+			configuration.setAttribute(IAntUIConstants.SKIP_UNAFFECTED_BUILDS, true);
+		} else {
+			configuration.removeAttribute(IAntUIConstants.SKIP_UNAFFECTED_BUILDS);
+		}
 	}
 
 	/*
@@ -0,0 +1,186 @@
+/*******************************************************************************
+ * Copyright (c) 2018 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.ant.internal.ui.launchConfigurations;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.eclipse.ant.internal.ui.AntUIPlugin;
+import org.eclipse.ant.internal.ui.AntUtil;
+import org.eclipse.core.resources.IContainer;
+import org.eclipse.core.resources.IFile;
+import org.eclipse.core.resources.IResource;
+import org.eclipse.core.resources.IResourceChangeEvent;
+import org.eclipse.core.resources.IResourceChangeListener;
+import org.eclipse.core.resources.IResourceDelta;
+import org.eclipse.core.resources.IResourceDeltaVisitor;
+import org.eclipse.core.resources.ResourcesPlugin;
+import org.eclipse.core.runtime.CoreException;
+
+/**
+ * Finds the buildfile that the launch shortcut runs for a container: the first file with one of the names of the Ant &gt; Names preference in the
+ * container or in the closest of its parents that has one.
+ * <p>
+ * The buildfile found for a container is remembered for the container and for each of the parents that were searched on the way, so that the
+ * containers of a selection or of later selections that share parents are not searched again. The buildfiles are forgotten when a file with one of
+ * the names is added or removed, a container is removed or a project is opened or closed, or the names change.
+ * </p>
+ */
+public final class AntBuildfileFinder implements IResourceChangeListener {
+
+	private static AntBuildfileFinder fgDefault = null;
+
+	/**
+	 * The buildfiles by container, <code>null</code> for the containers that have none
+	 */
+	private final Map<IContainer, IFile> fBuildFiles = new HashMap<>();
+
+	/**
+	 * The names that the buildfiles were found with
+	 */
+	private String[] fNames = null;
+
+	private AntBuildfileFinder() {
+		ResourcesPlugin.getWorkspace().addResourceChangeListener(this, IResourceChangeEvent.POST_CHANGE);
+	}
+
+	/**
+	 * Returns the shared finder
+	 *
+	 * @return the shared finder
+	 */
+	public static synchronized AntBuildfileFinder getDefault() {
+		if (fgDefault == null) {
+			fgDefault = new AntBuildfileFinder();
+		}
+		return fgDefault;
+	}
+
+	/**
+	 * Discards the shared finder, if any
+	 */
+	public static synchronized void dispose() {
+		if (fgDefault != null) {
+			ResourcesPlugin.getWorkspace().removeResourceChangeListener(fgDefault);
+			fgDefault = null;
+		}
+	}
+
+	/**
+	 * Returns the buildfile to run for the given container.
+	 *
+	 * @param container
+	 *            the container to start the search from
+	 * @return the buildfile or <code>null</code> if neither the container nor any of its parents has a file with one of the known buildfile names
+	 */
+	public synchronized IFile findBuildFile(IContainer container) {
+		String[] names = AntUtil.getKnownBuildfileNames();
+		if (names == null) {
+			return null;
+		}
+		if (!Arrays.equals(names, fNames)) {
+			fBuildFiles.clear();
+			fNames = names;
+		}
+		List<IContainer> searched = new ArrayList<>();
+		IContainer parent = container;
+		IFile file = null;
+		while (parent != null) {
+			if (fBuildFiles.containsKey(parent)) {
+				file = fBuildFiles.get(parent);
+				break;
+			}
+			searched.add(parent);
+			file = findMember(parent, names);
+			if (file != null) {
+				break;
+			}
+			parent = parent.getParent();
+		}
+		for (IContainer searchedContainer : searched) {
+			fBuildFiles.put(searchedContainer, file);
+		}
+		return file;
+	}
+
+	private static IFile findMember(IContainer container, String[] names) {
+		for (String name : names) {
+			IResource member = container.findMember(name);
+			if (member != null && member.getType() == IResource.FILE) {
+				return (IFile) member;
+			}
+		}
+		return null;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see org.eclipse.core.resources.IResourceChangeListener#resourceChanged(org.eclipse.core.resources.IResourceChangeEvent)
+	 */
+	@Override
+	public void resourceChanged(IResourceChangeEvent event) {
+		IResourceDelta delta = event.getDelta();
+		final String[] names;
+		synchronized (this) {
+			names = fNames;
+		}
+		if (delta == null || names == null) {
+			return;
+		}
+		final boolean[] changed = new boolean[] { false };
+		try {
+			delta.accept(new IResourceDeltaVisitor() {
+				@Override
+				public boolean visit(IResourceDelta child) {
+					if (changed[0]) {
+						return false;
+					}
+					IResource resource = child.getResource();
+					int kind = child.getKind();
+					if (resource.getType() == IResource.FILE) {
+						if (kind == IResourceDelta.ADDED || kind == IResourceDelta.REMOVED) {
+							changed[0] = isBuildfileName(resource.getName(), names);
+						}
+						return false;
+					}
+					if (kind == IResourceDelta.REMOVED || (child.getFlags() & IResourceDelta.OPEN) != 0) {
+						// the buildfiles of the containers below are no longer valid
+						changed[0] = true;
+						return false;
+					}
+					return true;
+				}
+			});
+		}
+		catch (CoreException e) {
+			AntUIPlugin.log(e);
+			changed[0] = true;
+		}
+		if (changed[0]) {
+			synchronized (this) {
+				fBuildFiles.clear();
+			}
+		}
+	}
+
+	private static boolean isBuildfileName(String name, String[] names) {
+		for (String buildfileName : names) {
+			if (buildfileName.equalsIgnoreCase(name)) {
+				return true;
+			}
+		}
+		return false;
+	}
+}
@@ -0,0 +1,356 @@
+/*******************************************************************************
+ * Copyright (c) 2018 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.ant.internal.ui.launchConfigurations;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.eclipse.ant.internal.ui.AntUIPlugin;
+import org.eclipse.ant.launching.IAntLaunchConstants;
+import org.eclipse.core.resources.IResourceChangeEvent;
+import org.eclipse.core.resources.IResourceChangeListener;
+import org.eclipse.core.resources.IResourceDelta;
+import org.eclipse.core.resources.ResourcesPlugin;
+import org.eclipse.core.runtime.CoreException;
+import org.eclipse.core.runtime.IPath;
+import org.eclipse.core.variables.IValueVariable;
+import org.eclipse.core.variables.IValueVariableListener;
+import org.eclipse.core.variables.VariablesPlugin;
+import org.eclipse.debug.core.DebugPlugin;
+import org.eclipse.debug.core.ILaunchConfiguration;
+import org.eclipse.debug.core.ILaunchConfigurationListener;
+import org.eclipse.debug.core.ILaunchConfigurationType;
+import org.eclipse.debug.core.ILaunchManager;
+import org.eclipse.jdt.launching.IJavaLaunchConfigurationConstants;
+import org.eclipse.ui.externaltools.internal.launchConfigurations.ExternalToolsUtil;
+
+/**
+ * Indexes the Ant launch configurations by the location of their buildfile and by the name of their project, so that the configurations of a
+ * buildfile or project are found without resolving the location of every configuration.
+ * <p>
+ * The index is built when it is first used. Configurations that are added, changed or removed are indexed again when the index is next used. The
+ * whole index is built again when projects are added, removed, opened, closed or moved, or string variables change, as these change the locations
+ * that the locations of the configurations resolve to. Configurations whose location cannot be resolved are resolved again on each use.
+ * </p>
+ */
+public final class AntLaunchConfigurationIndex implements ILaunchConfigurationListener, IResourceChangeListener, IValueVariableListener {
+
+	private static AntLaunchConfigurationIndex fgDefault = null;
+
+	/**
+	 * The keys under which a configuration is indexed
+	 */
+	private static class Keys {
+		final IPath fLocation;
+		final String fProjectName;
+
+		Keys(IPath location, String projectName) {
+			fLocation = location;
+			fProjectName = projectName;
+		}
+	}
+
+	/**
+	 * The configurations by location and by project name, <code>null</code> until the index is built
+	 */
+	private Map<IPath, List<ILaunchConfiguration>> fByLocation = null;
+	private Map<String, List<ILaunchConfiguration>> fByProject = null;
+	private final Map<ILaunchConfiguration, Keys> fKeys = new HashMap<>();
+	private final Set<ILaunchConfiguration> fUnresolved = new HashSet<>();
+
+	/**
+	 * The configurations that have changed since the index was last used, guarded by itself. Listeners only record changes so that they never wait
+	 * for the index to be built.
+	 */
+	private final Set<ILaunchConfiguration> fStale = new HashSet<>();
+	private boolean fInvalid = false;
+
+	private AntLaunchConfigurationIndex() {
+		DebugPlugin.getDefault().getLaunchManager().addLaunchConfigurationListener(this);
+		ResourcesPlugin.getWorkspace().addResourceChangeListener(this, IResourceChangeEvent.POST_CHANGE);
+		VariablesPlugin.getDefault().getStringVariableManager().addValueVariableListener(this);
+	}
+
+	/**
+	 * Returns the shared index
+	 *
+	 * @return the shared index
+	 */
+	public static synchronized AntLaunchConfigurationIndex getDefault() {
+		if (fgDefault == null) {
+			fgDefault = new AntLaunchConfigurationIndex();
+		}
+		return fgDefault;
+	}
+
+	/**
+	 * Discards the shared index, if any
+	 */
+	public static synchronized void dispose() {
+		if (fgDefault != null) {
+			DebugPlugin.getDefault().getLaunchManager().removeLaunchConfigurationListener(fgDefault);
+			ResourcesPlugin.getWorkspace().removeResourceChangeListener(fgDefault);
+			VariablesPlugin.getDefault().getStringVariableManager().removeValueVariableListener(fgDefault);
+			fgDefault = null;
+		}
+	}
+
+	/**
+	 * Returns the Ant launch configurations of the buildfile at the given location.
+	 *
+	 * @param location
+	 *            the location of the buildfile
+	 * @return the existing launch configurations, empty if none
+	 */
+	public synchronized List<ILaunchConfiguration> getConfigurations(IPath location) {
+		update();
+		List<ILaunchConfiguration> configurations = new ArrayList<>();
+		addExisting(fByLocation.get(location), configurations);
+		return configurations;
+	}
+
+	/**
+	 * Returns the Ant launch configurations of the project of the given name.
+	 *
+	 * @param projectName
+	 *            the name of the project
+	 * @return the existing launch configurations, empty if none
+	 */
+	public synchronized ILaunchConfiguration[] getConfigurationsOfProject(String projectName) {
+		update();
+		List<ILaunchConfiguration> configurations = new ArrayList<>();
+		addExisting(fByProject.get(projectName), configurations);
+		return configurations.toArray(new ILaunchConfiguration[configurations.size()]);
+	}
+
+	private static void addExisting(List<ILaunchConfiguration> indexed, List<ILaunchConfiguration> configurations) {
+		if (indexed != null) {
+			for (ILaunchConfiguration configuration : indexed) {
+				if (configuration.exists()) {
+					configurations.add(configuration);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Brings the index up to date with the configurations that have changed since it was last used
+	 */
+	private void update() {
+		Set<ILaunchConfiguration> stale;
+		boolean invalid;
+		synchronized (fStale) {
+			stale = new HashSet<>(fStale);
+			fStale.clear();
+			invalid = fInvalid;
+			fInvalid = false;
+		}
+		if (fByLocation == null || invalid) {
+			build();
+			return;
+		}
+		stale.addAll(fUnresolved);
+		for (ILaunchConfiguration configuration : stale) {
+			remove(configuration);
+			if (configuration.exists() && isAntConfiguration(configuration)) {
+				add(configuration);
+			}
+		}
+	}
+
+	private void build() {
+		fByLocation = new HashMap<>();
+		fByProject = new HashMap<>();
+		fKeys.clear();
+		fUnresolved.clear();
+		ILaunchManager manager = DebugPlugin.getDefault().getLaunchManager();
+		ILaunchConfigurationType type = manager.getLaunchConfigurationType(IAntLaunchConstants.ID_ANT_LAUNCH_CONFIGURATION_TYPE);
+		if (type == null) {
+			return;
+		}
+		try {
+			ILaunchConfiguration[] configurations = manager.getLaunchConfigurations(type);
+			for (ILaunchConfiguration configuration : configurations) {
+				if (configuration.exists()) {
+					add(configuration);
+				}
+			}
+		}
+		catch (CoreException e) {
+			AntUIPlugin.log(e);
+		}
+	}
+
+	private void add(ILaunchConfiguration configuration) {
+		IPath location = null;
+		try {
+			location = ExternalToolsUtil.getLocation(configuration);
+		}
+		catch (CoreException e) {
+			// the buildfile may not exist yet
+		}
+		if (location == null) {
+			fUnresolved.add(configuration);
+		} else {
+			addTo(fByLocation, location, configuration);
+		}
+		String projectName = null;
+		try {
+			projectName = configuration.getAttribute(IJavaLaunchConfigurationConstants.ATTR_PROJECT_NAME, (String) null);
+		}
+		catch (CoreException e) {
+			// not indexed by project
+		}
+		if (projectName != null) {
+			addTo(fByProject, projectName, configuration);
+		}
+		fKeys.put(configuration, new Keys(location, projectName));
+	}
+
+	private void remove(ILaunchConfiguration configuration) {
+		fUnresolved.remove(configuration);
+		Keys keys = fKeys.remove(configuration);
+		if (keys != null) {
+			removeFrom(fByLocation, keys.fLocation, configuration);
+			removeFrom(fByProject, keys.fProjectName, configuration);
+		}
+	}
+
+	private static <K> void addTo(Map<K, List<ILaunchConfiguration>> index, K key, ILaunchConfiguration configuration) {
+		List<ILaunchConfiguration> configurations = index.get(key);
+		if (configurations == null) {
+			configurations = new ArrayList<>(1);
+			index.put(key, configurations);
+		}
+		configurations.add(configuration);
+	}
+
+	private static <K> void removeFrom(Map<K, List<ILaunchConfiguration>> index, K key, ILaunchConfiguration configuration) {
+		if (key == null) {
+			return;
+		}
+		List<ILaunchConfiguration> configurations = index.get(key);
+		if (configurations != null) {
+			configurations.remove(configuration);
+			if (configurations.isEmpty()) {
+				index.remove(key);
+			}
+		}
+	}
+
+	private static boolean isAntConfiguration(ILaunchConfiguration configuration) {
+		try {
+			return IAntLaunchConstants.ID_ANT_LAUNCH_CONFIGURATION_TYPE.equals(configuration.getType().getIdentifier());
+		}
+		catch (CoreException e) {
+			return false;
+		}
+	}
+
+	private void configurationChanged(ILaunchConfiguration configuration) {
+		if (configuration.isWorkingCopy()) {
+			return;
+		}
+		synchronized (fStale) {
+			fStale.add(configuration);
+		}
+	}
+
+	private void invalidate() {
+		synchronized (fStale) {
+			fInvalid = true;
+			fStale.clear();
+		}
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see org.eclipse.debug.core.ILaunchConfigurationListener#launchConfigurationAdded(org.eclipse.debug.core.ILaunchConfiguration)
+	 */
+	@Override
+	public void launchConfigurationAdded(ILaunchConfiguration configuration) {
+		configurationChanged(configuration);
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see org.eclipse.debug.core.ILaunchConfigurationListener#launchConfigurationChanged(org.eclipse.debug.core.ILaunchConfiguration)
+	 */
+	@Override
+	public void launchConfigurationChanged(ILaunchConfiguration configuration) {
+		configurationChanged(configuration);
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see org.eclipse.debug.core.ILaunchConfigurationListener#launchConfigurationRemoved(org.eclipse.debug.core.ILaunchConfiguration)
+	 */
+	@Override
+	public void launchConfigurationRemoved(ILaunchConfiguration configuration) {
+		configurationChanged(configuration);
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see org.eclipse.core.resources.IResourceChangeListener#resourceChanged(org.eclipse.core.resources.IResourceChangeEvent)
+	 */
+	@Override
+	public void resourceChanged(IResourceChangeEvent event) {
+		IResourceDelta delta = event.getDelta();
+		if (delta == null) {
+			return;
+		}
+		for (IResourceDelta project : delta.getAffectedChildren()) {
+			if (project.getKind() != IResourceDelta.CHANGED || (project.getFlags() & (IResourceDelta.OPEN | IResourceDelta.DESCRIPTION)) != 0) {
+				invalidate();
+				return;
+			}
+		}
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see org.eclipse.core.variables.IValueVariableListener#variablesAdded(org.eclipse.core.variables.IValueVariable[])
+	 */
+	@Override
+	public void variablesAdded(IValueVariable[] variables) {
+		invalidate();
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see org.eclipse.core.variables.IValueVariableListener#variablesRemoved(org.eclipse.core.variables.IValueVariable[])
+	 */
+	@Override
+	public void variablesRemoved(IValueVariable[] variables) {
+		invalidate();
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see org.eclipse.core.variables.IValueVariableListener#variablesChanged(org.eclipse.core.variables.IValueVariable[])
+	 */
+	@Override
+	public void variablesChanged(IValueVariable[] variables) {
+		invalidate();
+	}
+}
@@ -1,5 +1,5 @@
 /**********************************************************************
- * Copyright (c) 2000, 2009 IBM Corporation and others. All rights reserved. This
+ * Copyright (c) 2000, 2018 IBM Corporation and others. All rights reserved. This
  * program and the accompanying materials are made available under the terms of
  * the Eclipse Public License v1.0 which accompanies this distribution, and is
  * available at http://www.eclipse.org/legal/epl-v10.html
@@ -48,6 +48,7 @@ public class AntLaunchConfigurationMessages extends NLS {
 	public static String AntBuilderTargetsTab_7;
 	public static String AntBuilderTargetsTab_8;
 	public static String AntBuilderTargetsTab_10;
+	public static String AntBuilderTargetsTab_11;
 
 	public static String AntMainTab__Select_a_build_file__1;
 	public static String AntMainTab_3;
@@ -72,6 +73,11 @@ public class AntLaunchConfigurationMessages extends NLS {
 	public static String AntTargetsTab_17;
 	public static String AntTargetsTab_0;
 	public static String AntTargetsTab_1;
+	public static String AntTargetsTab_2;
+	public static String AntTargetsTab_3;
+	public static String AntTargetsTab_4;
+	public static String AntTargetsTab_5;
+	public static String AntTargetsTab_6;
 	public static String AntClasspathTab_0;
 
 	public static String EditAntHomeEntryAction_1;
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2015 IBM Corporation and others.
+ * Copyright (c) 2000, 2018 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -12,7 +12,6 @@
 package org.eclipse.ant.internal.ui.launchConfigurations;
 
 import java.util.ArrayList;
-import java.util.Collections;
 import java.util.List;
 
 import org.eclipse.ant.internal.core.IAntCoreConstants;
@@ -56,7 +55,6 @@ import org.eclipse.ui.IEditorPart;
 import org.eclipse.ui.IWorkbenchPage;
 import org.eclipse.ui.dialogs.ElementListSelectionDialog;
 import org.eclipse.ui.editors.text.ILocationProvider;
-import org.eclipse.ui.externaltools.internal.launchConfigurations.ExternalToolsUtil;
 
 import com.ibm.icu.text.MessageFormat;
 
@@ -168,28 +166,11 @@ public class AntLaunchShortcut implements ILaunchShortcut2 {
 
 	/**
 	 * Walks the file hierarchy looking for a build file. Returns the first build file found that matches the search criteria.
+	 * 
+	 * @see AntBuildfileFinder
 	 */
 	private IFile findBuildFile(IContainer parent) {
-		String[] names = AntUtil.getKnownBuildfileNames();
-		if (names == null) {
-			return null;
-		}
-		IContainer lparent = parent;
-		IResource file = null;
-		while (file == null || file.getType() != IResource.FILE) {
-			for (int i = 0; i < names.length; i++) {
-				String string = names[i];
-				file = lparent.findMember(string);
-				if (file != null && file.getType() == IResource.FILE) {
-					break;
-				}
-			}
-			lparent = lparent.getParent();
-			if (lparent == null) {
-				return null;
-			}
-		}
-		return (IFile) file;
+		return AntBuildfileFinder.getDefault().findBuildFile(parent);
 	}
 
 	/**
@@ -202,33 +183,7 @@ public class AntLaunchShortcut implements ILaunchShortcut2 {
 	 * @since 3.4
 	 */
 	protected List<ILaunchConfiguration> collectConfigurations(IPath filepath) {
-		ILaunchManager manager = DebugPlugin.getDefault().getLaunchManager();
-		ILaunchConfigurationType type = manager.getLaunchConfigurationType(IAntLaunchConstants.ID_ANT_LAUNCH_CONFIGURATION_TYPE);
-		if (type != null) {
-			try {
-				ILaunchConfiguration[] configs = manager.getLaunchConfigurations(type);
-				ArrayList<ILaunchConfiguration> list = new ArrayList<>();
-				IPath location = null;
-				for (int i = 0; i < configs.length; i++) {
-					if (configs[i].exists()) {
-						try {
-							location = ExternalToolsUtil.getLocation(configs[i]);
-							if (location != null && location.equals(filepath)) {
-								list.add(configs[i]);
-							}
-						}
-						catch (CoreException ce) {
-							// do nothing
-						}
-					}
-				}
-				return list;
-			}
-			catch (CoreException e) {
-				// do nothing
-			}
-		}
-		return Collections.EMPTY_LIST;
+		return AntLaunchConfigurationIndex.getDefault().getConfigurations(filepath);
 	}
 
 	/**
@@ -422,33 +377,13 @@ public class AntLaunchShortcut implements ILaunchShortcut2 {
 	 * @return list of launch configurations
 	 */
 	public static List<ILaunchConfiguration> findExistingLaunchConfigurations(IFile file) {
-		List<ILaunchConfiguration> validConfigs = new ArrayList<>();
 		if (file != null) {
 			IPath filePath = file.getLocation();
 			if (filePath != null) {
-				ILaunchManager manager = DebugPlugin.getDefault().getLaunchManager();
-				ILaunchConfigurationType type = manager.getLaunchConfigurationType(IAntLaunchConstants.ID_ANT_LAUNCH_CONFIGURATION_TYPE);
-				if (type != null) {
-					try {
-						ILaunchConfiguration[] configs = manager.getLaunchConfigurations(type);
-						for (int i = 0; i < configs.length; i++) {
-							try {
-								if (filePath.equals(ExternalToolsUtil.getLocation(configs[i]))) {
-									validConfigs.add(configs[i]);
-								}
-							}
-							catch (CoreException ce) {
-								// do nothing
-							}
-						}
-					}
-					catch (CoreException e) {
-						reportError(AntLaunchConfigurationMessages.AntLaunchShortcut_3, e);
-					}
-				}
+				return AntLaunchConfigurationIndex.getDefault().getConfigurations(filePath);
 			}
 		}
-		return validConfigs;
+		return new ArrayList<>();
 	}
 
 	/**
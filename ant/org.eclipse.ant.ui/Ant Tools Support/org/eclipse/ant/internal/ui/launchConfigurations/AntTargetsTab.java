@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2013 IBM Corporation and others.
+ * Copyright (c) 2000, 2018 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -14,9 +14,15 @@ package org.eclipse.ant.internal.ui.launchConfigurations;
 import java.io.File;
 import java.lang.reflect.InvocationTargetException;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Iterator;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Set;
 
+import org.eclipse.ant.internal.core.IAntCoreConstants;
+import org.eclipse.ant.internal.launching.AntLaunching;
+import org.eclipse.ant.internal.launching.IAntLaunchingPreferenceConstants;
 import org.eclipse.ant.internal.ui.AntUIImages;
 import org.eclipse.ant.internal.ui.AntUIPlugin;
 import org.eclipse.ant.internal.ui.AntUtil;
@@ -33,6 +39,7 @@ import org.eclipse.core.resources.ResourcesPlugin;
 import org.eclipse.core.runtime.CoreException;
 import org.eclipse.core.runtime.IProgressMonitor;
 import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.Platform;
 import org.eclipse.core.runtime.jobs.ISchedulingRule;
 import org.eclipse.core.variables.IStringVariableManager;
 import org.eclipse.core.variables.VariablesPlugin;
@@ -43,6 +50,7 @@ import org.eclipse.jface.dialogs.Dialog;
 import org.eclipse.jface.dialogs.IDialogConstants;
 import org.eclipse.jface.operation.IRunnableContext;
 import org.eclipse.jface.operation.IRunnableWithProgress;
+import org.eclipse.jface.viewers.ArrayContentProvider;
 import org.eclipse.jface.viewers.CheckStateChangedEvent;
 import org.eclipse.jface.viewers.CheckboxTableViewer;
 import org.eclipse.jface.viewers.ColumnWeightData;
@@ -72,6 +80,7 @@ import org.eclipse.swt.widgets.Table;
 import org.eclipse.swt.widgets.TableColumn;
 import org.eclipse.swt.widgets.Text;
 import org.eclipse.ui.PlatformUI;
+import org.eclipse.ui.dialogs.ListSelectionDialog;
 
 import com.ibm.icu.text.MessageFormat;
 
@@ -84,11 +93,15 @@ public class AntTargetsTab extends AbstractLaunchConfigurationTab {
 	private AntTargetNode fDefaultTarget = null;
 	private AntTargetNode[] fAllTargets = null;
 	private List<AntTargetNode> fOrderedTargets = null;
+	private Set<String> fConcurrentTargets = new LinkedHashSet<>();
 
 	private CheckboxTableViewer fTableViewer = null;
 	private Label fSelectionCountLabel = null;
 	private Text fTargetOrderText = null;
 	private Button fOrderButton = null;
+	private Text fConcurrentTargetsText = null;
+	private Button fConcurrentButton = null;
+	private Label fConcurrentMessageLabel = null;
 	private Button fFilterInternalTargets;
 	private InternalTargetFilter fInternalTargetFilter = null;
 	private Button fSortButton;
@@ -184,6 +197,7 @@ public class AntTargetsTab extends AbstractLaunchConfigurationTab {
 
 		createVerticalSpacer(comp, 1);
 		createTargetOrder(comp);
+		createConcurrentTargets(comp);
 		Dialog.applyDialogFont(parent);
 	}
 
@@ -242,6 +256,53 @@ public class AntTargetsTab extends AbstractLaunchConfigurationTab {
 		});
 	}
 
+	/**
+	 * Creates the widgets that display the targets that run in separate VMs at the same time
+	 * 
+	 * @param parent
+	 *            the parent composite
+	 */
+	private void createConcurrentTargets(Composite parent) {
+		Font font = parent.getFont();
+
+		Label label = new Label(parent, SWT.NONE);
+		label.setText(AntLaunchConfigurationMessages.AntTargetsTab_2);
+		label.setFont(font);
+
+		Composite concurrentComposite = new Composite(parent, SWT.NONE);
+		GridData gd = new GridData(GridData.FILL_HORIZONTAL);
+		concurrentComposite.setLayoutData(gd);
+		GridLayout layout = new GridLayout(2, false);
+		layout.marginHeight = 0;
+		layout.marginWidth = 0;
+		concurrentComposite.setLayout(layout);
+		concurrentComposite.setFont(font);
+
+		fConcurrentTargetsText = new Text(concurrentComposite, SWT.MULTI | SWT.WRAP | SWT.BORDER | SWT.V_SCROLL | SWT.READ_ONLY);
+		fConcurrentTargetsText.setFont(font);
+		gd = new GridData(GridData.FILL_HORIZONTAL);
+		gd.heightHint = 40;
+		gd.widthHint = IDialogConstants.ENTRY_FIELD_WIDTH;
+		fConcurrentTargetsText.setLayoutData(gd);
+
+		fConcurrentButton = createPushButton(concurrentComposite, AntLaunchConfigurationMessages.AntTargetsTab_3, null);
+		gd = (GridData) fConcurrentButton.getLayoutData();
+		gd.verticalAlignment = GridData.BEGINNING;
+		fConcurrentButton.setFont(font);
+		fConcurrentButton.addSelectionListener(new SelectionAdapter() {
+			@Override
+			public void widgetSelected(SelectionEvent e) {
+				handleConcurrentPressed();
+			}
+		});
+
+		fConcurrentMessageLabel = new Label(parent, SWT.WRAP);
+		fConcurrentMessageLabel.setFont(font);
+		gd = new GridData(GridData.FILL_HORIZONTAL);
+		gd.widthHint = IDialogConstants.ENTRY_FIELD_WIDTH;
+		fConcurrentMessageLabel.setLayoutData(gd);
+	}
+
 	/**
 	 * Creates the toggle to filter internal targets from the table
 	 * 
@@ -339,6 +400,30 @@ public class AntTargetsTab extends AbstractLaunchConfigurationTab {
 		}
 	}
 
+	/**
+	 * The concurrent targets button has been pressed. Prompt the user to choose the targets that may run at the same time as the other targets.
+	 */
+	private void handleConcurrentPressed() {
+		ListSelectionDialog dialog = new ListSelectionDialog(getShell(), fAllTargets, new ArrayContentProvider(), new TargetTableLabelProvider(), AntLaunchConfigurationMessages.AntTargetsTab_4);
+		dialog.setTitle(AntLaunchConfigurationMessages.AntTargetsTab_5);
+		List<AntTargetNode> selected = new ArrayList<>();
+		for (int i = 0; i < fAllTargets.length; i++) {
+			if (fConcurrentTargets.contains(fAllTargets[i].getTargetName())) {
+				selected.add(fAllTargets[i]);
+			}
+		}
+		dialog.setInitialElementSelections(selected);
+		if (dialog.open() == Window.OK) {
+			fConcurrentTargets.clear();
+			Object[] targets = dialog.getResult();
+			for (int i = 0; i < targets.length; i++) {
+				fConcurrentTargets.add(((AntTargetNode) targets[i]).getTargetName());
+			}
+			updateSelectionCount();
+			updateLaunchConfigurationDialog();
+		}
+	}
+
 	/**
 	 * Creates the table which displays the available targets
 	 * 
@@ -509,6 +594,21 @@ public class AntTargetsTab extends AbstractLaunchConfigurationTab {
 			buffer.setLength(buffer.length() - 2);
 		}
 		fTargetOrderText.setText(buffer.toString());
+
+		// the targets are only run at the same time if a build may use several separate VMs
+		boolean workers = Platform.getPreferencesService().getInt(AntLaunching.getUniqueIdentifier(), IAntLaunchingPreferenceConstants.ANT_WORKER_VMS, 1, null) > 1;
+		fConcurrentButton.setEnabled(workers && all > 1);
+		fConcurrentMessageLabel.setText(workers ? IAntCoreConstants.EMPTY_STRING : AntLaunchConfigurationMessages.AntTargetsTab_6);
+		buffer.setLength(0);
+		for (String target : fConcurrentTargets) {
+			buffer.append(target);
+			buffer.append(", "); //$NON-NLS-1$
+		}
+		if (buffer.length() > 2) {
+			// remove trailing comma
+			buffer.setLength(buffer.length() - 2);
+		}
+		fConcurrentTargetsText.setText(buffer.toString());
 	}
 
 	/**
@@ -663,8 +763,10 @@ public class AntTargetsTab extends AbstractLaunchConfigurationTab {
 		setSort(sort);
 		String configTargets = null;
 		String newLocation = null;
+		fConcurrentTargets = new LinkedHashSet<>();
 
 		try {
+			fConcurrentTargets.addAll(Arrays.asList(AntUtil.parseRunTargets(configuration.getAttribute(IAntUIConstants.CONCURRENT_TARGETS, (String) null))));
 			configTargets = configuration.getAttribute(IAntLaunchConstants.ATTR_ANT_TARGETS, (String) null);
 			newLocation = configuration.getAttribute(IExternalToolConstants.ATTR_LOCATION, (String) null);
 		}
@@ -745,6 +847,16 @@ public class AntTargetsTab extends AbstractLaunchConfigurationTab {
 		} else {
 			configuration.setAttribute(IAntLaunchConstants.ATTR_SORT_TARGETS, (String) null);
 		}
+		if (fConcurrentTargets.isEmpty()) {
+			configuration.removeAttribute(IAntUIConstants.CONCURRENT_TARGETS);
+		} else {
+			StringBuffer concurrent = new StringBuffer();
+			for (String target : fConcurrentTargets) {
+				concurrent.append(target);
+				concurrent.append(',');
+			}
+			configuration.setAttribute(IAntUIConstants.CONCURRENT_TARGETS, concurrent.toString());
+		}
 
 		if (fOrderedTargets.size() == 1) {
 			AntTargetNode item = fOrderedTargets.get(0);
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2015 IBM Corporation and others.
+ * Copyright (c) 2000, 2018 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -19,14 +19,12 @@ import java.net.URLClassLoader;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
-import java.util.Enumeration;
 import java.util.HashMap;
 import java.util.Hashtable;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
-import java.util.Properties;
 import java.util.Set;
 import java.util.Stack;
 import java.util.regex.Pattern;
@@ -51,6 +49,7 @@ import org.eclipse.ant.core.Property;
 import org.eclipse.ant.core.Type;
 import org.eclipse.ant.internal.core.AntClassLoader;
 import org.eclipse.ant.internal.core.AntCoreUtil;
+import org.eclipse.ant.internal.core.AntExitInterceptor;
 import org.eclipse.ant.internal.core.AntSecurityManager;
 import org.eclipse.ant.internal.core.IAntCoreConstants;
 import org.eclipse.ant.internal.ui.AntUIPlugin;
@@ -171,6 +170,11 @@ public class AntModel implements IAntModel {
 	private boolean fShouldReconcile = true;
 	private HashMap<String, String> fNamespacePrefixMappings;
 
+	/**
+	 * Changes each time the model is reconciled
+	 */
+	private volatile long fModificationStamp = 0;
+
 	public AntModel(IDocument document, IProblemRequestor problemRequestor, LocationProvider locationProvider) {
 		init(document, problemRequestor, locationProvider);
 
@@ -313,6 +317,7 @@ public class AntModel implements IAntModel {
 				parseDocument(fDocument);
 				reconcileTaskAndTypes();
 			}
+			fModificationStamp++;
 			AntModelCore.getDefault().notifyAntModelListeners(new AntModelChangeEvent(this));
 		}
 	}
@@ -372,10 +377,15 @@ public class AntModel implements IAntModel {
 		finally {
 			if (parsed) {
 				SecurityManager origSM = System.getSecurityManager();
+				boolean interceptExits = AntExitInterceptor.isEnabled();
 				processAntHome(true);
 				try {
-					// set a security manager to disallow system exit and system property setting
-					System.setSecurityManager(new AntSecurityManager(origSM, Thread.currentThread(), false));
+					// disallow system exit and system property setting
+					if (interceptExits) {
+						AntExitInterceptor.restrictCurrentThread(false);
+					} else {
+						System.setSecurityManager(new AntSecurityManager(origSM, Thread.currentThread(), false));
+					}
 					resolveBuildfile();
 					endReporting();
 				}
@@ -385,7 +395,11 @@ public class AntModel implements IAntModel {
 				finally {
 					Thread.currentThread().setContextClassLoader(originalClassLoader);
 					getClassLoader(null);
-					System.setSecurityManager(origSM);
+					if (interceptExits) {
+						AntExitInterceptor.releaseCurrentThread();
+					} else {
+						System.setSecurityManager(origSM);
+					}
 					project.fireBuildFinished(null); // cleanup (IntrospectionHelper)
 				}
 			}
@@ -488,7 +502,7 @@ public class AntModel implements IAntModel {
 	private void loadExtraPropertyFiles(Project project) {
 		if (fPropertyFiles != null) {
 			try {
-				List<Properties> allProperties = AntCoreUtil.loadPropertyFiles(fPropertyFiles, project.getUserProperty("basedir"), getEditedFile().getAbsolutePath()); //$NON-NLS-1$
+				List<Map<String, String>> allProperties = AntCoreUtil.getPropertyFiles(fPropertyFiles, project.getUserProperty("basedir"), getEditedFile().getAbsolutePath()); //$NON-NLS-1$
 				setPropertiesFromFiles(project, allProperties);
 			}
 			catch (IOException e1) {
@@ -503,7 +517,7 @@ public class AntModel implements IAntModel {
 	private void loadPropertyFiles(Project project) {
 		List<String> fileNames = Arrays.asList(AntCorePlugin.getPlugin().getPreferences().getCustomPropertyFiles());
 		try {
-			List<Properties> allProperties = AntCoreUtil.loadPropertyFiles(fileNames, project.getUserProperty("basedir"), getEditedFile().getAbsolutePath()); //$NON-NLS-1$
+			List<Map<String, String>> allProperties = AntCoreUtil.getPropertyFiles(fileNames, project.getUserProperty("basedir"), getEditedFile().getAbsolutePath()); //$NON-NLS-1$
 			setPropertiesFromFiles(project, allProperties);
 		}
 		catch (IOException e1) {
@@ -511,14 +525,12 @@ public class AntModel implements IAntModel {
 		}
 	}
 
-	private void setPropertiesFromFiles(Project project, List<Properties> allProperties) {
-		for (Properties props : allProperties) {
-			Enumeration<?> propertyNames = props.propertyNames();
-			while (propertyNames.hasMoreElements()) {
-				String name = (String) propertyNames.nextElement();
+	private void setPropertiesFromFiles(Project project, List<Map<String, String>> allProperties) {
+		for (Map<String, String> props : allProperties) {
+			for (Entry<String, String> entry : props.entrySet()) {
 				// do not override extra local properties with the global settings
-				if (project.getUserProperty(name) == null) {
-					project.setUserProperty(name, props.getProperty(name));
+				if (project.getUserProperty(entry.getKey()) == null) {
+					project.setUserProperty(entry.getKey(), entry.getValue());
 				}
 			}
 		}
@@ -1531,6 +1543,16 @@ public class AntModel implements IAntModel {
 		return getProjectNode(true);
 	}
 
+	/**
+	 * Returns a stamp that changes each time the model is reconciled, so that what is computed from the project of the model can be kept until the
+	 * stamp changes.
+	 * 
+	 * @return the modification stamp of the model
+	 */
+	public long getModificationStamp() {
+		return fModificationStamp;
+	}
+
 	public AntElementNode getNode(int offset, boolean waitForReconcile) {
 		if (getProjectNode(waitForReconcile) != null) {
 			return getProjectNode(waitForReconcile).getNode(offset);
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2004, 2013 IBM Corporation and others.
+ * Copyright (c) 2004, 2018 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -314,4 +314,18 @@ public class AntTargetNode extends AntElementNode {
 		}
 		return targetNode;
 	}
+
+	/**
+	 * Constructs an AntTargetNode whose label has already been computed, such as a node recreated for a target that was listed before
+	 * 
+	 * @param newTarget
+	 * @param label
+	 *            the label of the node
+	 * @return newly constructed AntTargetNode
+	 */
+	public static AntTargetNode newAntTargetNode(Target newTarget, String label) {
+		AntTargetNode targetNode = newAntTargetNode(newTarget);
+		targetNode.fLabel = label;
+		return targetNode;
+	}
 }
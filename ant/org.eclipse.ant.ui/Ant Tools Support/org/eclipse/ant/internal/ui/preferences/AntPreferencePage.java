@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2015 IBM Corporation and others.
+ * Copyright (c) 2000, 2018 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -165,6 +165,15 @@ public class AntPreferencePage extends FieldEditorPreferencePage implements IWor
 				Integer.valueOf(maxValue) }));
 		addField(timeout);
 
+		// the separate VMs that run the targets of a build at the same time
+		IntegerFieldEditor workerVMs = new AntIntegerFieldEditor(AntLaunching.getUniqueIdentifier(), IAntLaunchingPreferenceConstants.ANT_WORKER_VMS, AntPreferencesMessages.AntPreferencePage_17, getFieldEditorParent(), 1);
+		maxValue = 64;
+		workerVMs.setValidRange(1, maxValue);
+		workerVMs.setValidateStrategy(StringFieldEditor.VALIDATE_ON_KEY_STROKE);
+		workerVMs.setErrorMessage(MessageFormat.format(AntPreferencesMessages.AntPreferencePage_18, new Object[] { Integer.valueOf(1),
+				Integer.valueOf(maxValue) }));
+		addField(workerVMs);
+
 		editor = new URLFieldEditor(IAntUIPreferenceConstants.DOCUMENTATION_URL, AntPreferencesMessages.AntPreferencePage_2, getFieldEditorParent());
 		addField(editor);
 
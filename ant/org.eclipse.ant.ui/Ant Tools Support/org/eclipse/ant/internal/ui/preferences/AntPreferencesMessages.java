@@ -1,5 +1,5 @@
 /**********************************************************************
- * Copyright (c) 2000, 2010 IBM Corporation and others. All rights reserved. This
+ * Copyright (c) 2000, 2018 IBM Corporation and others. All rights reserved. This
  * program and the accompanying materials are made available under the terms of
  * the Eclipse Public License v1.0 which accompanies this distribution, and is
  * available at http://www.eclipse.org/legal/epl-v10.html
@@ -186,4 +186,8 @@ public class AntPreferencesMessages extends NLS {
 	public static String AntPreferencePage_13;
 
 	public static String AntPreferencePage_14;
+
+	public static String AntPreferencePage_17;
+
+	public static String AntPreferencePage_18;
 }
\ No newline at end of file
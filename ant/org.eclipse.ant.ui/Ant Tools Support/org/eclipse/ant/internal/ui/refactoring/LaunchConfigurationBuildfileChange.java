@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2003, 2013 IBM Corporation and others.
+ * Copyright (c) 2003, 2018 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -16,7 +16,7 @@ import java.util.List;
 import org.eclipse.ant.core.AntCorePlugin;
 import org.eclipse.ant.internal.core.IAntCoreConstants;
 import org.eclipse.ant.internal.ui.AntUtil;
-import org.eclipse.ant.launching.IAntLaunchConstants;
+import org.eclipse.ant.internal.ui.launchConfigurations.AntLaunchConfigurationIndex;
 import org.eclipse.core.externaltools.internal.IExternalToolConstants;
 import org.eclipse.core.resources.IContainer;
 import org.eclipse.core.resources.IFile;
@@ -34,9 +34,7 @@ import org.eclipse.core.variables.IStringVariableManager;
 import org.eclipse.core.variables.VariablesPlugin;
 import org.eclipse.debug.core.DebugPlugin;
 import org.eclipse.debug.core.ILaunchConfiguration;
-import org.eclipse.debug.core.ILaunchConfigurationType;
 import org.eclipse.debug.core.ILaunchConfigurationWorkingCopy;
-import org.eclipse.debug.core.ILaunchManager;
 import org.eclipse.jdt.launching.IJavaLaunchConfigurationConstants;
 import org.eclipse.ltk.core.refactoring.Change;
 import org.eclipse.ltk.core.refactoring.CompositeChange;
@@ -62,7 +60,7 @@ public class LaunchConfigurationBuildfileChange extends Change {
 	 */
 	public static Change createChangesForProjectRename(IProject project, String newProjectName) throws CoreException {
 		String projectName = project.getDescription().getName();
-		ILaunchConfiguration[] configs = getAntLaunchConfigurations();
+		ILaunchConfiguration[] configs = AntLaunchConfigurationIndex.getDefault().getConfigurationsOfProject(projectName);
 		List<Change> changes = createChangesForProjectRename(configs, projectName, newProjectName);
 		return createChangeFromList(changes, RefactoringMessages.LaunchConfigurationBuildfileChange_7);
 	}
@@ -86,19 +84,11 @@ public class LaunchConfigurationBuildfileChange extends Change {
 		if (contentType == null || !AntCorePlugin.ANT_BUILDFILE_CONTENT_TYPE.equals(contentType.getId())) {
 			return null; // not an Ant buildfile
 		}
-		ILaunchConfiguration[] configs = getAntLaunchConfigurations();
+		ILaunchConfiguration[] configs = AntLaunchConfigurationIndex.getDefault().getConfigurationsOfProject(file.getProject().getName());
 		List<Change> changes = createChangesForBuildfileRename(file, configs, file.getProject().getName(), newBuildfileName);
 		return createChangeFromList(changes, RefactoringMessages.LaunchConfigurationBuildfileChange_7);
 	}
 
-	private static ILaunchConfiguration[] getAntLaunchConfigurations() throws CoreException {
-		ILaunchManager manager = DebugPlugin.getDefault().getLaunchManager();
-		// Ant launch configurations
-		ILaunchConfigurationType configurationType = manager.getLaunchConfigurationType(IAntLaunchConstants.ID_ANT_LAUNCH_CONFIGURATION_TYPE);
-		ILaunchConfiguration[] configs = manager.getLaunchConfigurations(configurationType);
-		return configs;
-	}
-
 	/**
 	 * Take a list of Changes, and return a unique Change, a CompositeChange, or null.
 	 */